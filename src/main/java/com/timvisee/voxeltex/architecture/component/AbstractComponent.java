@@ -38,6 +38,22 @@ public abstract class AbstractComponent {
      */
     private EnabledState enabled = EnabledState.UNDEFINED;
 
+    /**
+     * Index of this component in the registry list of each of it's types, or null if it isn't registered.
+     * The indexes are ordered like the types returned by {@link ComponentTypes#getTypes(Class)}.
+     */
+    int[] registryIndexes = null;
+
+    /**
+     * Index of this component in the update list of the registry, or -1 if it isn't in the update list.
+     */
+    int registryUpdateIndex = -1;
+
+    /**
+     * Index of this component in the drawable list of the scene draw lists, or -1 if it isn't listed.
+     */
+    private int drawableIndex = -1;
+
     /**
      * Check whether this component is enabled.
      * If the enabled state is yet undefined, false will be returned.
@@ -69,6 +85,10 @@ public abstract class AbstractComponent {
         // Set the new state
         this.enabled = enabled ? EnabledState.ENABLED : EnabledState.DISABLED;
 
+        // Invalidate the draw lists of the scene
+        if(change && getOwner() != null && getScene() != null)
+            getScene().getDrawLists().invalidate(this);
+
         // Call the onEnable or onDisable method accordingly
         // TODO: Only call this if the component has started?
         if(change) {
@@ -79,6 +99,26 @@ public abstract class AbstractComponent {
         }
     }
 
+    /**
+     * Get the index of this component in the drawable list of the scene draw lists.
+     * This is maintained by the draw lists, so they can remove the component without searching for it.
+     *
+     * @return Drawable list index, or -1 if the component isn't listed.
+     */
+    public int getDrawableIndex() {
+        return this.drawableIndex;
+    }
+
+    /**
+     * Set the index of this component in the drawable list of the scene draw lists.
+     * This should only be called by the draw lists.
+     *
+     * @param drawableIndex Drawable list index, or -1 if the component isn't listed.
+     */
+    public void setDrawableIndex(int drawableIndex) {
+        this.drawableIndex = drawableIndex;
+    }
+
     /**
      * Get the game object owner/parent of this component.
      *
@@ -253,6 +293,20 @@ public abstract class AbstractComponent {
      */
     public abstract void update();
 
+    /**
+     * Check whether the update of this component is thread safe.
+     *
+     * Thread safe components are updated from worker threads when the scene uses parallel updates, concurrently with
+     * the components of other root game objects. Such components may only modify state inside the subtree of their
+     * root game object, and must not use the physics engine, the light manager or make any GL calls.
+     * Components that aren't thread safe are updated on the main thread afterwards.
+     *
+     * @return True if thread safe, false if not.
+     */
+    public boolean isThreadSafe() {
+        return false;
+    }
+
     /**
      * Destroy the component.
      * This will remove the component from the owning game object automatically before the next update.
@@ -0,0 +1,211 @@
+/******************************************************************************
+ * Copyright (c) Tim Visee 2016. All rights reserved.                         *
+ *                                                                            *
+ * @author Tim Visee                                                          *
+ * @website http://timvisee.com/                                              *
+ *                                                                            *
+ * Open Source != No Copyright                                                *
+ *                                                                            *
+ * Permission is hereby granted, free of charge, to any person obtaining a    *
+ * copy of this software and associated documentation files (the "Software"), *
+ * to deal in the Software without restriction, including without limitation  *
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,   *
+ * and/or sell copies of the Software, and to permit persons to whom the      *
+ * Software is furnished to do so, subject to the following conditions:       *
+ *                                                                            *
+ * The above copyright notice and this permission notice shall be included    *
+ * in all copies or substantial portions of the Software.                     *
+ *                                                                            *
+ * You should have received a copy of The MIT License (MIT) along with this   *
+ * program. If not, see <http://opensource.org/licenses/MIT/>.                *
+ ******************************************************************************/
+
+
+package com.timvisee.voxeltex.architecture.component;
+
+import com.timvisee.voxeltex.architecture.gameobject.AbstractGameObject;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class ComponentRegistry {
+
+    /**
+     * All live components in the scene, indexed by each of their types.
+     */
+    private final Map<Class<?>, List<AbstractComponent>> components = new HashMap<>();
+
+    /**
+     * All live components that must be updated each frame.
+     */
+    private final List<AbstractComponent> updateComponents = new ArrayList<>();
+
+    /**
+     * Unmodifiable view of the update list.
+     */
+    private final List<AbstractComponent> updateComponentsView = Collections.unmodifiableList(this.updateComponents);
+
+    /**
+     * Version of the registry, incremented each time a component is registered or unregistered.
+     */
+    private int version = 0;
+
+    /**
+     * Register the given component.
+     *
+     * @param component Component to register.
+     */
+    public void register(AbstractComponent component) {
+        // Make sure the component isn't registered already
+        if(component.registryIndexes != null)
+            return;
+
+        // Bump the version
+        this.version++;
+
+        // Add the component to the list of each type, and store it's index in each list
+        final Class<?>[] types = ComponentTypes.getTypes(component.getClass());
+        final int[] indexes = new int[types.length];
+        for(int i = 0; i < types.length; i++) {
+            List<AbstractComponent> list = this.components.get(types[i]);
+            if(list == null) {
+                list = new ArrayList<>();
+                this.components.put(types[i], list);
+            }
+            indexes[i] = list.size();
+            list.add(component);
+        }
+        component.registryIndexes = indexes;
+
+        // Add the component to the update list if it has any update behavior
+        if(ComponentTypes.hasUpdate(component.getClass())) {
+            component.registryUpdateIndex = this.updateComponents.size();
+            this.updateComponents.add(component);
+        }
+    }
+
+    /**
+     * Unregister the given component.
+     *
+     * @param component Component to unregister.
+     */
+    public void unregister(AbstractComponent component) {
+        // Make sure the component is registered
+        final int[] indexes = component.registryIndexes;
+        if(indexes == null)
+            return;
+
+        // Bump the version
+        this.version++;
+
+        // Remove the component from the list of each type, by moving the last component of the list into it's place
+        final Class<?>[] types = ComponentTypes.getTypes(component.getClass());
+        for(int i = 0; i < types.length; i++) {
+            final List<AbstractComponent> list = this.components.get(types[i]);
+            final AbstractComponent last = list.remove(list.size() - 1);
+            if(last == component)
+                continue;
+            list.set(indexes[i], last);
+
+            // Update the stored index of the moved component for this type
+            final Class<?>[] lastTypes = ComponentTypes.getTypes(last.getClass());
+            for(int j = 0; j < lastTypes.length; j++) {
+                if(lastTypes[j] == types[i]) {
+                    last.registryIndexes[j] = indexes[i];
+                    break;
+                }
+            }
+        }
+        component.registryIndexes = null;
+
+        // Remove the component from the update list the same way
+        final int updateIndex = component.registryUpdateIndex;
+        if(updateIndex >= 0) {
+            final AbstractComponent last = this.updateComponents.remove(this.updateComponents.size() - 1);
+            if(last != component) {
+                this.updateComponents.set(updateIndex, last);
+                last.registryUpdateIndex = updateIndex;
+            }
+            component.registryUpdateIndex = -1;
+        }
+    }
+
+    /**
+     * Get the version of the registry.
+     * The version changes each time a component is registered or unregistered.
+     *
+     * @return Registry version.
+     */
+    public int getVersion() {
+        return this.version;
+    }
+
+    /**
+     * Register all components of the given game object and it's children.
+     *
+     * @param gameObject Root game object.
+     */
+    public void registerHierarchy(AbstractGameObject gameObject) {
+        // Register all components
+        //noinspection ForLoopReplaceableByForEach
+        for(int i = 0, size = gameObject.getComponents().size(); i < size; i++)
+            register(gameObject.getComponents().get(i));
+
+        // Register all children
+        //noinspection ForLoopReplaceableByForEach
+        for(int i = 0, size = gameObject.getChildren().size(); i < size; i++)
+            registerHierarchy(gameObject.getChildren().get(i));
+    }
+
+    /**
+     * Unregister all components of the given game object and it's children.
+     *
+     * @param gameObject Root game object.
+     */
+    public void unregisterHierarchy(AbstractGameObject gameObject) {
+        // Unregister all components
+        //noinspection ForLoopReplaceableByForEach
+        for(int i = 0, size = gameObject.getComponents().size(); i < size; i++)
+            unregister(gameObject.getComponents().get(i));
+
+        // Unregister all children
+        //noinspection ForLoopReplaceableByForEach
+        for(int i = 0, size = gameObject.getChildren().size(); i < size; i++)
+            unregisterHierarchy(gameObject.getChildren().get(i));
+    }
+
+    /**
+     * Get all live components that must be updated each frame.
+     * Components of which the update method is marked with {@link EmptyUpdate} aren't included.
+     * Components are in registration order, except that unregistering a component moves the last component of the list
+     * into it's place.
+     *
+     * @return Unmodifiable list of components.
+     */
+    public List<AbstractComponent> getUpdateComponents() {
+        return this.updateComponentsView;
+    }
+
+    /**
+     * Get all live components of the given type.
+     * Components are matched on their class, super classes and interfaces.
+     *
+     * @param componentType Component type.
+     * @param <T> Component type.
+     *
+     * @return Unmodifiable list of components, which is empty if no component was found.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> List<T> getComponents(Class<T> componentType) {
+        // Get the list for the given type
+        final List<AbstractComponent> list = this.components.get(componentType);
+        if(list == null)
+            return Collections.emptyList();
+
+        // Return an unmodifiable view
+        return (List<T>) Collections.unmodifiableList(list);
+    }
+}
@@ -0,0 +1,190 @@
+/******************************************************************************
+ * Copyright (c) Tim Visee 2016. All rights reserved.                         *
+ *                                                                            *
+ * @author Tim Visee                                                          *
+ * @website http://timvisee.com/                                              *
+ *                                                                            *
+ * Open Source != No Copyright                                                *
+ *                                                                            *
+ * Permission is hereby granted, free of charge, to any person obtaining a    *
+ * copy of this software and associated documentation files (the "Software"), *
+ * to deal in the Software without restriction, including without limitation  *
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,   *
+ * and/or sell copies of the Software, and to permit persons to whom the      *
+ * Software is furnished to do so, subject to the following conditions:       *
+ *                                                                            *
+ * The above copyright notice and this permission notice shall be included    *
+ * in all copies or substantial portions of the Software.                     *
+ *                                                                            *
+ * You should have received a copy of The MIT License (MIT) along with this   *
+ * program. If not, see <http://opensource.org/licenses/MIT/>.                *
+ ******************************************************************************/
+
+
+package com.timvisee.voxeltex.architecture.component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ComponentRegistryTest {
+
+    @org.junit.Test
+    public void swapRemove() throws Exception {
+        // Register a random mix of components
+        final ComponentRegistry registry = new ComponentRegistry();
+        final Random random = new Random(1);
+        final List<AbstractComponent> registered = new ArrayList<>();
+        for(int i = 0; i < 300; i++) {
+            final AbstractComponent component = createComponent(random.nextInt(3));
+            registry.register(component);
+            registered.add(component);
+        }
+        assertConsistent(registry, registered);
+
+        // Unregister components in random order, and register new ones in between
+        Collections.shuffle(registered, random);
+        while(!registered.isEmpty()) {
+            final AbstractComponent component = registered.remove(registered.size() - 1);
+            registry.unregister(component);
+            assertNull(component.registryIndexes);
+            assertEquals(-1, component.registryUpdateIndex);
+            if(random.nextInt(5) == 0) {
+                final AbstractComponent added = createComponent(random.nextInt(3));
+                registry.register(added);
+                registered.add(0, added);
+            }
+            assertConsistent(registry, registered);
+        }
+    }
+
+    @org.junit.Test
+    public void updateList() throws Exception {
+        // Only components with update behavior are added to the update list
+        final ComponentRegistry registry = new ComponentRegistry();
+        final AbstractComponent updating = new UpdatingComponent();
+        final AbstractComponent idle = new IdleComponent();
+        registry.register(updating);
+        registry.register(idle);
+        assertEquals(1, registry.getUpdateComponents().size());
+        assertSame(updating, registry.getUpdateComponents().get(0));
+        assertEquals(-1, idle.registryUpdateIndex);
+    }
+
+    @org.junit.Test
+    public void version() throws Exception {
+        // Only actual changes bump the version
+        final ComponentRegistry registry = new ComponentRegistry();
+        final AbstractComponent component = new UpdatingComponent();
+        final int version = registry.getVersion();
+        registry.register(component);
+        registry.register(component);
+        assertEquals(version + 1, registry.getVersion());
+        registry.unregister(component);
+        registry.unregister(component);
+        assertEquals(version + 2, registry.getVersion());
+        assertTrue(registry.getComponents(UpdatingComponent.class).isEmpty());
+    }
+
+    /**
+     * Create a test component.
+     *
+     * @param type Component type, zero for an updating component, one for an idle component,
+     *             and two for a marked updating component.
+     *
+     * @return Component.
+     */
+    private static AbstractComponent createComponent(int type) {
+        switch(type) {
+            case 0:
+                return new UpdatingComponent();
+            case 1:
+                return new IdleComponent();
+            default:
+                return new MarkedComponent();
+        }
+    }
+
+    /**
+     * Assert that the registry contains exactly the given components,
+     * and that each stored index points to the component itself.
+     *
+     * @param registry Registry.
+     * @param registered Registered components.
+     */
+    private static void assertConsistent(ComponentRegistry registry, List<AbstractComponent> registered) {
+        // Check the list of each type
+        for(Class<?> type : new Class<?>[]{BaseComponent.class, UpdatingComponent.class, IdleComponent.class,
+                MarkedComponent.class, Marker.class}) {
+            final List<?> list = registry.getComponents(type);
+            final Set<Object> expected = new HashSet<>();
+            for(AbstractComponent component : registered)
+                if(type.isInstance(component))
+                    expected.add(component);
+            assertEquals(expected, new HashSet<>(list));
+            assertEquals(expected.size(), list.size());
+
+            // Each component must know it's index in this list
+            for(int i = 0; i < list.size(); i++) {
+                final AbstractComponent component = (AbstractComponent) list.get(i);
+                final Class<?>[] types = ComponentTypes.getTypes(component.getClass());
+                for(int j = 0; j < types.length; j++)
+                    if(types[j] == type)
+                        assertEquals(i, component.registryIndexes[j]);
+            }
+        }
+
+        // Check the update list and it's indexes
+        final List<AbstractComponent> updates = registry.getUpdateComponents();
+        int updating = 0;
+        for(AbstractComponent component : registered)
+            if(!(component instanceof IdleComponent))
+                updating++;
+        assertEquals(updating, updates.size());
+        for(int i = 0; i < updates.size(); i++)
+            assertEquals(i, updates.get(i).registryUpdateIndex);
+    }
+
+    /**
+     * Marker interface for test components.
+     */
+    private interface Marker { }
+
+    /**
+     * Component with update behavior.
+     */
+    private static class UpdatingComponent extends BaseComponent {
+
+        @Override
+        public void create() { }
+
+        @Override
+        public void update() { }
+    }
+
+    /**
+     * Component without update behavior.
+     */
+    private static class IdleComponent extends BaseComponent implements Marker {
+
+        @Override
+        public void create() { }
+
+        @EmptyUpdate
+        @Override
+        public void update() { }
+    }
+
+    /**
+     * Component with update behavior, registered under an additional interface type.
+     */
+    private static class MarkedComponent extends UpdatingComponent implements Marker { }
+}
@@ -0,0 +1,112 @@
+/******************************************************************************
+ * Copyright (c) Tim Visee 2016. All rights reserved.                         *
+ *                                                                            *
+ * @author Tim Visee                                                          *
+ * @website http://timvisee.com/                                              *
+ *                                                                            *
+ * Open Source != No Copyright                                                *
+ *                                                                            *
+ * Permission is hereby granted, free of charge, to any person obtaining a    *
+ * copy of this software and associated documentation files (the "Software"), *
+ * to deal in the Software without restriction, including without limitation  *
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,   *
+ * and/or sell copies of the Software, and to permit persons to whom the      *
+ * Software is furnished to do so, subject to the following conditions:       *
+ *                                                                            *
+ * The above copyright notice and this permission notice shall be included    *
+ * in all copies or substantial portions of the Software.                     *
+ *                                                                            *
+ * You should have received a copy of The MIT License (MIT) along with this   *
+ * program. If not, see <http://opensource.org/licenses/MIT/>.                *
+ ******************************************************************************/
+
+
+package com.timvisee.voxeltex.architecture.component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class ComponentTypes {
+
+    /**
+     * Cache of the resolved types for each component class.
+     */
+    private static final Map<Class<?>, Class<?>[]> TYPE_CACHE = new ConcurrentHashMap<>();
+
+    /**
+     * Cache of whether each component class has an update method that does anything.
+     */
+    private static final Map<Class<?>, Boolean> UPDATE_CACHE = new ConcurrentHashMap<>();
+
+    /**
+     * Get all types a component of the given class can be looked up by.
+     * This includes the class itself, all it's super classes up to {@link AbstractComponent}, and all interfaces
+     * implemented by any of these classes. The result is cached for each class.
+     *
+     * @param componentClass Component class.
+     *
+     * @return Array of types, which must not be modified.
+     */
+    public static Class<?>[] getTypes(Class<? extends AbstractComponent> componentClass) {
+        // Return the cached types if available
+        Class<?>[] types = TYPE_CACHE.get(componentClass);
+        if(types != null)
+            return types;
+
+        // Collect all classes and interfaces
+        List<Class<?>> typeList = new ArrayList<>();
+        for(Class<?> type = componentClass; type != null && type != Object.class; type = type.getSuperclass()) {
+            typeList.add(type);
+            addInterfaces(type, typeList);
+        }
+
+        // Cache and return the types
+        types = typeList.toArray(new Class<?>[typeList.size()]);
+        TYPE_CACHE.put(componentClass, types);
+        return types;
+    }
+
+    /**
+     * Check whether components of the given class have an update method that does anything.
+     * This is false if the update method of the class is marked with {@link EmptyUpdate}.
+     * The result is cached for each class.
+     *
+     * @param componentClass Component class.
+     *
+     * @return True if the component must be updated each frame, false if not.
+     */
+    public static boolean hasUpdate(Class<? extends AbstractComponent> componentClass) {
+        // Return the cached result if available
+        Boolean hasUpdate = UPDATE_CACHE.get(componentClass);
+        if(hasUpdate != null)
+            return hasUpdate;
+
+        // Check whether the update method is marked as empty
+        try {
+            hasUpdate = !componentClass.getMethod("update").isAnnotationPresent(EmptyUpdate.class);
+        } catch(NoSuchMethodException e) {
+            hasUpdate = true;
+        }
+
+        // Cache and return the result
+        UPDATE_CACHE.put(componentClass, hasUpdate);
+        return hasUpdate;
+    }
+
+    /**
+     * Add all interfaces of the given type, and their super interfaces to the list.
+     *
+     * @param type Type.
+     * @param typeList List to add the interfaces to.
+     */
+    private static void addInterfaces(Class<?> type, List<Class<?>> typeList) {
+        for(Class<?> interfaceType : type.getInterfaces()) {
+            if(!typeList.contains(interfaceType)) {
+                typeList.add(interfaceType);
+                addInterfaces(interfaceType, typeList);
+            }
+        }
+    }
+}
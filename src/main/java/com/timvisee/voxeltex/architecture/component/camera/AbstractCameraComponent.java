@@ -23,6 +23,7 @@
 package com.timvisee.voxeltex.architecture.component.camera;
 
 import com.timvisee.voxeltex.architecture.component.BaseComponent;
+import com.timvisee.voxeltex.architecture.component.EmptyUpdate;
 import org.joml.Matrix4f;
 
 public abstract class AbstractCameraComponent extends BaseComponent {
@@ -31,6 +32,7 @@ public abstract class AbstractCameraComponent extends BaseComponent {
     public void create() { }
 
     @Override
+    @EmptyUpdate
     public synchronized void update() { }
 
     /**
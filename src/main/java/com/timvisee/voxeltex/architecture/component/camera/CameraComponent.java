@@ -24,6 +24,7 @@ package com.timvisee.voxeltex.architecture.component.camera;
 
 import com.timvisee.voxeltex.runtime.global.MainCamera;
 import org.joml.Matrix4f;
+import org.joml.Quaternionf;
 import org.joml.Vector3f;
 import org.lwjgl.BufferUtils;
 
@@ -38,6 +39,16 @@ public class CameraComponent extends AbstractCameraComponent {
      */
     private FloatBuffer fb = BufferUtils.createFloatBuffer(16);
 
+    /**
+     * Temporary position variable, used to read the camera position without handing out the transform state.
+     */
+    private final Vector3f tempPosition = new Vector3f();
+
+    /**
+     * Temporary rotation variable, used to read the camera rotation without handing out the transform state.
+     */
+    private final Quaternionf tempRotation = new Quaternionf();
+
     @Override
     public void start() {
         // Call the super
@@ -63,10 +74,10 @@ public class CameraComponent extends AbstractCameraComponent {
     @Override
     public Matrix4f apply(Matrix4f m) {
         // Get the camera position
-        Vector3f pos = getTransform().getPosition();
+        Vector3f pos = getTransform().getPosition(this.tempPosition);
 
         // Apply the camera transformation to the matrix
-        return m.rotate(getTransform().getRotation()).translate(-pos.x, -pos.y, -pos.z);
+        return m.rotate(getTransform().getRotation(this.tempRotation)).translate(-pos.x, -pos.y, -pos.z);
     }
 
     @Override
@@ -23,6 +23,7 @@
 package com.timvisee.voxeltex.architecture.component.camera;
 
 import com.timvisee.voxeltex.runtime.global.Input;
+import org.joml.Quaternionf;
 import org.joml.Vector3f;
 
 import static org.lwjgl.glfw.GLFW.*;
@@ -41,6 +42,11 @@ public class FpsCameraComponent extends MouseLookCameraComponent {
     @SuppressWarnings("FieldCanBeLocal")
     private float flySpeedFast = 100.0f;
 
+    /**
+     * Temporary rotation variable, used to read the rotation without handing out the transform state.
+     */
+    private final Quaternionf tempRotation = new Quaternionf();
+
     @Override
     public void updateCamera() {
         // Update the super camera
@@ -60,7 +66,7 @@ public class FpsCameraComponent extends MouseLookCameraComponent {
         );
 
         // Rotate the linear velocity vector based on the rotation of the object
-        target.rotate(getTransform().getRotation());
+        target.rotate(getTransform().getRotation(this.tempRotation));
 
         // Add the vertical movement
         target.add(
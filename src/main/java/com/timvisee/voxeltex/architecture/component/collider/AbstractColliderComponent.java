@@ -24,6 +24,7 @@ package com.timvisee.voxeltex.architecture.component.collider;
 
 import com.bulletphysics.collision.shapes.CollisionShape;
 import com.timvisee.voxeltex.architecture.component.BaseComponent;
+import com.timvisee.voxeltex.architecture.component.EmptyUpdate;
 import com.timvisee.voxeltex.util.math.vector.Vector3fFactory;
 import org.joml.Vector3f;
 
@@ -44,6 +45,7 @@ public abstract class AbstractColliderComponent extends BaseComponent implements
     }
 
     @Override
+    @EmptyUpdate
     public void update() { }
 
     /**
@@ -24,6 +24,7 @@ package com.timvisee.voxeltex.architecture.component.collider;
 
 import com.bulletphysics.collision.shapes.*;
 import com.timvisee.voxeltex.module.mesh.RawMesh;
+import com.timvisee.voxeltex.module.mesh.baked.BakedMesh;
 import com.timvisee.voxeltex.util.BufferUtil;
 
 import java.nio.ByteOrder;
@@ -36,6 +37,11 @@ public class MeshColliderComponent extends AbstractColliderComponent {
      */
     private RawMesh rawMesh = null;
 
+    /**
+     * Baked mesh to use as collider, used if no raw mesh is set.
+     */
+    private BakedMesh bakedMesh = null;
+
     /**
      * Bullet physics engine shape representation.
      */
@@ -50,33 +56,72 @@ public class MeshColliderComponent extends AbstractColliderComponent {
         this.rawMesh = rawMesh;
     }
 
+    /**
+     * Constructor.
+     * The collision shape references the vertex and index data of the baked mesh directly.
+     *
+     * @param bakedMesh Baked mesh to use as collider.
+     */
+    public MeshColliderComponent(BakedMesh bakedMesh) {
+        this.bakedMesh = bakedMesh;
+    }
+
     /**
      * Get the raw mesh.
      *
-     * @return Raw mesh.
+     * @return Raw mesh, or null if a baked mesh is used.
      */
     public RawMesh getRawMesh() {
         return this.rawMesh;
     }
 
+    /**
+     * Get the baked mesh.
+     *
+     * @return Baked mesh, or null if a raw mesh is used.
+     */
+    public BakedMesh getBakedMesh() {
+        return this.bakedMesh;
+    }
+
     @Override
     public CollisionShape getBulletShape() {
         // Make sure the bullet shape has been configured
-        if(this.meshShape == null) {
+        if(this.meshShape == null && this.rawMesh == null) {
+            // Configure the indexed mesh to read the interleaved positions and indexes of the baked mesh in place
+            IndexedMesh indexedMesh = new IndexedMesh();
+            indexedMesh.numTriangles = bakedMesh.getTriangleCount();
+            indexedMesh.triangleIndexBase = bakedMesh.getIndexData();
+            indexedMesh.triangleIndexStride = 3 * bakedMesh.getIndexSize();
+            indexedMesh.numVertices = bakedMesh.getVertexCount();
+            indexedMesh.vertexBase = bakedMesh.getVertexData();
+            indexedMesh.vertexStride = bakedMesh.getFormat().getStride();
+
+            // Create the triangle index vertex array and add the indexed mesh with the proper index type
+            TriangleIndexVertexArray mesh = new TriangleIndexVertexArray();
+            mesh.addIndexedMesh(indexedMesh, bakedMesh.hasIntIndexes() ? ScalarType.INTEGER : ScalarType.SHORT);
+
+            // Create the final mesh shape
+            this.meshShape = new BvhTriangleMeshShape(mesh, true);
+
+        } else if(this.meshShape == null) {
             // Configure the indexed mesh
             IndexedMesh indexedMesh = new IndexedMesh();
-            indexedMesh.numTriangles = rawMesh.getVertexCount() / 3;
-            indexedMesh.triangleIndexBase = BufferUtil.createByteBuffer(rawMesh.getVertexCount() * 4).order(ByteOrder.nativeOrder());
+            indexedMesh.numTriangles = rawMesh.getTriangleCount();
+            indexedMesh.triangleIndexBase = BufferUtil.createByteBuffer(rawMesh.getTriangleCount() * 3 * 4).order(ByteOrder.nativeOrder());
             indexedMesh.triangleIndexStride = 3 * 4;
             indexedMesh.numVertices = rawMesh.getVertexCount();
             indexedMesh.vertexBase = BufferUtil.createByteBuffer(rawMesh.getVertexCount() * 3 * 4).order(ByteOrder.nativeOrder());
             indexedMesh.vertexBase.asFloatBuffer().put(rawMesh.getVertexes());
             indexedMesh.vertexStride = 3 * 4;
 
-            // Put the proper indexes in the index base
+            // Put the indexes of the mesh in the index base, or the vertexes in order if the mesh isn't indexed
             IntBuffer buff = indexedMesh.triangleIndexBase.asIntBuffer();
-            for(int i = 0, size = indexedMesh.numTriangles * 3; i < size; i++)
-                buff.put(i);
+            if(rawMesh.hasIndexData())
+                buff.put(rawMesh.getIndexes(), 0, indexedMesh.numTriangles * 3);
+            else
+                for(int i = 0, size = indexedMesh.numTriangles * 3; i < size; i++)
+                    buff.put(i);
 
             // Create the triangle index vertex array and add the indexed mesh
             TriangleIndexVertexArray mesh = new TriangleIndexVertexArray();
@@ -23,6 +23,7 @@
 package com.timvisee.voxeltex.architecture.component.drawable;
 
 import com.timvisee.voxeltex.architecture.component.BaseComponent;
+import com.timvisee.voxeltex.architecture.component.EmptyUpdate;
 
 public abstract class AbstractDrawableComponent extends BaseComponent implements DrawableComponentInterface {
 
@@ -36,5 +37,6 @@ public abstract class AbstractDrawableComponent extends BaseComponent implements
     }
 
     @Override
+    @EmptyUpdate
     public synchronized void update() { }
 }
@@ -0,0 +1,68 @@
+/******************************************************************************
+ * Copyright (c) Tim Visee 2016. All rights reserved.                         *
+ *                                                                            *
+ * @author Tim Visee                                                          *
+ * @website http://timvisee.com/                                              *
+ *                                                                            *
+ * Open Source != No Copyright                                                *
+ *                                                                            *
+ * Permission is hereby granted, free of charge, to any person obtaining a    *
+ * copy of this software and associated documentation files (the "Software"), *
+ * to deal in the Software without restriction, including without limitation  *
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,   *
+ * and/or sell copies of the Software, and to permit persons to whom the      *
+ * Software is furnished to do so, subject to the following conditions:       *
+ *                                                                            *
+ * The above copyright notice and this permission notice shall be included    *
+ * in all copies or substantial portions of the Software.                     *
+ *                                                                            *
+ * You should have received a copy of The MIT License (MIT) along with this   *
+ * program. If not, see <http://opensource.org/licenses/MIT/>.                *
+ ******************************************************************************/
+
+
+package com.timvisee.voxeltex.architecture.component.drawable;
+
+import org.joml.Vector3f;
+
+public interface CullableComponentInterface {
+
+    /**
+     * Check whether this component currently has world space bounds.
+     * Components without bounds are never culled.
+     *
+     * @return True if bounds are available, false if not.
+     */
+    boolean hasWorldBounds();
+
+    /**
+     * Get the minimum corner of the axis aligned bounding box in world space.
+     * The returned vector must not be modified.
+     *
+     * @return Minimum world bounds.
+     */
+    Vector3f getWorldBoundsMin();
+
+    /**
+     * Get the maximum corner of the axis aligned bounding box in world space.
+     * The returned vector must not be modified.
+     *
+     * @return Maximum world bounds.
+     */
+    Vector3f getWorldBoundsMax();
+
+    /**
+     * Get the center of the bounding sphere in world space.
+     * The returned vector must not be modified.
+     *
+     * @return World bounding sphere center.
+     */
+    Vector3f getWorldBoundsCenter();
+
+    /**
+     * Get the radius of the bounding sphere in world space.
+     *
+     * @return World bounding sphere radius.
+     */
+    float getWorldBoundsRadius();
+}
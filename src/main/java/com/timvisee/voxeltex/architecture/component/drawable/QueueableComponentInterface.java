@@ -0,0 +1,84 @@
+/******************************************************************************
+ * Copyright (c) Tim Visee 2016. All rights reserved.                         *
+ *                                                                            *
+ * @author Tim Visee                                                          *
+ * @website http://timvisee.com/                                              *
+ *                                                                            *
+ * Open Source != No Copyright                                                *
+ *                                                                            *
+ * Permission is hereby granted, free of charge, to any person obtaining a    *
+ * copy of this software and associated documentation files (the "Software"), *
+ * to deal in the Software without restriction, including without limitation  *
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,   *
+ * and/or sell copies of the Software, and to permit persons to whom the      *
+ * Software is furnished to do so, subject to the following conditions:       *
+ *                                                                            *
+ * The above copyright notice and this permission notice shall be included    *
+ * in all copies or substantial portions of the Software.                     *
+ *                                                                            *
+ * You should have received a copy of The MIT License (MIT) along with this   *
+ * program. If not, see <http://opensource.org/licenses/MIT/>.                *
+ ******************************************************************************/
+
+package com.timvisee.voxeltex.architecture.component.drawable;
+
+import com.timvisee.voxeltex.engine.render.InstanceBuffer;
+import com.timvisee.voxeltex.module.material.Material;
+import com.timvisee.voxeltex.module.mesh.Mesh;
+import com.timvisee.voxeltex.module.shader.Shader;
+
+public interface QueueableComponentInterface {
+
+    /**
+     * Check whether this component can currently be drawn through the render queue.
+     * Components that aren't queueable are drawn directly instead.
+     *
+     * @return True if queueable, false if not.
+     */
+    boolean isQueueable();
+
+    /**
+     * Get the material that is used for the queued draw.
+     *
+     * @return Material.
+     */
+    Material getQueueMaterial();
+
+    /**
+     * Get the mesh that is used for the queued draw.
+     *
+     * @return Mesh.
+     */
+    Mesh getQueueMesh();
+
+    /**
+     * Check whether the queued draw is transparent, and must be drawn from back to front after all opaque draws.
+     *
+     * @return True if transparent, false if opaque.
+     */
+    boolean isQueueTransparent();
+
+    /**
+     * Draw the component from the render queue.
+     * The shader and material are already bound and updated, and the model view matrix is already loaded,
+     * so only the uniforms of this component must be sent before drawing the mesh.
+     *
+     * @param shader Bound shader of the material.
+     */
+    void drawQueued(Shader shader);
+
+    /**
+     * Check whether the queued draw may be combined with other draws sharing the same mesh and material,
+     * into a single instanced draw.
+     *
+     * @return True if instanceable, false if not.
+     */
+    boolean isQueueInstanceable();
+
+    /**
+     * Write the per instance data of this component, for an instanced draw.
+     *
+     * @param buffer Instance buffer to write to.
+     */
+    void writeInstance(InstanceBuffer buffer);
+}
@@ -23,6 +23,7 @@
 package com.timvisee.voxeltex.architecture.component.light;
 
 import com.timvisee.voxeltex.architecture.component.BaseComponent;
+import com.timvisee.voxeltex.architecture.component.EmptyUpdate;
 
 public abstract class AbstractLightSourceComponent extends BaseComponent implements LightSourceComponentInterface {
 
@@ -36,5 +37,6 @@ public abstract class AbstractLightSourceComponent extends BaseComponent impleme
     }
 
     @Override
+    @EmptyUpdate
     public synchronized void update() { }
 }
@@ -48,6 +48,11 @@ public class LightSourceComponent extends AbstractLightSourceComponent {
      */
     private float lightBrightnessBuffer = -1f;
 
+    /**
+     * The transform world version the light position was last updated for.
+     */
+    private int lightWorldVersion = -1;
+
     /**
      * Constructor.
      */
@@ -126,8 +131,12 @@ public class LightSourceComponent extends AbstractLightSourceComponent {
 
     @Override
     public synchronized void update() {
-        // Update the position of the light
-        this.light.updatePosition(getOwner());
+        // Update the position of the light, if the world transform of the owner changed
+        final int worldVersion = getTransform().getWorldVersion();
+        if(worldVersion != this.lightWorldVersion) {
+            this.light.updatePosition(getOwner());
+            this.lightWorldVersion = worldVersion;
+        }
     }
 
     @Override
@@ -158,6 +167,7 @@ public class LightSourceComponent extends AbstractLightSourceComponent {
                 this.lightColorBuffer != null ? this.lightColorBuffer : new Vector3f(1.0f, 0.9f, 0.9f),
                 this.lightBrightnessBuffer >= 0 ? this.lightBrightnessBuffer : 1f
         );
+        this.lightWorldVersion = -1;
     }
 
     @Override
@@ -190,7 +200,7 @@ public class LightSourceComponent extends AbstractLightSourceComponent {
 
     @Override
     public Vector3f getLightColor() {
-        return this.light.getColor();
+        return this.light.getColor(new Vector3f());
     }
 
     @Override
@@ -23,6 +23,7 @@
 package com.timvisee.voxeltex.architecture.component.mesh.filter;
 
 import com.timvisee.voxeltex.architecture.component.BaseComponent;
+import com.timvisee.voxeltex.architecture.component.EmptyUpdate;
 
 public abstract class AbstractMeshFilterComponent extends BaseComponent implements MeshFilterComponentInterface {
 
@@ -36,6 +37,7 @@ public abstract class AbstractMeshFilterComponent extends BaseComponent implemen
     }
 
     @Override
+    @EmptyUpdate
     public synchronized void update() { }
 
     @Override
@@ -23,6 +23,7 @@
 package com.timvisee.voxeltex.architecture.component.mesh.filter;
 
 import com.timvisee.voxeltex.module.mesh.Mesh;
+import com.timvisee.voxeltex.module.mesh.baked.BakedMesh;
 
 public class MeshFilterComponent extends AbstractMeshFilterComponent {
 
@@ -45,6 +46,15 @@ public class MeshFilterComponent extends AbstractMeshFilterComponent {
         this.mesh = mesh;
     }
 
+    /**
+     * Constructor.
+     *
+     * @param bakedMesh Baked mesh to create and attach a mesh for.
+     */
+    public MeshFilterComponent(BakedMesh bakedMesh) {
+        this(new Mesh(bakedMesh));
+    }
+
     @Override
     public Mesh getMesh() {
         return this.mesh;
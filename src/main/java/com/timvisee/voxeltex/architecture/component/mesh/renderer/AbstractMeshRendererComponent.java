@@ -23,6 +23,7 @@
 package com.timvisee.voxeltex.architecture.component.mesh.renderer;
 
 import com.timvisee.voxeltex.architecture.component.BaseComponent;
+import com.timvisee.voxeltex.architecture.component.EmptyUpdate;
 import com.timvisee.voxeltex.module.material.Material;
 
 import java.util.ArrayList;
@@ -40,6 +41,7 @@ public abstract class AbstractMeshRendererComponent extends BaseComponent implem
     }
 
     @Override
+    @EmptyUpdate
     public synchronized void update() { }
 
     @Override
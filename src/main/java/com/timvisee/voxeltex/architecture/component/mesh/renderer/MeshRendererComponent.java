@@ -22,17 +22,25 @@
 
 package com.timvisee.voxeltex.architecture.component.mesh.renderer;
 
+import com.timvisee.voxeltex.architecture.component.drawable.CullableComponentInterface;
+import com.timvisee.voxeltex.architecture.component.drawable.QueueableComponentInterface;
 import com.timvisee.voxeltex.architecture.component.mesh.filter.AbstractMeshFilterComponent;
 import com.timvisee.voxeltex.architecture.component.mesh.filter.MeshFilterComponentInterface;
+import com.timvisee.voxeltex.engine.light.LightManager;
+import com.timvisee.voxeltex.engine.light.LightSelection;
+import com.timvisee.voxeltex.engine.render.InstanceBuffer;
 import com.timvisee.voxeltex.module.Color;
 import com.timvisee.voxeltex.module.material.Material;
+import com.timvisee.voxeltex.module.mesh.Mesh;
 import com.timvisee.voxeltex.module.shader.Shader;
+import com.timvisee.voxeltex.module.shader.ShaderUniform;
 import org.joml.Matrix4f;
+import org.joml.Vector3f;
 
 import java.util.ArrayList;
 import java.util.List;
 
-public class MeshRendererComponent extends AbstractMeshRendererComponent {
+public class MeshRendererComponent extends AbstractMeshRendererComponent implements CullableComponentInterface, QueueableComponentInterface {
 
     /**
      * Mesh filter component, which provides the mesh.
@@ -55,6 +63,66 @@ public class MeshRendererComponent extends AbstractMeshRendererComponent {
      */
     private final Matrix4f tempModelMatrix = new Matrix4f();
 
+    /**
+     * The shader the uniform handles were resolved for.
+     */
+    private Shader uniformShader = null;
+
+    /**
+     * Model matrix uniform of the shader.
+     */
+    private ShaderUniform modelMatrixUniform;
+
+    /**
+     * Texture uniform of the shader.
+     */
+    private ShaderUniform textureUniform;
+
+    /**
+     * Color uniform of the shader.
+     */
+    private ShaderUniform colorUniform;
+
+    /**
+     * Cached selection of the most influential lights, used for per object lighting.
+     */
+    private LightSelection lightSelection = null;
+
+    /**
+     * Cached minimum corner of the world space bounding box.
+     */
+    private final Vector3f worldBoundsMin = new Vector3f();
+
+    /**
+     * Cached maximum corner of the world space bounding box.
+     */
+    private final Vector3f worldBoundsMax = new Vector3f();
+
+    /**
+     * Cached center of the world space bounding sphere.
+     */
+    private final Vector3f worldBoundsCenter = new Vector3f();
+
+    /**
+     * Cached radius of the world space bounding sphere.
+     */
+    private float worldBoundsRadius = 0f;
+
+    /**
+     * The mesh the cached world bounds were computed for.
+     */
+    private Mesh worldBoundsMesh = null;
+
+    /**
+     * The transform world version the cached world bounds were computed for.
+     */
+    private int worldBoundsVersion = -1;
+
+    /**
+     * Temporary vector, used when computing the world bounds.
+     */
+    private final Vector3f tempScale = new Vector3f();
+
     /**
      * Constructor.
      */
@@ -121,22 +189,8 @@ public class MeshRendererComponent extends AbstractMeshRendererComponent {
             material.bind();
             shader.update(getScene(), material);
 
-            // Get the model matrix and send it to the shader
-            synchronized(this.tempModelMatrix) {
-                shader.setUniformMatrix4f("modelMatrix", getTransform().getWorldMatrix(this.tempModelMatrix));
-            }
-
-            // Bind the texture if available
-            // TODO: Also bind the normal!
-            if(material.hasTexture())
-                shader.setUniform1f("texture", material.getTexture().getId());
-
-            // Send the color
-            // TODO: Use buffering!
-            shader.setUniform4f("color", this.color.toVector4f());
-
-            // Draw the mesh attached to the mesh filter
-            this.meshFilter.getMesh().draw(material);
+            // Send the uniforms of this renderer and draw the mesh
+            drawQueued(shader);
 
             // Unbind the material
             material.unbind();
@@ -145,6 +199,139 @@ public class MeshRendererComponent extends AbstractMeshRendererComponent {
         // TODO: Also draw the mesh if no material is attached!
     }
 
+    @Override
+    public boolean isQueueable() {
+        return hasMeshFilterComponent() && getMeshFilterComponent().hasMesh() && hasMaterial();
+    }
+
+    @Override
+    public Material getQueueMaterial() {
+        return getMaterial();
+    }
+
+    @Override
+    public Mesh getQueueMesh() {
+        return this.meshFilter.getMesh();
+    }
+
+    @Override
+    public boolean isQueueTransparent() {
+        return getMaterial().isTransparent() || this.color.getAlpha() < 1f;
+    }
+
+    @Override
+    public synchronized void drawQueued(Shader shader) {
+        // Get the main material
+        final Material material = getMaterial();
+
+        // Resolve the uniform handles if the shader changed
+        if(shader != this.uniformShader) {
+            this.modelMatrixUniform = shader.getUniform("modelMatrix");
+            this.textureUniform = shader.getUniform("texture");
+            this.colorUniform = shader.getUniform("color");
+            this.uniformShader = shader;
+        }
+
+        // Get the model matrix and send it to the shader
+        synchronized(this.tempModelMatrix) {
+            this.modelMatrixUniform.setMatrix4f(getTransform().getWorldMatrix(this.tempModelMatrix));
+        }
+
+        // Bind the texture if available
+        // TODO: Also bind the normal!
+        if(material.hasTexture())
+            this.textureUniform.set1f(material.getTexture().getId());
+
+        // Select and send the most influential lights for this renderer, if per object lighting is used
+        final LightManager lightManager = getScene().getLightManager();
+        if(lightManager.isPerObjectLightingActive() && hasWorldBounds()) {
+            if(this.lightSelection == null || this.lightSelection.getLimit() != lightManager.getPerObjectLightLimit())
+                this.lightSelection = lightManager.createSelection();
+            lightManager.selectLights(this.lightSelection, getWorldBoundsCenter(), getWorldBoundsRadius(),
+                    getTransform().getWorldVersion());
+            lightManager.sendToShader(shader, this.lightSelection);
+        }
+
+        // Send the color
+        this.colorUniform.set4f(this.color.getRed(), this.color.getGreen(), this.color.getBlue(), this.color.getAlpha());
+
+        // Draw the mesh attached to the mesh filter
+        this.meshFilter.getMesh().draw(material);
+    }
+
+    @Override
+    public boolean isQueueInstanceable() {
+        // Instances can't have their own lights
+        return !getScene().getLightManager().isPerObjectLightingActive();
+    }
+
+    @Override
+    public void writeInstance(InstanceBuffer buffer) {
+        synchronized(this.tempModelMatrix) {
+            buffer.add(getTransform().getWorldMatrix(this.tempModelMatrix), this.color);
+        }
+    }
+
+    @Override
+    public boolean hasWorldBounds() {
+        return hasMeshFilterComponent() && getMeshFilterComponent().hasMesh() && getOwner() != null;
+    }
+
+    @Override
+    public Vector3f getWorldBoundsMin() {
+        validateWorldBounds();
+        return this.worldBoundsMin;
+    }
+
+    @Override
+    public Vector3f getWorldBoundsMax() {
+        validateWorldBounds();
+        return this.worldBoundsMax;
+    }
+
+    @Override
+    public Vector3f getWorldBoundsCenter() {
+        validateWorldBounds();
+        return this.worldBoundsCenter;
+    }
+
+    @Override
+    public float getWorldBoundsRadius() {
+        validateWorldBounds();
+        return this.worldBoundsRadius;
+    }
+
+    /**
+     * Make sure the cached world bounds are up to date.
+     * The bounds are only recomputed when the mesh or the cached world matrix of the transform has changed.
+     */
+    private void validateWorldBounds() {
+        // Get the mesh and world version, and make sure anything has changed
+        final Mesh mesh = getMeshFilterComponent().getMesh();
+        final int version = getTransform().getWorldVersion();
+        if(mesh == this.worldBoundsMesh && version == this.worldBoundsVersion)
+            return;
+
+        synchronized(this.tempModelMatrix) {
+            // Get the world matrix
+            final Matrix4f worldMatrix = getTransform().getWorldMatrix(this.tempModelMatrix);
+
+            // Transform the bounding box
+            worldMatrix.transformAab(mesh.getBoundsMin(), mesh.getBoundsMax(),
+                    this.worldBoundsMin, this.worldBoundsMax);
+
+            // Transform the bounding sphere, and scale the radius by the largest axis scale
+            worldMatrix.transformPosition(mesh.getBoundsCenter(), this.worldBoundsCenter);
+            worldMatrix.getScale(this.tempScale);
+            this.worldBoundsRadius = mesh.getBoundsRadius() * Math.max(Math.abs(this.tempScale.x),
+                    Math.max(Math.abs(this.tempScale.y), Math.abs(this.tempScale.z)));
+
+            // Store the state the bounds were computed for
+            this.worldBoundsMesh = mesh;
+            this.worldBoundsVersion = version;
+        }
+    }
+
     /**
      * Get the mesh filter component that is attached and used for rendering.
      *
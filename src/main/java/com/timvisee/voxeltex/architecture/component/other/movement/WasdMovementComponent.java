@@ -49,6 +49,12 @@ public class WasdMovementComponent extends AbstractMovementComponent {
         );
     }
 
+    @Override
+    public boolean isThreadSafe() {
+        // Only reads the input state, and modifies the velocity of the owner
+        return true;
+    }
+
     /**
      * Get the moment speed.
      *
@@ -26,8 +26,8 @@ import com.timvisee.voxeltex.architecture.component.overlay.AbstractOverlayCompo
 import com.timvisee.voxeltex.module.Color;
 import com.timvisee.voxeltex.module.font.BitmapFont;
 import com.timvisee.voxeltex.module.font.BitmapFontManager;
+import com.timvisee.voxeltex.module.font.TextLayout;
 import com.timvisee.voxeltex.module.render.OverlayUtil;
-import com.timvisee.voxeltex.module.render.RenderOverlayHelper;
 import com.timvisee.voxeltex.util.math.vector.Vector2fFactory;
 import org.joml.Vector2f;
 
@@ -41,7 +41,7 @@ public class BitmapFontOverlayComponent extends AbstractOverlayComponent {
     /**
      * Text to render.
      */
-    private String text = "";
+    private CharSequence text = "";
 
     /**
      * Font color.
@@ -58,6 +58,11 @@ public class BitmapFontOverlayComponent extends AbstractOverlayComponent {
      */
     private float size;
 
+    /**
+     * Cached layout of the text, laid out again only when the text or font changes.
+     */
+    private final TextLayout layout = new TextLayout();
+
     /**
      * Constructor.
      *
@@ -133,54 +138,40 @@ public class BitmapFontOverlayComponent extends AbstractOverlayComponent {
 
     @Override
     public void onDrawOverlay() {
-        // Apply the font color to the material
-        this.font.getMaterial().setColor(this.color);
-
-        // TODO: Use the font rendering code available in the RenderOverlayHelper class!
-
-        // Bind and render each character separately
-        for(int i = 0; i < text.length(); i++) {
-            // Get the current character
-            final char c = text.charAt(i);
-
-            // Calculate the width factor of the current character
-            final float widthFactor = this.font.getFontWidths().getCharacterWidthFactor(c);
-
-            // Bind the font material with the current character and the proper character width
-            this.font.getMaterial().bind(c, widthFactor);
-
-            // Calculate the character width offset
-            final float characterWidthOffset = this.size * this.font.getFontWidths().getStringWidthFactor(text.substring(0, i));
-
-            // Get the window ratio factor
-            final float windowRatio = OverlayUtil.getWindowRatioFactor();
-
-            // Render the rectangle, and compensate with the window ratio factor
-            RenderOverlayHelper.renderRectangle(
-                    position.x + characterWidthOffset / windowRatio, position.y,
-                    this.size * widthFactor / windowRatio, this.size
-            );
-
-            // Unbind the material
-            this.font.getMaterial().unbind();
-        }
+        // Lay out the text if it has changed, and render it
+        this.layout.update(this.font, this.text);
+        this.layout.draw(this.position.x, this.position.y, this.size, OverlayUtil.getWindowRatioFactor(), this.color);
     }
 
     /**
      * Get the text to render.
+     * This creates a string of the current contents if the text is a builder, use {@link #getTextSequence()} to get the
+     * instance that was set without allocating.
      *
-     * @return Text.
+     * @return Text, or null.
      */
     public String getText() {
+        return this.text != null ? this.text.toString() : null;
+    }
+
+    /**
+     * Get the text to render.
+     * This is the instance that was set, which may be a builder that is updated in place.
+     *
+     * @return Text, or null.
+     */
+    public CharSequence getTextSequence() {
         return this.text;
     }
 
     /**
      * Set the text to render.
+     * Text that changes every frame, such as a frame rate counter, may be a builder that is updated in place. The text
+     * is only laid out again when it's contents change, without allocating.
      *
      * @param text Text.
      */
-    public void setText(String text) {
+    public void setText(CharSequence text) {
         this.text = text;
     }
 
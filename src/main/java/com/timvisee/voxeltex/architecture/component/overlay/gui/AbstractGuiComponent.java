@@ -57,6 +57,12 @@ public abstract class AbstractGuiComponent extends AbstractOverlayComponent {
         super.update();
     }
 
+    @Override
+    public boolean isThreadSafe() {
+        // Only looks up the rectangle transform on the owner
+        return true;
+    }
+
     /**
      * Get the attached rectangle transform component.
      *
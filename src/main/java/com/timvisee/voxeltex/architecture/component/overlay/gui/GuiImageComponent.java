@@ -23,12 +23,14 @@
 package com.timvisee.voxeltex.architecture.component.overlay.gui;
 
 import com.timvisee.voxeltex.module.Color;
+import com.timvisee.voxeltex.module.asset.AssetHandle;
+import com.timvisee.voxeltex.module.asset.AssetManager;
 import com.timvisee.voxeltex.module.material.Material;
 import com.timvisee.voxeltex.module.render.RenderOverlayHelper;
 import com.timvisee.voxeltex.module.shader.ShaderManager;
-import com.timvisee.voxeltex.module.shader.specific.GuiTextureShader;
 import com.timvisee.voxeltex.module.texture.Image;
 import com.timvisee.voxeltex.module.texture.Texture;
+import com.timvisee.voxeltex.module.texture.atlas.TextureRegion;
 import com.timvisee.voxeltex.module.transform.rectangle.Rectangle;
 
 public class GuiImageComponent extends AbstractGuiComponent {
@@ -48,6 +50,11 @@ public class GuiImageComponent extends AbstractGuiComponent {
      */
     private final Rectangle tempRectangle = new Rectangle();
 
+    /**
+     * Handle of the image asset shown by this component, or null if the image isn't loaded through the asset manager.
+     */
+    private AssetHandle<Texture> imageHandle = null;
+
     /**
      * Constructor.
      */
@@ -71,6 +78,15 @@ public class GuiImageComponent extends AbstractGuiComponent {
         setTexture(texture);
     }
 
+    /**
+     * Constructor.
+     *
+     * @param region Texture region, such as a region of a texture atlas.
+     */
+    public GuiImageComponent(TextureRegion region) {
+        setTextureRegion(region);
+    }
+
     /**
      * Constructor.
      *
@@ -80,20 +96,20 @@ public class GuiImageComponent extends AbstractGuiComponent {
         setImage(image);
     }
 
+    /**
+     * Constructor.
+     *
+     * @param imagePath Engine asset path of the image.
+     */
+    public GuiImageComponent(String imagePath) {
+        setImage(imagePath);
+    }
+
     @Override
     public void onDrawOverlay() {
-        // Bind the material if available
-        if(this.material != null)
-            this.material.bind();
-
-        // Set the color level if this is an GUI texture shader
-        if(this.material != null && this.material.getShader() instanceof GuiTextureShader) {
-            // Set the color intensity
-            ((GuiTextureShader) this.material.getShader()).setColor(this.color);
-
-            // Update the shader
-            this.material.update(getScene());
-        }
+        // Skip drawing until the texture is available
+        if(this.material == null || !this.material.hasTexture())
+            return;
 
         // Synchronize to ensure we aren't using this temporary variable in multiple spots at the same time
         //noinspection Duplicates
@@ -107,16 +123,13 @@ public class GuiImageComponent extends AbstractGuiComponent {
             // Get the overlay rectangle
             getRectangleTransform().getOverlayRectangle(this.tempRectangle);
 
-            // Render the rectangle
+            // Render the rectangle with the material and color
             RenderOverlayHelper.renderRectangle(
                     this.tempRectangle.getX(), this.tempRectangle.getY(),
-                    this.tempRectangle.getWidth(), this.tempRectangle.getHeight()
+                    this.tempRectangle.getWidth(), this.tempRectangle.getHeight(),
+                    this.material, this.color
             );
         }
-
-        // Unbind the material if available
-        if(this.material != null)
-            this.material.unbind();
     }
 
     /**
@@ -148,22 +161,81 @@ public class GuiImageComponent extends AbstractGuiComponent {
 
     /**
      * Set the texture.
+     * The image asset shown before is released.
      *
      * @param texture Texture.
      */
     public void setTexture(Texture texture) {
+        // Release the current image asset
+        releaseImageHandle();
+
+        // Set the texture
         this.material.setTexture(texture);
     }
 
+    /**
+     * Set the texture to the given texture region.
+     * Components showing regions of the same atlas share a single texture, so they don't rebind it for each element.
+     *
+     * @param region Texture region, such as a region of a texture atlas.
+     */
+    public void setTextureRegion(TextureRegion region) {
+        // Release the current image asset
+        releaseImageHandle();
+
+        // Set the texture region
+        this.material.setTextureRegion(region);
+    }
+
     /**
      * Set the image.
      *
      * @param image Image.
      */
     public void setImage(Image image) {
+        // Create and set the texture, which releases the current image asset
         setTexture(Texture.fromImage(image));
     }
 
+    /**
+     * Set the image to the engine asset at the given path.
+     * The image is loaded asynchronously through the asset manager and shared with other users of the same image. It's
+     * shown once it has been loaded.
+     *
+     * @param imagePath Engine asset path of the image.
+     */
+    public void setImage(String imagePath) {
+        // Release the current image asset
+        releaseImageHandle();
+
+        // Load the image, and show it once it's uploaded unless it has been replaced since
+        final AssetHandle<Texture> handle = AssetManager.getInstance().load(imagePath, AssetManager.GUI_TEXTURE);
+        this.imageHandle = handle;
+        handle.getFuture().thenAccept(texture -> {
+            if(this.imageHandle == handle)
+                this.material.setTexture(texture);
+        });
+    }
+
+    /**
+     * Release the image asset shown by this component, if it has been loaded through the asset manager.
+     */
+    private void releaseImageHandle() {
+        if(this.imageHandle != null) {
+            this.imageHandle.release();
+            this.imageHandle = null;
+        }
+    }
+
+    @Override
+    public void destroy() {
+        // Release the image asset
+        releaseImageHandle();
+
+        // Destroy the super
+        super.destroy();
+    }
+
     /**
      * Get the color channel intensity.
      *
@@ -25,6 +25,7 @@ package com.timvisee.voxeltex.architecture.component.overlay.gui;
 import com.timvisee.voxeltex.module.Color;
 import com.timvisee.voxeltex.module.font.BitmapFont;
 import com.timvisee.voxeltex.module.font.BitmapFontManager;
+import com.timvisee.voxeltex.module.font.TextLayout;
 import com.timvisee.voxeltex.module.render.RenderOverlayHelper;
 import com.timvisee.voxeltex.module.transform.rectangle.Rectangle;
 
@@ -38,7 +39,7 @@ public class GuiLabelComponent extends AbstractGuiComponent {
     /**
      * Text to render.
      */
-    private String text;
+    private CharSequence text;
 
     /**
      * Font color.
@@ -50,6 +51,11 @@ public class GuiLabelComponent extends AbstractGuiComponent {
      */
     private final Rectangle tempRectangle = new Rectangle();
 
+    /**
+     * Cached layout of the label text, laid out again only when the text or font changes.
+     */
+    private final TextLayout layout = new TextLayout();
+
     /**
      * Constructor.
      *
@@ -113,9 +119,6 @@ public class GuiLabelComponent extends AbstractGuiComponent {
 
     @Override
     public void onDrawOverlay() {
-        // Apply the font color to the material
-        this.font.getMaterial().setColor(this.color);
-
         // Synchronize to ensure we aren't using this temporary variable in multiple spots at the same time
         synchronized(this.tempRectangle) {
             // Make sure we've a valid transform component, if not, skip the following code with an error message
@@ -127,26 +130,41 @@ public class GuiLabelComponent extends AbstractGuiComponent {
             // Get the transform
             getRectangleTransform().getOverlayRectangle(this.tempRectangle);
 
-            // Draw the font
-            RenderOverlayHelper.renderFont(this.tempRectangle, this.font, text);
+            // Lay out the text if it has changed, and draw it
+            this.layout.update(this.font, this.text);
+            RenderOverlayHelper.renderFont(this.tempRectangle, this.layout, this.color);
         }
     }
 
     /**
      * Get the text to render.
+     * This creates a string of the current contents if the text is a builder, use {@link #getTextSequence()} to get the
+     * instance that was set without allocating.
      *
-     * @return Text.
+     * @return Text, or null.
      */
     public String getText() {
+        return this.text != null ? this.text.toString() : null;
+    }
+
+    /**
+     * Get the text to render.
+     * This is the instance that was set, which may be a builder that is updated in place.
+     *
+     * @return Text, or null.
+     */
+    public CharSequence getTextSequence() {
         return this.text;
     }
 
     /**
      * Set the text to render.
+     * Text that changes every frame, such as a frame rate counter, may be a builder that is updated in place. The text
+     * is only laid out again when it's contents change, without allocating.
      *
      * @param text Text.
      */
-    public void setText(String text) {
+    public void setText(CharSequence text) {
         this.text = text;
     }
 
@@ -23,21 +23,35 @@
 package com.timvisee.voxeltex.architecture.gameobject;
 
 import com.timvisee.voxeltex.architecture.component.AbstractComponent;
+import com.timvisee.voxeltex.architecture.component.EmptyUpdate;
 import com.timvisee.voxeltex.architecture.scene.AbstractScene;
 import com.timvisee.voxeltex.engine.VoxelTexEngine;
 import com.timvisee.voxeltex.module.transform.Transform;
 import com.timvisee.voxeltex.util.EnabledState;
 
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public abstract class AbstractGameObject {
 
+    /**
+     * Cache of whether each game object class overrides the deprecated {@link #update()} method.
+     */
+    private static final Map<Class<?>, Boolean> UPDATE_CACHE = new ConcurrentHashMap<>();
+
     /**
      * True if the game object is enabled, false if not.
      * If the game object is disabled, it won't be called by the drawing and update loops.
      */
     private EnabledState enabled = EnabledState.UNDEFINED;
 
+    /**
+     * True if this game object and all it's parents are enabled.
+     * This is cached, and updated each time the enabled state or the parent of a game object changes.
+     */
+    private boolean enabledInHierarchy = false;
+
     /**
      * The scene this game object is in.
      */
@@ -62,6 +76,35 @@ public abstract class AbstractGameObject {
         return this.enabled.equals(EnabledState.ENABLED);
     }
 
+    /**
+     * Check whether this game object and all it's parents are enabled.
+     * Game objects that have a disabled parent aren't updated or drawn.
+     *
+     * @return True if this game object is enabled in the hierarchy.
+     */
+    public boolean isEnabledInHierarchy() {
+        return this.enabledInHierarchy;
+    }
+
+    /**
+     * Update the cached enabled state in the hierarchy of this game object, based on it's own enabled state and the
+     * cached state of it's parent. The children are updated as well if the state has changed.
+     * This must be called each time the enabled state or the parent of this game object changes.
+     */
+    protected void updateEnabledInHierarchy() {
+        // Determine the new state, and make sure it has changed
+        final boolean enabledInHierarchy = isEnabled() && (!hasParent() || getParent().isEnabledInHierarchy());
+        if(enabledInHierarchy == this.enabledInHierarchy)
+            return;
+        this.enabledInHierarchy = enabledInHierarchy;
+
+        // Update all children
+        final List<AbstractGameObject> children = getChildren();
+        //noinspection ForLoopReplaceableByForEach
+        for(int i = 0, size = children.size(); i < size; i++)
+            children.get(i).updateEnabledInHierarchy();
+    }
+
     /**
      * Check whether the current enabled state is undefined.
      *
@@ -83,6 +126,14 @@ public abstract class AbstractGameObject {
         // Set the new state
         this.enabled = enabled ? EnabledState.ENABLED : EnabledState.DISABLED;
 
+        // Update the cached enabled state in the hierarchy
+        if(change)
+            updateEnabledInHierarchy();
+
+        // Invalidate the draw lists of the scene
+        if(change && getScene() != null)
+            getScene().getDrawLists().invalidate(this);
+
         // Call the onEnable or onDisable method accordingly
         // TODO: Only call this if the game object has started?
         if(change) {
@@ -327,30 +378,65 @@ public abstract class AbstractGameObject {
 
     /**
      * Update the game object.
-     * This will be called once each frame before drawing the game object.
+     * This is called once each frame on the main thread, after all components have been updated, but only for game
+     * object classes that override this method.
+     *
+     * @deprecated The scene updates components from a flat list, and no longer walks the game object hierarchy.
+     * Move per frame behavior into a component, and override {@link AbstractComponent#update()} instead.
      */
-    public abstract void update();
+    @Deprecated
+    @EmptyUpdate
+    public void update() { }
 
     /**
-     * Destroy the game object.
-     * This will remove the game object from the parent game object or scene automatically before the next update.
-     * All references created by the VoxelTex engine to this game object will be cleared.
-     * The game object may not be used anymore after it has been destroyed.
-     * All components inside this scene will be destroyed accordingly.
+     * Check whether game objects of the given class override the deprecated {@link #update()} method.
+     * The result is cached for each class.
+     *
+     * @param gameObjectClass Game object class.
+     *
+     * @return True if the game object must be updated each frame, false if not.
      */
-    public abstract void destroy();
+    public static boolean hasUpdate(Class<? extends AbstractGameObject> gameObjectClass) {
+        // Return the cached result if available
+        Boolean hasUpdate = UPDATE_CACHE.get(gameObjectClass);
+        if(hasUpdate != null)
+            return hasUpdate;
+
+        // Check whether the update method is still the empty one
+        try {
+            hasUpdate = !gameObjectClass.getMethod("update").isAnnotationPresent(EmptyUpdate.class);
+        } catch(NoSuchMethodException e) {
+            hasUpdate = false;
+        }
+
+        // Cache and return the result
+        UPDATE_CACHE.put(gameObjectClass, hasUpdate);
+        return hasUpdate;
+    }
 
     /**
-     * Draw the game object.
-     * This will be called when drawing the game object.
+     * Update all thread safe components of this game object and it's children.
+     * This is the first phase of a parallel scene update, and may be called from a worker thread.
+     * Root game objects are updated concurrently, each subtree is only updated by a single thread.
+     *
+     * @see AbstractComponent#isThreadSafe()
      */
-    public abstract void onDraw();
+    public abstract void updateConcurrent();
 
     /**
-     * Draw the game object overlay.
-     * This will be called when drawing the overlay of this game object.
+     * Remove all components and children that were queued to be removed.
+     * This is called by the scene after updating, for each game object that has anything queued.
+     */
+    public abstract void processRemoveQueues();
+
+    /**
+     * Destroy the game object.
+     * This will remove the game object from the parent game object or scene automatically before the next update.
+     * All references created by the VoxelTex engine to this game object will be cleared.
+     * The game object may not be used anymore after it has been destroyed.
+     * All components inside this scene will be destroyed accordingly.
      */
-    public abstract void onDrawOverlay();
+    public abstract void destroy();
 
     /**
      * On enable of this game object.
@@ -23,17 +23,13 @@
 package com.timvisee.voxeltex.architecture.gameobject;
 
 import com.timvisee.voxeltex.architecture.component.AbstractComponent;
-import com.timvisee.voxeltex.architecture.component.drawable.DrawableComponentInterface;
-import com.timvisee.voxeltex.architecture.component.overlay.OverlayComponentInterface;
+import com.timvisee.voxeltex.architecture.component.ComponentTypes;
 import com.timvisee.voxeltex.module.transform.Transform;
-import com.timvisee.voxeltex.runtime.global.MainCamera;
-import org.joml.Matrix4f;
-import org.lwjgl.BufferUtils;
-import org.lwjgl.opengl.GL11;
 
-import java.nio.FloatBuffer;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public class GameObject extends AbstractGameObject {
 
@@ -62,6 +58,11 @@ public class GameObject extends AbstractGameObject {
      */
     private List<AbstractComponent> components = new ArrayList<>();
 
+    /**
+     * Index of the first component for each component type, including super classes and interfaces.
+     */
+    private Map<Class<?>, AbstractComponent> componentIndex = new HashMap<>();
+
     /**
      * List of children that are queued to be removed.
      */
@@ -72,17 +73,6 @@ public class GameObject extends AbstractGameObject {
      */
     private List<AbstractComponent> componentsRemoveQueue = new ArrayList<>();
 
-    /**
-     * Float buffer for the rendering matrix.
-     */
-    private FloatBuffer fb = BufferUtils.createFloatBuffer(16);
-
-    /**
-     * View matrix cache.
-     * This is used to optimize performance and object allocation at runtime.
-     */
-    private static final Matrix4f viewMatrixCache = new Matrix4f();
-
     /**
      * Constructor.
      *
@@ -120,6 +110,12 @@ public class GameObject extends AbstractGameObject {
     @Override
     public void setParent(AbstractGameObject parent) {
         this.parent = parent;
+
+        // Update the transform for the new parent
+        getTransform().updateParent();
+
+        // Update the enabled state in the hierarchy for the new parent
+        updateEnabledInHierarchy();
     }
 
     @Override
@@ -161,6 +157,10 @@ public class GameObject extends AbstractGameObject {
         // Add the game object to the children
         this.children.add(gameObject);
 
+        // Attach the child to the scene structures
+        if(getScene() != null)
+            getScene().attachHierarchy(gameObject);
+
         // Create the game object
         if(getScene() != null)
             gameObject.create();
@@ -176,7 +176,10 @@ public class GameObject extends AbstractGameObject {
     }
 
     @Override
-    public boolean removeChild(AbstractGameObject gameObject) {
+    public synchronized boolean removeChild(AbstractGameObject gameObject) {
+        // Let the scene know this game object has removals queued
+        queueRemoveProcessing();
+
         return this.childrenRemoveQueue.add(gameObject);
     }
 
@@ -209,10 +212,17 @@ public class GameObject extends AbstractGameObject {
     public void addComponent(AbstractComponent component) {
         // Add the component
         this.components.add(component);
+        indexComponent(component);
 
         // Set the component owner
         component.setOwner(this);
 
+        // Register the component in the scene
+        if(getScene() != null) {
+            getScene().getComponentRegistry().register(component);
+            getScene().getDrawLists().attach(component);
+        }
+
         // Create the component
         if(getScene() != null)
             component.create();
@@ -229,24 +239,39 @@ public class GameObject extends AbstractGameObject {
 
     @Override
     public <T extends AbstractComponent> T getComponent(Class<T> componentType) {
-        // Loop through all components to find an applicable one
-        //noinspection ForLoopReplaceableByForEach
-        for(int i = 0, size = this.components.size(); i < size; i++) {
-            // Check whether this component is valid
-            if(componentType.isAssignableFrom(this.components.get(i).getClass()))
-                //noinspection unchecked
-                return (T) this.components.get(i);
-        }
+        // Get the component from the index
+        //noinspection unchecked
+        return (T) this.componentIndex.get(componentType);
+    }
 
-        // None found, return null
-        return null;
+    /**
+     * Add the given component to the component index, for all of it's types that don't have a component yet.
+     *
+     * @param component Component to index.
+     */
+    private void indexComponent(AbstractComponent component) {
+        for(Class<?> type : ComponentTypes.getTypes(component.getClass()))
+            if(!this.componentIndex.containsKey(type))
+                this.componentIndex.put(type, component);
     }
 
     @Override
-    public boolean removeComponent(AbstractComponent component) {
+    public synchronized boolean removeComponent(AbstractComponent component) {
+        // Let the scene know this game object has removals queued
+        queueRemoveProcessing();
+
         return this.componentsRemoveQueue.add(component);
     }
 
+    /**
+     * Let the scene know this game object has removals queued, if nothing was queued yet.
+     * This must be called while synchronized on this game object, so the check and the queueing are atomic.
+     */
+    private void queueRemoveProcessing() {
+        if(getScene() != null && this.componentsRemoveQueue.isEmpty() && this.childrenRemoveQueue.isEmpty())
+            getScene().queueRemoveProcessing(this);
+    }
+
     @Override
     public AbstractComponent removeComponent(int i) {
         // Get the component that will be removed
@@ -288,30 +313,43 @@ public class GameObject extends AbstractGameObject {
     }
 
     @Override
-    public synchronized void update() {
-        // Update the transform
-        this.transform.update();
-
-        // Update all components
+    public void updateConcurrent() {
+        // Update all thread safe components that have any update behavior
         //noinspection ForLoopReplaceableByForEach
-        for(int i = 0, size = this.components.size(); i < size; i++)
-            if(this.components.get(i).isEnabled())
-                this.components.get(i).update();
+        for(int i = 0, size = this.components.size(); i < size; i++) {
+            final AbstractComponent component = this.components.get(i);
+            if(component.isEnabled() && component.isThreadSafe() && ComponentTypes.hasUpdate(component.getClass()))
+                component.update();
+        }
 
         // Update all children
         //noinspection ForLoopReplaceableByForEach
         for(int i = 0, size = this.children.size(); i < size; i++)
             if(this.children.get(i).isEnabled())
-                this.children.get(i).update();
+                this.children.get(i).updateConcurrent();
+    }
 
+    @Override
+    public void processRemoveQueues() {
         // Remove all components that were queued to be removed
         //noinspection ForLoopReplaceableByForEach
         for(int i = 0, size = this.componentsRemoveQueue.size(); i < size; i++) {
             // Reset the owner of the component
             this.componentsRemoveQueue.get(i).setOwner(null);
 
-            // Remove the component
-            this.components.remove(this.componentsRemoveQueue.get(i));
+            // Remove the component, and unregister it from the scene
+            if(this.components.remove(this.componentsRemoveQueue.get(i)) && getScene() != null) {
+                getScene().getComponentRegistry().unregister(this.componentsRemoveQueue.get(i));
+                getScene().getDrawLists().detach(this.componentsRemoveQueue.get(i));
+            }
+        }
+
+        // Rebuild the component index if any component was removed
+        if(!this.componentsRemoveQueue.isEmpty()) {
+            this.componentIndex.clear();
+            //noinspection ForLoopReplaceableByForEach
+            for(int i = 0, size = this.components.size(); i < size; i++)
+                indexComponent(this.components.get(i));
         }
 
         // Clear the list of queued destroyed components
@@ -319,9 +357,14 @@ public class GameObject extends AbstractGameObject {
 
         // Remove all children that were queued to be removed
         //noinspection ForLoopReplaceableByForEach
-        for(int i = 0, size = this.childrenRemoveQueue.size(); i < size; i++)
+        for(int i = 0, size = this.childrenRemoveQueue.size(); i < size; i++) {
+            // Detach the child from the scene structures
+            if(getScene() != null && this.children.contains(this.childrenRemoveQueue.get(i)))
+                getScene().detachHierarchy(this.childrenRemoveQueue.get(i));
+
             // Remove the child
             this.children.remove(this.childrenRemoveQueue.get(i));
+        }
 
         // Clear the list of queued destroyed children
         this.childrenRemoveQueue.clear();
@@ -357,80 +400,6 @@ public class GameObject extends AbstractGameObject {
         }
     }
 
-    @Override
-    public synchronized void onDraw() {
-        // Define whether we started drawing
-        boolean drawing = false;
-
-        // Draw all drawable components and all children
-        //noinspection ForLoopReplaceableByForEach
-        for(int i = 0, size = this.components.size(); i < size; i++) {
-            // Make sure the component is drawable
-            if(this.components.get(i) instanceof DrawableComponentInterface) {
-                // Make sure the drawing mode is enabled
-                if(!drawing) {
-                    // Start the drawing process and set the flag
-                    drawStart();
-                    drawing = true;
-                }
-
-                // Draw the component if enabled
-                if(this.components.get(i).isEnabled())
-                    ((DrawableComponentInterface) this.components.get(i)).onDraw();
-            }
-        }
-
-        // End the drawing process if it was enabled
-        if(drawing)
-            drawEnd();
-
-        // Draw all children if enabled
-        //noinspection ForLoopReplaceableByForEach
-        for(int i = 0, size = this.children.size(); i < size; i++)
-            if(this.children.get(i).isEnabled())
-                this.children.get(i).onDraw();
-    }
-
-    @Override
-    public synchronized void onDrawOverlay() {
-        // Draw all overlay components and all children
-        //noinspection ForLoopReplaceableByForEach
-        for(int i = 0, size = this.components.size(); i < size; i++)
-            // Make sure the component is drawable
-            if(this.components.get(i) instanceof OverlayComponentInterface)
-                // Draw the component overlay
-                if(this.components.get(i).isEnabled())
-                    ((OverlayComponentInterface) this.components.get(i)).onDrawOverlay();
-
-        // Draw all children
-        //noinspection ForLoopReplaceableByForEach
-        for(int i = 0, size = this.children.size(); i < size; i++)
-            if(this.children.get(i).isEnabled())
-                this.children.get(i).onDrawOverlay();
-    }
-
-    /**
-     * Prepare and start the drawing process.
-     */
-    private synchronized void drawStart() {
-        // Do not use the cached view matrix in multiple places at the same time
-        synchronized(viewMatrixCache) {
-            // Combine the world camera and game object matrix to construct the view matrix
-            getTransform().addWorldMatrix(MainCamera.createCameraViewMatrix(viewMatrixCache));
-
-            // Load the matrix to the GPU
-            GL11.glLoadMatrixf(viewMatrixCache.get(fb));
-        }
-    }
-
-    /**
-     * End the current drawing process.
-     */
-    private synchronized void drawEnd() {
-        // Pop the OpenGL matrix
-        GL11.glPopMatrix();
-    }
-
     @Override
     public void onEnable() { }
 
@@ -22,12 +22,17 @@
 
 package com.timvisee.voxeltex.architecture.scene;
 
+import com.timvisee.voxeltex.architecture.component.ComponentRegistry;
 import com.timvisee.voxeltex.architecture.gameobject.AbstractGameObject;
 import com.timvisee.voxeltex.engine.VoxelTexEngine;
 import com.timvisee.voxeltex.engine.light.LightManager;
 import com.timvisee.voxeltex.engine.physics.ScenePhysicsEngine;
+import com.timvisee.voxeltex.module.transform.ActiveTransformList;
+import com.timvisee.voxeltex.module.transform.TransformStore;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
 public abstract class AbstractScene {
 
@@ -46,6 +51,43 @@ public abstract class AbstractScene {
      */
     private final ScenePhysicsEngine physicsEngine = new ScenePhysicsEngine(this);
 
+    /**
+     * Registry of all live components in this scene, indexed by type.
+     */
+    private final ComponentRegistry componentRegistry = new ComponentRegistry();
+
+    /**
+     * Flat lists of the enabled drawable and overlay components in this scene.
+     */
+    private final SceneDrawLists drawLists = new SceneDrawLists();
+
+    /**
+     * List of transforms in this scene that are moving, and must be integrated each update.
+     */
+    private final ActiveTransformList activeTransforms = new ActiveTransformList();
+
+    /**
+     * List of game objects in this scene that have components or children queued to be removed.
+     * Access is synchronized on the list, as game objects may be destroyed from multiple threads during a parallel
+     * scene update.
+     */
+    private final List<AbstractGameObject> removeProcessingQueue = new ArrayList<>();
+
+    /**
+     * List of game objects in this scene that override the deprecated {@link AbstractGameObject#update()} method.
+     */
+    private final List<AbstractGameObject> updateGameObjects = new ArrayList<>();
+
+    /**
+     * Transform store for this scene, or null if each game object stores it's own transform.
+     */
+    private TransformStore transformStore = null;
+
+    /**
+     * Pool used to update root game objects in parallel, or null if the scene is updated on the main thread only.
+     */
+    private ForkJoinPool updatePool = null;
+
     /**
      * Defines whether the scene has started. True if started, false if not.
      */
@@ -89,6 +131,260 @@ public abstract class AbstractScene {
         return this.physicsEngine;
     }
 
+    /**
+     * Get the registry of all live components in this scene.
+     *
+     * @return Component registry.
+     */
+    public ComponentRegistry getComponentRegistry() {
+        return this.componentRegistry;
+    }
+
+    /**
+     * Get all live components of the given type in this scene, without walking the hierarchy.
+     * Components are matched on their class, super classes and interfaces.
+     *
+     * @param componentType Component type.
+     * @param <T> Component type.
+     *
+     * @return Unmodifiable list of components.
+     */
+    public <T> List<T> getComponents(Class<T> componentType) {
+        return this.componentRegistry.getComponents(componentType);
+    }
+
+    /**
+     * Get the flat lists of enabled drawable and overlay components in this scene.
+     *
+     * @return Scene draw lists.
+     */
+    public SceneDrawLists getDrawLists() {
+        return this.drawLists;
+    }
+
+    /**
+     * Get the list of transforms in this scene that are moving.
+     *
+     * @return Active transform list.
+     */
+    public ActiveTransformList getActiveTransforms() {
+        return this.activeTransforms;
+    }
+
+    /**
+     * Call the deprecated update method of all enabled game objects in this scene that override it.
+     * This is called on the main thread after all components have been updated.
+     */
+    @SuppressWarnings("deprecation")
+    protected void updateGameObjects() {
+        //noinspection ForLoopReplaceableByForEach
+        for(int i = 0; i < this.updateGameObjects.size(); i++)
+            if(this.updateGameObjects.get(i).isEnabledInHierarchy())
+                this.updateGameObjects.get(i).update();
+    }
+
+    /**
+     * Queue the given game object to process it's removal queues after the next update.
+     *
+     * @param gameObject Game object with queued removals.
+     */
+    public void queueRemoveProcessing(AbstractGameObject gameObject) {
+        synchronized(this.removeProcessingQueue) {
+            this.removeProcessingQueue.add(gameObject);
+        }
+    }
+
+    /**
+     * Process the removal queues of all game objects that have anything queued.
+     */
+    protected void processRemoveQueues() {
+        synchronized(this.removeProcessingQueue) {
+            //noinspection ForLoopReplaceableByForEach
+            for(int i = 0; i < this.removeProcessingQueue.size(); i++)
+                this.removeProcessingQueue.get(i).processRemoveQueues();
+            this.removeProcessingQueue.clear();
+        }
+    }
+
+    /**
+     * Attach the given game object and all it's children to the scene structures.
+     * This registers all components, and binds all transforms to the transform store if enabled.
+     * This is called when a game object hierarchy is added to this scene.
+     *
+     * @param gameObject Root game object.
+     */
+    public void attachHierarchy(AbstractGameObject gameObject) {
+        // Register the components, and track them in the draw lists
+        this.componentRegistry.registerHierarchy(gameObject);
+        this.drawLists.attachHierarchy(gameObject);
+
+        // Bind the transforms to the transform store if enabled
+        if(hasTransformStore())
+            this.transformStore.bindHierarchy(gameObject);
+
+        // Add all moving transforms to the active list
+        updateActiveTransforms(gameObject, true);
+
+        // Track game objects that override the deprecated update method
+        updateGameObjectList(gameObject, true);
+    }
+
+    /**
+     * Detach the given game object and all it's children from the scene structures.
+     * This is called when a game object hierarchy is removed from this scene.
+     *
+     * @param gameObject Root game object.
+     */
+    public void detachHierarchy(AbstractGameObject gameObject) {
+        // Unregister the components, and remove them from the draw lists
+        this.componentRegistry.unregisterHierarchy(gameObject);
+        this.drawLists.detachHierarchy(gameObject);
+
+        // Unbind the transforms from the transform store if enabled
+        if(hasTransformStore())
+            this.transformStore.unbindHierarchy(gameObject);
+
+        // Remove all transforms from the active list
+        updateActiveTransforms(gameObject, false);
+
+        // Stop tracking game objects that override the deprecated update method
+        updateGameObjectList(gameObject, false);
+    }
+
+    /**
+     * Update the active state of the transforms of the given game object and all it's children.
+     *
+     * @param gameObject Root game object.
+     * @param attached True if the game object is attached to this scene, false if it's detached.
+     */
+    private void updateActiveTransforms(AbstractGameObject gameObject, boolean attached) {
+        // Update the active state of the transform
+        if(attached)
+            gameObject.getTransform().updateActiveState();
+        else
+            this.activeTransforms.remove(gameObject.getTransform());
+
+        // Update all children
+        //noinspection ForLoopReplaceableByForEach
+        for(int i = 0, size = gameObject.getChildren().size(); i < size; i++)
+            updateActiveTransforms(gameObject.getChildren().get(i), attached);
+    }
+
+    /**
+     * Add or remove the given game object and all it's children to or from the list of game objects that override the
+     * deprecated update method.
+     *
+     * @param gameObject Root game object.
+     * @param attached True if the game object is attached to this scene, false if it's detached.
+     */
+    private void updateGameObjectList(AbstractGameObject gameObject, boolean attached) {
+        // Add or remove the game object if it overrides the update method
+        if(AbstractGameObject.hasUpdate(gameObject.getClass())) {
+            if(attached)
+                this.updateGameObjects.add(gameObject);
+            else
+                this.updateGameObjects.remove(gameObject);
+        }
+
+        // Update all children
+        //noinspection ForLoopReplaceableByForEach
+        for(int i = 0, size = gameObject.getChildren().size(); i < size; i++)
+            updateGameObjectList(gameObject.getChildren().get(i), attached);
+    }
+
+    /**
+     * Get the transform store for this scene.
+     *
+     * @return Transform store, or null if not enabled.
+     */
+    public TransformStore getTransformStore() {
+        return this.transformStore;
+    }
+
+    /**
+     * Check whether this scene uses a transform store.
+     *
+     * @return True if a transform store is used, false if not.
+     */
+    public boolean hasTransformStore() {
+        return this.transformStore != null;
+    }
+
+    /**
+     * Set whether this scene uses a transform store.
+     * When enabled, the transforms of all game objects in this scene are kept in contiguous arrays, and all world
+     * matrices are computed in a single pass at the end of each scene update. This is faster for scenes with many
+     * game objects.
+     *
+     * @param enabled True to enable the transform store, false to disable it.
+     */
+    public void setTransformStoreEnabled(boolean enabled) {
+        // Make sure the state changes
+        if(enabled == hasTransformStore())
+            return;
+
+        // Enable the store, and bind all game objects
+        if(enabled) {
+            this.transformStore = new TransformStore();
+            for(AbstractGameObject gameObject : this.getGameObjects()) {
+                this.transformStore.bindHierarchy(gameObject);
+                updateActiveTransforms(gameObject, true);
+            }
+            return;
+        }
+
+        // Unbind all game objects, and disable the store
+        for(AbstractGameObject gameObject : this.getGameObjects()) {
+            this.transformStore.unbindHierarchy(gameObject);
+            updateActiveTransforms(gameObject, true);
+        }
+        this.transformStore = null;
+    }
+
+    /**
+     * Get the pool used to update root game objects in parallel.
+     *
+     * @return Update pool, or null if parallel updates are disabled.
+     */
+    public ForkJoinPool getUpdatePool() {
+        return this.updatePool;
+    }
+
+    /**
+     * Check whether this scene updates it's root game objects in parallel.
+     *
+     * @return True if parallel updates are enabled, false if not.
+     */
+    public boolean isParallelUpdate() {
+        return this.updatePool != null;
+    }
+
+    /**
+     * Set whether this scene updates it's root game objects in parallel.
+     *
+     * When enabled, components are updated in two phases. First, the thread safe components of all root game object
+     * subtrees are updated concurrently on a fork join pool. Then, all other components are updated on the main thread,
+     * in the regular order. The physics engine, removal queues and all GL work always stay on the
+     * main thread.
+     *
+     * @param parallel True to enable parallel updates, false to disable them.
+     *
+     * @see com.timvisee.voxeltex.architecture.component.AbstractComponent#isThreadSafe()
+     */
+    public void setParallelUpdate(boolean parallel) {
+        // Make sure the state changes
+        if(parallel == isParallelUpdate())
+            return;
+
+        // Create or shut down the pool
+        if(parallel)
+            this.updatePool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        else {
+            this.updatePool.shutdown();
+            this.updatePool = null;
+        }
+    }
+
     /**
      * Check whether the scene is started.
      *
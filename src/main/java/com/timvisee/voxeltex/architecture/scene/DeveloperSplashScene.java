@@ -25,7 +25,6 @@ package com.timvisee.voxeltex.architecture.scene;
 import com.timvisee.voxeltex.architecture.component.other.splash.SplashAnimatorComponent;
 import com.timvisee.voxeltex.architecture.component.overlay.gui.GuiImageComponent;
 import com.timvisee.voxeltex.architecture.gameobject.GameObject;
-import com.timvisee.voxeltex.module.texture.Image;
 import com.timvisee.voxeltex.module.transform.rectangle.RectangleTransform;
 import com.timvisee.voxeltex.module.transform.rectangle.anchor.HorizontalTransformAnchorType;
 import com.timvisee.voxeltex.module.transform.rectangle.anchor.VerticalTransformAnchorType;
@@ -52,9 +51,6 @@ public class DeveloperSplashScene extends Scene {
         // Load the super
         super.load();
 
-        // Load the developer splash image
-        Image developerSplashImage = Image.loadFromEngineAssets("images/developerSplash.png");
-
         // Create an game object with the splash as GUI image
         GameObject avatarImage = new GameObject("Avatar");
         avatarImage.addComponent(new RectangleTransform(
@@ -62,7 +58,7 @@ public class DeveloperSplashScene extends Scene {
                 new Vector2f(256, 256),
                 HorizontalTransformAnchorType.CENTER, VerticalTransformAnchorType.MIDDLE
         ));
-        avatarImage.addComponent(new GuiImageComponent(developerSplashImage));
+        avatarImage.addComponent(new GuiImageComponent("images/developerSplash.png"));
         avatarImage.addComponent(this.splashAnimator);
         addGameObject(avatarImage);
     }
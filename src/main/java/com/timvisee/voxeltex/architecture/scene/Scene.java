@@ -22,7 +22,9 @@
 
 package com.timvisee.voxeltex.architecture.scene;
 
+import com.timvisee.voxeltex.architecture.component.AbstractComponent;
 import com.timvisee.voxeltex.architecture.gameobject.AbstractGameObject;
+import com.timvisee.voxeltex.runtime.global.Time;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -80,6 +82,9 @@ public class Scene extends AbstractScene {
         // Add the game object to the list
         this.gameObjects.add(gameObject);
 
+        // Attach the game object to the scene structures
+        attachHierarchy(gameObject);
+
         // Create the game object
         gameObject.create();
 
@@ -116,49 +121,102 @@ public class Scene extends AbstractScene {
 
     @Override
     public void update() {
-        // Update all game objects
-        //noinspection ForLoopReplaceableByForEach
-        for(int i = 0, size = this.gameObjects.size(); i < size; i++)
-            if(this.gameObjects.get(i).isEnabled())
-                this.gameObjects.get(i).update();
+        // Integrate all transforms that are moving
+        getActiveTransforms().update();
+
+        // Update all components
+        if(isParallelUpdate())
+            updateParallel();
+        else
+            updateComponents(false);
+
+        // Update all game objects that still override the deprecated update method
+        updateGameObjects();
 
         // Update the physics engine and simulate the next physics step
         getPhysicsEngine().update();
 
+        // Remove all components and children that were queued to be removed
+        processRemoveQueues();
+
         // Remove all game objects that were queued to be removed
         //noinspection ForLoopReplaceableByForEach
         for(int i = 0, size = this.gameObjectsRemoveQueue.size(); i < size; i++) {
             // Reset the parent of the game object
             this.gameObjectsRemoveQueue.get(i).setParent(null);
 
+            // Detach the game object from the scene structures
+            detachHierarchy(this.gameObjectsRemoveQueue.get(i));
+
             // Remove the game object
             this.gameObjects.remove(this.gameObjectsRemoveQueue.get(i));
         }
 
         // Clear the list of game objects queued to be removed
         this.gameObjectsRemoveQueue.clear();
+
+        // Integrate and compute all world matrices in the transform store
+        if(hasTransformStore())
+            getTransformStore().update(Time.deltaTimeFloat);
+    }
+
+    /**
+     * Update all components that have any update behavior, from the flat update list of the scene.
+     *
+     * @param skipThreadSafe True to skip thread safe components, because they were updated concurrently already.
+     */
+    private void updateComponents(boolean skipThreadSafe) {
+        final List<AbstractComponent> components = getComponentRegistry().getUpdateComponents();
+
+        // Loop through all components to update
+        //noinspection ForLoopReplaceableByForEach
+        for(int i = 0, size = components.size(); i < size; i++) {
+            final AbstractComponent component = components.get(i);
+
+            // Skip thread safe components if required
+            if(skipThreadSafe && component.isThreadSafe())
+                continue;
+
+            // Update the component if it and it's owner are enabled
+            if(component.isEnabled() && component.getOwner().isEnabledInHierarchy())
+                component.update();
+        }
+    }
+
+    /**
+     * Update all components in two phases.
+     * The thread safe components of all root game object subtrees are updated concurrently first, the rest is updated
+     * on the main thread afterwards.
+     */
+    private void updateParallel() {
+        // Determine the number of root game objects each task updates, split the work in a few tasks per thread
+        final int size = this.gameObjects.size();
+        final int threshold = Math.max(1, size / (getUpdatePool().getParallelism() * 4));
+
+        // Update the thread safe part of all game objects concurrently, and wait for completion
+        getUpdatePool().invoke(new SceneUpdateTask(this.gameObjects, 0, size, threshold));
+
+        // Update the rest of the components on the main thread
+        updateComponents(true);
     }
 
     @Override
     public void onDraw() {
-        // Draw all game objects if enabled
-        //noinspection ForLoopReplaceableByForEach
-        for(int i = 0, size = this.gameObjects.size(); i < size; i++)
-            if(this.gameObjects.get(i).isEnabled())
-                this.gameObjects.get(i).onDraw();
+        // Draw all enabled drawable components
+        getDrawLists().draw(this);
     }
 
     @Override
     public void onDrawOverlay() {
-        // Draw the overlay of all game objects if enabled
-        //noinspection ForLoopReplaceableByForEach
-        for(int i = 0, size = this.gameObjects.size(); i < size; i++)
-            if(this.gameObjects.get(i).isEnabled())
-                this.gameObjects.get(i).onDrawOverlay();
+        // Draw the overlay of all enabled overlay components
+        getDrawLists().drawOverlay(this);
     }
 
     @Override
     public void destroy() {
+        // Shut down the parallel update pool
+        setParallelUpdate(false);
+
         // Destroy game objects
         //noinspection ForLoopReplaceableByForEach
         for(int i = 0, size = this.gameObjects.size(); i < size; i++)
@@ -0,0 +1,539 @@
+/******************************************************************************
+ * Copyright (c) Tim Visee 2016. All rights reserved.                         *
+ *                                                                            *
+ * @author Tim Visee                                                          *
+ * @website http://timvisee.com/                                              *
+ *                                                                            *
+ * Open Source != No Copyright                                                *
+ *                                                                            *
+ * Permission is hereby granted, free of charge, to any person obtaining a    *
+ * copy of this software and associated documentation files (the "Software"), *
+ * to deal in the Software without restriction, including without limitation  *
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,   *
+ * and/or sell copies of the Software, and to permit persons to whom the      *
+ * Software is furnished to do so, subject to the following conditions:       *
+ *                                                                            *
+ * The above copyright notice and this permission notice shall be included    *
+ * in all copies or substantial portions of the Software.                     *
+ *                                                                            *
+ * You should have received a copy of The MIT License (MIT) along with this   *
+ * program. If not, see <http://opensource.org/licenses/MIT/>.                *
+ ******************************************************************************/
+
+
+package com.timvisee.voxeltex.architecture.scene;
+
+import com.timvisee.voxeltex.architecture.component.AbstractComponent;
+import com.timvisee.voxeltex.architecture.component.drawable.CullableComponentInterface;
+import com.timvisee.voxeltex.architecture.component.drawable.DrawableComponentInterface;
+import com.timvisee.voxeltex.architecture.component.drawable.QueueableComponentInterface;
+import com.timvisee.voxeltex.architecture.component.overlay.OverlayComponentInterface;
+import com.timvisee.voxeltex.architecture.gameobject.AbstractGameObject;
+import com.timvisee.voxeltex.engine.render.FrustumCuller;
+import com.timvisee.voxeltex.engine.render.RenderQueue;
+import com.timvisee.voxeltex.runtime.global.MainCamera;
+import org.joml.Matrix4f;
+import org.lwjgl.BufferUtils;
+import org.lwjgl.opengl.GL11;
+
+import java.nio.FloatBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+public class SceneDrawLists {
+
+    /**
+     * Enabled drawable components.
+     * Each component stores it's index in this list, so it can be removed by moving the last component into it's place.
+     */
+    private final List<AbstractComponent> drawables = new ArrayList<>();
+
+    /**
+     * Bounds of each drawable component, or null for drawables that can't be culled.
+     */
+    private final List<CullableComponentInterface> drawableBounds = new ArrayList<>();
+
+    /**
+     * Each drawable component that can be drawn through the render queue, or null for drawables that can't.
+     */
+    private final List<QueueableComponentInterface> drawableQueueables = new ArrayList<>();
+
+    /**
+     * Enabled overlay components, in hierarchy order so overlays of children are drawn on top of their parents.
+     */
+    private final List<AbstractComponent> overlays = new ArrayList<>();
+
+    /**
+     * True if an overlay component was listed or unlisted, and the overlay list must be collected again.
+     */
+    private boolean overlaysDirty = false;
+
+    /**
+     * All drawable and overlay components that are attached to the scene.
+     */
+    private final Set<AbstractComponent> attached = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    /**
+     * All components that are currently in the lists.
+     */
+    private final Set<AbstractComponent> listed = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    /**
+     * Components of which the enabled state has changed since the lists were last validated.
+     */
+    private final List<AbstractComponent> pendingComponents = new ArrayList<>();
+
+    /**
+     * Game objects of which the enabled state has changed, or that were attached since the lists were last validated.
+     * The components of their whole subtree are validated.
+     */
+    private final List<AbstractGameObject> pendingGameObjects = new ArrayList<>();
+
+    /**
+     * True if the lists must be rebuilt completely before drawing.
+     */
+    private boolean dirty = true;
+
+    /**
+     * Frustum culler, used to skip drawables that aren't visible.
+     */
+    private final FrustumCuller culler = new FrustumCuller();
+
+    /**
+     * Render queue, used to draw queueable drawables sorted by their state.
+     */
+    private final RenderQueue renderQueue = new RenderQueue();
+
+    /**
+     * Temporary model view matrix, used when drawing.
+     * Using and recycling this temporary matrix minimizes object allocation, resulting in better performance.
+     */
+    private final Matrix4f tempModelViewMatrix = new Matrix4f();
+
+    /**
+     * Float buffer for the model view matrix.
+     */
+    private final FloatBuffer matrixBuffer = BufferUtils.createFloatBuffer(16);
+
+    /**
+     * Mark the lists as outdated, so they're rebuilt completely before the next draw.
+     */
+    public void invalidate() {
+        this.dirty = true;
+    }
+
+    /**
+     * Queue the given component to be added to or removed from the lists before the next draw.
+     * This should be called when a component in the scene is enabled or disabled.
+     *
+     * @param component Component.
+     */
+    public void invalidate(AbstractComponent component) {
+        if(!this.dirty && this.attached.contains(component))
+            this.pendingComponents.add(component);
+    }
+
+    /**
+     * Queue the components of the given game object and it's children to be added to or removed from the lists before
+     * the next draw. This should be called when a game object in the scene is enabled or disabled.
+     *
+     * @param gameObject Game object.
+     */
+    public void invalidate(AbstractGameObject gameObject) {
+        if(!this.dirty)
+            this.pendingGameObjects.add(gameObject);
+    }
+
+    /**
+     * Attach the given component, that was added to a game object in the scene.
+     *
+     * @param component Component.
+     */
+    public void attach(AbstractComponent component) {
+        // Only track drawable and overlay components
+        if(!(component instanceof DrawableComponentInterface) && !(component instanceof OverlayComponentInterface))
+            return;
+
+        // Track the component, and queue it to be listed
+        this.attached.add(component);
+        invalidate(component);
+    }
+
+    /**
+     * Detach the given component, that was removed from a game object in the scene.
+     * The component is removed from the lists immediately.
+     *
+     * @param component Component.
+     */
+    public void detach(AbstractComponent component) {
+        if(this.attached.remove(component))
+            unlist(component);
+    }
+
+    /**
+     * Attach the components of the given game object and all it's children, that were added to the scene.
+     *
+     * @param gameObject Root game object.
+     */
+    public void attachHierarchy(AbstractGameObject gameObject) {
+        attachComponents(gameObject);
+        invalidate(gameObject);
+    }
+
+    /**
+     * Detach the components of the given game object and all it's children, that were removed from the scene.
+     * The components are removed from the lists immediately.
+     *
+     * @param gameObject Root game object.
+     */
+    public void detachHierarchy(AbstractGameObject gameObject) {
+        // Detach all components
+        //noinspection ForLoopReplaceableByForEach
+        for(int i = 0, size = gameObject.getComponents().size(); i < size; i++)
+            detach(gameObject.getComponents().get(i));
+
+        // Detach all children
+        //noinspection ForLoopReplaceableByForEach
+        for(int i = 0, size = gameObject.getChildren().size(); i < size; i++)
+            detachHierarchy(gameObject.getChildren().get(i));
+    }
+
+    /**
+     * Get the frustum culler used when drawing.
+     *
+     * @return Frustum culler.
+     */
+    public FrustumCuller getCuller() {
+        return this.culler;
+    }
+
+    /**
+     * Get the render queue used when drawing.
+     *
+     * @return Render queue.
+     */
+    public RenderQueue getRenderQueue() {
+        return this.renderQueue;
+    }
+
+    /**
+     * Get the list of enabled drawable components.
+     *
+     * @param scene Scene the lists belong to.
+     *
+     * @return Drawable components.
+     */
+    public List<AbstractComponent> getDrawables(AbstractScene scene) {
+        validate(scene);
+        return this.drawables;
+    }
+
+    /**
+     * Get the list of enabled overlay components.
+     *
+     * @param scene Scene the lists belong to.
+     *
+     * @return Overlay components.
+     */
+    public List<AbstractComponent> getOverlays(AbstractScene scene) {
+        validate(scene);
+        return this.overlays;
+    }
+
+    /**
+     * Draw all enabled drawable components that are visible.
+     * Queueable components are drawn through the render queue, sorted by their state.
+     * For other components, the model view matrix is loaded each time the owner changes, using the view matrix of
+     * this frame.
+     *
+     * @param scene Scene the lists belong to.
+     */
+    public void draw(AbstractScene scene) {
+        // Make sure the lists are up to date
+        validate(scene);
+
+        // Extract the frustum of this frame, and assign the lights to the clusters of this frame
+        this.culler.update(MainCamera.getViewProjectionMatrix());
+        scene.getLightManager().updateClusters(MainCamera.getViewMatrix(), MainCamera.getProjectionMatrix());
+
+        // Draw each component, and load the matrix when the owner changes
+        AbstractGameObject lastOwner = null;
+        //noinspection ForLoopReplaceableByForEach
+        for(int i = 0, size = this.drawables.size(); i < size; i++) {
+            final AbstractComponent component = this.drawables.get(i);
+
+            // Skip the component if it's outside the frustum
+            final CullableComponentInterface bounds = this.drawableBounds.get(i);
+            if(bounds != null && !this.culler.isVisible(bounds))
+                continue;
+
+            // Queue the component if it can be drawn through the render queue
+            final QueueableComponentInterface queueable = this.drawableQueueables.get(i);
+            if(queueable != null && queueable.isQueueable()) {
+                this.renderQueue.add(component, bounds, MainCamera.getViewMatrix());
+                continue;
+            }
+
+            // Load the model view matrix of the owner
+            if(component.getOwner() != lastOwner) {
+                lastOwner = component.getOwner();
+                GL11.glLoadMatrixf(
+                        lastOwner.getTransform()
+                                .addWorldMatrix(this.tempModelViewMatrix.set(MainCamera.getViewMatrix()))
+                                .get(this.matrixBuffer)
+                );
+            }
+
+            // Draw the component
+            ((DrawableComponentInterface) component).onDraw();
+        }
+
+        // Draw the queued components
+        this.renderQueue.flush(scene, MainCamera.getViewMatrix());
+    }
+
+    /**
+     * Draw the overlay of all enabled overlay components.
+     *
+     * @param scene Scene the lists belong to.
+     */
+    public void drawOverlay(AbstractScene scene) {
+        // Make sure the lists are up to date
+        validate(scene);
+
+        // Draw each component
+        //noinspection ForLoopReplaceableByForEach
+        for(int i = 0, size = this.overlays.size(); i < size; i++)
+            ((OverlayComponentInterface) this.overlays.get(i)).onDrawOverlay();
+    }
+
+    /**
+     * Update the lists if they're outdated.
+     * Queued components and game objects are added to or removed from the drawable list directly. The overlay list is
+     * collected again in hierarchy order if any overlay changed. The lists are only rebuilt completely if they were
+     * invalidated as a whole.
+     *
+     * @param scene Scene the lists belong to.
+     */
+    private void validate(AbstractScene scene) {
+        // Rebuild the lists completely if required
+        if(this.dirty) {
+            rebuild(scene);
+            return;
+        }
+
+        // Update the queued game objects
+        //noinspection ForLoopReplaceableByForEach
+        for(int i = 0; i < this.pendingGameObjects.size(); i++)
+            validateHierarchy(this.pendingGameObjects.get(i));
+        this.pendingGameObjects.clear();
+
+        // Update the queued components
+        //noinspection ForLoopReplaceableByForEach
+        for(int i = 0; i < this.pendingComponents.size(); i++)
+            validateComponent(this.pendingComponents.get(i));
+        this.pendingComponents.clear();
+
+        // Collect the overlays again in hierarchy order if any changed
+        if(this.overlaysDirty) {
+            this.overlays.clear();
+            //noinspection ForLoopReplaceableByForEach
+            for(int i = 0, size = scene.getGameObjects().size(); i < size; i++)
+                collectOverlays(scene.getGameObjects().get(i));
+            this.overlaysDirty = false;
+        }
+    }
+
+    /**
+     * Rebuild the lists completely in hierarchy order.
+     *
+     * @param scene Scene the lists belong to.
+     */
+    private void rebuild(AbstractScene scene) {
+        // Clear the lists and the queues
+        //noinspection ForLoopReplaceableByForEach
+        for(int i = 0, size = this.drawables.size(); i < size; i++)
+            this.drawables.get(i).setDrawableIndex(-1);
+        this.drawables.clear();
+        this.drawableBounds.clear();
+        this.drawableQueueables.clear();
+        this.overlays.clear();
+        this.overlaysDirty = false;
+        this.listed.clear();
+        this.pendingGameObjects.clear();
+        this.pendingComponents.clear();
+
+        // Collect the components of all game objects
+        //noinspection ForLoopReplaceableByForEach
+        for(int i = 0, size = scene.getGameObjects().size(); i < size; i++)
+            collect(scene.getGameObjects().get(i));
+
+        // Reset the dirty state
+        this.dirty = false;
+    }
+
+    /**
+     * Collect the enabled drawable and overlay components of the given game object and it's children.
+     *
+     * @param gameObject Game object.
+     */
+    private void collect(AbstractGameObject gameObject) {
+        // Skip disabled game objects
+        if(!gameObject.isEnabled())
+            return;
+
+        // Collect the enabled components
+        //noinspection ForLoopReplaceableByForEach
+        for(int i = 0, size = gameObject.getComponents().size(); i < size; i++) {
+            final AbstractComponent component = gameObject.getComponents().get(i);
+            if(!component.isEnabled() || !this.attached.contains(component))
+                continue;
+
+            if(component instanceof DrawableComponentInterface)
+                addDrawable(component);
+            if(component instanceof OverlayComponentInterface)
+                this.overlays.add(component);
+            this.listed.add(component);
+        }
+
+        // Collect the children
+        //noinspection ForLoopReplaceableByForEach
+        for(int i = 0, size = gameObject.getChildren().size(); i < size; i++)
+            collect(gameObject.getChildren().get(i));
+    }
+
+    /**
+     * Collect the listed overlay components of the given game object and it's children, in hierarchy order.
+     *
+     * @param gameObject Game object.
+     */
+    private void collectOverlays(AbstractGameObject gameObject) {
+        // Collect the listed overlay components
+        //noinspection ForLoopReplaceableByForEach
+        for(int i = 0, size = gameObject.getComponents().size(); i < size; i++) {
+            final AbstractComponent component = gameObject.getComponents().get(i);
+            if(component instanceof OverlayComponentInterface && this.listed.contains(component))
+                this.overlays.add(component);
+        }
+
+        // Collect the children
+        //noinspection ForLoopReplaceableByForEach
+        for(int i = 0, size = gameObject.getChildren().size(); i < size; i++)
+            collectOverlays(gameObject.getChildren().get(i));
+    }
+
+    /**
+     * Track the drawable and overlay components of the given game object and all it's children.
+     * Components that are listed already are removed, so they're listed again with their new state.
+     *
+     * @param gameObject Game object.
+     */
+    private void attachComponents(AbstractGameObject gameObject) {
+        // Track all components
+        //noinspection ForLoopReplaceableByForEach
+        for(int i = 0, size = gameObject.getComponents().size(); i < size; i++) {
+            final AbstractComponent component = gameObject.getComponents().get(i);
+            if(component instanceof DrawableComponentInterface || component instanceof OverlayComponentInterface) {
+                this.attached.add(component);
+                unlist(component);
+            }
+        }
+
+        // Track the components of all children
+        //noinspection ForLoopReplaceableByForEach
+        for(int i = 0, size = gameObject.getChildren().size(); i < size; i++)
+            attachComponents(gameObject.getChildren().get(i));
+    }
+
+    /**
+     * Add or remove the components of the given game object and it's children, based on their current state.
+     *
+     * @param gameObject Game object.
+     */
+    private void validateHierarchy(AbstractGameObject gameObject) {
+        // Validate all components
+        //noinspection ForLoopReplaceableByForEach
+        for(int i = 0, size = gameObject.getComponents().size(); i < size; i++)
+            validateComponent(gameObject.getComponents().get(i));
+
+        // Validate all children
+        //noinspection ForLoopReplaceableByForEach
+        for(int i = 0, size = gameObject.getChildren().size(); i < size; i++)
+            validateHierarchy(gameObject.getChildren().get(i));
+    }
+
+    /**
+     * Add the given component to the lists or remove it, based on it's current state.
+     * Drawable components are appended, overlay components are collected again in hierarchy order on validation.
+     *
+     * @param component Component.
+     */
+    private void validateComponent(AbstractComponent component) {
+        // Determine whether the component should be listed, and make sure that has changed
+        final boolean list = this.attached.contains(component) && component.isEnabled()
+                && component.getOwner() != null && component.getOwner().isEnabledInHierarchy();
+        if(list == this.listed.contains(component))
+            return;
+
+        // Remove the component if it shouldn't be listed anymore
+        if(!list) {
+            unlist(component);
+            return;
+        }
+
+        // Add the component
+        if(component instanceof DrawableComponentInterface)
+            addDrawable(component);
+        if(component instanceof OverlayComponentInterface)
+            this.overlaysDirty = true;
+        this.listed.add(component);
+    }
+
+    /**
+     * Remove the given component from the lists if it's listed.
+     *
+     * @param component Component.
+     */
+    private void unlist(AbstractComponent component) {
+        // Make sure the component is listed
+        if(!this.listed.remove(component))
+            return;
+
+        // Remove the component from the drawables, by moving the last drawable and it's parallel entries into it's place
+        final int index = component.getDrawableIndex();
+        if(index >= 0) {
+            final int last = this.drawables.size() - 1;
+            if(index != last) {
+                this.drawables.set(index, this.drawables.get(last));
+                this.drawableBounds.set(index, this.drawableBounds.get(last));
+                this.drawableQueueables.set(index, this.drawableQueueables.get(last));
+                this.drawables.get(index).setDrawableIndex(index);
+            }
+            this.drawables.remove(last);
+            this.drawableBounds.remove(last);
+            this.drawableQueueables.remove(last);
+            component.setDrawableIndex(-1);
+        }
+
+        // Collect the overlays again if the component is an overlay
+        if(component instanceof OverlayComponentInterface)
+            this.overlaysDirty = true;
+    }
+
+    /**
+     * Append the given drawable component, along with it's entries in the parallel lists.
+     *
+     * @param component Drawable component.
+     */
+    private void addDrawable(AbstractComponent component) {
+        component.setDrawableIndex(this.drawables.size());
+        this.drawables.add(component);
+        this.drawableBounds.add(component instanceof CullableComponentInterface ?
+                (CullableComponentInterface) component : null);
+        this.drawableQueueables.add(component instanceof QueueableComponentInterface ?
+                (QueueableComponentInterface) component : null);
+    }
+}
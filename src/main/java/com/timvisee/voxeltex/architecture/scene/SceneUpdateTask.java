@@ -0,0 +1,90 @@
+/******************************************************************************
+ * Copyright (c) Tim Visee 2016. All rights reserved.                         *
+ *                                                                            *
+ * @author Tim Visee                                                          *
+ * @website http://timvisee.com/                                              *
+ *                                                                            *
+ * Open Source != No Copyright                                                *
+ *                                                                            *
+ * Permission is hereby granted, free of charge, to any person obtaining a    *
+ * copy of this software and associated documentation files (the "Software"), *
+ * to deal in the Software without restriction, including without limitation  *
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,   *
+ * and/or sell copies of the Software, and to permit persons to whom the      *
+ * Software is furnished to do so, subject to the following conditions:       *
+ *                                                                            *
+ * The above copyright notice and this permission notice shall be included    *
+ * in all copies or substantial portions of the Software.                     *
+ *                                                                            *
+ * You should have received a copy of The MIT License (MIT) along with this   *
+ * program. If not, see <http://opensource.org/licenses/MIT/>.                *
+ ******************************************************************************/
+
+
+package com.timvisee.voxeltex.architecture.scene;
+
+import com.timvisee.voxeltex.architecture.gameobject.AbstractGameObject;
+
+import java.util.List;
+import java.util.concurrent.RecursiveAction;
+
+public class SceneUpdateTask extends RecursiveAction {
+
+    /**
+     * Serial version UID.
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * List of root game objects to update.
+     */
+    private final List<AbstractGameObject> gameObjects;
+
+    /**
+     * Index of the first game object to update.
+     */
+    private final int from;
+
+    /**
+     * Index after the last game object to update.
+     */
+    private final int to;
+
+    /**
+     * Maximum number of root game objects updated by a single task before it is split.
+     */
+    private final int threshold;
+
+    /**
+     * Constructor.
+     *
+     * @param gameObjects List of root game objects to update.
+     * @param from Index of the first game object to update.
+     * @param to Index after the last game object to update.
+     * @param threshold Maximum number of root game objects updated by a single task before it is split.
+     */
+    public SceneUpdateTask(List<AbstractGameObject> gameObjects, int from, int to, int threshold) {
+        this.gameObjects = gameObjects;
+        this.from = from;
+        this.to = to;
+        this.threshold = threshold;
+    }
+
+    @Override
+    protected void compute() {
+        // Split the range in two halves if it's too big, and update both concurrently
+        if(this.to - this.from > this.threshold) {
+            final int middle = (this.from + this.to) >>> 1;
+            invokeAll(
+                    new SceneUpdateTask(this.gameObjects, this.from, middle, this.threshold),
+                    new SceneUpdateTask(this.gameObjects, middle, this.to, this.threshold)
+            );
+            return;
+        }
+
+        // Update the thread safe part of each game object subtree in the range
+        for(int i = this.from; i < this.to; i++)
+            if(this.gameObjects.get(i).isEnabled())
+                this.gameObjects.get(i).updateConcurrent();
+    }
+}
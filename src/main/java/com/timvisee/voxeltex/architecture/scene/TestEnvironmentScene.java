@@ -39,9 +39,9 @@ import com.timvisee.voxeltex.architecture.prefab.primitive.CubePrefab;
 import com.timvisee.voxeltex.architecture.prefab.primitive.QuadPrefab;
 import com.timvisee.voxeltex.engine.light.Light;
 import com.timvisee.voxeltex.module.Color;
+import com.timvisee.voxeltex.module.asset.AssetManager;
 import com.timvisee.voxeltex.module.material.Material;
 import com.timvisee.voxeltex.module.mesh.Mesh;
-import com.timvisee.voxeltex.module.model.loader.ObjModelLoader;
 import com.timvisee.voxeltex.module.resource.bundle.EngineResourceBundle;
 import com.timvisee.voxeltex.module.shader.ShaderManager;
 import com.timvisee.voxeltex.module.texture.Texture;
@@ -72,10 +72,13 @@ public class TestEnvironmentScene extends Scene {
         suzanneRoot.getTransform().getAngularVelocity().set(0, 0.5f, 0);
         addGameObject(suzanneRoot);
 
+        // Load the suzanne mesh once, and share it between the models
+        Mesh suzanneMesh = AssetManager.getInstance().loadNow("models/suzanne.obj", AssetManager.MESH).getNow();
+
         // Create a model that is loaded from a file
         for(int i = 0; i < 5; i++) {
             GameObject suzanneObject = new GameObject("Suzanne");
-            suzanneObject.addComponent(new MeshFilterComponent(new Mesh(ObjModelLoader.loadModelFromEngineAssets("models/suzanne.obj"))));
+            suzanneObject.addComponent(new MeshFilterComponent(suzanneMesh));
             suzanneObject.addComponent(new MeshRendererComponent(new Material(Texture.fromColor(Color.RED, 1, 1))));
             suzanneObject.getTransform().getPosition().set(0, 1f, -2.0f + -6f * (i + 1));
             suzanneObject.getTransform().getAngularVelocity().set(0, -0.5f, 0);
@@ -83,7 +86,7 @@ public class TestEnvironmentScene extends Scene {
         }
 
         // Load the sphere mesh
-        Mesh sphereMesh = new Mesh(ObjModelLoader.loadModelFromEngineAssets("models/sphere.obj"));
+        Mesh sphereMesh = AssetManager.getInstance().loadNow("models/sphere.obj", AssetManager.MESH).getNow();
 
         // Spawn some spheres as collision test
         for(int i = 0; i < 16; i++) {
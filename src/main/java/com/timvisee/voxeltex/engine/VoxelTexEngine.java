@@ -26,6 +26,7 @@ import com.timvisee.voxeltex.VoxelTex;
 import com.timvisee.voxeltex.architecture.scene.SceneManager;
 import com.timvisee.voxeltex.engine.render.VoxelTexRenderer;
 import com.timvisee.voxeltex.module.resource.bundle.EngineResourceBundle;
+import com.timvisee.voxeltex.module.resource.engine.EngineAssetLoader;
 
 public class VoxelTexEngine {
 
@@ -95,6 +96,9 @@ public class VoxelTexEngine {
         // Show a status message
         System.out.println("Initializing " + VoxelTex.getEngineNameFull() + " engine...");
 
+        // Mount the engine asset pack if it has been built
+        EngineAssetLoader.getInstance().mountDefaultPack();
+
         // Create the voxel renderer
         this.renderer = new VoxelTexRenderer(this);
 
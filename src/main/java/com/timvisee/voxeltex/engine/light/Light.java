@@ -26,6 +26,9 @@ import com.timvisee.voxeltex.architecture.gameobject.AbstractGameObject;
 import com.timvisee.voxeltex.util.math.vector.Vector3fFactory;
 import org.joml.Quaternionf;
 import org.joml.Vector3f;
+import org.joml.Vector3fc;
+
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class Light {
 
@@ -44,6 +47,17 @@ public class Light {
      */
     public static final int LIGHT_TYPE_SPOT = 3;
 
+    /**
+     * The light intensity below which a point light doesn't visibly contribute anymore.
+     * This is used to derive the range of point lights that don't have an explicit range.
+     */
+    public static final float ATTENUATION_CUTOFF = 1f / 256f;
+
+    /**
+     * Factor the diffuse lighting is multiplied with in the shaders, used when deriving the range of point lights.
+     */
+    private static final float SHADER_DIFFUSE_FACTOR = 3f;
+
     /**
      * Light type.
      */
@@ -69,12 +83,46 @@ public class Light {
      */
     private float brightness;
 
+    /**
+     * The range of the light, after which it doesn't contribute anymore.
+     * Zero to derive the range from the brightness and color using the attenuation cutoff.
+     */
+    private float range = 0f;
+
+    /**
+     * Version of the light data, which is increased each time the type, position, rotation, color, brightness or range
+     * changes.
+     */
+    private int version = 0;
+
+    /**
+     * Candidate stamp of the last light selection that ranked this light.
+     * Used by {@link LightSelection} to rank each light only once. Lights are selected on the render thread only.
+     */
+    int selectionStamp = 0;
+
+    /**
+     * Counter used to create unique light selection candidate stamps.
+     */
+    static final AtomicInteger selectionStampCounter = new AtomicInteger();
+
+    /**
+     * Temporary euler rotation, used to check whether the rotation changed.
+     */
+    private final Vector3f tempRotation = new Vector3f();
+
     /**
      * Cached light rotation.
      * Caching and recycling the instance adds a performance benefit.
      */
     private static final Quaternionf lightRotationCache = new Quaternionf();
 
+    /**
+     * Cached light position.
+     * Caching and recycling the instance adds a performance benefit.
+     */
+    private static final Vector3f lightPositionCache = new Vector3f();
+
     /**
      * Constructor.
      *
@@ -139,43 +187,73 @@ public class Light {
      * @param type Light type.
      */
     public void setType(int type) {
-        this.type = type;
+        if(this.type != type) {
+            this.type = type;
+            this.version++;
+        }
     }
 
     /**
      * Get the light position.
+     * The returned vector is read only, use {@link #setPosition(Vector3f)} to change the position.
      *
      * @return Light position.
      */
-    public Vector3f getPosition() {
+    public Vector3fc getPosition() {
         return this.position;
     }
 
+    /**
+     * Get the light position.
+     *
+     * @param dest Destination vector.
+     *
+     * @return Destination vector with the light position.
+     */
+    public Vector3f getPosition(Vector3f dest) {
+        return dest.set(this.position);
+    }
+
     /**
      * Set the light position.
      *
      * @param position Light position.
      */
     public void setPosition(Vector3f position) {
-        this.position.set(position);
+        if(!this.position.equals(position)) {
+            this.position.set(position);
+            this.version++;
+        }
     }
 
     /**
      * Get the light rotation as euler.
+     * The returned vector is read only, use {@link #setRotation(Vector3f)} to change the rotation.
      *
      * @return Light rotation.
      */
-    public Vector3f getRotation() {
+    public Vector3fc getRotation() {
         return this.rotation;
     }
 
+    /**
+     * Get the light rotation as euler.
+     *
+     * @param dest Destination vector.
+     *
+     * @return Destination vector with the light rotation.
+     */
+    public Vector3f getRotation(Vector3f dest) {
+        return dest.set(this.rotation);
+    }
+
     /**
      * Set the light rotation as euler.
      *
      * @param rotation Light rotation.
      */
     public void setRotation(Quaternionf rotation) {
-        rotation.getEulerAnglesXYZ(this.rotation);
+        setRotation(rotation.getEulerAnglesXYZ(this.tempRotation));
     }
 
     /**
@@ -184,25 +262,43 @@ public class Light {
      * @param rotation Light rotation.
      */
     public void setRotation(Vector3f rotation) {
-        this.rotation.set(rotation);
+        if(!this.rotation.equals(rotation)) {
+            this.rotation.set(rotation);
+            this.version++;
+        }
     }
 
     /**
      * Get the color intensity of the light.
+     * The returned vector is read only, use {@link #setColor(Vector3f)} to change the color.
      *
      * @return Color intensity.
      */
-    public Vector3f getColor() {
+    public Vector3fc getColor() {
         return this.color;
     }
 
+    /**
+     * Get the color intensity of the light.
+     *
+     * @param dest Destination vector.
+     *
+     * @return Destination vector with the color intensity.
+     */
+    public Vector3f getColor(Vector3f dest) {
+        return dest.set(this.color);
+    }
+
     /**
      * Set the color intensity of the light.
      *
      * @param color Color intensity.
      */
     public void setColor(Vector3f color) {
-        this.color.set(color);
+        if(!this.color.equals(color)) {
+            this.color.set(color);
+            this.version++;
+        }
     }
 
     /**
@@ -220,7 +316,64 @@ public class Light {
      * @param brightness Light brightness.
      */
     public void setBrightness(float brightness) {
-        this.brightness = brightness;
+        if(this.brightness != brightness) {
+            this.brightness = brightness;
+            this.version++;
+        }
+    }
+
+    /**
+     * Get the explicit range of the light.
+     *
+     * @return Light range, or zero if the range is derived from the brightness and color.
+     */
+    public float getRange() {
+        return this.range;
+    }
+
+    /**
+     * Set the explicit range of the light, after which it doesn't contribute anymore.
+     * The light smoothly fades out towards the edge of it's range.
+     *
+     * @param range Light range, or zero to derive the range from the brightness and color.
+     */
+    public void setRange(float range) {
+        if(this.range != range) {
+            this.range = range;
+            this.version++;
+        }
+    }
+
+    /**
+     * Get the effective range of the light.
+     * For point and spot lights without an explicit range, this is the distance at which the attenuated intensity
+     * drops below the {@link #ATTENUATION_CUTOFF}. Directional lights don't have a range.
+     *
+     * @return Effective light range, or zero if the light has an infinite range.
+     */
+    public float getEffectiveRange() {
+        // Directional lights have an infinite range
+        if(this.type == LIGHT_TYPE_DIRECTIONAL)
+            return 0f;
+
+        // Return the explicit range if set
+        if(this.range > 0f)
+            return this.range;
+
+        // Derive the range from the inverse square attenuation of the brightest color channel
+        final float intensity = SHADER_DIFFUSE_FACTOR * this.brightness
+                * Math.max(this.color.x, Math.max(this.color.y, this.color.z));
+        return intensity > 0f ? (float) Math.sqrt(intensity / ATTENUATION_CUTOFF) : 0f;
+    }
+
+    /**
+     * Get the version of the light data.
+     * The version is increased each time the type, position, rotation, color, brightness or range changes.
+     *
+     * @return Light data version.
+     */
+    public int getVersion() {
+        return this.version;
     }
 
     /**
@@ -233,7 +386,7 @@ public class Light {
         synchronized(lightRotationCache) {
             // Update the position based on the world space position of the given object
             updatePosition(
-                    lightObject.getTransform().getWorldPosition(this.position),
+                    lightObject.getTransform().getWorldPosition(lightPositionCache),
                     lightObject.getTransform().getWorldRotation(lightRotationCache)
             );
         }
@@ -247,10 +400,10 @@ public class Light {
      */
     public void updatePosition(Vector3f position, Quaternionf rotation) {
         // Update the position
-        this.position.set(position);
+        setPosition(position);
 
         // Convert the rotation to euler axes and set them
-        rotation.getEulerAnglesXYZ(this.rotation);
+        setRotation(rotation);
     }
 
     /**
@@ -261,7 +414,7 @@ public class Light {
      */
     public void updatePosition(Vector3f position, Vector3f rotation) {
         // Update the position and rotation
-        this.position.set(position);
-        this.rotation.set(rotation);
+        setPosition(position);
+        setRotation(rotation);
     }
 }
@@ -0,0 +1,639 @@
+/******************************************************************************
+ * Copyright (c) Tim Visee 2016. All rights reserved.                         *
+ *                                                                            *
+ * @author Tim Visee                                                          *
+ * @website http://timvisee.com/                                              *
+ *                                                                            *
+ * Open Source != No Copyright                                                *
+ *                                                                            *
+ * Permission is hereby granted, free of charge, to any person obtaining a    *
+ * copy of this software and associated documentation files (the "Software"), *
+ * to deal in the Software without restriction, including without limitation  *
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,   *
+ * and/or sell copies of the Software, and to permit persons to whom the      *
+ * Software is furnished to do so, subject to the following conditions:       *
+ *                                                                            *
+ * The above copyright notice and this permission notice shall be included    *
+ * in all copies or substantial portions of the Software.                     *
+ *                                                                            *
+ * You should have received a copy of The MIT License (MIT) along with this   *
+ * program. If not, see <http://opensource.org/licenses/MIT/>.                *
+ ******************************************************************************/
+
+package com.timvisee.voxeltex.engine.light;
+
+import com.timvisee.voxeltex.module.shader.ShaderInterface;
+import org.joml.Matrix4f;
+import org.lwjgl.BufferUtils;
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL12;
+import org.lwjgl.opengl.GL13;
+import org.lwjgl.opengl.GL30;
+
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+public class LightClusterGrid {
+
+    /**
+     * Number of clusters along the horizontal screen axis.
+     */
+    public static final int CLUSTERS_X = 16;
+
+    /**
+     * Number of clusters along the vertical screen axis.
+     */
+    public static final int CLUSTERS_Y = 9;
+
+    /**
+     * Number of clusters along the view depth, using exponential depth slices.
+     */
+    public static final int CLUSTERS_Z = 24;
+
+    /**
+     * Total number of clusters.
+     */
+    public static final int CLUSTER_COUNT = CLUSTERS_X * CLUSTERS_Y * CLUSTERS_Z;
+
+    /**
+     * Maximum number of lights the shaders process for each cluster.
+     * This must match CLUSTER_LIGHT_COUNT_MAX in the shaders, clusters with more lights are clamped to this limit.
+     */
+    public static final int CLUSTER_LIGHT_LIMIT = 256;
+
+    /**
+     * Width of the light and light index textures.
+     */
+    private static final int DATA_TEXTURE_WIDTH = 1024;
+
+    /**
+     * Number of texels each light occupies in the light texture, stacked vertically.
+     * The first holds the position and range, the second the color and brightness.
+     */
+    private static final int LIGHT_TEXELS = 2;
+
+    /**
+     * Minimum number of lights to assign them to clusters on multiple threads.
+     */
+    private static final int PARALLEL_LIGHT_THRESHOLD = 256;
+
+    /**
+     * Texture unit of the cluster texture.
+     */
+    public static final int TEXTURE_UNIT_CLUSTERS = 1;
+
+    /**
+     * Texture unit of the light index texture.
+     */
+    public static final int TEXTURE_UNIT_INDICES = 2;
+
+    /**
+     * Texture unit of the light texture.
+     */
+    public static final int TEXTURE_UNIT_LIGHTS = 3;
+
+    /**
+     * Lights that are assigned to clusters in the current frame.
+     */
+    private Light[] lights = new Light[64];
+
+    /**
+     * Cluster range of each light in the current frame: minimum and maximum x, y and z.
+     * A light that doesn't touch any cluster has a minimum z greater than it's maximum z.
+     */
+    private int[] lightBounds = new int[64 * 6];
+
+    /**
+     * Number of lights in the current frame.
+     */
+    private int lightCount = 0;
+
+    /**
+     * Number of lights assigned to each cluster.
+     */
+    private final int[] clusterCounts = new int[CLUSTER_COUNT];
+
+    /**
+     * Offset of the first light index of each cluster.
+     */
+    private final int[] clusterOffsets = new int[CLUSTER_COUNT];
+
+    /**
+     * Light indices of all clusters, as consecutive lists.
+     */
+    private int[] indices = new int[1024];
+
+    /**
+     * Total number of light indices in the current frame.
+     */
+    private int indexCount = 0;
+
+    /**
+     * Number of clusters in the current frame that had more lights than {@link #CLUSTER_LIGHT_LIMIT}.
+     */
+    private int overflowCount = 0;
+
+    /**
+     * Near plane distance of the current frame.
+     */
+    private float near = 0.01f;
+
+    /**
+     * Far plane distance of the current frame.
+     */
+    private float far = 1000f;
+
+    /**
+     * Factor to convert the logarithm of a view depth into a depth slice.
+     */
+    private float depthScale = 1f;
+
+    /**
+     * Bias to convert the logarithm of a view depth into a depth slice.
+     */
+    private float depthBias = 0f;
+
+    /**
+     * Cluster data, the light offset and count of each cluster.
+     */
+    private final FloatBuffer clusterData = BufferUtils.createFloatBuffer(CLUSTER_COUNT * 4);
+
+    /**
+     * Light index data.
+     */
+    private FloatBuffer indexData = BufferUtils.createFloatBuffer(DATA_TEXTURE_WIDTH);
+
+    /**
+     * Light data.
+     */
+    private FloatBuffer lightData = BufferUtils.createFloatBuffer(DATA_TEXTURE_WIDTH * LIGHT_TEXELS * 4);
+
+    /**
+     * OpenGL texture holding the cluster data, or zero if it hasn't been created yet.
+     */
+    private int clusterTexture = 0;
+
+    /**
+     * OpenGL texture holding the light index data, or zero if it hasn't been created yet.
+     */
+    private int indexTexture = 0;
+
+    /**
+     * OpenGL texture holding the light data, or zero if it hasn't been created yet.
+     */
+    private int lightTexture = 0;
+
+    /**
+     * Number of rows allocated for the light index texture.
+     */
+    private int indexTextureRows = 0;
+
+    /**
+     * Number of rows allocated for the light texture.
+     */
+    private int lightTextureRows = 0;
+
+    /**
+     * Check whether the given light is assigned to clusters.
+     * Only point lights with an effective range are clustered. Spot lights are left out, because the clustered shader
+     * path doesn't pack their direction and cone, so they're sent to shaders directly like directional lights.
+     *
+     * @param light Light.
+     *
+     * @return True if the light is assigned to clusters, false if not.
+     */
+    public static boolean isClustered(Light light) {
+        return light.getType() == Light.LIGHT_TYPE_POINT && light.getEffectiveRange() > 0f;
+    }
+
+    /**
+     * Assign the given lights to the clusters of the current view, and upload the result to the GPU.
+     * Only lights that are clustered as defined by {@link #isClustered(Light)} are assigned.
+     *
+     * @param lights Lights.
+     * @param viewMatrix Camera view matrix.
+     * @param projectionMatrix Camera perspective projection matrix.
+     */
+    public void update(List<Light> lights, Matrix4f viewMatrix, Matrix4f projectionMatrix) {
+        // Assign the lights, and upload the result
+        assign(lights, viewMatrix, projectionMatrix);
+        upload();
+    }
+
+    /**
+     * Assign the given lights to the clusters of the current view.
+     *
+     * @param lights Lights.
+     * @param viewMatrix Camera view matrix.
+     * @param projectionMatrix Camera perspective projection matrix.
+     */
+    void assign(List<Light> lights, Matrix4f viewMatrix, Matrix4f projectionMatrix) {
+        // Determine the depth slicing of the current projection
+        this.near = projectionMatrix.perspectiveNear();
+        this.far = projectionMatrix.perspectiveFar();
+        final float logRange = (float) Math.log(this.far / this.near);
+        this.depthScale = CLUSTERS_Z / logRange;
+        this.depthBias = -CLUSTERS_Z * (float) Math.log(this.near) / logRange;
+
+        // Collect the clustered lights, and compute their cluster bounds
+        this.lightCount = 0;
+        //noinspection ForLoopReplaceableByForEach
+        for(int i = 0, size = lights.size(); i < size; i++) {
+            final Light light = lights.get(i);
+            if(!isClustered(light))
+                continue;
+
+            // Make sure there's enough capacity, and add the light
+            if(this.lightCount == this.lights.length) {
+                this.lights = Arrays.copyOf(this.lights, this.lightCount * 2);
+                this.lightBounds = Arrays.copyOf(this.lightBounds, this.lightCount * 2 * 6);
+            }
+            this.lights[this.lightCount] = light;
+            computeBounds(this.lightCount, light, viewMatrix, projectionMatrix);
+            this.lightCount++;
+        }
+
+        // Count the lights of each cluster, on multiple threads if there are many lights
+        Arrays.fill(this.clusterCounts, 0);
+        if(this.lightCount >= PARALLEL_LIGHT_THRESHOLD)
+            IntStream.range(0, CLUSTERS_Z).parallel().forEach(this::countSlice);
+        else
+            for(int z = 0; z < CLUSTERS_Z; z++)
+                countSlice(z);
+
+        // Count the clusters that have more lights than the shaders process
+        final boolean overflowed = this.overflowCount > 0;
+        this.overflowCount = 0;
+        for(int i = 0; i < CLUSTER_COUNT; i++)
+            if(this.clusterCounts[i] > CLUSTER_LIGHT_LIMIT)
+                this.overflowCount++;
+
+        // Show a status message when clusters start to overflow
+        if(this.overflowCount > 0 && !overflowed)
+            System.out.println(this.overflowCount + " light clusters have more than " + CLUSTER_LIGHT_LIMIT
+                    + " lights, the remaining lights are skipped.");
+
+        // Compute the offset of each cluster in the index list
+        int offset = 0;
+        for(int i = 0; i < CLUSTER_COUNT; i++) {
+            this.clusterOffsets[i] = offset;
+            offset += this.clusterCounts[i];
+        }
+        this.indexCount = offset;
+        if(this.indices.length < this.indexCount)
+            this.indices = new int[Math.max(this.indexCount, this.indices.length * 2)];
+
+        // Fill the index lists of each cluster
+        if(this.lightCount >= PARALLEL_LIGHT_THRESHOLD)
+            IntStream.range(0, CLUSTERS_Z).parallel().forEach(this::fillSlice);
+        else
+            for(int z = 0; z < CLUSTERS_Z; z++)
+                fillSlice(z);
+    }
+
+    /**
+     * Compute the range of clusters the given light touches.
+     * The view space bounding box of the light sphere is projected to determine the screen tiles,
+     * which is conservative but cheap.
+     *
+     * @param index Light index.
+     * @param light Light.
+     * @param viewMatrix Camera view matrix.
+     * @param projectionMatrix Camera projection matrix.
+     */
+    private void computeBounds(int index, Light light, Matrix4f viewMatrix, Matrix4f projectionMatrix) {
+        // Transform the light position into view space
+        final float x = light.getPosition().x(), y = light.getPosition().y(), z = light.getPosition().z();
+        final float viewX = viewMatrix.m00() * x + viewMatrix.m10() * y + viewMatrix.m20() * z + viewMatrix.m30();
+        final float viewY = viewMatrix.m01() * x + viewMatrix.m11() * y + viewMatrix.m21() * z + viewMatrix.m31();
+        final float viewZ = viewMatrix.m02() * x + viewMatrix.m12() * y + viewMatrix.m22() * z + viewMatrix.m32();
+        final float depth = -viewZ;
+        final float range = light.getEffectiveRange();
+        final int bounds = index * 6;
+
+        // Skip the light if it's completely in front of the near or behind the far plane
+        if(depth + range < this.near || depth - range > this.far) {
+            this.lightBounds[bounds + 4] = 1;
+            this.lightBounds[bounds + 5] = 0;
+            return;
+        }
+
+        // Determine the depth slices
+        this.lightBounds[bounds + 4] = getSlice(Math.max(depth - range, this.near));
+        this.lightBounds[bounds + 5] = getSlice(Math.min(depth + range, this.far));
+
+        // Use all screen tiles if the sphere crosses the near plane
+        if(depth - range <= this.near) {
+            this.lightBounds[bounds] = 0;
+            this.lightBounds[bounds + 1] = CLUSTERS_X - 1;
+            this.lightBounds[bounds + 2] = 0;
+            this.lightBounds[bounds + 3] = CLUSTERS_Y - 1;
+            return;
+        }
+
+        // Project the corners of the view space bounding box, to find the screen space bounds
+        float minX = Float.POSITIVE_INFINITY, minY = Float.POSITIVE_INFINITY;
+        float maxX = Float.NEGATIVE_INFINITY, maxY = Float.NEGATIVE_INFINITY;
+        for(int corner = 0; corner < 8; corner++) {
+            final float cornerX = (corner & 1) == 0 ? viewX - range : viewX + range;
+            final float cornerY = (corner & 2) == 0 ? viewY - range : viewY + range;
+            final float cornerZ = (corner & 4) == 0 ? viewZ - range : viewZ + range;
+            final float clipX = projectionMatrix.m00() * cornerX + projectionMatrix.m10() * cornerY
+                    + projectionMatrix.m20() * cornerZ + projectionMatrix.m30();
+            final float clipY = projectionMatrix.m01() * cornerX + projectionMatrix.m11() * cornerY
+                    + projectionMatrix.m21() * cornerZ + projectionMatrix.m31();
+            final float clipW = projectionMatrix.m03() * cornerX + projectionMatrix.m13() * cornerY
+                    + projectionMatrix.m23() * cornerZ + projectionMatrix.m33();
+            minX = Math.min(minX, clipX / clipW);
+            maxX = Math.max(maxX, clipX / clipW);
+            minY = Math.min(minY, clipY / clipW);
+            maxY = Math.max(maxY, clipY / clipW);
+        }
+
+        // Skip the light if it's outside the screen
+        if(maxX < -1f || minX > 1f || maxY < -1f || minY > 1f) {
+            this.lightBounds[bounds + 4] = 1;
+            this.lightBounds[bounds + 5] = 0;
+            return;
+        }
+
+        // Convert the screen space bounds into tiles
+        this.lightBounds[bounds] = getTile(minX, CLUSTERS_X);
+        this.lightBounds[bounds + 1] = getTile(maxX, CLUSTERS_X);
+        this.lightBounds[bounds + 2] = getTile(minY, CLUSTERS_Y);
+        this.lightBounds[bounds + 3] = getTile(maxY, CLUSTERS_Y);
+    }
+
+    /**
+     * Get the depth slice of the given view depth.
+     *
+     * @param depth View depth.
+     *
+     * @return Depth slice.
+     */
+    int getSlice(float depth) {
+        final int slice = (int) Math.floor(Math.log(depth) * this.depthScale + this.depthBias);
+        return Math.min(Math.max(slice, 0), CLUSTERS_Z - 1);
+    }
+
+    /**
+     * Get the screen tile of the given normalized device coordinate.
+     *
+     * @param ndc Normalized device coordinate.
+     * @param tiles Number of tiles along the axis.
+     *
+     * @return Screen tile.
+     */
+    static int getTile(float ndc, int tiles) {
+        final int tile = (int) Math.floor((ndc * 0.5f + 0.5f) * tiles);
+        return Math.min(Math.max(tile, 0), tiles - 1);
+    }
+
+    /**
+     * Get the index of the cluster at the given screen tile and depth slice.
+     *
+     * @param x Horizontal screen tile.
+     * @param y Vertical screen tile.
+     * @param z Depth slice.
+     *
+     * @return Cluster index.
+     */
+    static int getCluster(int x, int y, int z) {
+        return (z * CLUSTERS_Y + y) * CLUSTERS_X + x;
+    }
+
+    /**
+     * Count the lights of each cluster in the given depth slice.
+     * Each slice only touches it's own clusters, so slices can be counted concurrently.
+     *
+     * @param z Depth slice.
+     */
+    private void countSlice(int z) {
+        for(int i = 0; i < this.lightCount; i++) {
+            final int bounds = i * 6;
+            if(z < this.lightBounds[bounds + 4] || z > this.lightBounds[bounds + 5])
+                continue;
+
+            for(int y = this.lightBounds[bounds + 2]; y <= this.lightBounds[bounds + 3]; y++)
+                for(int x = this.lightBounds[bounds]; x <= this.lightBounds[bounds + 1]; x++)
+                    this.clusterCounts[getCluster(x, y, z)]++;
+        }
+    }
+
+    /**
+     * Fill the light index lists of each cluster in the given depth slice.
+     * The cluster offsets of the slice are used as write cursors and are restored afterwards.
+     * Each slice only touches it's own clusters, so slices can be filled concurrently.
+     *
+     * @param z Depth slice.
+     */
+    private void fillSlice(int z) {
+        // Write the light indices
+        for(int i = 0; i < this.lightCount; i++) {
+            final int bounds = i * 6;
+            if(z < this.lightBounds[bounds + 4] || z > this.lightBounds[bounds + 5])
+                continue;
+
+            for(int y = this.lightBounds[bounds + 2]; y <= this.lightBounds[bounds + 3]; y++)
+                for(int x = this.lightBounds[bounds]; x <= this.lightBounds[bounds + 1]; x++)
+                    this.indices[this.clusterOffsets[getCluster(x, y, z)]++] = i;
+        }
+
+        // Restore the offsets of the slice
+        for(int cluster = z * CLUSTERS_X * CLUSTERS_Y, end = cluster + CLUSTERS_X * CLUSTERS_Y; cluster < end; cluster++)
+            this.clusterOffsets[cluster] -= this.clusterCounts[cluster];
+    }
+
+    /**
+     * Pack the cluster, index and light data, and upload them into their textures.
+     */
+    private void upload() {
+        // Pack the cluster data, and clamp the light count of each cluster to what the shaders process
+        this.clusterData.clear();
+        for(int i = 0; i < CLUSTER_COUNT; i++)
+            this.clusterData.put(this.clusterOffsets[i]).put(Math.min(this.clusterCounts[i], CLUSTER_LIGHT_LIMIT))
+                    .put(0f).put(0f);
+        this.clusterData.flip();
+
+        // Pack the light indices
+        final int indexRows = Math.max((this.indexCount + DATA_TEXTURE_WIDTH - 1) / DATA_TEXTURE_WIDTH, 1);
+        if(this.indexData.capacity() < indexRows * DATA_TEXTURE_WIDTH)
+            this.indexData = BufferUtils.createFloatBuffer(indexRows * DATA_TEXTURE_WIDTH);
+        this.indexData.clear();
+        for(int i = 0; i < this.indexCount; i++)
+            this.indexData.put(this.indices[i]);
+        while(this.indexData.position() < indexRows * DATA_TEXTURE_WIDTH)
+            this.indexData.put(0f);
+        this.indexData.flip();
+
+        // Pack the light data, each light uses a texel in consecutive rows of it's row block
+        final int lightRows = Math.max((this.lightCount + DATA_TEXTURE_WIDTH - 1) / DATA_TEXTURE_WIDTH, 1) * LIGHT_TEXELS;
+        if(this.lightData.capacity() < lightRows * DATA_TEXTURE_WIDTH * 4)
+            this.lightData = BufferUtils.createFloatBuffer(lightRows * DATA_TEXTURE_WIDTH * 4);
+        this.lightData.clear();
+        this.lightData.limit(lightRows * DATA_TEXTURE_WIDTH * 4);
+        for(int i = 0; i < this.lightCount; i++) {
+            final Light light = this.lights[i];
+            final int texel = ((i / DATA_TEXTURE_WIDTH) * LIGHT_TEXELS * DATA_TEXTURE_WIDTH + i % DATA_TEXTURE_WIDTH) * 4;
+            final int nextRow = DATA_TEXTURE_WIDTH * 4;
+            this.lightData.put(texel, light.getPosition().x());
+            this.lightData.put(texel + 1, light.getPosition().y());
+            this.lightData.put(texel + 2, light.getPosition().z());
+            this.lightData.put(texel + 3, light.getEffectiveRange());
+            this.lightData.put(texel + nextRow, light.getColor().x());
+            this.lightData.put(texel + nextRow + 1, light.getColor().y());
+            this.lightData.put(texel + nextRow + 2, light.getColor().z());
+            this.lightData.put(texel + nextRow + 3, light.getBrightness());
+        }
+
+        // Create the textures if they haven't been created yet
+        if(this.clusterTexture == 0) {
+            this.clusterTexture = createTexture();
+            GL11.glTexImage2D(GL11.GL_TEXTURE_2D, 0, GL30.GL_RGBA32F, CLUSTERS_X * CLUSTERS_Y, CLUSTERS_Z, 0,
+                    GL11.GL_RGBA, GL11.GL_FLOAT, (FloatBuffer) null);
+            this.indexTexture = createTexture();
+            this.lightTexture = createTexture();
+        }
+
+        // Upload the cluster data
+        GL13.glActiveTexture(GL13.GL_TEXTURE0 + TEXTURE_UNIT_CLUSTERS);
+        GL11.glBindTexture(GL11.GL_TEXTURE_2D, this.clusterTexture);
+        GL11.glTexSubImage2D(GL11.GL_TEXTURE_2D, 0, 0, 0, CLUSTERS_X * CLUSTERS_Y, CLUSTERS_Z,
+                GL11.GL_RGBA, GL11.GL_FLOAT, this.clusterData);
+
+        // Upload the light indices, and grow the texture if required
+        GL13.glActiveTexture(GL13.GL_TEXTURE0 + TEXTURE_UNIT_INDICES);
+        GL11.glBindTexture(GL11.GL_TEXTURE_2D, this.indexTexture);
+        if(indexRows > this.indexTextureRows) {
+            this.indexTextureRows = indexRows;
+            GL11.glTexImage2D(GL11.GL_TEXTURE_2D, 0, GL30.GL_R32F, DATA_TEXTURE_WIDTH, indexRows, 0,
+                    GL11.GL_RED, GL11.GL_FLOAT, (FloatBuffer) null);
+        }
+        GL11.glTexSubImage2D(GL11.GL_TEXTURE_2D, 0, 0, 0, DATA_TEXTURE_WIDTH, indexRows,
+                GL11.GL_RED, GL11.GL_FLOAT, this.indexData);
+
+        // Upload the light data, and grow the texture if required
+        GL13.glActiveTexture(GL13.GL_TEXTURE0 + TEXTURE_UNIT_LIGHTS);
+        GL11.glBindTexture(GL11.GL_TEXTURE_2D, this.lightTexture);
+        if(lightRows > this.lightTextureRows) {
+            this.lightTextureRows = lightRows;
+            GL11.glTexImage2D(GL11.GL_TEXTURE_2D, 0, GL30.GL_RGBA32F, DATA_TEXTURE_WIDTH, lightRows, 0,
+                    GL11.GL_RGBA, GL11.GL_FLOAT, (FloatBuffer) null);
+        }
+        GL11.glTexSubImage2D(GL11.GL_TEXTURE_2D, 0, 0, 0, DATA_TEXTURE_WIDTH, lightRows,
+                GL11.GL_RGBA, GL11.GL_FLOAT, this.lightData);
+
+        // Switch back to the first texture unit
+        GL13.glActiveTexture(GL13.GL_TEXTURE0);
+    }
+
+    /**
+     * Create and bind a texture for cluster data, which is sampled without filtering.
+     *
+     * @return Texture handle.
+     */
+    private static int createTexture() {
+        final int texture = GL11.glGenTextures();
+        GL11.glBindTexture(GL11.GL_TEXTURE_2D, texture);
+        GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MIN_FILTER, GL11.GL_NEAREST);
+        GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MAG_FILTER, GL11.GL_NEAREST);
+        GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_WRAP_S, GL12.GL_CLAMP_TO_EDGE);
+        GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_WRAP_T, GL12.GL_CLAMP_TO_EDGE);
+        return texture;
+    }
+
+    /**
+     * Send the cluster configuration to the given shader.
+     * The shader must be bound.
+     *
+     * @param shader Shader.
+     * @param enabled True if clustered lighting is enabled, false if not.
+     */
+    public void sendToShader(ShaderInterface shader, boolean enabled) {
+        // Send whether clustered lighting is used
+        shader.getUniform("clustered").set1i(enabled ? 1 : 0);
+        if(!enabled)
+            return;
+
+        // Send the grid configuration and the texture sizes
+        shader.getUniform("clusterGrid").set3f(CLUSTERS_X, CLUSTERS_Y, CLUSTERS_Z);
+        shader.getUniform("clusterDepth").set2f(this.depthScale, this.depthBias);
+        shader.getUniform("clusterIndexSize").set2f(DATA_TEXTURE_WIDTH, Math.max(this.indexTextureRows, 1));
+        shader.getUniform("clusterLightSize").set2f(DATA_TEXTURE_WIDTH, Math.max(this.lightTextureRows, 1));
+
+        // Send the texture units
+        shader.getUniform("clusterTexture").set1i(TEXTURE_UNIT_CLUSTERS);
+        shader.getUniform("clusterIndexTexture").set1i(TEXTURE_UNIT_INDICES);
+        shader.getUniform("clusterLightTexture").set1i(TEXTURE_UNIT_LIGHTS);
+    }
+
+    /**
+     * Get the number of lights that were assigned to clusters in the current frame.
+     *
+     * @return Light count.
+     */
+    public int getLightCount() {
+        return this.lightCount;
+    }
+
+    /**
+     * Get the number of lights assigned to the given cluster in the current frame, before clamping it to the
+     * {@link #CLUSTER_LIGHT_LIMIT}.
+     *
+     * @param cluster Cluster index.
+     *
+     * @return Light count.
+     */
+    int getClusterLightCount(int cluster) {
+        return this.clusterCounts[cluster];
+    }
+
+    /**
+     * Get a light assigned to the given cluster in the current frame.
+     *
+     * @param cluster Cluster index.
+     * @param i Index of the light in the cluster.
+     *
+     * @return Light.
+     */
+    Light getClusterLight(int cluster, int i) {
+        return this.lights[this.indices[this.clusterOffsets[cluster] + i]];
+    }
+
+    /**
+     * Get the number of clusters in the current frame that had more lights than {@link #CLUSTER_LIGHT_LIMIT}.
+     * The lights beyond the limit aren't processed by the shaders for these clusters.
+     *
+     * @return Overflowing cluster count.
+     */
+    public int getOverflowCount() {
+        return this.overflowCount;
+    }
+
+    /**
+     * Get the total number of light indices of all clusters in the current frame.
+     *
+     * @return Light index count.
+     */
+    public int getIndexCount() {
+        return this.indexCount;
+    }
+
+    /**
+     * Delete the textures of the grid.
+     */
+    public void dispose() {
+        if(this.clusterTexture != 0) {
+            GL11.glDeleteTextures(this.clusterTexture);
+            GL11.glDeleteTextures(this.indexTexture);
+            GL11.glDeleteTextures(this.lightTexture);
+        }
+        this.clusterTexture = 0;
+        this.indexTexture = 0;
+        this.lightTexture = 0;
+        this.indexTextureRows = 0;
+        this.lightTextureRows = 0;
+    }
+}
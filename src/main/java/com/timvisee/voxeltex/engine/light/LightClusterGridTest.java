@@ -0,0 +1,137 @@
+/******************************************************************************
+ * Copyright (c) Tim Visee 2016. All rights reserved.                         *
+ *                                                                            *
+ * @author Tim Visee                                                          *
+ * @website http://timvisee.com/                                              *
+ *                                                                            *
+ * Open Source != No Copyright                                                *
+ *                                                                            *
+ * Permission is hereby granted, free of charge, to any person obtaining a    *
+ * copy of this software and associated documentation files (the "Software"), *
+ * to deal in the Software without restriction, including without limitation  *
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,   *
+ * and/or sell copies of the Software, and to permit persons to whom the      *
+ * Software is furnished to do so, subject to the following conditions:       *
+ *                                                                            *
+ * The above copyright notice and this permission notice shall be included    *
+ * in all copies or substantial portions of the Software.                     *
+ *                                                                            *
+ * You should have received a copy of The MIT License (MIT) along with this   *
+ * program. If not, see <http://opensource.org/licenses/MIT/>.                *
+ ******************************************************************************/
+
+
+package com.timvisee.voxeltex.engine.light;
+
+import org.joml.Matrix4f;
+import org.joml.Vector3f;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class LightClusterGridTest {
+
+    /**
+     * Camera view matrix, looking down the negative z axis from the origin.
+     */
+    private static final Matrix4f VIEW = new Matrix4f();
+
+    /**
+     * Camera projection matrix.
+     */
+    private static final Matrix4f PROJECTION =
+            new Matrix4f().perspective((float) Math.toRadians(60), 16f / 9f, 0.1f, 100f);
+
+    @org.junit.Test
+    public void pointLight() throws Exception {
+        // Assign a small point light straight ahead of the camera
+        final LightClusterGrid grid = new LightClusterGrid();
+        final Light light = createPointLight(new Vector3f(0, 0, -10), 1f);
+        grid.assign(Collections.singletonList(light), VIEW, PROJECTION);
+        assertEquals(1, grid.getLightCount());
+
+        // The light must be in the center cluster at it's depth
+        final int x = LightClusterGrid.getTile(0f, LightClusterGrid.CLUSTERS_X);
+        final int y = LightClusterGrid.getTile(0f, LightClusterGrid.CLUSTERS_Y);
+        final int center = LightClusterGrid.getCluster(x, y, grid.getSlice(10f));
+        assertEquals(1, grid.getClusterLightCount(center));
+        assertSame(light, grid.getClusterLight(center, 0));
+
+        // The light must not be in clusters at the screen corner, or far behind it
+        assertEquals(0, grid.getClusterLightCount(LightClusterGrid.getCluster(0, 0, grid.getSlice(10f))));
+        assertEquals(0, grid.getClusterLightCount(LightClusterGrid.getCluster(x, y, grid.getSlice(50f))));
+    }
+
+    @org.junit.Test
+    public void nearPlane() throws Exception {
+        // A light around the camera crosses the near plane, and must touch all screen tiles of the first slice
+        final LightClusterGrid grid = new LightClusterGrid();
+        grid.assign(Collections.singletonList(createPointLight(new Vector3f(), 2f)), VIEW, PROJECTION);
+        for(int y = 0; y < LightClusterGrid.CLUSTERS_Y; y++)
+            for(int x = 0; x < LightClusterGrid.CLUSTERS_X; x++)
+                assertEquals(1, grid.getClusterLightCount(LightClusterGrid.getCluster(x, y, 0)));
+    }
+
+    @org.junit.Test
+    public void excludedLights() throws Exception {
+        // Directional and spot lights aren't clustered
+        final Light directional = new Light(Light.LIGHT_TYPE_DIRECTIONAL, new Vector3f(), new Vector3f(),
+                new Vector3f(1, 1, 1), 1f);
+        final Light spot = new Light(Light.LIGHT_TYPE_SPOT, new Vector3f(0, 0, -10), new Vector3f(),
+                new Vector3f(1, 1, 1), 1f);
+        assertFalse(LightClusterGrid.isClustered(directional));
+        assertFalse(LightClusterGrid.isClustered(spot));
+
+        // A point light behind the camera is clustered, but must not touch any cluster
+        final Light behind = createPointLight(new Vector3f(0, 0, 20), 1f);
+        assertTrue(LightClusterGrid.isClustered(behind));
+        final LightClusterGrid grid = new LightClusterGrid();
+        grid.assign(Arrays.asList(directional, spot, behind), VIEW, PROJECTION);
+        assertEquals(1, grid.getLightCount());
+        assertEquals(0, grid.getIndexCount());
+    }
+
+    @org.junit.Test
+    public void overflow() throws Exception {
+        // Assign more lights to the same spot than the shaders process for each cluster
+        final int count = LightClusterGrid.CLUSTER_LIGHT_LIMIT + 44;
+        final List<Light> lights = new ArrayList<>(count);
+        for(int i = 0; i < count; i++)
+            lights.add(createPointLight(new Vector3f(0, 0, -10), 0.1f));
+        final LightClusterGrid grid = new LightClusterGrid();
+        grid.assign(lights, VIEW, PROJECTION);
+
+        // All lights must be assigned, and the overflowing clusters must be reported
+        final int center = LightClusterGrid.getCluster(LightClusterGrid.getTile(0f, LightClusterGrid.CLUSTERS_X),
+                LightClusterGrid.getTile(0f, LightClusterGrid.CLUSTERS_Y), grid.getSlice(10f));
+        assertEquals(count, grid.getClusterLightCount(center));
+        for(int i = 0; i < count; i++)
+            assertSame(lights.get(i), grid.getClusterLight(center, i));
+        assertTrue(grid.getOverflowCount() > 0);
+
+        // The overflow must be cleared once the lights are gone
+        grid.assign(Collections.<Light>emptyList(), VIEW, PROJECTION);
+        assertEquals(0, grid.getOverflowCount());
+    }
+
+    /**
+     * Create a white point light with an explicit range.
+     *
+     * @param position Light position.
+     * @param range Light range.
+     *
+     * @return Point light.
+     */
+    private static Light createPointLight(Vector3f position, float range) {
+        final Light light = new Light(Light.LIGHT_TYPE_POINT, position, new Vector3f(), new Vector3f(1, 1, 1), 1f);
+        light.setRange(range);
+        return light;
+    }
+}
@@ -24,19 +24,24 @@ package com.timvisee.voxeltex.engine.light;
 
 import com.timvisee.voxeltex.architecture.gameobject.AbstractGameObject;
 import com.timvisee.voxeltex.module.shader.Shader;
+import org.joml.Matrix4f;
 import org.joml.Quaternionf;
 import org.joml.Vector3f;
+import org.joml.Vector3fc;
 import org.lwjgl.BufferUtils;
 
 import java.nio.FloatBuffer;
 import java.nio.IntBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class LightManager {
 
     /**
      * Maximum number of lights that can be handled by the light shader.
+     * In clustered lighting mode, this only limits the number of directional and spot lights.
      */
     public static final int SHADER_LIGHT_LIMIT = 16;
 
@@ -75,6 +80,87 @@ public class LightManager {
      */
     private FloatBuffer lightColorBuffer;
 
+    /**
+     * Effective range of the buffered lights.
+     */
+    private FloatBuffer lightRangeBuffer;
+
+    /**
+     * The lights that are selected to be buffered.
+     */
+    private final Light[] selectedLights = new Light[SHADER_LIGHT_LIMIT];
+
+    /**
+     * The light that is buffered at each buffer slot.
+     */
+    private final Light[] bufferedLights = new Light[SHADER_LIGHT_LIMIT];
+
+    /**
+     * The data version of the light that is buffered at each buffer slot.
+     */
+    private final int[] bufferedLightVersions = new int[SHADER_LIGHT_LIMIT];
+
+    /**
+     * Version of the buffered light data, which changes each time the buffers are modified.
+     * Versions are unique across all light managers, so a shader never confuses data of different scenes.
+     */
+    private long dataVersion = -1;
+
+    /**
+     * Counter used to create unique data versions.
+     */
+    private static final AtomicLong DATA_VERSION_COUNTER = new AtomicLong();
+
+    /**
+     * Defines whether clustered lighting is used.
+     */
+    private boolean clustered = false;
+
+    /**
+     * Cluster grid, used to assign lights to clusters in clustered lighting mode.
+     */
+    private final LightClusterGrid clusterGrid = new LightClusterGrid();
+
+    /**
+     * Defines whether the most influential lights are selected and sent for each object.
+     */
+    private boolean perObjectLighting = false;
+
+    /**
+     * Maximum number of lights that are selected for each object.
+     */
+    private int perObjectLightLimit = 8;
+
+    /**
+     * Spatial index of the lights, used to select the lights for each object.
+     */
+    private final LightSpatialIndex spatialIndex = new LightSpatialIndex();
+
+    /**
+     * Types of the lights selected for an object.
+     */
+    private final IntBuffer selectionTypeBuffer = BufferUtils.createIntBuffer(SHADER_LIGHT_LIMIT);
+
+    /**
+     * Positions of the lights selected for an object.
+     */
+    private final FloatBuffer selectionPositionBuffer = BufferUtils.createFloatBuffer(SHADER_LIGHT_LIMIT * 3);
+
+    /**
+     * Rotations of the lights selected for an object.
+     */
+    private final FloatBuffer selectionRotationBuffer = BufferUtils.createFloatBuffer(SHADER_LIGHT_LIMIT * 3);
+
+    /**
+     * Colors of the lights selected for an object.
+     */
+    private final FloatBuffer selectionColorBuffer = BufferUtils.createFloatBuffer(SHADER_LIGHT_LIMIT * 4);
+
+    /**
+     * Effective ranges of the lights selected for an object.
+     */
+    private final FloatBuffer selectionRangeBuffer = BufferUtils.createFloatBuffer(SHADER_LIGHT_LIMIT);
+
     /**
      * Constructor.
      */
@@ -128,7 +214,7 @@ public class LightManager {
         this.lights.add(light);
 
         // Show a warning if there are more lights than can be handled
-        if(this.lights.size() > SHADER_LIGHT_LIMIT)
+        if(!this.clustered && !this.perObjectLighting && this.lights.size() > SHADER_LIGHT_LIMIT)
             System.out.println("Warning: Some lights might not be rendered because the current number of lights " +
                     "exceeds the shader light limit of " + this.lights.size() + "/" + SHADER_LIGHT_LIMIT);
 
@@ -136,6 +222,130 @@ public class LightManager {
         return light;
     }
 
+    /**
+     * Check whether clustered lighting is used.
+     *
+     * @return True if clustered lighting is used, false if not.
+     */
+    public boolean isClusteredLighting() {
+        return this.clustered;
+    }
+
+    /**
+     * Set whether clustered lighting is used.
+     * In clustered lighting mode, the view frustum is split into a grid of clusters and each point light is assigned
+     * to the clusters it's range touches, so shaders only process the lights affecting each fragment.
+     * This allows thousands of lights. Directional and spot lights are still sent directly, up to the shader light
+     * limit.
+     *
+     * @param clustered True to use clustered lighting, false to send all lights directly.
+     */
+    public void setClusteredLighting(boolean clustered) {
+        this.clustered = clustered;
+
+        // Rebuild the buffers with the lights of the new mode
+        this.bufferedLightCount = -1;
+    }
+
+    /**
+     * Get the cluster grid used in clustered lighting mode.
+     *
+     * @return Cluster grid.
+     */
+    public LightClusterGrid getClusterGrid() {
+        return this.clusterGrid;
+    }
+
+    /**
+     * Check whether the most influential lights are selected and sent for each object.
+     *
+     * @return True if per object lighting is used, false if not.
+     */
+    public boolean isPerObjectLighting() {
+        return this.perObjectLighting;
+    }
+
+    /**
+     * Set whether the most influential lights are selected and sent for each object.
+     * This allows many lights on targets where clustered lighting isn't available.
+     * Clustered lighting takes precedence if both are enabled.
+     *
+     * @param perObjectLighting True to select the lights for each object, false to send the same lights to all objects.
+     */
+    public void setPerObjectLighting(boolean perObjectLighting) {
+        this.perObjectLighting = perObjectLighting;
+    }
+
+    /**
+     * Check whether per object light selection is currently active.
+     *
+     * @return True if active, false if not.
+     */
+    public boolean isPerObjectLightingActive() {
+        return this.perObjectLighting && !this.clustered;
+    }
+
+    /**
+     * Get the maximum number of lights that are selected for each object.
+     *
+     * @return Light limit.
+     */
+    public int getPerObjectLightLimit() {
+        return this.perObjectLightLimit;
+    }
+
+    /**
+     * Set the maximum number of lights that are selected for each object.
+     * Existing selections keep their limit until they're recreated.
+     *
+     * @param perObjectLightLimit Light limit, up to the shader light limit.
+     */
+    public void setPerObjectLightLimit(int perObjectLightLimit) {
+        this.perObjectLightLimit = Math.min(Math.max(perObjectLightLimit, 1), SHADER_LIGHT_LIMIT);
+    }
+
+    /**
+     * Get the spatial index of the lights, used for per object lighting.
+     *
+     * @return Light spatial index.
+     */
+    public LightSpatialIndex getSpatialIndex() {
+        return this.spatialIndex;
+    }
+
+    /**
+     * Create a light selection that can be cached by an object, for per object lighting.
+     *
+     * @return Light selection.
+     */
+    public LightSelection createSelection() {
+        return new LightSelection(this.perObjectLightLimit);
+    }
+
+    /**
+     * Make sure the given light selection of an object is up to date.
+     *
+     * @param selection Light selection of the object.
+     * @param center World center of the object bounding sphere.
+     * @param radius World radius of the object bounding sphere.
+     * @param worldVersion World version of the object transform.
+     */
+    public void selectLights(LightSelection selection, Vector3f center, float radius, int worldVersion) {
+        selection.validate(this.spatialIndex, center, radius, worldVersion);
+    }
+
+    /**
+     * Assign the lights to the clusters of the current view, if clustered lighting is used.
+     * This must be called each frame after the camera matrices are updated, before drawing.
+     *
+     * @param viewMatrix Camera view matrix.
+     * @param projectionMatrix Camera perspective projection matrix.
+     */
+    public void updateClusters(Matrix4f viewMatrix, Matrix4f projectionMatrix) {
+        if(this.clustered)
+            this.clusterGrid.update(this.lights, viewMatrix, projectionMatrix);
+    }
+
     /**
      * Get the list of lights.
      *
@@ -203,59 +413,94 @@ public class LightManager {
         // Clear the list of lights queued to be removed
         this.lightsRemoveQueue.clear();
 
-        // Buffer the lights
+        // Buffer the lights, and update the spatial index for per object lighting
         buffer();
+        if(isPerObjectLightingActive())
+            this.spatialIndex.update(this.lights);
     }
 
     /**
      * Buffer all current light data so it can be be send to shaders.
+     * Only lights that changed since they were last buffered are written to the buffers.
+     * In clustered lighting mode, only lights that aren't assigned to clusters are buffered.
      */
     public void buffer() {
+        // Select the lights to buffer, clustered lights are handled by the cluster grid in clustered mode
+        int count = 0;
+        //noinspection ForLoopReplaceableByForEach
+        for(int i = 0, size = this.lights.size(); i < size && count < SHADER_LIGHT_LIMIT; i++) {
+            final Light light = this.lights.get(i);
+            if(!this.clustered || !LightClusterGrid.isClustered(light))
+                this.selectedLights[count++] = light;
+        }
+        Arrays.fill(this.selectedLights, count, SHADER_LIGHT_LIMIT, null);
+        boolean changed = false;
+
         // Compare the current number of lights to the buffered count, to check whether we should recreate the buffers
-        if(getLightCount() != this.bufferedLightCount) {
+        if(count != this.bufferedLightCount) {
             // Set the buffered count
-            this.bufferedLightCount = getLightCount();
+            this.bufferedLightCount = count;
 
             // Recreate the buffers
             this.lightTypeBuffer = BufferUtils.createIntBuffer(this.bufferedLightCount);
             this.lightPositionBuffer = BufferUtils.createFloatBuffer(this.bufferedLightCount * 3);
             this.lightRotationBuffer = BufferUtils.createFloatBuffer(this.bufferedLightCount * 3);
             this.lightColorBuffer = BufferUtils.createFloatBuffer(this.bufferedLightCount * 4);
+            this.lightRangeBuffer = BufferUtils.createFloatBuffer(this.bufferedLightCount);
+
+            // Forget the buffered lights, so all of them are written
+            Arrays.fill(this.bufferedLights, null);
+            changed = true;
         }
 
-        // Clear the buffers
-        this.lightTypeBuffer.clear();
-        this.lightPositionBuffer.clear();
-        this.lightRotationBuffer.clear();
-        this.lightColorBuffer.clear();
-
-        // Add the lights to the buffers
-        for(int i = 0, size = Math.min(this.bufferedLightCount, SHADER_LIGHT_LIMIT); i < size; i++) {
-            this.lightTypeBuffer.put(this.lights.get(i).getType());
-
-            this.lightPositionBuffer.put(this.lights.get(i).getPosition().x);
-            this.lightPositionBuffer.put(this.lights.get(i).getPosition().y);
-            this.lightPositionBuffer.put(this.lights.get(i).getPosition().z);
-
-            this.lightRotationBuffer.put(this.lights.get(i).getRotation().x);
-            this.lightRotationBuffer.put(this.lights.get(i).getRotation().y);
-            this.lightRotationBuffer.put(this.lights.get(i).getRotation().z);
-
-            this.lightColorBuffer.put(this.lights.get(i).getColor().x);
-            this.lightColorBuffer.put(this.lights.get(i).getColor().y);
-            this.lightColorBuffer.put(this.lights.get(i).getColor().z);
-            this.lightColorBuffer.put(this.lights.get(i).getBrightness());
+        // Write the lights that changed since they were buffered
+        for(int i = 0; i < count; i++) {
+            final Light light = this.selectedLights[i];
+            if(light == this.bufferedLights[i] && light.getVersion() == this.bufferedLightVersions[i])
+                continue;
+
+            this.lightTypeBuffer.put(i, light.getType());
+
+            this.lightPositionBuffer.put(i * 3, light.getPosition().x());
+            this.lightPositionBuffer.put(i * 3 + 1, light.getPosition().y());
+            this.lightPositionBuffer.put(i * 3 + 2, light.getPosition().z());
+
+            this.lightRotationBuffer.put(i * 3, light.getRotation().x());
+            this.lightRotationBuffer.put(i * 3 + 1, light.getRotation().y());
+            this.lightRotationBuffer.put(i * 3 + 2, light.getRotation().z());
+
+            this.lightColorBuffer.put(i * 4, light.getColor().x());
+            this.lightColorBuffer.put(i * 4 + 1, light.getColor().y());
+            this.lightColorBuffer.put(i * 4 + 2, light.getColor().z());
+            this.lightColorBuffer.put(i * 4 + 3, light.getBrightness());
+
+            this.lightRangeBuffer.put(i, light.getEffectiveRange());
+
+            this.bufferedLights[i] = light;
+            this.bufferedLightVersions[i] = light.getVersion();
+            changed = true;
         }
 
-        // Flip all buffers
-        this.lightTypeBuffer.flip();
-        this.lightPositionBuffer.flip();
-        this.lightRotationBuffer.flip();
-        this.lightColorBuffer.flip();
+        // Assign a new data version if anything changed, so the data is uploaded to the shaders again
+        if(changed)
+            this.dataVersion = DATA_VERSION_COUNTER.incrementAndGet();
+    }
+
+    /**
+     * Get the version of the buffered light data.
+     * The version changes each time the buffered data changes.
+     *
+     * @return Light data version.
+     */
+    public long getDataVersion() {
+        return this.dataVersion;
     }
 
     /**
      * Send the currently buffered data to the shader.
+     * The data is only uploaded if the shader didn't receive the current buffered data yet,
+     * so it's uploaded once for each shader program when the lights change.
+     * The shader must be bound.
      *
      * @param shader The shader to send the light data to.
      */
@@ -264,6 +509,20 @@ public class LightManager {
         if(this.lightTypeBuffer == null)
             buffer();
 
+        // Send the cluster configuration
+        this.clusterGrid.sendToShader(shader, this.clustered);
+
+        // Lights are sent for each object in per object lighting mode
+        if(isPerObjectLightingActive()) {
+            shader.setLightDataVersion(0);
+            return;
+        }
+
+        // Skip the upload if the shader already has the current data
+        if(shader.getLightDataVersion() == this.dataVersion)
+            return;
+        shader.setLightDataVersion(this.dataVersion);
+
         // Send the number of lights
         shader.setUniform1i("lightCount", this.bufferedLightCount);
 
@@ -272,5 +531,52 @@ public class LightManager {
         shader.setUniform3fv("lightPosition", this.lightPositionBuffer);
         shader.setUniform3fv("lightRotation", this.lightRotationBuffer);
         shader.setUniform4fv("lightColor", this.lightColorBuffer);
+        shader.setUniform1fv("lightRange", this.lightRangeBuffer);
+    }
+
+    /**
+     * Send the lights of the given selection to the shader, for per object lighting.
+     * Uploads are skipped by the shader if the selection equals the previously sent selection.
+     * The shader must be bound.
+     *
+     * @param shader The shader to send the light data to.
+     * @param selection Light selection of the object.
+     */
+    public void sendToShader(Shader shader, LightSelection selection) {
+        // Clear the buffers
+        final int count = selection.getCount();
+        this.selectionTypeBuffer.clear();
+        this.selectionPositionBuffer.clear();
+        this.selectionRotationBuffer.clear();
+        this.selectionColorBuffer.clear();
+        this.selectionRangeBuffer.clear();
+
+        // Add the selected lights to the buffers
+        for(int i = 0; i < count; i++) {
+            final Light light = selection.getLight(i);
+            final Vector3fc position = light.getPosition(), rotation = light.getRotation(), color = light.getColor();
+            this.selectionTypeBuffer.put(light.getType());
+            this.selectionPositionBuffer.put(position.x()).put(position.y()).put(position.z());
+            this.selectionRotationBuffer.put(rotation.x()).put(rotation.y()).put(rotation.z());
+            this.selectionColorBuffer.put(color.x()).put(color.y()).put(color.z()).put(light.getBrightness());
+            this.selectionRangeBuffer.put(light.getEffectiveRange());
+        }
+
+        // Flip all buffers
+        this.selectionTypeBuffer.flip();
+        this.selectionPositionBuffer.flip();
+        this.selectionRotationBuffer.flip();
+        this.selectionColorBuffer.flip();
+        this.selectionRangeBuffer.flip();
+
+        // Send the number of lights and the data
+        shader.setUniform1i("lightCount", count);
+        if(count == 0)
+            return;
+        shader.setUniform1iv("lightType", this.selectionTypeBuffer);
+        shader.setUniform3fv("lightPosition", this.selectionPositionBuffer);
+        shader.setUniform3fv("lightRotation", this.selectionRotationBuffer);
+        shader.setUniform4fv("lightColor", this.selectionColorBuffer);
+        shader.setUniform1fv("lightRange", this.selectionRangeBuffer);
     }
 }
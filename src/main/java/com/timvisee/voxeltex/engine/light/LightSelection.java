@@ -0,0 +1,277 @@
+/******************************************************************************
+ * Copyright (c) Tim Visee 2016. All rights reserved.                         *
+ *                                                                            *
+ * @author Tim Visee                                                          *
+ * @website http://timvisee.com/                                              *
+ *                                                                            *
+ * Open Source != No Copyright                                                *
+ *                                                                            *
+ * Permission is hereby granted, free of charge, to any person obtaining a    *
+ * copy of this software and associated documentation files (the "Software"), *
+ * to deal in the Software without restriction, including without limitation  *
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,   *
+ * and/or sell copies of the Software, and to permit persons to whom the      *
+ * Software is furnished to do so, subject to the following conditions:       *
+ *                                                                            *
+ * The above copyright notice and this permission notice shall be included    *
+ * in all copies or substantial portions of the Software.                     *
+ *                                                                            *
+ * You should have received a copy of The MIT License (MIT) along with this   *
+ * program. If not, see <http://opensource.org/licenses/MIT/>.                *
+ ******************************************************************************/
+
+package com.timvisee.voxeltex.engine.light;
+
+import org.joml.Vector3f;
+
+import java.util.Arrays;
+
+public class LightSelection {
+
+    /**
+     * Selected lights, most influential first.
+     */
+    private final Light[] lights;
+
+    /**
+     * Influence of each selected light.
+     */
+    private final float[] influences;
+
+    /**
+     * Number of selected lights.
+     */
+    private int count = 0;
+
+    /**
+     * The transform world version of the object the selection was made for, or -1 if it must be refreshed.
+     */
+    private int worldVersion = -1;
+
+    /**
+     * The light index version of the last validation.
+     */
+    private int indexVersion = -1;
+
+    /**
+     * Keys of the index cells the object touched when the selection was made.
+     */
+    private long[] cellKeys = new long[8];
+
+    /**
+     * Hashes of the index cells the object touched when the selection was made.
+     */
+    private long[] cellHashes = new long[8];
+
+    /**
+     * Number of index cells the object touched when the selection was made.
+     */
+    private int cellCount = 0;
+
+    /**
+     * Hash of the global lights when the selection was made.
+     */
+    private long globalHash = 0;
+
+    /**
+     * Constructor.
+     *
+     * @param limit Maximum number of lights to select.
+     */
+    public LightSelection(int limit) {
+        this.lights = new Light[limit];
+        this.influences = new float[limit];
+    }
+
+    /**
+     * Get the maximum number of lights to select.
+     *
+     * @return Light limit.
+     */
+    public int getLimit() {
+        return this.lights.length;
+    }
+
+    /**
+     * Get the number of selected lights.
+     *
+     * @return Light count.
+     */
+    public int getCount() {
+        return this.count;
+    }
+
+    /**
+     * Get the selected light at the given index, most influential first.
+     *
+     * @param i Light index.
+     *
+     * @return Light.
+     */
+    public Light getLight(int i) {
+        return this.lights[i];
+    }
+
+    /**
+     * Make sure the selection is up to date for an object with the given bounding sphere.
+     * The selection is only refreshed if the object moved, or if a light entered, left or changed in any of the
+     * index cells the object touches.
+     *
+     * @param index Light spatial index.
+     * @param center World center of the object bounding sphere.
+     * @param radius World radius of the object bounding sphere.
+     * @param worldVersion World version of the object transform.
+     *
+     * @return True if the selection was refreshed, false if it was up to date.
+     */
+    public boolean validate(LightSpatialIndex index, Vector3f center, float radius, int worldVersion) {
+        // The selection is valid if the object didn't move and the touched cells didn't change
+        if(worldVersion == this.worldVersion && isCellsValid(index))
+            return false;
+
+        // Refresh the selection
+        select(index, center, radius);
+        this.worldVersion = worldVersion;
+        this.indexVersion = index.getVersion();
+        return true;
+    }
+
+    /**
+     * Check whether the index cells touched by the object are unchanged since the selection was made.
+     *
+     * @param index Light spatial index.
+     *
+     * @return True if unchanged, false if not.
+     */
+    private boolean isCellsValid(LightSpatialIndex index) {
+        // The cells didn't change if the index wasn't rebuilt
+        if(index.getVersion() == this.indexVersion)
+            return true;
+
+        // Compare the cell and global hashes
+        if(index.getGlobalHash() != this.globalHash)
+            return false;
+        for(int i = 0; i < this.cellCount; i++)
+            if(getCellHash(index, this.cellKeys[i]) != this.cellHashes[i])
+                return false;
+
+        // The cells are unchanged, remember the index version to skip the comparison next time
+        this.indexVersion = index.getVersion();
+        return true;
+    }
+
+    /**
+     * Select the most influential lights for the given bounding sphere.
+     *
+     * @param index Light spatial index.
+     * @param center World center of the bounding sphere.
+     * @param radius World radius of the bounding sphere.
+     */
+    private void select(LightSpatialIndex index, Vector3f center, float radius) {
+        // Clear the current selection, and start a new candidate stamp so each light is only ranked once
+        Arrays.fill(this.lights, 0, this.count, null);
+        this.count = 0;
+        this.cellCount = 0;
+        final int stamp = Light.selectionStampCounter.incrementAndGet();
+
+        // Rank the global lights
+        //noinspection ForLoopReplaceableByForEach
+        for(int i = 0, size = index.getGlobalLights().size(); i < size; i++)
+            rank(index.getGlobalLights().get(i), center, radius, stamp);
+        this.globalHash = index.getGlobalHash();
+
+        // Rank the lights of each touched cell
+        final int minX = index.getCell(center.x - radius), maxX = index.getCell(center.x + radius);
+        final int minY = index.getCell(center.y - radius), maxY = index.getCell(center.y + radius);
+        final int minZ = index.getCell(center.z - radius), maxZ = index.getCell(center.z + radius);
+        for(int x = minX; x <= maxX; x++)
+            for(int y = minY; y <= maxY; y++)
+                for(int z = minZ; z <= maxZ; z++) {
+                    // Remember the cell and it's hash
+                    final long key = LightSpatialIndex.getCellKey(x, y, z);
+                    if(this.cellCount == this.cellKeys.length) {
+                        this.cellKeys = Arrays.copyOf(this.cellKeys, this.cellCount * 2);
+                        this.cellHashes = Arrays.copyOf(this.cellHashes, this.cellCount * 2);
+                    }
+                    this.cellKeys[this.cellCount] = key;
+                    this.cellHashes[this.cellCount] = getCellHash(index, key);
+                    this.cellCount++;
+
+                    // Rank the lights of the cell
+                    final LightSpatialIndex.Cell cell = index.getCell(key);
+                    if(cell != null)
+                        for(int i = 0; i < cell.getCount(); i++)
+                            rank(cell.getLight(i), center, radius, stamp);
+                }
+    }
+
+    /**
+     * Rank a candidate light, and insert it into the selection if it's influential enough.
+     * The influence is the attenuated intensity at the nearest point of the bounding sphere.
+     *
+     * @param light Candidate light.
+     * @param center World center of the bounding sphere.
+     * @param radius World radius of the bounding sphere.
+     * @param stamp Candidate stamp of the current selection.
+     */
+    private void rank(Light light, Vector3f center, float radius, int stamp) {
+        // Skip lights that were already ranked
+        if(light.selectionStamp == stamp)
+            return;
+        light.selectionStamp = stamp;
+
+        // Determine the influence of the light
+        final float intensity = light.getBrightness()
+                * Math.max(light.getColor().x(), Math.max(light.getColor().y(), light.getColor().z()));
+        final float influence;
+        if(light.getType() == Light.LIGHT_TYPE_DIRECTIONAL)
+            influence = intensity;
+        else {
+            // Skip the light if the object is out of range
+            final float range = light.getEffectiveRange();
+            final float distance = Math.max(light.getPosition().distance(center) - radius, 0f);
+            if(range > 0f && distance >= range)
+                return;
+
+            // Attenuate by the squared distance, clamped to avoid infinite influence inside the object
+            influence = intensity / Math.max(distance * distance, 0.01f);
+        }
+        if(influence <= 0f)
+            return;
+
+        // Find the insert position, and skip the light if it isn't influential enough
+        int position = this.count;
+        while(position > 0 && this.influences[position - 1] < influence)
+            position--;
+        if(position >= this.lights.length)
+            return;
+
+        // Shift the less influential lights, and insert the light
+        final int last = Math.min(this.count, this.lights.length - 1);
+        System.arraycopy(this.lights, position, this.lights, position + 1, last - position);
+        System.arraycopy(this.influences, position, this.influences, position + 1, last - position);
+        this.lights[position] = light;
+        this.influences[position] = influence;
+        this.count = Math.min(this.count + 1, this.lights.length);
+    }
+
+    /**
+     * Get the hash of the index cell with the given key.
+     *
+     * @param index Light spatial index.
+     * @param key Cell key.
+     *
+     * @return Cell hash, equal to the hash of an empty cell if the cell doesn't exist.
+     */
+    private static long getCellHash(LightSpatialIndex index, long key) {
+        final LightSpatialIndex.Cell cell = index.getCell(key);
+        return cell != null ? cell.getHash() : 1;
+    }
+
+    /**
+     * Force the selection to be refreshed on the next validation.
+     */
+    public void invalidate() {
+        this.worldVersion = -1;
+    }
+}
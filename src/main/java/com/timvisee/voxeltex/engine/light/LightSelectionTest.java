@@ -0,0 +1,139 @@
+/******************************************************************************
+ * Copyright (c) Tim Visee 2016. All rights reserved.                         *
+ *                                                                            *
+ * @author Tim Visee                                                          *
+ * @website http://timvisee.com/                                              *
+ *                                                                            *
+ * Open Source != No Copyright                                                *
+ *                                                                            *
+ * Permission is hereby granted, free of charge, to any person obtaining a    *
+ * copy of this software and associated documentation files (the "Software"), *
+ * to deal in the Software without restriction, including without limitation  *
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,   *
+ * and/or sell copies of the Software, and to permit persons to whom the      *
+ * Software is furnished to do so, subject to the following conditions:       *
+ *                                                                            *
+ * The above copyright notice and this permission notice shall be included    *
+ * in all copies or substantial portions of the Software.                     *
+ *                                                                            *
+ * You should have received a copy of The MIT License (MIT) along with this   *
+ * program. If not, see <http://opensource.org/licenses/MIT/>.                *
+ ******************************************************************************/
+
+
+package com.timvisee.voxeltex.engine.light;
+
+import org.joml.Vector3f;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class LightSelectionTest {
+
+    @org.junit.Test
+    public void ranking() throws Exception {
+        // Create point lights at increasing distances, and a bright light that is out of range
+        final Light near = createPointLight(new Vector3f(2, 0, 0), 1f, 0f);
+        final Light middle = createPointLight(new Vector3f(0, 5, 0), 1f, 0f);
+        final Light far = createPointLight(new Vector3f(0, 0, 10), 1f, 0f);
+        final Light outOfRange = createPointLight(new Vector3f(-8, 0, 0), 100f, 3f);
+        final LightSpatialIndex index = createIndex(Arrays.asList(far, outOfRange, middle, near));
+
+        // Only the two nearest lights must be selected, most influential first
+        final LightSelection selection = new LightSelection(2);
+        assertTrue(selection.validate(index, new Vector3f(), 0.5f, 0));
+        assertEquals(2, selection.getCount());
+        assertSame(near, selection.getLight(0));
+        assertSame(middle, selection.getLight(1));
+    }
+
+    @org.junit.Test
+    public void globalLights() throws Exception {
+        // A directional light reaches everything, and must outrank a dim point light
+        final Light directional = new Light(Light.LIGHT_TYPE_DIRECTIONAL, new Vector3f(), new Vector3f(),
+                new Vector3f(1, 1, 1), 1f);
+        final Light point = createPointLight(new Vector3f(0, 0, 20), 0.1f, 0f);
+        final LightSpatialIndex index = createIndex(Arrays.asList(point, directional));
+
+        // Select the lights for an object far away from the origin
+        final LightSelection selection = new LightSelection(4);
+        selection.validate(index, new Vector3f(0, 0, 18), 1f, 0);
+        assertEquals(2, selection.getCount());
+        assertSame(directional, selection.getLight(0));
+        assertSame(point, selection.getLight(1));
+    }
+
+    @org.junit.Test
+    public void uniqueCandidates() throws Exception {
+        // A light touching many cells must only be selected once for an object touching the same cells
+        final Light light = createPointLight(new Vector3f(8, 8, 8), 1f, 20f);
+        final LightSpatialIndex index = createIndex(Arrays.asList(light));
+        final LightSelection selection = new LightSelection(4);
+        selection.validate(index, new Vector3f(8, 8, 8), 20f, 0);
+        assertEquals(1, selection.getCount());
+        assertSame(light, selection.getLight(0));
+    }
+
+    @org.junit.Test
+    public void caching() throws Exception {
+        // Create a light near the object, and one in a cell far away
+        final Light near = createPointLight(new Vector3f(2, 0, 0), 1f, 4f);
+        final Light distant = createPointLight(new Vector3f(200, 0, 0), 1f, 4f);
+        final List<Light> lights = Arrays.asList(near, distant);
+        final LightSpatialIndex index = createIndex(lights);
+
+        // The selection must only be made once while nothing changes
+        final LightSelection selection = new LightSelection(4);
+        assertTrue(selection.validate(index, new Vector3f(), 1f, 0));
+        assertFalse(selection.validate(index, new Vector3f(), 1f, 0));
+
+        // Changing a light in a cell the object doesn't touch must not refresh the selection
+        distant.setBrightness(2f);
+        assertTrue(index.update(lights));
+        assertFalse(selection.validate(index, new Vector3f(), 1f, 0));
+
+        // Changing a light in a touched cell, or moving the object must refresh the selection
+        near.setBrightness(2f);
+        assertTrue(index.update(lights));
+        assertTrue(selection.validate(index, new Vector3f(), 1f, 0));
+        assertTrue(selection.validate(index, new Vector3f(), 1f, 1));
+
+        // An invalidated selection must be refreshed
+        selection.invalidate();
+        assertTrue(selection.validate(index, new Vector3f(), 1f, 1));
+    }
+
+    /**
+     * Create a light spatial index holding the given lights.
+     *
+     * @param lights Lights.
+     *
+     * @return Light spatial index.
+     */
+    private static LightSpatialIndex createIndex(List<Light> lights) {
+        final LightSpatialIndex index = new LightSpatialIndex();
+        index.update(lights);
+        return index;
+    }
+
+    /**
+     * Create a white point light.
+     *
+     * @param position Light position.
+     * @param brightness Light brightness.
+     * @param range Light range, or zero to derive it from the brightness.
+     *
+     * @return Point light.
+     */
+    private static Light createPointLight(Vector3f position, float brightness, float range) {
+        final Light light = new Light(Light.LIGHT_TYPE_POINT, position, new Vector3f(), new Vector3f(1, 1, 1),
+                brightness);
+        light.setRange(range);
+        return light;
+    }
+}
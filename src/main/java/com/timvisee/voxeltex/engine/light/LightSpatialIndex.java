@@ -0,0 +1,312 @@
+/******************************************************************************
+ * Copyright (c) Tim Visee 2016. All rights reserved.                         *
+ *                                                                            *
+ * @author Tim Visee                                                          *
+ * @website http://timvisee.com/                                              *
+ *                                                                            *
+ * Open Source != No Copyright                                                *
+ *                                                                            *
+ * Permission is hereby granted, free of charge, to any person obtaining a    *
+ * copy of this software and associated documentation files (the "Software"), *
+ * to deal in the Software without restriction, including without limitation  *
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,   *
+ * and/or sell copies of the Software, and to permit persons to whom the      *
+ * Software is furnished to do so, subject to the following conditions:       *
+ *                                                                            *
+ * The above copyright notice and this permission notice shall be included    *
+ * in all copies or substantial portions of the Software.                     *
+ *                                                                            *
+ * You should have received a copy of The MIT License (MIT) along with this   *
+ * program. If not, see <http://opensource.org/licenses/MIT/>.                *
+ ******************************************************************************/
+
+package com.timvisee.voxeltex.engine.light;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class LightSpatialIndex {
+
+    /**
+     * Size of each grid cell.
+     */
+    private float cellSize = 16f;
+
+    /**
+     * Lights with a larger range than this are stored as global light instead of in the grid cells.
+     */
+    private float maxCellRange = 64f;
+
+    /**
+     * Grid cells by their packed cell key.
+     */
+    private final Map<Long, Cell> cells = new HashMap<>();
+
+    /**
+     * Lights that affect everything, such as directional lights and lights with a very large range.
+     */
+    private final List<Light> globalLights = new ArrayList<>();
+
+    /**
+     * Hash of the global lights and their data versions.
+     */
+    private long globalHash = 0;
+
+    /**
+     * Hash of all indexed lights and their data versions, used to detect whether the index must be rebuilt.
+     */
+    private long indexHash = 0;
+
+    /**
+     * Number of times the index was rebuilt.
+     */
+    private int version = 0;
+
+    /**
+     * Get the size of each grid cell.
+     *
+     * @return Cell size.
+     */
+    public float getCellSize() {
+        return this.cellSize;
+    }
+
+    /**
+     * Set the size of each grid cell.
+     * The index is rebuilt on the next update.
+     *
+     * @param cellSize Cell size.
+     */
+    public void setCellSize(float cellSize) {
+        this.cellSize = cellSize;
+        this.indexHash = 0;
+    }
+
+    /**
+     * Get the maximum range of lights stored in grid cells.
+     *
+     * @return Maximum cell range.
+     */
+    public float getMaxCellRange() {
+        return this.maxCellRange;
+    }
+
+    /**
+     * Set the maximum range of lights stored in grid cells.
+     * Lights with a larger range are stored as global light. The index is rebuilt on the next update.
+     *
+     * @param maxCellRange Maximum cell range.
+     */
+    public void setMaxCellRange(float maxCellRange) {
+        this.maxCellRange = maxCellRange;
+        this.indexHash = 0;
+    }
+
+    /**
+     * Rebuild the index if any light was added, removed or changed since the last update.
+     *
+     * @param lights Lights.
+     *
+     * @return True if the index was rebuilt, false if it was up to date.
+     */
+    public boolean update(List<Light> lights) {
+        // Hash the lights and their data versions, and make sure anything changed
+        long hash = 1;
+        //noinspection ForLoopReplaceableByForEach
+        for(int i = 0, size = lights.size(); i < size; i++)
+            hash = hash(hash, lights.get(i));
+        if(hash == this.indexHash)
+            return false;
+        this.indexHash = hash;
+
+        // Clear the cells, and forget the ones that were empty since the last rebuild
+        this.cells.values().removeIf(cell -> cell.count == 0);
+        for(Cell cell : this.cells.values())
+            cell.clear();
+        this.globalLights.clear();
+        this.globalHash = 1;
+
+        // Insert each light into the cells it's range touches
+        //noinspection ForLoopReplaceableByForEach
+        for(int i = 0, size = lights.size(); i < size; i++) {
+            final Light light = lights.get(i);
+            final float range = light.getEffectiveRange();
+
+            // Store lights without a range or with a large range as global light
+            if(range <= 0f || range > this.maxCellRange) {
+                this.globalLights.add(light);
+                this.globalHash = hash(this.globalHash, light);
+                continue;
+            }
+
+            // Insert the light into each touched cell
+            final int minX = getCell(light.getPosition().x() - range), maxX = getCell(light.getPosition().x() + range);
+            final int minY = getCell(light.getPosition().y() - range), maxY = getCell(light.getPosition().y() + range);
+            final int minZ = getCell(light.getPosition().z() - range), maxZ = getCell(light.getPosition().z() + range);
+            for(int x = minX; x <= maxX; x++)
+                for(int y = minY; y <= maxY; y++)
+                    for(int z = minZ; z <= maxZ; z++) {
+                        final long key = getCellKey(x, y, z);
+                        Cell cell = this.cells.get(key);
+                        if(cell == null) {
+                            cell = new Cell();
+                            this.cells.put(key, cell);
+                        }
+                        cell.add(light);
+                    }
+        }
+
+        // Increase the version
+        this.version++;
+        return true;
+    }
+
+    /**
+     * Get the version of the index, which is increased each time it's rebuilt.
+     *
+     * @return Index version.
+     */
+    public int getVersion() {
+        return this.version;
+    }
+
+    /**
+     * Get the lights that affect everything.
+     *
+     * @return Global lights.
+     */
+    public List<Light> getGlobalLights() {
+        return this.globalLights;
+    }
+
+    /**
+     * Get the hash of the global lights and their data versions.
+     *
+     * @return Global light hash.
+     */
+    public long getGlobalHash() {
+        return this.globalHash;
+    }
+
+    /**
+     * Get the grid cell coordinate of the given world coordinate.
+     *
+     * @param coordinate World coordinate.
+     *
+     * @return Cell coordinate.
+     */
+    public int getCell(float coordinate) {
+        return (int) Math.floor(coordinate / this.cellSize);
+    }
+
+    /**
+     * Pack the given cell coordinates into a single key.
+     *
+     * @param x Cell X coordinate.
+     * @param y Cell Y coordinate.
+     * @param z Cell Z coordinate.
+     *
+     * @return Cell key.
+     */
+    public static long getCellKey(int x, int y, int z) {
+        return ((long) (x & 0x1FFFFF) << 42) | ((long) (y & 0x1FFFFF) << 21) | (long) (z & 0x1FFFFF);
+    }
+
+    /**
+     * Get the cell with the given key.
+     *
+     * @param key Cell key.
+     *
+     * @return Cell, or null if no light touches the cell.
+     */
+    public Cell getCell(long key) {
+        return this.cells.get(key);
+    }
+
+    /**
+     * Add the given light and it's data version to a hash.
+     *
+     * @param hash Hash.
+     * @param light Light.
+     *
+     * @return New hash.
+     */
+    private static long hash(long hash, Light light) {
+        return (hash * 31 + System.identityHashCode(light)) * 31 + light.getVersion();
+    }
+
+    /**
+     * A grid cell, holding the lights that touch it.
+     */
+    public static class Cell {
+
+        /**
+         * Lights touching this cell.
+         */
+        private Light[] lights = new Light[4];
+
+        /**
+         * Number of lights touching this cell.
+         */
+        private int count = 0;
+
+        /**
+         * Hash of the lights touching this cell and their data versions.
+         */
+        private long hash = 1;
+
+        /**
+         * Remove all lights from the cell.
+         */
+        private void clear() {
+            Arrays.fill(this.lights, 0, this.count, null);
+            this.count = 0;
+            this.hash = 1;
+        }
+
+        /**
+         * Add a light to the cell.
+         *
+         * @param light Light.
+         */
+        private void add(Light light) {
+            if(this.count == this.lights.length)
+                this.lights = Arrays.copyOf(this.lights, this.count * 2);
+            this.lights[this.count++] = light;
+            this.hash = hash(this.hash, light);
+        }
+
+        /**
+         * Get the light at the given index.
+         *
+         * @param i Light index.
+         *
+         * @return Light.
+         */
+        public Light getLight(int i) {
+            return this.lights[i];
+        }
+
+        /**
+         * Get the number of lights touching this cell.
+         *
+         * @return Light count.
+         */
+        public int getCount() {
+            return this.count;
+        }
+
+        /**
+         * Get the hash of the lights touching this cell and their data versions.
+         * The hash changes when a light enters, leaves or changes in this cell.
+         *
+         * @return Cell hash.
+         */
+        public long getHash() {
+            return this.hash;
+        }
+    }
+}
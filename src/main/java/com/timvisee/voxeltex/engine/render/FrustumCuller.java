@@ -0,0 +1,124 @@
+/******************************************************************************
+ * Copyright (c) Tim Visee 2016. All rights reserved.                         *
+ *                                                                            *
+ * @author Tim Visee                                                          *
+ * @website http://timvisee.com/                                              *
+ *                                                                            *
+ * Open Source != No Copyright                                                *
+ *                                                                            *
+ * Permission is hereby granted, free of charge, to any person obtaining a    *
+ * copy of this software and associated documentation files (the "Software"), *
+ * to deal in the Software without restriction, including without limitation  *
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,   *
+ * and/or sell copies of the Software, and to permit persons to whom the      *
+ * Software is furnished to do so, subject to the following conditions:       *
+ *                                                                            *
+ * The above copyright notice and this permission notice shall be included    *
+ * in all copies or substantial portions of the Software.                     *
+ *                                                                            *
+ * You should have received a copy of The MIT License (MIT) along with this   *
+ * program. If not, see <http://opensource.org/licenses/MIT/>.                *
+ ******************************************************************************/
+
+
+package com.timvisee.voxeltex.engine.render;
+
+import com.timvisee.voxeltex.architecture.component.drawable.CullableComponentInterface;
+import org.joml.FrustumIntersection;
+import org.joml.Matrix4f;
+
+public class FrustumCuller {
+
+    /**
+     * Frustum planes of the current frame.
+     */
+    private final FrustumIntersection frustum = new FrustumIntersection();
+
+    /**
+     * Defines whether culling is enabled.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Number of components that were tested in the current frame.
+     */
+    private int testedCount = 0;
+
+    /**
+     * Number of components that were culled in the current frame.
+     */
+    private int culledCount = 0;
+
+    /**
+     * Check whether culling is enabled.
+     *
+     * @return True if enabled, false if not.
+     */
+    public boolean isEnabled() {
+        return this.enabled;
+    }
+
+    /**
+     * Set whether culling is enabled.
+     *
+     * @param enabled True to enable culling, false to draw everything.
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Extract the frustum planes for the current frame, and reset the counters.
+     *
+     * @param viewProjectionMatrix Combined projection and camera view matrix.
+     */
+    public void update(Matrix4f viewProjectionMatrix) {
+        this.frustum.set(viewProjectionMatrix);
+        this.testedCount = 0;
+        this.culledCount = 0;
+    }
+
+    /**
+     * Check whether the given component is visible in the current frame.
+     * The bounding sphere is tested first, the bounding box is only tested if the sphere intersects the frustum.
+     *
+     * @param component Cullable component.
+     *
+     * @return True if the component is visible and must be drawn, false if it's culled.
+     */
+    public boolean isVisible(CullableComponentInterface component) {
+        // Components are always visible if culling is disabled, or if they don't have bounds
+        if(!this.enabled || !component.hasWorldBounds())
+            return true;
+        this.testedCount++;
+
+        // Test the bounding sphere, and the bounding box if the sphere intersects
+        final int sphere = this.frustum.intersectSphere(component.getWorldBoundsCenter(), component.getWorldBoundsRadius());
+        final boolean visible = sphere == FrustumIntersection.INSIDE
+                || (sphere == FrustumIntersection.INTERSECT
+                && this.frustum.testAab(component.getWorldBoundsMin(), component.getWorldBoundsMax()));
+
+        // Count the culled component
+        if(!visible)
+            this.culledCount++;
+        return visible;
+    }
+
+    /**
+     * Get the number of components that were tested in the current frame.
+     *
+     * @return Tested count.
+     */
+    public int getTestedCount() {
+        return this.testedCount;
+    }
+
+    /**
+     * Get the number of components that were culled in the current frame.
+     *
+     * @return Culled count.
+     */
+    public int getCulledCount() {
+        return this.culledCount;
+    }
+}
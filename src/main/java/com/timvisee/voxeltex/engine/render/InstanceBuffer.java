@@ -0,0 +1,193 @@
+/******************************************************************************
+ * Copyright (c) Tim Visee 2016. All rights reserved.                         *
+ *                                                                            *
+ * @author Tim Visee                                                          *
+ * @website http://timvisee.com/                                              *
+ *                                                                            *
+ * Open Source != No Copyright                                                *
+ *                                                                            *
+ * Permission is hereby granted, free of charge, to any person obtaining a    *
+ * copy of this software and associated documentation files (the "Software"), *
+ * to deal in the Software without restriction, including without limitation  *
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,   *
+ * and/or sell copies of the Software, and to permit persons to whom the      *
+ * Software is furnished to do so, subject to the following conditions:       *
+ *                                                                            *
+ * The above copyright notice and this permission notice shall be included    *
+ * in all copies or substantial portions of the Software.                     *
+ *                                                                            *
+ * You should have received a copy of The MIT License (MIT) along with this   *
+ * program. If not, see <http://opensource.org/licenses/MIT/>.                *
+ ******************************************************************************/
+
+package com.timvisee.voxeltex.engine.render;
+
+import com.timvisee.voxeltex.module.Color;
+import com.timvisee.voxeltex.module.shader.InstancedShaderInterface;
+import org.joml.Matrix4f;
+import org.lwjgl.BufferUtils;
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL15;
+import org.lwjgl.opengl.GL20;
+import org.lwjgl.opengl.GL33;
+
+import java.nio.FloatBuffer;
+
+public class InstanceBuffer {
+
+    /**
+     * Number of floats for each instance, a model matrix followed by a color.
+     */
+    public static final int INSTANCE_FLOATS = 16 + 4;
+
+    /**
+     * Number of bytes for each instance.
+     */
+    private static final int INSTANCE_STRIDE = INSTANCE_FLOATS * 4;
+
+    /**
+     * Initial instance capacity.
+     */
+    private static final int INITIAL_CAPACITY = 64;
+
+    /**
+     * Client side instance data.
+     */
+    private FloatBuffer data = BufferUtils.createFloatBuffer(INITIAL_CAPACITY * INSTANCE_FLOATS);
+
+    /**
+     * OpenGL buffer handle, or zero if the buffer hasn't been created yet.
+     */
+    private int vboHandle = 0;
+
+    /**
+     * Capacity of the OpenGL buffer in bytes.
+     */
+    private long vboCapacity = 0;
+
+    /**
+     * Number of instances in the buffer.
+     */
+    private int count = 0;
+
+    /**
+     * Clear the buffer, to start writing a new batch of instances.
+     */
+    public void begin() {
+        this.data.clear();
+        this.count = 0;
+    }
+
+    /**
+     * Add an instance to the buffer.
+     *
+     * @param modelMatrix World matrix of the instance.
+     * @param color Color of the instance.
+     */
+    public void add(Matrix4f modelMatrix, Color color) {
+        // Make sure there's enough capacity
+        if(this.data.remaining() < INSTANCE_FLOATS) {
+            final FloatBuffer data = BufferUtils.createFloatBuffer(this.data.capacity() * 2);
+            this.data.flip();
+            data.put(this.data);
+            this.data = data;
+        }
+
+        // Write the matrix and color
+        final int position = this.data.position();
+        modelMatrix.get(position, this.data);
+        this.data.position(position + 16);
+        this.data.put(color.getRed()).put(color.getGreen()).put(color.getBlue()).put(color.getAlpha());
+        this.count++;
+    }
+
+    /**
+     * Get the number of instances in the buffer.
+     *
+     * @return Instance count.
+     */
+    public int getCount() {
+        return this.count;
+    }
+
+    /**
+     * Upload the instances to the GPU, and bind the per instance attributes of the given shader.
+     * The buffer storage is orphaned on each upload, so the driver doesn't have to wait for the previous draw.
+     *
+     * @param shader Bound instanced shader.
+     */
+    public void bind(InstancedShaderInterface shader) {
+        // Create the buffer if it hasn't been created yet
+        if(this.vboHandle == 0)
+            this.vboHandle = GL15.glGenBuffers();
+
+        // Upload the instance data, and grow the buffer storage if required
+        this.data.flip();
+        GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, this.vboHandle);
+        final long size = (long) this.data.capacity() * 4;
+        if(size > this.vboCapacity)
+            this.vboCapacity = size;
+        GL15.glBufferData(GL15.GL_ARRAY_BUFFER, this.vboCapacity, GL15.GL_STREAM_DRAW);
+        GL15.glBufferSubData(GL15.GL_ARRAY_BUFFER, 0, this.data);
+
+        // Bind the four model matrix columns and the color as per instance attributes
+        final int matrixAttribute = shader.getInstanceModelMatrixAttribute();
+        if(matrixAttribute >= 0)
+            for(int column = 0; column < 4; column++)
+                enableAttribute(matrixAttribute + column, column * 4);
+        final int colorAttribute = shader.getInstanceColorAttribute();
+        if(colorAttribute >= 0)
+            enableAttribute(colorAttribute, 16);
+
+        // Unbind the buffer, the attribute pointers keep referencing it
+        GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, 0);
+    }
+
+    /**
+     * Unbind the per instance attributes of the given shader.
+     *
+     * @param shader Bound instanced shader.
+     */
+    public void unbind(InstancedShaderInterface shader) {
+        // Disable the model matrix columns and the color
+        final int matrixAttribute = shader.getInstanceModelMatrixAttribute();
+        if(matrixAttribute >= 0)
+            for(int column = 0; column < 4; column++)
+                disableAttribute(matrixAttribute + column);
+        final int colorAttribute = shader.getInstanceColorAttribute();
+        if(colorAttribute >= 0)
+            disableAttribute(colorAttribute);
+    }
+
+    /**
+     * Delete the OpenGL buffer.
+     */
+    public void dispose() {
+        if(this.vboHandle != 0)
+            GL15.glDeleteBuffers(this.vboHandle);
+        this.vboHandle = 0;
+        this.vboCapacity = 0;
+    }
+
+    /**
+     * Enable a per instance attribute of four floats at the given float offset of each instance.
+     *
+     * @param location Attribute location.
+     * @param floatOffset Offset in floats.
+     */
+    private static void enableAttribute(int location, int floatOffset) {
+        GL20.glVertexAttribPointer(location, 4, GL11.GL_FLOAT, false, INSTANCE_STRIDE, floatOffset * 4L);
+        GL33.glVertexAttribDivisor(location, 1);
+        GL20.glEnableVertexAttribArray(location);
+    }
+
+    /**
+     * Disable a per instance attribute, and reset it's divisor.
+     *
+     * @param location Attribute location.
+     */
+    private static void disableAttribute(int location) {
+        GL20.glDisableVertexAttribArray(location);
+        GL33.glVertexAttribDivisor(location, 0);
+    }
+}
@@ -0,0 +1,610 @@
+/******************************************************************************
+ * Copyright (c) Tim Visee 2016. All rights reserved.                         *
+ *                                                                            *
+ * @author Tim Visee                                                          *
+ * @website http://timvisee.com/                                              *
+ *                                                                            *
+ * Open Source != No Copyright                                                *
+ *                                                                            *
+ * Permission is hereby granted, free of charge, to any person obtaining a    *
+ * copy of this software and associated documentation files (the "Software"), *
+ * to deal in the Software without restriction, including without limitation  *
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,   *
+ * and/or sell copies of the Software, and to permit persons to whom the      *
+ * Software is furnished to do so, subject to the following conditions:       *
+ *                                                                            *
+ * The above copyright notice and this permission notice shall be included    *
+ * in all copies or substantial portions of the Software.                     *
+ *                                                                            *
+ * You should have received a copy of The MIT License (MIT) along with this   *
+ * program. If not, see <http://opensource.org/licenses/MIT/>.                *
+ ******************************************************************************/
+
+package com.timvisee.voxeltex.engine.render;
+
+import com.timvisee.voxeltex.architecture.component.AbstractComponent;
+import com.timvisee.voxeltex.architecture.component.drawable.CullableComponentInterface;
+import com.timvisee.voxeltex.architecture.component.drawable.QueueableComponentInterface;
+import com.timvisee.voxeltex.architecture.gameobject.AbstractGameObject;
+import com.timvisee.voxeltex.architecture.scene.AbstractScene;
+import com.timvisee.voxeltex.module.material.Material;
+import com.timvisee.voxeltex.module.mesh.Mesh;
+import com.timvisee.voxeltex.module.shader.InstancedShaderInterface;
+import com.timvisee.voxeltex.module.shader.Shader;
+import com.timvisee.voxeltex.module.texture.Texture;
+import org.joml.Matrix4f;
+import org.joml.Vector3f;
+import org.lwjgl.BufferUtils;
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL13;
+
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+
+public class RenderQueue {
+
+    /**
+     * Bit that marks a transparent draw, so transparent draws are sorted after all opaque draws.
+     */
+    private static final long KEY_TRANSPARENT = 1L << 63;
+
+    /**
+     * Maximum quantized depth of opaque draws, which use 16 depth bits.
+     */
+    private static final int OPAQUE_DEPTH_MAX = 0xFFFF;
+
+    /**
+     * Maximum quantized depth of transparent draws, which use 24 depth bits.
+     */
+    private static final int TRANSPARENT_DEPTH_MAX = 0xFFFFFF;
+
+    /**
+     * Initial capacity of the queue.
+     */
+    private static final int INITIAL_CAPACITY = 256;
+
+    /**
+     * Queued components.
+     */
+    private AbstractComponent[] components = new AbstractComponent[INITIAL_CAPACITY];
+
+    /**
+     * Sort key of each queued draw.
+     */
+    private long[] keys = new long[INITIAL_CAPACITY];
+
+    /**
+     * Indices of the queued draws, in sorted order after sorting.
+     */
+    private int[] order = new int[INITIAL_CAPACITY];
+
+    /**
+     * Temporary sort keys, used as radix sort buffer.
+     */
+    private long[] tempKeys = new long[INITIAL_CAPACITY];
+
+    /**
+     * Temporary indices, used as radix sort buffer.
+     */
+    private int[] tempOrder = new int[INITIAL_CAPACITY];
+
+    /**
+     * Radix sort bucket counts.
+     */
+    private final int[] buckets = new int[256];
+
+    /**
+     * Number of queued draws.
+     */
+    private int size = 0;
+
+    /**
+     * Maximum view depth that is distinguished when sorting by depth.
+     * Draws further away are sorted as if they're at this depth.
+     */
+    private float maxDepth = 1000f;
+
+    /**
+     * Number of draws in the last flush.
+     */
+    private int drawCount = 0;
+
+    /**
+     * Number of draw calls in the last flush.
+     */
+    private int drawCallCount = 0;
+
+    /**
+     * Number of instanced draw calls in the last flush.
+     */
+    private int instancedDrawCallCount = 0;
+
+    /**
+     * Number of shader program binds in the last flush.
+     */
+    private int shaderBindCount = 0;
+
+    /**
+     * Number of material updates in the last flush.
+     */
+    private int materialBindCount = 0;
+
+    /**
+     * Number of texture binds in the last flush.
+     */
+    private int textureBindCount = 0;
+
+    /**
+     * Number of shader, material and texture state changes avoided in the last flush,
+     * compared to binding all state for each draw.
+     */
+    private int stateChangesAvoided = 0;
+
+    /**
+     * Defines whether consecutive draws sharing a mesh and material are drawn using instancing.
+     */
+    private boolean instancingEnabled = true;
+
+    /**
+     * Minimum number of consecutive draws sharing a mesh and material to draw them using instancing.
+     */
+    private int minInstanceCount = 2;
+
+    /**
+     * Buffer that is used to stream the per instance data.
+     */
+    private final InstanceBuffer instanceBuffer = new InstanceBuffer();
+
+    /**
+     * Temporary vector, used to get the position of a draw.
+     */
+    private final Vector3f tempPosition = new Vector3f();
+
+    /**
+     * Temporary model view matrix, used when drawing.
+     * Using and recycling this temporary matrix minimizes object allocation, resulting in better performance.
+     */
+    private final Matrix4f tempModelViewMatrix = new Matrix4f();
+
+    /**
+     * Float buffer for the model view matrix.
+     */
+    private final FloatBuffer matrixBuffer = BufferUtils.createFloatBuffer(16);
+
+    /**
+     * Get the maximum view depth that is distinguished when sorting by depth.
+     *
+     * @return Maximum depth.
+     */
+    public float getMaxDepth() {
+        return this.maxDepth;
+    }
+
+    /**
+     * Set the maximum view depth that is distinguished when sorting by depth.
+     * This should match the far plane of the camera.
+     *
+     * @param maxDepth Maximum depth.
+     */
+    public void setMaxDepth(float maxDepth) {
+        this.maxDepth = maxDepth;
+    }
+
+    /**
+     * Check whether instancing is enabled.
+     *
+     * @return True if enabled, false if not.
+     */
+    public boolean isInstancingEnabled() {
+        return this.instancingEnabled;
+    }
+
+    /**
+     * Set whether consecutive draws sharing a mesh and material are drawn using instancing.
+     *
+     * @param instancingEnabled True to enable instancing, false to draw each item separately.
+     */
+    public void setInstancingEnabled(boolean instancingEnabled) {
+        this.instancingEnabled = instancingEnabled;
+    }
+
+    /**
+     * Get the minimum number of consecutive draws sharing a mesh and material to draw them using instancing.
+     *
+     * @return Minimum instance count.
+     */
+    public int getMinInstanceCount() {
+        return this.minInstanceCount;
+    }
+
+    /**
+     * Set the minimum number of consecutive draws sharing a mesh and material to draw them using instancing.
+     *
+     * @param minInstanceCount Minimum instance count, at least two.
+     */
+    public void setMinInstanceCount(int minInstanceCount) {
+        this.minInstanceCount = Math.max(minInstanceCount, 2);
+    }
+
+    /**
+     * Get the number of queued draws.
+     *
+     * @return Queued draw count.
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Add a component to the queue.
+     * The component must implement {@link QueueableComponentInterface} and must be queueable.
+     *
+     * @param component Component to queue.
+     * @param bounds World bounds of the component, or null to use the position of it's owner for depth sorting.
+     * @param viewMatrix Camera view matrix of the current frame.
+     */
+    public void add(AbstractComponent component, CullableComponentInterface bounds, Matrix4f viewMatrix) {
+        // Get the world position to sort by
+        final QueueableComponentInterface item = (QueueableComponentInterface) component;
+        final Vector3f position = bounds != null && bounds.hasWorldBounds() ? bounds.getWorldBoundsCenter()
+                : component.getTransform().getWorldPosition(this.tempPosition);
+
+        // Compute the view depth, along the viewing direction of the camera
+        final float depth = -(viewMatrix.m02() * position.x + viewMatrix.m12() * position.y
+                + viewMatrix.m22() * position.z + viewMatrix.m32());
+        final float depthFactor = Math.min(Math.max(depth / this.maxDepth, 0f), 1f);
+
+        // Get the state identifiers, and queue the draw
+        final Material material = item.getQueueMaterial();
+        add(component, createKey(
+                material.getShader().getProgramId(),
+                material.hasTexture() ? material.getTexture().getId() : 0,
+                item.getQueueMesh().getVaoHandle(),
+                depthFactor,
+                item.isQueueTransparent()
+        ));
+    }
+
+    /**
+     * Add a component to the queue with the given sort key.
+     *
+     * @param component Component to queue.
+     * @param key Sort key.
+     */
+    void add(AbstractComponent component, long key) {
+        // Make sure there's enough capacity, and add the draw
+        if(this.size == this.keys.length)
+            grow();
+        this.components[this.size] = component;
+        this.keys[this.size] = key;
+        this.order[this.size] = this.size;
+        this.size++;
+    }
+
+    /**
+     * Build the sort key of a draw.
+     * Opaque draws are sorted by state and then front to back, transparent draws are sorted after all opaque draws,
+     * back to front and then by state.
+     *
+     * @param shader Shader program ID.
+     * @param texture Texture ID, or zero if there is no texture.
+     * @param mesh Mesh vertex array handle.
+     * @param depthFactor View depth relative to the maximum depth, from zero to one.
+     * @param transparent True if the draw is transparent.
+     *
+     * @return Sort key.
+     */
+    static long createKey(int shader, int texture, int mesh, float depthFactor, boolean transparent) {
+        // Mask the state identifiers
+        final long shaderBits = shader & 0x7FFF;
+        final long textureBits = texture & 0xFFFF;
+        final long meshBits = mesh & 0xFFFF;
+
+        // Build the key
+        if(!transparent)
+            return (shaderBits << 48) | (textureBits << 32) | (meshBits << 16)
+                    | (long) (depthFactor * OPAQUE_DEPTH_MAX);
+        return KEY_TRANSPARENT
+                | ((long) (TRANSPARENT_DEPTH_MAX - (int) (depthFactor * TRANSPARENT_DEPTH_MAX)) << 39)
+                | (shaderBits << 24) | (textureBits << 8) | (meshBits & 0xFF);
+    }
+
+    /**
+     * Sort and draw all queued draws, and clear the queue afterwards.
+     * Shaders, materials and textures are only bound when they change between two consecutive draws.
+     * Consecutive draws sharing the same mesh and material are drawn with a single instanced draw call if possible.
+     *
+     * @param scene Scene that is drawn.
+     * @param viewMatrix Camera view matrix of the current frame.
+     */
+    public void flush(AbstractScene scene, Matrix4f viewMatrix) {
+        // Reset the statistics
+        this.drawCount = 0;
+        this.drawCallCount = 0;
+        this.instancedDrawCallCount = 0;
+        this.shaderBindCount = 0;
+        this.materialBindCount = 0;
+        this.textureBindCount = 0;
+        this.stateChangesAvoided = 0;
+
+        // Sort the queue
+        sort();
+
+        // Draw each item or batch, and only change the state that differs from the previous draw
+        Shader boundShader = null;
+        Material boundMaterial = null;
+        Texture boundTexture = null;
+        AbstractGameObject lastOwner = null;
+        boolean viewLoaded = false;
+        boolean transparent = false;
+        int i = 0;
+        while(i < this.size) {
+            final AbstractComponent component = this.components[this.order[i]];
+            final QueueableComponentInterface item = (QueueableComponentInterface) component;
+            final Material material = item.getQueueMaterial();
+            final boolean itemTransparent = (this.keys[i] & KEY_TRANSPARENT) != 0;
+
+            // Find the run of following draws with the same mesh and material, if this draw can be instanced
+            int runEnd = i + 1;
+            if(this.instancingEnabled && material.getShader().hasInstancedShader() && item.isQueueInstanceable()) {
+                final Mesh mesh = item.getQueueMesh();
+                while(runEnd < this.size) {
+                    final QueueableComponentInterface other = (QueueableComponentInterface) this.components[this.order[runEnd]];
+                    if(other.getQueueMaterial() != material || other.getQueueMesh() != mesh
+                            || !other.isQueueInstanceable() || ((this.keys[runEnd] & KEY_TRANSPARENT) != 0) != itemTransparent)
+                        break;
+                    runEnd++;
+                }
+            }
+            final boolean instanced = runEnd - i >= this.minInstanceCount;
+            final Shader shader = instanced ? material.getShader().getInstancedShader() : material.getShader();
+
+            // Disable depth writes when reaching the transparent draws
+            if(!transparent && itemTransparent) {
+                transparent = true;
+                GL11.glDepthMask(false);
+            }
+
+            // Bind the shader and send the frame uniforms once for each run of draws using it
+            if(shader != boundShader) {
+                shader.bind();
+                shader.updateFrame(scene);
+                boundShader = shader;
+                boundMaterial = null;
+                this.shaderBindCount++;
+            } else
+                this.stateChangesAvoided++;
+
+            // Send the material uniforms and bind it's texture once for each run of draws using it
+            if(material != boundMaterial) {
+                shader.updateMaterial(material);
+                boundMaterial = material;
+                this.materialBindCount++;
+
+                final Texture texture = material.getTexture();
+                if(texture != boundTexture) {
+                    if(texture != null)
+                        texture.bind(GL13.GL_TEXTURE0);
+                    else
+                        Texture.unbind();
+                    boundTexture = texture;
+                    this.textureBindCount++;
+                } else
+                    this.stateChangesAvoided++;
+            } else
+                this.stateChangesAvoided += 2;
+
+            // Draw the run of draws at once if instanced
+            if(instanced) {
+                // Load the view matrix, the instances provide their own model matrix
+                if(!viewLoaded) {
+                    GL11.glLoadMatrixf(viewMatrix.get(this.matrixBuffer));
+                    viewLoaded = true;
+                    lastOwner = null;
+                }
+
+                // Stream the instances, and draw them
+                this.instanceBuffer.begin();
+                for(int j = i; j < runEnd; j++)
+                    ((QueueableComponentInterface) this.components[this.order[j]]).writeInstance(this.instanceBuffer);
+                final InstancedShaderInterface instancedShader = (InstancedShaderInterface) shader;
+                item.getQueueMesh().bindVertexArray();
+                this.instanceBuffer.bind(instancedShader);
+                item.getQueueMesh().drawInstanced(material, this.instanceBuffer.getCount());
+                this.instanceBuffer.unbind(instancedShader);
+
+                // Update the statistics and continue after the run
+                this.drawCount += runEnd - i;
+                this.drawCallCount++;
+                this.instancedDrawCallCount++;
+                i = runEnd;
+                continue;
+            }
+
+            // Load the model view matrix of the owner
+            if(component.getOwner() != lastOwner) {
+                lastOwner = component.getOwner();
+                viewLoaded = false;
+                GL11.glLoadMatrixf(
+                        lastOwner.getTransform()
+                                .addWorldMatrix(this.tempModelViewMatrix.set(viewMatrix))
+                                .get(this.matrixBuffer)
+                );
+            }
+
+            // Draw the item
+            item.drawQueued(shader);
+            this.drawCount++;
+            this.drawCallCount++;
+            i++;
+        }
+
+        // Restore the depth writes, and unbind the state once
+        if(transparent)
+            GL11.glDepthMask(true);
+        Mesh.unbindVertexArray();
+        if(boundTexture != null)
+            Texture.unbind();
+        if(boundShader != null)
+            boundShader.unbind();
+
+        // Clear the queue, and release the component references
+        Arrays.fill(this.components, 0, this.size, null);
+        this.size = 0;
+    }
+
+    /**
+     * Sort the queued draws by their key, using an unsigned least significant byte first radix sort.
+     * Passes for bytes that are equal in all keys are skipped, which is common for the state bits.
+     * After sorting, the keys array is in sorted order and the order array holds the matching draw indices.
+     */
+    void sort() {
+        long[] keys = this.keys;
+        int[] order = this.order;
+        long[] tempKeys = this.tempKeys;
+        int[] tempOrder = this.tempOrder;
+        final int[] buckets = this.buckets;
+        final int size = this.size;
+
+        for(int shift = 0; shift < 64; shift += 8) {
+            // Count the occurrences of each byte value
+            Arrays.fill(buckets, 0);
+            for(int i = 0; i < size; i++)
+                buckets[(int) (keys[i] >>> shift) & 0xFF]++;
+
+            // Skip this pass if all keys have the same byte value
+            if(size == 0 || buckets[(int) (keys[0] >>> shift) & 0xFF] == size)
+                continue;
+
+            // Turn the counts into offsets
+            int offset = 0;
+            for(int b = 0; b < 256; b++) {
+                final int count = buckets[b];
+                buckets[b] = offset;
+                offset += count;
+            }
+
+            // Scatter the keys and indices in a stable way
+            for(int i = 0; i < size; i++) {
+                final int target = buckets[(int) (keys[i] >>> shift) & 0xFF]++;
+                tempKeys[target] = keys[i];
+                tempOrder[target] = order[i];
+            }
+
+            // Swap the buffers
+            final long[] swapKeys = keys;
+            keys = tempKeys;
+            tempKeys = swapKeys;
+            final int[] swapOrder = order;
+            order = tempOrder;
+            tempOrder = swapOrder;
+        }
+
+        // Store the buffers that hold the sorted result
+        this.keys = keys;
+        this.order = order;
+        this.tempKeys = tempKeys;
+        this.tempOrder = tempOrder;
+    }
+
+    /**
+     * Get the sort key of the draw at the given position.
+     * After sorting, this is the key of the draw at the given position in sorted order.
+     *
+     * @param i Position.
+     *
+     * @return Sort key.
+     */
+    long getKey(int i) {
+        return this.keys[i];
+    }
+
+    /**
+     * Get the component of the draw at the given position.
+     * After sorting, this is the component of the draw at the given position in sorted order.
+     *
+     * @param i Position.
+     *
+     * @return Component.
+     */
+    AbstractComponent getComponent(int i) {
+        return this.components[this.order[i]];
+    }
+
+    /**
+     * Double the capacity of the queue.
+     */
+    private void grow() {
+        final int capacity = this.keys.length * 2;
+        this.components = Arrays.copyOf(this.components, capacity);
+        this.keys = Arrays.copyOf(this.keys, capacity);
+        this.order = Arrays.copyOf(this.order, capacity);
+        this.tempKeys = new long[capacity];
+        this.tempOrder = new int[capacity];
+    }
+
+    /**
+     * Get the number of draws in the last flush.
+     *
+     * @return Draw count.
+     */
+    public int getDrawCount() {
+        return this.drawCount;
+    }
+
+    /**
+     * Get the number of draw calls in the last flush.
+     * With instancing, this scales with the number of distinct mesh and material pairs instead of the number of draws.
+     *
+     * @return Draw call count.
+     */
+    public int getDrawCallCount() {
+        return this.drawCallCount;
+    }
+
+    /**
+     * Get the number of instanced draw calls in the last flush.
+     *
+     * @return Instanced draw call count.
+     */
+    public int getInstancedDrawCallCount() {
+        return this.instancedDrawCallCount;
+    }
+
+    /**
+     * Get the number of shader program binds in the last flush.
+     *
+     * @return Shader bind count.
+     */
+    public int getShaderBindCount() {
+        return this.shaderBindCount;
+    }
+
+    /**
+     * Get the number of material updates in the last flush.
+     *
+     * @return Material bind count.
+     */
+    public int getMaterialBindCount() {
+        return this.materialBindCount;
+    }
+
+    /**
+     * Get the number of texture binds in the last flush.
+     *
+     * @return Texture bind count.
+     */
+    public int getTextureBindCount() {
+        return this.textureBindCount;
+    }
+
+    /**
+     * Get the number of shader, material and texture state changes that were avoided in the last flush,
+     * compared to binding all state for each draw.
+     *
+     * @return Avoided state change count.
+     */
+    public int getStateChangesAvoided() {
+        return this.stateChangesAvoided;
+    }
+}
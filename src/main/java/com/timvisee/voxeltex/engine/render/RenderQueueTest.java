@@ -0,0 +1,150 @@
+/******************************************************************************
+ * Copyright (c) Tim Visee 2016. All rights reserved.                         *
+ *                                                                            *
+ * @author Tim Visee                                                          *
+ * @website http://timvisee.com/                                              *
+ *                                                                            *
+ * Open Source != No Copyright                                                *
+ *                                                                            *
+ * Permission is hereby granted, free of charge, to any person obtaining a    *
+ * copy of this software and associated documentation files (the "Software"), *
+ * to deal in the Software without restriction, including without limitation  *
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,   *
+ * and/or sell copies of the Software, and to permit persons to whom the      *
+ * Software is furnished to do so, subject to the following conditions:       *
+ *                                                                            *
+ * The above copyright notice and this permission notice shall be included    *
+ * in all copies or substantial portions of the Software.                     *
+ *                                                                            *
+ * You should have received a copy of The MIT License (MIT) along with this   *
+ * program. If not, see <http://opensource.org/licenses/MIT/>.                *
+ ******************************************************************************/
+
+
+package com.timvisee.voxeltex.engine.render;
+
+import com.timvisee.voxeltex.architecture.component.AbstractComponent;
+import com.timvisee.voxeltex.architecture.component.BaseComponent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class RenderQueueTest {
+
+    @org.junit.Test
+    public void sortRandomKeys() throws Exception {
+        // Queue more draws than the initial capacity, with random keys including the transparent bit and duplicates
+        final RenderQueue queue = new RenderQueue();
+        final Random random = new Random(1);
+        final List<QueuedComponent> components = new ArrayList<>();
+        for(int i = 0; i < 1000; i++) {
+            final boolean duplicate = i > 0 && random.nextInt(4) == 0;
+            final long key = duplicate ? components.get(random.nextInt(i)).key : random.nextLong();
+            final QueuedComponent component = new QueuedComponent(key, i);
+            components.add(component);
+            queue.add(component, key);
+        }
+        queue.sort();
+
+        // The keys must be sorted as unsigned values, each key must still belong to it's component,
+        // and draws with equal keys must keep the order they were queued in
+        for(int i = 0; i < components.size(); i++) {
+            final QueuedComponent component = (QueuedComponent) queue.getComponent(i);
+            assertEquals(component.key, queue.getKey(i));
+            if(i > 0) {
+                final int compare = Long.compareUnsigned(queue.getKey(i - 1), queue.getKey(i));
+                assertTrue(compare <= 0);
+                if(compare == 0)
+                    assertTrue(((QueuedComponent) queue.getComponent(i - 1)).index < component.index);
+            }
+        }
+    }
+
+    @org.junit.Test
+    public void sortEqualKeys() throws Exception {
+        // Draws that share a key must stay in queue order, all sort passes are skipped
+        final RenderQueue queue = new RenderQueue();
+        final List<QueuedComponent> components = new ArrayList<>();
+        for(int i = 0; i < 10; i++) {
+            components.add(new QueuedComponent(42, i));
+            queue.add(components.get(i), 42);
+        }
+        queue.sort();
+        for(int i = 0; i < components.size(); i++)
+            assertSame(components.get(i), queue.getComponent(i));
+    }
+
+    @org.junit.Test
+    public void drawOrder() throws Exception {
+        // Queue transparent and opaque draws at various depths, with two shaders
+        final RenderQueue queue = new RenderQueue();
+        final AbstractComponent transparentNear = queue(queue, RenderQueue.createKey(1, 0, 1, 0.1f, true));
+        final AbstractComponent opaqueFarB = queue(queue, RenderQueue.createKey(2, 0, 1, 0.9f, false));
+        final AbstractComponent opaqueFarA = queue(queue, RenderQueue.createKey(1, 0, 1, 0.9f, false));
+        final AbstractComponent transparentFar = queue(queue, RenderQueue.createKey(2, 0, 1, 0.9f, true));
+        final AbstractComponent opaqueNearB = queue(queue, RenderQueue.createKey(2, 0, 1, 0.1f, false));
+        final AbstractComponent opaqueNearA = queue(queue, RenderQueue.createKey(1, 0, 1, 0.1f, false));
+        queue.sort();
+
+        // Opaque draws must be grouped by shader and drawn front to back,
+        // transparent draws must follow and be drawn back to front
+        assertSame(opaqueNearA, queue.getComponent(0));
+        assertSame(opaqueFarA, queue.getComponent(1));
+        assertSame(opaqueNearB, queue.getComponent(2));
+        assertSame(opaqueFarB, queue.getComponent(3));
+        assertSame(transparentFar, queue.getComponent(4));
+        assertSame(transparentNear, queue.getComponent(5));
+    }
+
+    /**
+     * Queue a new component with the given key.
+     *
+     * @param queue Render queue.
+     * @param key Sort key.
+     *
+     * @return Queued component.
+     */
+    private static AbstractComponent queue(RenderQueue queue, long key) {
+        final QueuedComponent component = new QueuedComponent(key, queue.size());
+        queue.add(component, key);
+        return component;
+    }
+
+    /**
+     * Component that remembers the key and position it was queued with.
+     */
+    private static class QueuedComponent extends BaseComponent {
+
+        /**
+         * Sort key the component was queued with.
+         */
+        private final long key;
+
+        /**
+         * Position the component was queued at.
+         */
+        private final int index;
+
+        /**
+         * Constructor.
+         *
+         * @param key Sort key.
+         * @param index Queue position.
+         */
+        private QueuedComponent(long key, int index) {
+            this.key = key;
+            this.index = index;
+        }
+
+        @Override
+        public void create() { }
+
+        @Override
+        public void update() { }
+    }
+}
@@ -25,10 +25,13 @@ package com.timvisee.voxeltex.engine.render;
 import com.timvisee.voxeltex.VoxelTex;
 import com.timvisee.voxeltex.engine.VoxelTexEngine;
 import com.timvisee.voxeltex.engine.window.VoxelTexWindow;
+import com.timvisee.voxeltex.module.asset.AssetManager;
 import com.timvisee.voxeltex.module.render.OverlayUtil;
+import com.timvisee.voxeltex.module.render.SpriteBatch;
 import com.timvisee.voxeltex.module.shader.ShaderManager;
 import com.timvisee.voxeltex.module.shader.ShaderTracker;
 import com.timvisee.voxeltex.module.texture.ImageTracker;
+import com.timvisee.voxeltex.module.texture.TextureStreamer;
 import com.timvisee.voxeltex.module.texture.TextureTracker;
 import com.timvisee.voxeltex.runtime.global.Input;
 import com.timvisee.voxeltex.runtime.global.MainCamera;
@@ -191,6 +194,11 @@ public class VoxelTexRenderer extends VoxelTexBaseRenderer {
             // Destroy the window
             this.window.glDestroyWindow();
 
+            // Dispose all managed assets
+            AssetManager.getInstance().disposeAll();
+            TextureStreamer.getInstance().dispose();
+            SpriteBatch.getInstance().dispose();
+
             // Dispose all tracked textures, images and shaders
             TextureTracker.disposeAll();
             ImageTracker.disposeAll();
@@ -229,6 +237,12 @@ public class VoxelTexRenderer extends VoxelTexBaseRenderer {
             // Update time Time object
             Time.update();
 
+            // Upload loaded assets, and evict unused assets
+            AssetManager.getInstance().update();
+
+            // Stream texture levels to the graphics card
+            TextureStreamer.getInstance().update();
+
             // Update the overlay utils class
             OverlayUtil.setWindow(getEngine());
 
@@ -265,8 +279,10 @@ public class VoxelTexRenderer extends VoxelTexBaseRenderer {
             // Enable overlay drawing
             enableDrawOverlay(matrixFrameBuffer);
 
-            // Draw the current overlay scene
+            // Draw the current overlay scene, batching it's quads
+            SpriteBatch.getInstance().begin();
             getEngine().getSceneManager().drawOverlay();
+            SpriteBatch.getInstance().end();
 
             // Update the debug information
             updateDebug();
@@ -309,6 +325,9 @@ public class VoxelTexRenderer extends VoxelTexBaseRenderer {
         glMatrixMode(GL_MODELVIEW);
         glLoadIdentity();
 
+        // Compute the camera view matrices once for this frame
+        MainCamera.updateViewMatrices();
+
         glEnable(GL11.GL_DEPTH_TEST);
         //glEnable(GL11.GL_LIGHTING);
     }
@@ -348,8 +367,21 @@ public class VoxelTexRenderer extends VoxelTexBaseRenderer {
             final long freeMemory = runtime.freeMemory() / 1000000;
             final long usedMemory = totalMemory - freeMemory;
 
+            // Get the culling and render queue statistics of the loaded scene
+            String culling = "";
+            if(getEngine().getSceneManager().isSceneLoaded()) {
+                final FrustumCuller culler = getEngine().getSceneManager().getScene().getDrawLists().getCuller();
+                final RenderQueue queue = getEngine().getSceneManager().getScene().getDrawLists().getRenderQueue();
+                culling = " - Culled: " + culler.getCulledCount() + " / " + culler.getTestedCount()
+                        + " - Draw calls: " + queue.getDrawCallCount() + " / " + queue.getDrawCount()
+                        + " - Shader binds: " + queue.getShaderBindCount()
+                        + " - States avoided: " + queue.getStateChangesAvoided()
+                        + " - Overlay draw calls: " + SpriteBatch.getInstance().getDrawCallCount()
+                        + " / " + SpriteBatch.getInstance().getQuadCount();
+            }
+
             // Set the window title
-            this.window.setTitle(VoxelTex.getEngineNameFull() + " - Debug - Memory: " + (usedMemory) + " MB / " + (totalMemory) + " MB");
+            this.window.setTitle(VoxelTex.getEngineNameFull() + " - Debug - Memory: " + (usedMemory) + " MB / " + (totalMemory) + " MB" + culling);
 
             // Update the last free memory
             this.debugLastFreeMemory = freeMemory;
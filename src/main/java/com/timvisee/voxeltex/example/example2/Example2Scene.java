@@ -39,6 +39,9 @@ public class Example2Scene extends Scene {
         // Load the super
         super.load();
 
+        // Use clustered lighting, because every box emits light
+        getLightManager().setClusteredLighting(true);
+
         // Add a light simulating the sun
         LightPrefab sunLight = new LightPrefab("Sun", Light.LIGHT_TYPE_DIRECTIONAL, new Color(0xFFF4D6).toVector3f(), 0.4f);
         sunLight.getTransform().getRotation().set(90, 45, 90).normalize();
@@ -0,0 +1,154 @@
+/******************************************************************************
+ * Copyright (c) Tim Visee 2016. All rights reserved.                         *
+ *                                                                            *
+ * @author Tim Visee                                                          *
+ * @website http://timvisee.com/                                              *
+ *                                                                            *
+ * Open Source != No Copyright                                                *
+ *                                                                            *
+ * Permission is hereby granted, free of charge, to any person obtaining a    *
+ * copy of this software and associated documentation files (the "Software"), *
+ * to deal in the Software without restriction, including without limitation  *
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,   *
+ * and/or sell copies of the Software, and to permit persons to whom the      *
+ * Software is furnished to do so, subject to the following conditions:       *
+ *                                                                            *
+ * The above copyright notice and this permission notice shall be included    *
+ * in all copies or substantial portions of the Software.                     *
+ *                                                                            *
+ * You should have received a copy of The MIT License (MIT) along with this   *
+ * program. If not, see <http://opensource.org/licenses/MIT/>.                *
+ ******************************************************************************/
+
+package com.timvisee.voxeltex.module.asset;
+
+import java.util.concurrent.CompletableFuture;
+
+public class AssetHandle<T> {
+
+    /**
+     * Asset manager that owns this handle.
+     */
+    private final AssetManager manager;
+
+    /**
+     * Asset path.
+     */
+    private final String path;
+
+    /**
+     * Loader used to load the asset.
+     */
+    private final AssetLoader<?, T> loader;
+
+    /**
+     * Future that completes on the render thread once the asset has been uploaded.
+     */
+    private final CompletableFuture<T> future = new CompletableFuture<>();
+
+    /**
+     * Number of references to this asset. Guarded by the asset manager.
+     */
+    int referenceCount = 0;
+
+    /**
+     * Memory used by the asset in bytes, zero until it's loaded.
+     */
+    volatile long memorySize = 0;
+
+    /**
+     * Constructor.
+     *
+     * @param manager Asset manager that owns this handle.
+     * @param path Asset path.
+     * @param loader Loader used to load the asset.
+     */
+    AssetHandle(AssetManager manager, String path, AssetLoader<?, T> loader) {
+        this.manager = manager;
+        this.path = path;
+        this.loader = loader;
+    }
+
+    /**
+     * Get the asset path.
+     *
+     * @return Asset path.
+     */
+    public String getPath() {
+        return this.path;
+    }
+
+    /**
+     * Get the loader used to load the asset.
+     *
+     * @return Asset loader.
+     */
+    public AssetLoader<?, T> getLoader() {
+        return this.loader;
+    }
+
+    /**
+     * Get the future that completes once the asset has been uploaded.
+     * The future completes on the render thread, so it must never be waited for on the render thread.
+     *
+     * @return Asset future.
+     */
+    public CompletableFuture<T> getFuture() {
+        return this.future;
+    }
+
+    /**
+     * Check whether the asset has been loaded.
+     *
+     * @return True if loaded, false if it's still loading or failed to load.
+     */
+    public boolean isLoaded() {
+        return this.future.isDone() && !this.future.isCompletedExceptionally();
+    }
+
+    /**
+     * Check whether the asset failed to load.
+     *
+     * @return True if failed, false if not.
+     */
+    public boolean isFailed() {
+        return this.future.isCompletedExceptionally();
+    }
+
+    /**
+     * Get the asset if it has been loaded.
+     *
+     * @return Asset, or null if it isn't loaded yet or failed to load.
+     */
+    public T getNow() {
+        return isLoaded() ? this.future.getNow(null) : null;
+    }
+
+    /**
+     * Get the number of references to this asset.
+     *
+     * @return Reference count.
+     */
+    public int getReferenceCount() {
+        synchronized(this.manager) {
+            return this.referenceCount;
+        }
+    }
+
+    /**
+     * Get the memory used by the asset.
+     *
+     * @return Memory size in bytes, zero if the asset isn't loaded.
+     */
+    public long getMemorySize() {
+        return this.memorySize;
+    }
+
+    /**
+     * Release this reference to the asset.
+     * Once all references are released, the asset may be evicted to stay within the memory budget.
+     */
+    public void release() {
+        this.manager.release(this);
+    }
+}
@@ -0,0 +1,72 @@
+/******************************************************************************
+ * Copyright (c) Tim Visee 2016. All rights reserved.                         *
+ *                                                                            *
+ * @author Tim Visee                                                          *
+ * @website http://timvisee.com/                                              *
+ *                                                                            *
+ * Open Source != No Copyright                                                *
+ *                                                                            *
+ * Permission is hereby granted, free of charge, to any person obtaining a    *
+ * copy of this software and associated documentation files (the "Software"), *
+ * to deal in the Software without restriction, including without limitation  *
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,   *
+ * and/or sell copies of the Software, and to permit persons to whom the      *
+ * Software is furnished to do so, subject to the following conditions:       *
+ *                                                                            *
+ * The above copyright notice and this permission notice shall be included    *
+ * in all copies or substantial portions of the Software.                     *
+ *                                                                            *
+ * You should have received a copy of The MIT License (MIT) along with this   *
+ * program. If not, see <http://opensource.org/licenses/MIT/>.                *
+ ******************************************************************************/
+
+package com.timvisee.voxeltex.module.asset;
+
+public interface AssetLoader<D, T> {
+
+    /**
+     * Get the name of the asset type this loader loads, used to key assets and report memory usage.
+     *
+     * @return Asset type name.
+     */
+    String getTypeName();
+
+    /**
+     * Load and decode the asset with the given path.
+     * This is invoked on a worker thread, and must not use OpenGL.
+     *
+     * @param path Asset path.
+     *
+     * @return Decoded asset data, ready for uploading.
+     *
+     * @throws Exception Thrown if the asset couldn't be loaded.
+     */
+    D decode(String path) throws Exception;
+
+    /**
+     * Upload the decoded asset data to the graphics card.
+     * This is invoked on the render thread.
+     *
+     * @param data Decoded asset data.
+     *
+     * @return Asset.
+     */
+    T upload(D data);
+
+    /**
+     * Get the GPU and native memory used by the given asset.
+     *
+     * @param asset Asset.
+     *
+     * @return Memory size in bytes.
+     */
+    long getMemorySize(T asset);
+
+    /**
+     * Dispose the given asset, and free it's memory.
+     * This is invoked on the render thread.
+     *
+     * @param asset Asset.
+     */
+    void dispose(T asset);
+}
@@ -0,0 +1,549 @@
+/******************************************************************************
+ * Copyright (c) Tim Visee 2016. All rights reserved.                         *
+ *                                                                            *
+ * @author Tim Visee                                                          *
+ * @website http://timvisee.com/                                              *
+ *                                                                            *
+ * Open Source != No Copyright                                                *
+ *                                                                            *
+ * Permission is hereby granted, free of charge, to any person obtaining a    *
+ * copy of this software and associated documentation files (the "Software"), *
+ * to deal in the Software without restriction, including without limitation  *
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,   *
+ * and/or sell copies of the Software, and to permit persons to whom the      *
+ * Software is furnished to do so, subject to the following conditions:       *
+ *                                                                            *
+ * The above copyright notice and this permission notice shall be included    *
+ * in all copies or substantial portions of the Software.                     *
+ *                                                                            *
+ * You should have received a copy of The MIT License (MIT) along with this   *
+ * program. If not, see <http://opensource.org/licenses/MIT/>.                *
+ ******************************************************************************/
+
+package com.timvisee.voxeltex.module.asset;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class AssetManager {
+
+    /**
+     * Loader for mipmapped textures, keyed by their image path.
+     */
+    public static final TextureAssetLoader TEXTURE = new TextureAssetLoader(true);
+
+    /**
+     * Loader for textures without mipmaps, such as GUI images and fonts, keyed by their image path.
+     */
+    public static final TextureAssetLoader GUI_TEXTURE = new TextureAssetLoader(false);
+
+    /**
+     * Loader for meshes, keyed by their model path.
+     */
+    public static final MeshAssetLoader MESH = new MeshAssetLoader();
+
+    /**
+     * Loader for shaders, keyed by their path without the vertex or fragment shader extension.
+     */
+    public static final ShaderAssetLoader SHADER = new ShaderAssetLoader();
+
+    /**
+     * Default memory budget for unreferenced assets, in bytes.
+     */
+    public static final long DEFAULT_MEMORY_BUDGET = 256L * 1024 * 1024;
+
+    /**
+     * Default time the render thread may spend on uploading assets each frame, in nanoseconds.
+     */
+    public static final long DEFAULT_UPLOAD_TIME_BUDGET = 2000000L;
+
+    /**
+     * Asset manager instance.
+     */
+    private static AssetManager instance;
+
+    /**
+     * Asset handles, by their type and path.
+     */
+    private final Map<String, AssetHandle<?>> handles = new HashMap<>();
+
+    /**
+     * Loaded assets that aren't referenced anymore, least recently released first.
+     */
+    private final LinkedHashSet<AssetHandle<?>> unreferenced = new LinkedHashSet<>();
+
+    /**
+     * Decoded assets waiting to be uploaded on the render thread.
+     */
+    private final Queue<Runnable> uploads = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Worker threads decoding the assets.
+     */
+    private final ExecutorService workers;
+
+    /**
+     * Memory used by the loaded assets, by asset type name. Guarded by this manager.
+     */
+    private final Map<String, Long> memoryUsage = new TreeMap<>();
+
+    /**
+     * Total memory used by the loaded assets, in bytes. Guarded by this manager.
+     */
+    private long totalMemoryUsage = 0;
+
+    /**
+     * Memory budget in bytes. Unreferenced assets are evicted while the memory usage exceeds this budget.
+     */
+    private volatile long memoryBudget = DEFAULT_MEMORY_BUDGET;
+
+    /**
+     * Time the render thread may spend on uploading assets each frame, in nanoseconds.
+     */
+    private volatile long uploadTimeBudget = DEFAULT_UPLOAD_TIME_BUDGET;
+
+    /**
+     * Constructor.
+     */
+    private AssetManager() {
+        // Create the worker threads, leaving a core for the render thread
+        final AtomicInteger threadCount = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(Math.max(Runtime.getRuntime().availableProcessors() - 1, 1), runnable -> {
+            final Thread thread = new Thread(runnable, "Asset Loader " + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Get the asset manager instance.
+     *
+     * @return Asset manager instance.
+     */
+    public static synchronized AssetManager getInstance() {
+        // Return the instance if it does exist
+        if(instance != null)
+            return instance;
+
+        // Create an instance, then store and return it
+        instance = new AssetManager();
+        return instance;
+    }
+
+    /**
+     * Acquire a reference to the asset with the given path, and load it asynchronously if it isn't loaded yet.
+     * The asset is decoded on a worker thread, and uploaded on the render thread in {@link #update()}.
+     * Acquiring an asset that is loaded or loading already returns the same shared handle.
+     * Release the handle when the asset isn't used anymore.
+     *
+     * @param path Asset path.
+     * @param loader Asset loader.
+     *
+     * @return Asset handle.
+     */
+    public <D, T> AssetHandle<T> load(String path, AssetLoader<D, T> loader) {
+        // Return the existing handle if available, or create and register a new handle in the same lock so two threads
+        // loading the same asset always share a handle
+        final AssetHandle<T> handle;
+        synchronized(this) {
+            final AssetHandle<T> existing = acquireExisting(path, loader);
+            if(existing != null)
+                return existing;
+            handle = register(path, loader);
+        }
+
+        // Decode the asset on a worker thread, and queue it for uploading
+        this.workers.execute(() -> {
+            try {
+                final D data = loader.decode(path);
+                this.uploads.add(() -> upload(handle, data));
+
+            } catch(Exception e) {
+                fail(handle, e);
+            }
+        });
+
+        // Return the handle
+        return handle;
+    }
+
+    /**
+     * Acquire a reference to the asset with the given path, and load it right away if it isn't loaded yet.
+     * This must be called on the render thread. If the asset is loading asynchronously already, pending uploads are
+     * processed until it's ready.
+     *
+     * @param path Asset path.
+     * @param loader Asset loader.
+     *
+     * @return Asset handle of the loaded asset.
+     *
+     * @throws RuntimeException Thrown if the asset failed to load.
+     */
+    public <D, T> AssetHandle<T> loadNow(String path, AssetLoader<D, T> loader) {
+        // Acquire the existing handle if available, or create and register a new handle in the same lock
+        AssetHandle<T> handle;
+        boolean created = false;
+        synchronized(this) {
+            handle = acquireExisting(path, loader);
+            if(handle == null) {
+                handle = register(path, loader);
+                created = true;
+            }
+        }
+
+        // Load a new asset right away, or wait for the existing handle
+        if(created) {
+            try {
+                upload(handle, loader.decode(path));
+            } catch(Exception e) {
+                fail(handle, e);
+            }
+
+        } else {
+            while(!handle.getFuture().isDone()) {
+                if(!processUpload())
+                    Thread.yield();
+            }
+        }
+
+        // Make sure the asset is loaded
+        if(handle.isFailed()) {
+            handle.release();
+            throw new RuntimeException("Failed to load " + loader.getTypeName() + " asset: " + path,
+                    handle.getFuture().handle((asset, e) -> e).join());
+        }
+
+        // Return the handle
+        return handle;
+    }
+
+    /**
+     * Update the asset manager. This must be called on the render thread every frame.
+     * Decoded assets are uploaded until the upload time budget is spent, and unreferenced assets are evicted if the
+     * memory budget is exceeded.
+     */
+    public void update() {
+        // Upload the decoded assets, at least one each frame to guarantee progress
+        final long deadline = System.nanoTime() + this.uploadTimeBudget;
+        while(processUpload())
+            if(System.nanoTime() >= deadline)
+                break;
+
+        // Evict unreferenced assets to stay within the memory budget
+        evict();
+    }
+
+    /**
+     * Process the next pending upload.
+     *
+     * @return True if an upload was processed, false if none were pending.
+     */
+    private boolean processUpload() {
+        final Runnable upload = this.uploads.poll();
+        if(upload == null)
+            return false;
+        upload.run();
+        return true;
+    }
+
+    /**
+     * Acquire a reference to an existing asset handle.
+     *
+     * @param path Asset path.
+     * @param loader Asset loader.
+     *
+     * @return Asset handle, or null if the asset isn't known.
+     */
+    @SuppressWarnings("unchecked")
+    private synchronized <T> AssetHandle<T> acquireExisting(String path, AssetLoader<?, T> loader) {
+        // Get the handle
+        final AssetHandle<T> handle = (AssetHandle<T>) this.handles.get(getKey(path, loader));
+        if(handle == null)
+            return null;
+
+        // Reference the handle, and make sure it isn't evicted
+        handle.referenceCount++;
+        this.unreferenced.remove(handle);
+        return handle;
+    }
+
+    /**
+     * Create and register a new asset handle, with a single reference.
+     *
+     * @param path Asset path.
+     * @param loader Asset loader.
+     *
+     * @return Asset handle.
+     */
+    private synchronized <T> AssetHandle<T> register(String path, AssetLoader<?, T> loader) {
+        final AssetHandle<T> handle = new AssetHandle<>(this, path, loader);
+        handle.referenceCount = 1;
+        this.handles.put(getKey(path, loader), handle);
+        return handle;
+    }
+
+    /**
+     * Upload a decoded asset, and complete it's handle. Invoked on the render thread.
+     *
+     * @param handle Asset handle.
+     * @param data Decoded asset data.
+     */
+    private <D, T> void upload(AssetHandle<T> handle, D data) {
+        try {
+            // Upload the asset
+            @SuppressWarnings("unchecked")
+            final AssetLoader<D, T> loader = (AssetLoader<D, T>) handle.getLoader();
+            final T asset = loader.upload(data);
+            final long size = loader.getMemorySize(asset);
+
+            // Account the memory used by the asset
+            synchronized(this) {
+                handle.memorySize = size;
+                this.memoryUsage.merge(loader.getTypeName(), size, Long::sum);
+                this.totalMemoryUsage += size;
+            }
+
+            // Complete the handle
+            handle.getFuture().complete(asset);
+
+        } catch(RuntimeException e) {
+            fail(handle, e);
+        }
+    }
+
+    /**
+     * Mark an asset as failed, and forget it's handle so it's loaded again when it's acquired next time.
+     *
+     * @param handle Asset handle.
+     * @param e Failure cause.
+     */
+    private void fail(AssetHandle<?> handle, Throwable e) {
+        // Print the error
+        new RuntimeException("Failed to load " + handle.getLoader().getTypeName() + " asset '" + handle.getPath() + "'", e)
+                .printStackTrace();
+
+        // Forget the handle, and complete it
+        synchronized(this) {
+            this.handles.remove(getKey(handle.getPath(), handle.getLoader()), handle);
+            this.unreferenced.remove(handle);
+        }
+        handle.getFuture().completeExceptionally(e);
+    }
+
+    /**
+     * Release a reference to an asset.
+     *
+     * @param handle Asset handle.
+     */
+    synchronized void release(AssetHandle<?> handle) {
+        // Make sure the handle is still referenced
+        if(handle.referenceCount <= 0)
+            throw new IllegalStateException("Asset '" + handle.getPath() + "' has been released too often");
+
+        // Dereference the handle, and make it a candidate for eviction if it's still known
+        if(--handle.referenceCount == 0 && this.handles.get(getKey(handle.getPath(), handle.getLoader())) == handle)
+            this.unreferenced.add(handle);
+    }
+
+    /**
+     * Evict the least recently released unreferenced assets while the memory budget is exceeded.
+     * Invoked on the render thread.
+     */
+    private void evict() {
+        while(true) {
+            // Find the least recently released asset that has been loaded
+            final AssetHandle<?> handle;
+            synchronized(this) {
+                if(this.totalMemoryUsage <= this.memoryBudget)
+                    return;
+                handle = nextEvictable();
+                if(handle == null)
+                    return;
+
+                // Forget the asset and it's memory usage
+                this.unreferenced.remove(handle);
+                this.handles.remove(getKey(handle.getPath(), handle.getLoader()));
+                this.memoryUsage.merge(handle.getLoader().getTypeName(), -handle.memorySize, Long::sum);
+                this.totalMemoryUsage -= handle.memorySize;
+            }
+
+            // Dispose the asset
+            dispose(handle);
+        }
+    }
+
+    /**
+     * Find the least recently released unreferenced asset that has been loaded.
+     *
+     * @return Asset handle, or null if none.
+     */
+    private AssetHandle<?> nextEvictable() {
+        for(Iterator<AssetHandle<?>> it = this.unreferenced.iterator(); it.hasNext(); ) {
+            final AssetHandle<?> handle = it.next();
+            if(handle.isLoaded())
+                return handle;
+        }
+        return null;
+    }
+
+    /**
+     * Dispose the asset of the given handle.
+     *
+     * @param handle Asset handle.
+     */
+    private static <T> void dispose(AssetHandle<T> handle) {
+        handle.getLoader().dispose(handle.getNow());
+    }
+
+    /**
+     * Dispose all loaded assets, regardless of their references, and stop the worker threads.
+     * Invoked on the render thread when the engine stops.
+     */
+    public void disposeAll() {
+        // Stop decoding assets, and drop the pending uploads
+        this.workers.shutdownNow();
+        this.uploads.clear();
+
+        // Dispose all loaded assets
+        final AssetHandle<?>[] loaded;
+        synchronized(this) {
+            loaded = this.handles.values().toArray(new AssetHandle<?>[0]);
+            this.handles.clear();
+            this.unreferenced.clear();
+            this.memoryUsage.clear();
+            this.totalMemoryUsage = 0;
+        }
+        //noinspection ForLoopReplaceableByForEach
+        for(int i = 0; i < loaded.length; i++)
+            if(loaded[i].isLoaded())
+                dispose(loaded[i]);
+    }
+
+    /**
+     * Get the memory budget.
+     *
+     * @return Memory budget in bytes.
+     */
+    public long getMemoryBudget() {
+        return this.memoryBudget;
+    }
+
+    /**
+     * Set the memory budget. Unreferenced assets are evicted while the memory usage of all assets exceeds it.
+     *
+     * @param memoryBudget Memory budget in bytes.
+     */
+    public void setMemoryBudget(long memoryBudget) {
+        this.memoryBudget = memoryBudget;
+    }
+
+    /**
+     * Get the time the render thread may spend on uploading assets each frame.
+     *
+     * @return Upload time budget in nanoseconds.
+     */
+    public long getUploadTimeBudget() {
+        return this.uploadTimeBudget;
+    }
+
+    /**
+     * Set the time the render thread may spend on uploading assets each frame.
+     * At least one pending asset is uploaded each frame, regardless of this budget.
+     *
+     * @param uploadTimeBudget Upload time budget in nanoseconds.
+     */
+    public void setUploadTimeBudget(long uploadTimeBudget) {
+        this.uploadTimeBudget = uploadTimeBudget;
+    }
+
+    /**
+     * Get the memory used by all loaded assets.
+     *
+     * @return Memory usage in bytes.
+     */
+    public synchronized long getMemoryUsage() {
+        return this.totalMemoryUsage;
+    }
+
+    /**
+     * Get the memory used by the loaded assets of the given type.
+     *
+     * @param loader Asset loader of the type.
+     *
+     * @return Memory usage in bytes.
+     */
+    public synchronized long getMemoryUsage(AssetLoader<?, ?> loader) {
+        return this.memoryUsage.getOrDefault(loader.getTypeName(), 0L);
+    }
+
+    /**
+     * Get the memory used by the loaded assets, by asset type name.
+     *
+     * @return Memory usage in bytes by asset type name.
+     */
+    public synchronized Map<String, Long> getMemoryUsageByType() {
+        return new TreeMap<>(this.memoryUsage);
+    }
+
+    /**
+     * Get the number of known assets, including assets that are still loading.
+     *
+     * @return Asset count.
+     */
+    public synchronized int getAssetCount() {
+        return this.handles.size();
+    }
+
+    /**
+     * Print the memory usage of the loaded assets, by asset type.
+     */
+    public void printMemoryReport() {
+        // Count the assets of each type
+        final Map<String, Integer> counts = new TreeMap<>();
+        final Map<String, Long> usage;
+        final long total;
+        synchronized(this) {
+            for(AssetHandle<?> handle : this.handles.values())
+                counts.merge(handle.getLoader().getTypeName(), 1, Integer::sum);
+            usage = new TreeMap<>(this.memoryUsage);
+            total = this.totalMemoryUsage;
+        }
+
+        // Print the report
+        System.out.println("Asset memory usage: " + toKiloBytes(total) + " KB of " + toKiloBytes(this.memoryBudget) + " KB budget");
+        for(Map.Entry<String, Integer> entry : counts.entrySet())
+            System.out.println("  " + entry.getKey() + ": " + entry.getValue() + " assets, "
+                    + toKiloBytes(usage.getOrDefault(entry.getKey(), 0L)) + " KB");
+    }
+
+    /**
+     * Get the key of an asset.
+     *
+     * @param path Asset path.
+     * @param loader Asset loader.
+     *
+     * @return Asset key.
+     */
+    private static String getKey(String path, AssetLoader<?, ?> loader) {
+        return loader.getTypeName() + ":" + path;
+    }
+
+    /**
+     * Convert a number of bytes into kilobytes.
+     *
+     * @param bytes Bytes.
+     *
+     * @return Kilobytes.
+     */
+    private static long toKiloBytes(long bytes) {
+        return bytes / 1024;
+    }
+}
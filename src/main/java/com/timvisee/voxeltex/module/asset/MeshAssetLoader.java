@@ -0,0 +1,74 @@
+/******************************************************************************
+ * Copyright (c) Tim Visee 2016. All rights reserved.                         *
+ *                                                                            *
+ * @author Tim Visee                                                          *
+ * @website http://timvisee.com/                                              *
+ *                                                                            *
+ * Open Source != No Copyright                                                *
+ *                                                                            *
+ * Permission is hereby granted, free of charge, to any person obtaining a    *
+ * copy of this software and associated documentation files (the "Software"), *
+ * to deal in the Software without restriction, including without limitation  *
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,   *
+ * and/or sell copies of the Software, and to permit persons to whom the      *
+ * Software is furnished to do so, subject to the following conditions:       *
+ *                                                                            *
+ * The above copyright notice and this permission notice shall be included    *
+ * in all copies or substantial portions of the Software.                     *
+ *                                                                            *
+ * You should have received a copy of The MIT License (MIT) along with this   *
+ * program. If not, see <http://opensource.org/licenses/MIT/>.                *
+ ******************************************************************************/
+
+package com.timvisee.voxeltex.module.asset;
+
+import com.timvisee.voxeltex.module.mesh.Mesh;
+import com.timvisee.voxeltex.module.mesh.MeshOptimizer;
+import com.timvisee.voxeltex.module.mesh.RawMesh;
+import com.timvisee.voxeltex.module.mesh.baked.BakedMesh;
+import com.timvisee.voxeltex.module.mesh.baked.BakedMeshReader;
+import com.timvisee.voxeltex.module.mesh.baked.BakedMeshWriter;
+import com.timvisee.voxeltex.module.model.loader.ObjMeshLoader;
+import com.timvisee.voxeltex.module.resource.engine.EngineAssetLoader;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+
+public class MeshAssetLoader implements AssetLoader<BakedMesh, Mesh> {
+
+    @Override
+    public String getTypeName() {
+        return "mesh";
+    }
+
+    @Override
+    public BakedMesh decode(String path) throws IOException {
+        // Prefer the baked variant of the model
+        final String bakedPath = EngineAssetLoader.getInstance().getBakedPath(path, BakedMesh.FILE_EXTENSION);
+        if(bakedPath != null)
+            return BakedMeshReader.readFromEngineAssets(bakedPath);
+
+        // Parse and optimize the model, and bake it in memory so it's uploaded the same way as baked models
+        final RawMesh raw = MeshOptimizer.optimize(ObjMeshLoader.loadMeshFromEngineAssets(path).getRawMesh());
+        final ByteBuffer baked = BakedMeshWriter.bake(raw, Collections.<BakedMesh.SubMesh>emptyList());
+        final ByteBuffer direct = ByteBuffer.allocateDirect(baked.remaining());
+        direct.put(baked).flip();
+        return BakedMeshReader.read(direct);
+    }
+
+    @Override
+    public Mesh upload(BakedMesh baked) {
+        return new Mesh(baked);
+    }
+
+    @Override
+    public long getMemorySize(Mesh mesh) {
+        return mesh.getBakedMesh().getVertexData().remaining() + mesh.getBakedMesh().getIndexData().remaining();
+    }
+
+    @Override
+    public void dispose(Mesh mesh) {
+        mesh.clearMeshBuffer();
+    }
+}
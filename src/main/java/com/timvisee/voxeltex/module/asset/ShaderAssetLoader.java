@@ -0,0 +1,71 @@
+/******************************************************************************
+ * Copyright (c) Tim Visee 2016. All rights reserved.                         *
+ *                                                                            *
+ * @author Tim Visee                                                          *
+ * @website http://timvisee.com/                                              *
+ *                                                                            *
+ * Open Source != No Copyright                                                *
+ *                                                                            *
+ * Permission is hereby granted, free of charge, to any person obtaining a    *
+ * copy of this software and associated documentation files (the "Software"), *
+ * to deal in the Software without restriction, including without limitation  *
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,   *
+ * and/or sell copies of the Software, and to permit persons to whom the      *
+ * Software is furnished to do so, subject to the following conditions:       *
+ *                                                                            *
+ * The above copyright notice and this permission notice shall be included    *
+ * in all copies or substantial portions of the Software.                     *
+ *                                                                            *
+ * You should have received a copy of The MIT License (MIT) along with this   *
+ * program. If not, see <http://opensource.org/licenses/MIT/>.                *
+ ******************************************************************************/
+
+package com.timvisee.voxeltex.module.asset;
+
+import com.timvisee.voxeltex.module.shader.Shader;
+import com.timvisee.voxeltex.module.shader.raw.EngineAssetsRawShader;
+
+public class ShaderAssetLoader implements AssetLoader<EngineAssetsRawShader, Shader> {
+
+    /**
+     * Extension of vertex shader assets.
+     */
+    public static final String VERTEX_EXTENSION = ".vert";
+
+    /**
+     * Extension of fragment shader assets.
+     */
+    public static final String FRAGMENT_EXTENSION = ".frag";
+
+    @Override
+    public String getTypeName() {
+        return "shader";
+    }
+
+    /**
+     * Load the vertex and fragment shader sources of the shader with the given path.
+     *
+     * @param path Shader asset path, without the vertex or fragment shader extension.
+     *
+     * @return Raw shader.
+     */
+    @Override
+    public EngineAssetsRawShader decode(String path) {
+        return new EngineAssetsRawShader(path + VERTEX_EXTENSION, path + FRAGMENT_EXTENSION);
+    }
+
+    @Override
+    public Shader upload(EngineAssetsRawShader rawShader) {
+        return new Shader(rawShader);
+    }
+
+    @Override
+    public long getMemorySize(Shader shader) {
+        return 0;
+    }
+
+    @Override
+    public void dispose(Shader shader) {
+        shader.dispose();
+    }
+}
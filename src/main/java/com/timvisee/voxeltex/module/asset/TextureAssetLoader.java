@@ -0,0 +1,98 @@
+/******************************************************************************
+ * Copyright (c) Tim Visee 2016. All rights reserved.                         *
+ *                                                                            *
+ * @author Tim Visee                                                          *
+ * @website http://timvisee.com/                                              *
+ *                                                                            *
+ * Open Source != No Copyright                                                *
+ *                                                                            *
+ * Permission is hereby granted, free of charge, to any person obtaining a    *
+ * copy of this software and associated documentation files (the "Software"), *
+ * to deal in the Software without restriction, including without limitation  *
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,   *
+ * and/or sell copies of the Software, and to permit persons to whom the      *
+ * Software is furnished to do so, subject to the following conditions:       *
+ *                                                                            *
+ * The above copyright notice and this permission notice shall be included    *
+ * in all copies or substantial portions of the Software.                     *
+ *                                                                            *
+ * You should have received a copy of The MIT License (MIT) along with this   *
+ * program. If not, see <http://opensource.org/licenses/MIT/>.                *
+ ******************************************************************************/
+
+package com.timvisee.voxeltex.module.asset;
+
+import com.timvisee.voxeltex.module.texture.Image;
+import com.timvisee.voxeltex.module.texture.Texture;
+import com.timvisee.voxeltex.module.texture.TextureStreamer;
+
+import java.io.IOException;
+
+public class TextureAssetLoader implements AssetLoader<Image, Texture> {
+
+    /**
+     * True to generate mipmaps and stream the levels, false to upload the base level only.
+     */
+    private final boolean mipmaps;
+
+    /**
+     * Constructor.
+     *
+     * @param mipmaps True to generate mipmaps and stream the levels, false to upload the base level only.
+     */
+    public TextureAssetLoader(boolean mipmaps) {
+        this.mipmaps = mipmaps;
+    }
+
+    @Override
+    public String getTypeName() {
+        return this.mipmaps ? "texture" : "gui texture";
+    }
+
+    /**
+     * Load and decode the image as RGBA, and generate it's mipmaps if enabled and it doesn't have any.
+     *
+     * @param path Image path.
+     *
+     * @return Image, ready for streaming.
+     *
+     * @throws IOException Thrown if the image couldn't be decoded.
+     */
+    @Override
+    public Image decode(String path) throws IOException {
+        // Load the image
+        final Image image = Image.loadFromEngineAssets(path, Image.COMPONENTS_RGBA);
+        if(image.getImage() == null)
+            throw new IOException("Failed to decode image: " + path);
+
+        // Generate the mipmaps on this worker thread
+        if(this.mipmaps)
+            image.generateMipmaps();
+        return image;
+    }
+
+    /**
+     * Create a texture for the image. Mipmapped textures stream their levels to the graphics card over the next
+     * frames, and show a placeholder until their levels are resident. Other textures are uploaded right away.
+     *
+     * @param image Decoded image.
+     *
+     * @return Texture.
+     */
+    @Override
+    public Texture upload(Image image) {
+        if(!this.mipmaps)
+            return Texture.consumeImage(image);
+        return TextureStreamer.getInstance().stream(image);
+    }
+
+    @Override
+    public long getMemorySize(Texture texture) {
+        return texture.getMemorySize();
+    }
+
+    @Override
+    public void dispose(Texture texture) {
+        texture.dispose();
+    }
+}
@@ -0,0 +1,129 @@
+/******************************************************************************
+ * Copyright (c) Tim Visee 2016. All rights reserved.                         *
+ *                                                                            *
+ * @author Tim Visee                                                          *
+ * @website http://timvisee.com/                                              *
+ *                                                                            *
+ * Open Source != No Copyright                                                *
+ *                                                                            *
+ * Permission is hereby granted, free of charge, to any person obtaining a    *
+ * copy of this software and associated documentation files (the "Software"), *
+ * to deal in the Software without restriction, including without limitation  *
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,   *
+ * and/or sell copies of the Software, and to permit persons to whom the      *
+ * Software is furnished to do so, subject to the following conditions:       *
+ *                                                                            *
+ * The above copyright notice and this permission notice shall be included    *
+ * in all copies or substantial portions of the Software.                     *
+ *                                                                            *
+ * You should have received a copy of The MIT License (MIT) along with this   *
+ * program. If not, see <http://opensource.org/licenses/MIT/>.                *
+ ******************************************************************************/
+
+package com.timvisee.voxeltex.module.font;
+
+import com.timvisee.voxeltex.module.resource.engine.EngineAssetLoader;
+import com.timvisee.voxeltex.util.ini.IniConfig;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+public class BakedFontWidths {
+
+    /**
+     * File extension of baked font widths files.
+     */
+    public static final String FILE_EXTENSION = ".vtfont";
+
+    /**
+     * Magic number at the start of each baked font widths file, the bytes "VTFW" read as little endian integer.
+     */
+    public static final int MAGIC = 0x57465456;
+
+    /**
+     * Current version of the baked font widths format.
+     */
+    public static final int VERSION = 1;
+
+    /**
+     * Width value used for characters that don't have a configured width.
+     */
+    public static final int WIDTH_UNDEFINED = -1;
+
+    /**
+     * Bake the character widths from the given font widths configuration.
+     *
+     * The file holds a little endian header with the magic number, version and character count, followed by the width
+     * of each character. Characters without a configured width are stored as {@link #WIDTH_UNDEFINED}.
+     *
+     * @param widthsConfig Font widths configuration.
+     *
+     * @return Baked font widths, ready for writing.
+     */
+    public static ByteBuffer bake(IniConfig widthsConfig) {
+        // Allocate the buffer and write the header
+        final ByteBuffer buffer = ByteBuffer.allocate((3 + BitmapFontWidths.CHARACTER_COUNT) * 4)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(BitmapFontWidths.CHARACTER_COUNT);
+
+        // Write the width of each character
+        for(int i = 0; i < BitmapFontWidths.CHARACTER_COUNT; i++)
+            buffer.putInt(widthsConfig.getInt(BitmapFontWidths.CONFIG_SECTION_CHAR_WIDTHS, String.valueOf(i), WIDTH_UNDEFINED));
+
+        // Flip and return the buffer
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * Read baked font widths from engine assets.
+     *
+     * @param path Path of the baked font widths file, relative to the engine assets directory.
+     *
+     * @return Character widths, {@link #WIDTH_UNDEFINED} for characters without a configured width.
+     */
+    public static int[] readFromEngineAssets(String path) {
+        try {
+            // Load the asset into a buffer and read it
+            final ByteBuffer buffer = EngineAssetLoader.getInstance().loadResourceByteBuffer(path);
+            if(buffer == null)
+                throw new IOException("Failed to load resource: " + path);
+            return read(buffer);
+
+        } catch(IOException e) {
+            throw new RuntimeException("Failed to read baked font widths: " + path, e);
+        }
+    }
+
+    /**
+     * Read baked font widths from the remaining bytes of the given buffer.
+     *
+     * @param buffer Buffer holding the baked font widths.
+     *
+     * @return Character widths, {@link #WIDTH_UNDEFINED} for characters without a configured width.
+     *
+     * @throws IOException Thrown if the buffer doesn't hold valid baked font widths.
+     */
+    public static int[] read(ByteBuffer buffer) throws IOException {
+        // Create a little endian view of the buffer
+        final ByteBuffer data = buffer.slice().order(ByteOrder.LITTLE_ENDIAN);
+        if(data.remaining() < 3 * 4)
+            throw new IOException("Invalid baked font widths, file is too small");
+
+        // Read and validate the header
+        if(data.getInt() != MAGIC)
+            throw new IOException("Invalid baked font widths, magic number mismatch");
+        final int version = data.getInt();
+        if(version != VERSION)
+            throw new IOException("Unsupported baked font widths version: " + version);
+        final int count = data.getInt();
+        if(count != BitmapFontWidths.CHARACTER_COUNT || data.remaining() < count * 4)
+            throw new IOException("Invalid baked font widths, character count mismatch");
+
+        // Read the widths
+        final int[] widths = new int[count];
+        data.asIntBuffer().get(widths);
+        return widths;
+    }
+}
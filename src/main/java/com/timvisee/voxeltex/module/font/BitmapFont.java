@@ -59,7 +59,7 @@ public class BitmapFont {
      * @param fontTexture Font texture.
      */
     public BitmapFont(String name, Texture fontTexture) {
-        this(name, fontTexture, null);
+        this(name, fontTexture, (IniConfig) null);
     }
 
     /**
@@ -80,6 +80,20 @@ public class BitmapFont {
             this.widths = new BitmapFontWidths(fontTexture);
     }
 
+    /**
+     * Constructor.
+     *
+     * @param name Font name.
+     * @param fontTexture Font texture.
+     * @param widths Font character widths.
+     */
+    public BitmapFont(String name, Texture fontTexture, BitmapFontWidths widths) {
+        // Set the name, texture and widths fields
+        this.name = name;
+        this.texture = fontTexture;
+        this.widths = widths;
+    }
+
     /**
      * Get the texture name.
      *
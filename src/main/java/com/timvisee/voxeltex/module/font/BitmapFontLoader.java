@@ -22,8 +22,8 @@
 
 package com.timvisee.voxeltex.module.font;
 
+import com.timvisee.voxeltex.module.asset.AssetManager;
 import com.timvisee.voxeltex.module.resource.engine.EngineAssetLoader;
-import com.timvisee.voxeltex.module.texture.Image;
 import com.timvisee.voxeltex.module.texture.Texture;
 import com.timvisee.voxeltex.util.ini.IniConfig;
 import com.timvisee.voxeltex.util.ini.IniParser;
@@ -45,14 +45,22 @@ public class BitmapFontLoader {
     public static BitmapFont loadFont(String fontName) {
         // Load the font image from resources
         System.out.println("Loading font character textures...");
-        Image fontImage = Image.loadFromEngineAssets("font/bitmap/" + fontName + ".tga");
-
-        // Create a bitmap font texture
-        Texture fontTexture = Texture.fromImage(fontImage);
+        // The texture is shared through the asset manager, and stays referenced by the font
+        Texture fontTexture = AssetManager.getInstance()
+                .loadNow("font/bitmap/" + fontName + ".tga", AssetManager.GUI_TEXTURE).getNow();
 
         // Load the font widths configuration
         System.out.println("Loading font character dimensions...");
-        InputStream iniStream = EngineAssetLoader.getInstance().loadResourceStream("font/bitmap/" + fontName + ".ini");
+        final String widthsPath = "font/bitmap/" + fontName + ".ini";
+
+        // Prefer the baked font widths, which don't have to be parsed
+        final String bakedWidthsPath = EngineAssetLoader.getInstance().getBakedPath(widthsPath, BakedFontWidths.FILE_EXTENSION);
+        if(bakedWidthsPath != null)
+            return new BitmapFont(fontName, fontTexture,
+                    new BitmapFontWidths(fontTexture, BakedFontWidths.readFromEngineAssets(bakedWidthsPath)));
+
+        // Load the font widths configuration stream
+        InputStream iniStream = EngineAssetLoader.getInstance().loadResourceStream(widthsPath);
 
         try {
             // Load and parse the ini configuration
@@ -37,17 +37,18 @@ public class BitmapFontManager {
      */
     private static List<BitmapFont> fonts = new ArrayList<>();
 
-    static {
-        // Load the default font on start
-        loadFont(DEFAULT_FONT);
-    }
-
     /**
      * Get the main bitmap font.
+     * The default font is loaded when it's first used.
      *
      * @return Main bitmap font.
      */
     public static BitmapFont getDefault() {
+        // Load the default font if no font has been loaded yet
+        if(fonts.isEmpty())
+            loadFont(DEFAULT_FONT);
+
+        // Return the main font
         return fonts.get(0);
     }
 
@@ -30,12 +30,12 @@ public class BitmapFontWidths {
     /**
      * Number of characters in a character bitmap.
      */
-    private static final int CHARACTER_COUNT = BitmapFont.BITMAP_FONT_TILE_SIZE * BitmapFont.BITMAP_FONT_TILE_SIZE;
+    static final int CHARACTER_COUNT = BitmapFont.BITMAP_FONT_TILE_SIZE * BitmapFont.BITMAP_FONT_TILE_SIZE;
 
     /**
      * Configuration section name for the character widths.
      */
-    private static final String CONFIG_SECTION_CHAR_WIDTHS = "Char Widths";
+    static final String CONFIG_SECTION_CHAR_WIDTHS = "Char Widths";
 
     /**
      * Default font width.
@@ -78,6 +78,33 @@ public class BitmapFontWidths {
             this.widths[i] = widthsConfig.getInt(CONFIG_SECTION_CHAR_WIDTHS, String.valueOf(i), this.maxCharacterWidth);
     }
 
+    /**
+     * Constructor.
+     *
+     * @param fontTexture Font texture.
+     * @param widths Baked character widths, {@link BakedFontWidths#WIDTH_UNDEFINED} for characters without a width.
+     */
+    public BitmapFontWidths(Texture fontTexture, int[] widths) {
+        // Calculate the maximum character width from the texture
+        this((int) (fontTexture.getWidth() / BitmapFont.BITMAP_FONT_TILE_SIZE), widths);
+    }
+
+    /**
+     * Constructor, used to create font widths without a font texture.
+     *
+     * @param maxCharacterWidth Maximum character width, the width of a single font tile.
+     * @param widths Baked character widths, {@link BakedFontWidths#WIDTH_UNDEFINED} for characters without a width.
+     */
+    BitmapFontWidths(int maxCharacterWidth, int[] widths) {
+        // Set the maximum character width
+        this.maxCharacterWidth = maxCharacterWidth;
+
+        // Copy the widths, and use the maximum width for characters that don't have one
+        this.widths = new int[CHARACTER_COUNT];
+        for(int i = 0; i < CHARACTER_COUNT; i++)
+            this.widths[i] = widths[i] != BakedFontWidths.WIDTH_UNDEFINED ? widths[i] : this.maxCharacterWidth;
+    }
+
     /**
      * Get the character width for the given character.
      *
@@ -0,0 +1,221 @@
+/******************************************************************************
+ * Copyright (c) Tim Visee 2016. All rights reserved.                         *
+ *                                                                            *
+ * @author Tim Visee                                                          *
+ * @website http://timvisee.com/                                              *
+ *                                                                            *
+ * Open Source != No Copyright                                                *
+ *                                                                            *
+ * Permission is hereby granted, free of charge, to any person obtaining a    *
+ * copy of this software and associated documentation files (the "Software"), *
+ * to deal in the Software without restriction, including without limitation  *
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,   *
+ * and/or sell copies of the Software, and to permit persons to whom the      *
+ * Software is furnished to do so, subject to the following conditions:       *
+ *                                                                            *
+ * The above copyright notice and this permission notice shall be included    *
+ * in all copies or substantial portions of the Software.                     *
+ *                                                                            *
+ * You should have received a copy of The MIT License (MIT) along with this   *
+ * program. If not, see <http://opensource.org/licenses/MIT/>.                *
+ ******************************************************************************/
+
+package com.timvisee.voxeltex.module.font;
+
+import com.timvisee.voxeltex.module.Color;
+import com.timvisee.voxeltex.module.render.SpriteBatch;
+import com.timvisee.voxeltex.module.shader.ShaderManager;
+import org.joml.Vector2f;
+
+public class TextLayout {
+
+    /**
+     * Number of floats stored for each glyph: the X offset and width factor, followed by the texture coordinates of the
+     * top left and bottom right corner of the character tile.
+     */
+    private static final int GLYPH_FLOATS = 6;
+
+    /**
+     * Initial glyph capacity.
+     */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * Font the text is laid out with, or null if nothing has been laid out yet.
+     */
+    private BitmapFont font = null;
+
+    /**
+     * Characters of the laid out text.
+     */
+    private char[] characters = new char[INITIAL_CAPACITY];
+
+    /**
+     * Number of characters in the laid out text.
+     */
+    private int length = 0;
+
+    /**
+     * Glyph data of each character, see {@link #GLYPH_FLOATS}.
+     * Offsets and widths are factors of the text height, so they don't depend on the text size or window ratio.
+     */
+    private float[] glyphs = new float[INITIAL_CAPACITY * GLYPH_FLOATS];
+
+    /**
+     * Width factor of the whole text, the sum of all character width factors.
+     */
+    private float widthFactor = 0f;
+
+    /**
+     * Lay out the given text with the given font, if it differs from the text that is laid out currently.
+     * The character offsets are computed once as prefix sums of the character widths. The buffers are reused, so
+     * laying out text that changes every frame, such as a frame rate counter, doesn't allocate.
+     *
+     * @param font Font to lay the text out with.
+     * @param text Text to lay out.
+     *
+     * @return True if the text has been laid out again, false if the cached layout was used.
+     */
+    public boolean update(BitmapFont font, CharSequence text) {
+        // Use the cached layout if the font and text are unchanged
+        if(font == this.font && contentEquals(text))
+            return false;
+
+        // Grow the buffers if required
+        final int length = text.length();
+        if(length > this.characters.length) {
+            final int capacity = Math.max(length, this.characters.length * 2);
+            this.characters = new char[capacity];
+            this.glyphs = new float[capacity * GLYPH_FLOATS];
+        }
+
+        // Lay out each character after the previous one
+        final BitmapFontWidths widths = font.getFontWidths();
+        final float tileSize = 1f / BitmapFont.BITMAP_FONT_TILE_SIZE;
+        float offset = 0f;
+        for(int i = 0; i < length; i++) {
+            // Store the character, and get it's width factor
+            final char c = text.charAt(i);
+            final float charWidth = widths.getCharacterWidthFactor(c);
+            this.characters[i] = c;
+
+            // Determine the texture coordinates of the character tile, centered horizontally to the character width
+            final int charIndex = BitmapFontUtil.getCharIndex(c);
+            final float u0 = (charIndex % BitmapFont.BITMAP_FONT_TILE_SIZE) * tileSize + tileSize * (1f - charWidth) / 2f;
+            final float v0 = (charIndex / BitmapFont.BITMAP_FONT_TILE_SIZE) * tileSize;
+
+            // Store the glyph, and move to the next character
+            final int glyph = i * GLYPH_FLOATS;
+            this.glyphs[glyph] = offset;
+            this.glyphs[glyph + 1] = charWidth;
+            this.glyphs[glyph + 2] = u0;
+            this.glyphs[glyph + 3] = v0;
+            this.glyphs[glyph + 4] = u0 + tileSize * charWidth;
+            this.glyphs[glyph + 5] = v0 + tileSize;
+            offset += charWidth;
+        }
+
+        // Set the layout properties
+        this.font = font;
+        this.length = length;
+        this.widthFactor = offset;
+        return true;
+    }
+
+    /**
+     * Draw the laid out text at the given position.
+     * Each glyph is added to the sprite batch as a textured rectangle, so the whole text is drawn in a single call.
+     *
+     * @param x Text X position, in overlay space.
+     * @param y Text Y position, in overlay space.
+     * @param size Text height, in overlay space.
+     * @param windowRatio Window ratio factor, to compensate the character widths with.
+     * @param color Text color.
+     */
+    public void draw(float x, float y, float size, float windowRatio, Color color) {
+        // Make sure a text has been laid out
+        if(this.font == null)
+            return;
+
+        // Get the texture region of the font material
+        final BitmapFontMaterial material = this.font.getMaterial();
+        final Vector2f regionOffset = material.getTextureOffset();
+        final Vector2f regionScale = material.getTextureScale();
+        final float width = size / windowRatio;
+
+        // Add each glyph to the batch, mapped onto the texture region
+        final SpriteBatch batch = SpriteBatch.getInstance();
+        for(int i = 0; i < this.length; i++) {
+            final int glyph = i * GLYPH_FLOATS;
+            batch.draw(ShaderManager.SHADER_DEFAULT_GUI_TEXTURE, material.getTexture(),
+                    x + this.glyphs[glyph] * width, y, this.glyphs[glyph + 1] * width, size,
+                    this.glyphs[glyph + 2] * regionScale.x + regionOffset.x,
+                    this.glyphs[glyph + 3] * regionScale.y + regionOffset.y,
+                    this.glyphs[glyph + 4] * regionScale.x + regionOffset.x,
+                    this.glyphs[glyph + 5] * regionScale.y + regionOffset.y,
+                    color.getRed(), color.getGreen(), color.getBlue(), color.getAlpha());
+        }
+    }
+
+    /**
+     * Get the width factor of the laid out text, relative to the text height.
+     *
+     * @return Width factor.
+     */
+    public float getWidthFactor() {
+        return this.widthFactor;
+    }
+
+    /**
+     * Get the width of the laid out text.
+     *
+     * @param size Text height, in overlay space.
+     * @param windowRatio Window ratio factor.
+     *
+     * @return Text width, in overlay space.
+     */
+    public float getWidth(float size, float windowRatio) {
+        return this.widthFactor * size / windowRatio;
+    }
+
+    /**
+     * Get the number of laid out characters.
+     *
+     * @return Character count.
+     */
+    public int getLength() {
+        return this.length;
+    }
+
+    /**
+     * Get the font the text is laid out with.
+     *
+     * @return Font, or null if nothing has been laid out yet.
+     */
+    public BitmapFont getFont() {
+        return this.font;
+    }
+
+    /**
+     * Clear the layout, so the next update lays out the text again.
+     */
+    public void invalidate() {
+        this.font = null;
+    }
+
+    /**
+     * Check whether the given text equals the laid out text, without allocating.
+     *
+     * @param text Text to compare.
+     *
+     * @return True if equal, false if not.
+     */
+    private boolean contentEquals(CharSequence text) {
+        if(text.length() != this.length)
+            return false;
+        for(int i = 0; i < this.length; i++)
+            if(text.charAt(i) != this.characters[i])
+                return false;
+        return true;
+    }
+}
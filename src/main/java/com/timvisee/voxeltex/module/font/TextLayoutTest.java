@@ -0,0 +1,108 @@
+/******************************************************************************
+ * Copyright (c) Tim Visee 2016. All rights reserved.                         *
+ *                                                                            *
+ * @author Tim Visee                                                          *
+ * @website http://timvisee.com/                                              *
+ *                                                                            *
+ * Open Source != No Copyright                                                *
+ *                                                                            *
+ * Permission is hereby granted, free of charge, to any person obtaining a    *
+ * copy of this software and associated documentation files (the "Software"), *
+ * to deal in the Software without restriction, including without limitation  *
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,   *
+ * and/or sell copies of the Software, and to permit persons to whom the      *
+ * Software is furnished to do so, subject to the following conditions:       *
+ *                                                                            *
+ * The above copyright notice and this permission notice shall be included    *
+ * in all copies or substantial portions of the Software.                     *
+ *                                                                            *
+ * You should have received a copy of The MIT License (MIT) along with this   *
+ * program. If not, see <http://opensource.org/licenses/MIT/>.                *
+ ******************************************************************************/
+
+
+package com.timvisee.voxeltex.module.font;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TextLayoutTest {
+
+    /**
+     * Width of a single font tile.
+     */
+    private static final int TILE_WIDTH = 32;
+
+    @org.junit.Test
+    public void glyphOffsets() throws Exception {
+        // Lay out a text with characters of different widths
+        final TextLayout layout = new TextLayout();
+        assertTrue(layout.update(createFont(), "Ai"));
+        assertEquals(2, layout.getLength());
+
+        // The width factor is the sum of the character width factors
+        assertEquals(1.25f, layout.getWidthFactor(), 0.0001f);
+        assertEquals(1.25f * 2f / 0.5f, layout.getWidth(2f, 0.5f), 0.0001f);
+    }
+
+    @org.junit.Test
+    public void caching() throws Exception {
+        // Equal text doesn't need a new layout, regardless of it's type
+        final BitmapFont font = createFont();
+        final TextLayout layout = new TextLayout();
+        assertTrue(layout.update(font, "Score: 10"));
+        assertFalse(layout.update(font, "Score: 10"));
+        assertFalse(layout.update(font, new StringBuilder("Score: 10")));
+
+        // Changed text, another font or an invalidated layout must be laid out again
+        assertTrue(layout.update(font, "Score: 11"));
+        assertTrue(layout.update(font, "Score: 1"));
+        final BitmapFont other = createFont();
+        assertTrue(layout.update(other, "Score: 1"));
+        layout.invalidate();
+        assertTrue(layout.update(other, "Score: 1"));
+        assertFalse(layout.update(other, "Score: 1"));
+    }
+
+    @org.junit.Test
+    public void growth() throws Exception {
+        // Texts longer than the initial capacity must grow the layout buffers
+        final BitmapFont font = createFont();
+        final TextLayout layout = new TextLayout();
+        final StringBuilder text = new StringBuilder();
+        for(int i = 0; i < 100; i++)
+            text.append('A');
+        assertTrue(layout.update(font, text));
+        assertEquals(100, layout.getLength());
+        assertEquals(100f, layout.getWidthFactor(), 0.0001f);
+
+        // Shorter texts reuse the buffers
+        assertTrue(layout.update(font, "iii"));
+        assertEquals(3, layout.getLength());
+        assertEquals(0.75f, layout.getWidthFactor(), 0.0001f);
+    }
+
+    @org.junit.Test
+    public void emptyText() throws Exception {
+        // An empty text has no width
+        final TextLayout layout = new TextLayout();
+        assertTrue(layout.update(createFont(), ""));
+        assertEquals(0, layout.getLength());
+        assertEquals(0f, layout.getWidthFactor(), 0f);
+    }
+
+    /**
+     * Create a font without a texture, where the i character is a quarter tile wide and all others are a full tile.
+     *
+     * @return Font.
+     */
+    private static BitmapFont createFont() {
+        final int[] widths = new int[BitmapFontWidths.CHARACTER_COUNT];
+        Arrays.fill(widths, BakedFontWidths.WIDTH_UNDEFINED);
+        widths['i'] = TILE_WIDTH / 4;
+        return new BitmapFont("test", null, new BitmapFontWidths(TILE_WIDTH, widths));
+    }
+}
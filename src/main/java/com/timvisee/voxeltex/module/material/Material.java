@@ -26,6 +26,7 @@ import com.timvisee.voxeltex.architecture.scene.AbstractScene;
 import com.timvisee.voxeltex.module.shader.Shader;
 import com.timvisee.voxeltex.module.shader.ShaderManager;
 import com.timvisee.voxeltex.module.texture.Texture;
+import com.timvisee.voxeltex.module.texture.atlas.TextureRegion;
 import com.timvisee.voxeltex.util.math.vector.Vector2fFactory;
 import org.joml.Vector2f;
 import org.lwjgl.opengl.GL13;
@@ -47,11 +48,26 @@ public class Material implements MaterialInterface {
      */
     private Texture normal;
 
+    /**
+     * Texture coordinate offset, used to sample from a region of the texture.
+     */
+    private final Vector2f textureOffset = Vector2fFactory.zero();
+
+    /**
+     * Texture coordinate scale, used to sample from a region of the texture.
+     */
+    private final Vector2f textureScale = Vector2fFactory.one();
+
     /**
      * Texture tiling.
      */
     private Vector2f tile = Vector2fFactory.one();
 
+    /**
+     * Defines whether the material is transparent.
+     */
+    private boolean transparent = false;
+
     /**
      * Constructor.
      *
@@ -115,7 +131,28 @@ public class Material implements MaterialInterface {
 
     @Override
     public void setTexture(Texture texture) {
+        // Set the texture, and sample from the whole texture
         this.texture = texture;
+        this.textureOffset.set(0f);
+        this.textureScale.set(1f);
+    }
+
+    @Override
+    public void setTextureRegion(TextureRegion region) {
+        // Set the texture, and sample from the region
+        this.texture = region.getTexture();
+        this.textureOffset.set(region.getOffset());
+        this.textureScale.set(region.getScale());
+    }
+
+    @Override
+    public Vector2f getTextureOffset() {
+        return this.textureOffset;
+    }
+
+    @Override
+    public Vector2f getTextureScale() {
+        return this.textureScale;
     }
 
     @Override
@@ -143,6 +180,16 @@ public class Material implements MaterialInterface {
         this.tile = tile;
     }
 
+    @Override
+    public boolean isTransparent() {
+        return this.transparent;
+    }
+
+    @Override
+    public void setTransparent(boolean transparent) {
+        this.transparent = transparent;
+    }
+
     @Override
     public void bind() {
         // Bind the shader
@@ -25,6 +25,7 @@ package com.timvisee.voxeltex.module.material;
 import com.timvisee.voxeltex.architecture.scene.AbstractScene;
 import com.timvisee.voxeltex.module.shader.Shader;
 import com.timvisee.voxeltex.module.texture.Texture;
+import com.timvisee.voxeltex.module.texture.atlas.TextureRegion;
 import org.joml.Vector2f;
 
 public interface MaterialInterface {
@@ -64,6 +65,28 @@ public interface MaterialInterface {
      */
     void setTexture(Texture texture);
 
+    /**
+     * Set the material texture to the given texture region, such as a region of a texture atlas.
+     * Tiling repeats the whole texture rather than the region, so it should be left at one for regions.
+     *
+     * @param region Texture region.
+     */
+    void setTextureRegion(TextureRegion region);
+
+    /**
+     * Get the texture coordinate offset, used to sample from a region of the texture.
+     *
+     * @return Texture coordinate offset.
+     */
+    Vector2f getTextureOffset();
+
+    /**
+     * Get the texture coordinate scale, used to sample from a region of the texture.
+     *
+     * @return Texture coordinate scale.
+     */
+    Vector2f getTextureScale();
+
     /**
      * Get the material normal.
      *
@@ -99,6 +122,21 @@ public interface MaterialInterface {
      */
     void setTiling(Vector2f tile);
 
+    /**
+     * Check whether this material is transparent.
+     * Transparent materials are drawn after opaque materials, from back to front.
+     *
+     * @return True if transparent, false if opaque.
+     */
+    boolean isTransparent();
+
+    /**
+     * Set whether this material is transparent.
+     *
+     * @param transparent True if transparent, false if opaque.
+     */
+    void setTransparent(boolean transparent);
+
     /**
      * Bind the current material to OpenGL before rendering.
      */
@@ -23,71 +23,104 @@
 package com.timvisee.voxeltex.module.mesh;
 
 import com.timvisee.voxeltex.module.material.Material;
+import com.timvisee.voxeltex.module.mesh.baked.BakedMesh;
+import com.timvisee.voxeltex.module.mesh.baked.BakedMeshReader;
 import com.timvisee.voxeltex.module.model.RawModel;
+import com.timvisee.voxeltex.module.model.loader.ObjMeshLoader;
+import com.timvisee.voxeltex.module.resource.engine.EngineAssetLoader;
+import org.joml.Vector3f;
 import org.lwjgl.BufferUtils;
 import org.lwjgl.opengl.GL11;
 import org.lwjgl.opengl.GL15;
+import org.lwjgl.opengl.GL30;
+import org.lwjgl.opengl.GL31;
 
 import java.nio.FloatBuffer;
-
-import static org.lwjgl.opengl.GL15.GL_ARRAY_BUFFER;
-import static org.lwjgl.opengl.GL15.glBindBuffer;
+import java.nio.IntBuffer;
+import java.nio.ShortBuffer;
 
 public class Mesh {
 
     /**
-     * The raw mesh object containing the vertexes data.
+     * Handle of the vertex array object that is currently bound, or zero if none.
+     * Used to skip redundant binds when the same mesh is drawn multiple times in a row.
+     */
+    private static int boundVaoHandle = 0;
+
+    /**
+     * The raw mesh object containing the vertexes data, or null if the mesh is created from a baked mesh.
      */
     private RawMesh raw;
 
+    /**
+     * The baked mesh containing the vertex and index data, or null if the mesh is created from a raw mesh.
+     */
+    private BakedMesh baked;
+
+    /**
+     * True to keep the interleaved client side buffer after it has been uploaded.
+     */
+    private final boolean keepClientBuffer;
+
+    /**
+     * The vertex format of the buffered mesh.
+     */
+    private VertexFormat format;
+
     /**
      * The number of vertexes in the buffered mesh.
      */
     private int vertexCount;
 
     /**
-     * The number of normals in the buffered mesh.
+     * The number of indexes in the buffered mesh, or zero if the mesh isn't indexed.
      */
-    private int normalCount;
+    private int indexCount;
 
     /**
-     * Vertex buffer.
+     * OpenGL type of the buffered indexes, unsigned shorts if all vertexes can be addressed with them.
      */
-    private FloatBuffer vertexBuffer;
+    private int indexType;
 
     /**
-     * Vertex buffer.
+     * Interleaved vertex buffer, only available if the client buffer is kept after uploading.
      */
-    private FloatBuffer normalBuffer;
+    private FloatBuffer interleavedBuffer;
 
     /**
-     * Texture buffer.
+     * VBO handle of the interleaved vertex data.
      */
-    private FloatBuffer textureBuffer;
+    private int vboHandle = 0;
 
     /**
-     * VBO vertex buffer handle.
+     * Element buffer handle of the indexes, or zero if the mesh isn't indexed.
      */
-    private int vboVertexHandle = 0;
+    private int eboHandle = 0;
 
     /**
-     * VBO normal buffer handle.
+     * VAO handle, holding the attribute bindings of the interleaved vertex data.
      */
-    private int vboNormalHandle = 0;
+    private int vaoHandle = 0;
 
     /**
-     * VBO texture buffer handle.
+     * Constructor.
+     *
+     * @param raw Raw mesh.
      */
-    private int vboTextureHandle = 0;
+    public Mesh(RawMesh raw) {
+        this(raw, false);
+    }
 
     /**
      * Constructor.
      *
      * @param raw Raw mesh.
+     * @param keepClientBuffer True to keep the interleaved client side buffer after uploading, false to release it.
      */
-    public Mesh(RawMesh raw) {
+    public Mesh(RawMesh raw, boolean keepClientBuffer) {
         // Set the raw mesh
         this.raw = raw;
+        this.keepClientBuffer = keepClientBuffer;
 
         // Buffer the mesh
         bufferMesh();
@@ -95,69 +128,117 @@ public class Mesh {
 
     /**
      * Constructor.
+     * The vertex and index data of the baked mesh are uploaded directly, without intermediate copies.
      *
-     * @param raw Raw model.
+     * @param baked Baked mesh.
      */
-    public Mesh(RawModel raw) {
-        // Set the raw mesh
-        this.raw = raw.toRawMesh();
+    public Mesh(BakedMesh baked) {
+        // Set the baked mesh
+        this.baked = baked;
+        this.keepClientBuffer = false;
 
         // Buffer the mesh
         bufferMesh();
     }
 
+    /**
+     * Constructor.
+     *
+     * @param raw Raw model.
+     */
+    public Mesh(RawModel raw) {
+        this(raw.toRawMesh());
+    }
+
+    /**
+     * Load a mesh from engine assets.
+     * The baked variant of the model is used if available, else the OBJ model is parsed and optimized.
+     *
+     * @param path Path of the OBJ model, relative to the engine assets directory.
+     *
+     * @return Mesh.
+     */
+    public static Mesh loadFromEngineAssets(String path) {
+        // Prefer the baked variant of the model, which is mapped and uploaded as is
+        final String bakedPath = EngineAssetLoader.getInstance().getBakedPath(path, BakedMesh.FILE_EXTENSION);
+        if(bakedPath != null)
+            return new Mesh(BakedMeshReader.readFromEngineAssets(bakedPath));
+
+        // Parse and optimize the model
+        return new Mesh(MeshOptimizer.optimize(ObjMeshLoader.loadMeshFromEngineAssets(path).getRawMesh()));
+    }
+
     /**
      * Get the raw mesh.
      *
-     * @return Raw mesh.
+     * @return Raw mesh, or null if the mesh is created from a baked mesh.
      */
     public RawMesh getRawMesh() {
         return raw;
     }
 
     /**
-     * Get the vertex buffer.
+     * Get the baked mesh.
      *
-     * @return Vertex buffer.
+     * @return Baked mesh, or null if the mesh is created from a raw mesh.
      */
-    public FloatBuffer getVertexBuffer() {
-        return vertexBuffer;
+    public BakedMesh getBakedMesh() {
+        return this.baked;
     }
 
     /**
-     * Get the normal buffer.
+     * Get the vertex format of the buffered mesh.
      *
-     * @return Normal buffer.
+     * @return Vertex format, or null if the mesh isn't buffered.
      */
-    public FloatBuffer getNormalBuffer() {
-        return normalBuffer;
+    public VertexFormat getFormat() {
+        return this.format;
     }
 
     /**
-     * Get the texture buffer.
+     * Get the interleaved client side vertex buffer.
+     * This is only available if the mesh was constructed to keep it's client buffer.
      *
-     * @return Texture buffer.
+     * @return Interleaved vertex buffer, or null.
      */
-    public FloatBuffer getTextureBuffer() {
-        return textureBuffer;
+    public FloatBuffer getInterleavedBuffer() {
+        return this.interleavedBuffer;
     }
 
     /**
-     * Get the VBO vertex buffer handle.
+     * Get the VBO handle of the interleaved vertex data.
      *
-     * @return VBO vertex buffer handle.
+     * @return VBO handle.
      */
-    public int getVboVertexHandle() {
-        return vboVertexHandle;
+    public int getVboHandle() {
+        return this.vboHandle;
     }
 
     /**
-     * Get the VBO texture buffer handle.
+     * Get the element buffer handle of the indexes.
      *
-     * @return VBO texture buffer handle.
+     * @return Element buffer handle, or zero if the mesh isn't indexed.
      */
-    public int getVboTextureHandle() {
-        return vboTextureHandle;
+    public int getEboHandle() {
+        return this.eboHandle;
+    }
+
+    /**
+     * Get the number of buffered indexes.
+     *
+     * @return Index count, or zero if the mesh isn't indexed.
+     */
+    public int getIndexCount() {
+        return this.indexCount;
+    }
+
+    /**
+     * Get the VAO handle of this mesh.
+     *
+     * @return VAO handle.
+     */
+    public int getVaoHandle() {
+        return this.vaoHandle;
     }
 
     /**
@@ -166,12 +247,12 @@ public class Mesh {
      * @return True if this mesh has normal data, false if not.
      */
     public boolean hasNormalData() {
-        // Determine the result based on the stored buffers if data has been buffered
+        // Determine the result based on the buffered format if data has been buffered
         if(isBuffered())
-            return this.vboNormalHandle > 0;
+            return this.format.hasNormals();
 
-        // The mesh isn't buffered, determine the result based on the raw mesh
-        return this.raw.hasNormalData();
+        // The mesh isn't buffered, determine the result based on the source mesh
+        return this.baked != null ? this.baked.getFormat().hasNormals() : this.raw.hasNormalData();
     }
 
     /**
@@ -180,12 +261,51 @@ public class Mesh {
      * @return True if this mesh has texture data, false if not.
      */
     public boolean hasTextureData() {
-        // Determine the result based on the stored buffers if data has been buffered
+        // Determine the result based on the buffered format if data has been buffered
         if(isBuffered())
-            return this.vboTextureHandle > 0;
+            return this.format.hasTextures();
 
-        // The mesh isn't buffered, determine the result based on the raw mesh
-        return this.raw.hasTextureData();
+        // The mesh isn't buffered, determine the result based on the source mesh
+        return this.baked != null ? this.baked.getFormat().hasTextures() : this.raw.hasTextureData();
+    }
+
+    /**
+     * Get the minimum corner of the axis aligned bounding box of this mesh, in mesh space.
+     * The returned vector must not be modified.
+     *
+     * @return Minimum bounds.
+     */
+    public Vector3f getBoundsMin() {
+        return this.baked != null ? this.baked.getBoundsMin() : this.raw.getBoundsMin();
+    }
+
+    /**
+     * Get the maximum corner of the axis aligned bounding box of this mesh, in mesh space.
+     * The returned vector must not be modified.
+     *
+     * @return Maximum bounds.
+     */
+    public Vector3f getBoundsMax() {
+        return this.baked != null ? this.baked.getBoundsMax() : this.raw.getBoundsMax();
+    }
+
+    /**
+     * Get the center of the bounding sphere of this mesh, in mesh space.
+     * The returned vector must not be modified.
+     *
+     * @return Bounding sphere center.
+     */
+    public Vector3f getBoundsCenter() {
+        return this.baked != null ? this.baked.getBoundsCenter() : this.raw.getBoundsCenter();
+    }
+
+    /**
+     * Get the radius of the bounding sphere of this mesh, in mesh space.
+     *
+     * @return Bounding sphere radius.
+     */
+    public float getBoundsRadius() {
+        return this.baked != null ? this.baked.getBoundsRadius() : this.raw.getBoundsRadius();
     }
 
     /**
@@ -194,59 +314,104 @@ public class Mesh {
      * @return True if this mash is buffered, false if not.
      */
     public boolean isBuffered() {
-        return this.vboVertexHandle > 0;
+        return this.vaoHandle > 0;
     }
 
     /**
      * Build and buffer the mesh on the graphics card.
+     * The vertexes are interleaved into a single buffer, which is bound to a vertex array object along with it's
+     * attribute layout.
      */
     public void bufferMesh() {
-        // Create a flipped float buffer for the vertexes
-        this.vertexBuffer = BufferUtils.createFloatBuffer(this.raw.getVertexCount() * this.raw.getVertexAxisCount());
-        this.vertexBuffer.put(this.raw.getVertexes());
-        this.vertexBuffer.flip();
-
-        // Create a VBO handle for the vertexes and bind the buffer
-        vboVertexHandle = GL15.glGenBuffers();
-        glBindBuffer(GL_ARRAY_BUFFER, this.vboVertexHandle);
-        GL15.glBufferData(GL_ARRAY_BUFFER, this.vertexBuffer, GL15.GL_STATIC_DRAW);
-        glBindBuffer(GL_ARRAY_BUFFER, 0);
-
-        // Buffer the normal data if the mesh has any configured
-        if(this.raw.hasNormalData()) {
-            // Create a flipped float buffer for the normal coordinates
-            this.normalBuffer = BufferUtils.createFloatBuffer(this.raw.getNormalCount() * this.raw.getNormalAxisCount());
-            this.normalBuffer.put(this.raw.getNormals());
-            this.normalBuffer.flip();
-
-            // Create a VBO handle for the normal coordinates and bind the buffer
-            vboNormalHandle = GL15.glGenBuffers();
-            glBindBuffer(GL_ARRAY_BUFFER, this.vboNormalHandle);
-            GL15.glBufferData(GL_ARRAY_BUFFER, this.normalBuffer, GL15.GL_STATIC_DRAW);
-            glBindBuffer(GL_ARRAY_BUFFER, 0);
+        // Create the vertex array object, and make sure it isn't considered bound anymore
+        this.vaoHandle = GL30.glGenVertexArrays();
+        GL30.glBindVertexArray(this.vaoHandle);
+        boundVaoHandle = 0;
+
+        // Create the VBO
+        this.vboHandle = GL15.glGenBuffers();
+        GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, this.vboHandle);
+
+        // Upload the interleaved data, directly from the baked mesh if available
+        FloatBuffer buffer = null;
+        if(this.baked != null) {
+            this.format = this.baked.getFormat();
+            GL15.glBufferData(GL15.GL_ARRAY_BUFFER, this.baked.getVertexData(), GL15.GL_STATIC_DRAW);
+            this.vertexCount = this.baked.getVertexCount();
+
+        } else {
+            // Determine the vertex format, and interleave the vertexes into a flipped float buffer
+            this.format = VertexFormat.of(this.raw);
+            buffer = BufferUtils.createFloatBuffer(this.raw.getVertexCount() * this.format.getVertexFloats());
+            this.format.interleave(this.raw, buffer);
+            buffer.flip();
+            GL15.glBufferData(GL15.GL_ARRAY_BUFFER, buffer, GL15.GL_STATIC_DRAW);
+            this.vertexCount = this.raw.getVertexCount();
         }
 
-        // Buffer the texture data if the mesh has any configured
-        if(this.raw.hasTextureData()) {
-            // Create a flipped float buffer for the texture coordinates
-            this.textureBuffer = BufferUtils.createFloatBuffer(this.raw.getVertexCount() * this.raw.getTextureAxisCount());
-            this.textureBuffer.put(this.raw.getTextures());
-            this.textureBuffer.flip();
-
-            // Create a VBO handle for the texture coordinates and bind the buffer
-            vboTextureHandle = GL15.glGenBuffers();
-            glBindBuffer(GL_ARRAY_BUFFER, this.vboTextureHandle);
-            GL15.glBufferData(GL_ARRAY_BUFFER, this.textureBuffer, GL15.GL_STATIC_DRAW);
-            glBindBuffer(GL_ARRAY_BUFFER, 0);
+        // Configure the attribute layout in the vertex array object
+        this.format.setupVertexArray();
+
+        // Upload the indexes to an element buffer referenced by the vertex array object, if the mesh is indexed
+        if(this.baked != null)
+            bufferBakedIndexes();
+        else if(this.raw.hasIndexData())
+            bufferIndexes();
+
+        // Unbind the vertex array and the buffers, the element buffer is only unbound after the vertex array
+        GL30.glBindVertexArray(0);
+        GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, 0);
+        GL15.glBindBuffer(GL15.GL_ELEMENT_ARRAY_BUFFER, 0);
+
+        // Keep the client side buffer if requested
+        this.interleavedBuffer = this.keepClientBuffer ? buffer : null;
+    }
+
+    /**
+     * Upload the indexes of the baked mesh to an element buffer as they are, while the vertex array object is bound.
+     */
+    private void bufferBakedIndexes() {
+        // Create the element buffer and upload the index data directly
+        this.eboHandle = GL15.glGenBuffers();
+        GL15.glBindBuffer(GL15.GL_ELEMENT_ARRAY_BUFFER, this.eboHandle);
+        GL15.glBufferData(GL15.GL_ELEMENT_ARRAY_BUFFER, this.baked.getIndexData(), GL15.GL_STATIC_DRAW);
+
+        // Set the index type and count
+        this.indexType = this.baked.hasIntIndexes() ? GL11.GL_UNSIGNED_INT : GL11.GL_UNSIGNED_SHORT;
+        this.indexCount = this.baked.getIndexCount();
+    }
+
+    /**
+     * Upload the indexes of the raw mesh to an element buffer, while the vertex array object is bound.
+     * Unsigned short indexes are used if all vertexes can be addressed with them, unsigned integers otherwise.
+     */
+    private void bufferIndexes() {
+        // Create the element buffer
+        final int[] indexes = this.raw.getIndexes();
+        this.eboHandle = GL15.glGenBuffers();
+        GL15.glBindBuffer(GL15.GL_ELEMENT_ARRAY_BUFFER, this.eboHandle);
+
+        // Upload the indexes using the smallest type that fits
+        if(this.raw.getVertexCount() <= 0xFFFF + 1) {
+            final ShortBuffer buffer = BufferUtils.createShortBuffer(indexes.length);
+            for(int index : indexes)
+                buffer.put((short) index);
+            buffer.flip();
+            GL15.glBufferData(GL15.GL_ELEMENT_ARRAY_BUFFER, buffer, GL15.GL_STATIC_DRAW);
+            this.indexType = GL11.GL_UNSIGNED_SHORT;
+        } else {
+            final IntBuffer buffer = BufferUtils.createIntBuffer(indexes.length);
+            buffer.put(indexes).flip();
+            GL15.glBufferData(GL15.GL_ELEMENT_ARRAY_BUFFER, buffer, GL15.GL_STATIC_DRAW);
+            this.indexType = GL11.GL_UNSIGNED_INT;
         }
 
-        // Set the number of vertexes and normals
-        this.vertexCount = this.raw.getVertexCount();
-        this.normalCount = this.raw.getNormalCount();
+        // Set the number of indexes
+        this.indexCount = indexes.length;
     }
 
     /**
-     * Update the buffered mesh on the graphics card to use the current raw mesh.
+     * Update the buffered mesh on the graphics card to use the current raw or baked mesh.
      */
     public void updateBuffer() {
         // Clear the buffers if they are already made
@@ -260,75 +425,79 @@ public class Mesh {
      * Clear the buffers for this mesh on the graphics card.
      */
     public void clearMeshBuffer() {
-        // Delete data from old buffers if available
-        if(this.vertexBuffer != null)
-            this.vertexBuffer.clear();
-        if(this.normalBuffer != null)
-            this.normalBuffer.clear();
-        if(this.textureBuffer != null)
-            this.textureBuffer.clear();
-
-        // Reset the buffer instances
-        this.vertexBuffer = null;
-        this.normalBuffer = null;
-        this.textureBuffer = null;
-
-        // Clear old VBO buffers
-        if(this.vboVertexHandle != 0)
-            GL15.glDeleteBuffers(this.vboVertexHandle);
-        if(this.vboNormalHandle != 0)
-            GL15.glDeleteBuffers(this.vboNormalHandle);
-        if(this.vboTextureHandle != 0)
-            GL15.glDeleteBuffers(this.vboTextureHandle);
-
-        // Reset the VBO handles
-        this.vboVertexHandle = 0;
-        this.vboNormalHandle = 0;
-        this.vboTextureHandle = 0;
-
-        // Reset the vertex and normal count
+        // Release the client side buffer
+        this.interleavedBuffer = null;
+
+        // Delete the vertex array object, and forget it's binding
+        if(this.vaoHandle != 0) {
+            if(boundVaoHandle == this.vaoHandle)
+                unbindVertexArray();
+            GL30.glDeleteVertexArrays(this.vaoHandle);
+        }
+
+        // Delete the VBO and the element buffer
+        if(this.vboHandle != 0)
+            GL15.glDeleteBuffers(this.vboHandle);
+        if(this.eboHandle != 0)
+            GL15.glDeleteBuffers(this.eboHandle);
+
+        // Reset the handles
+        this.vaoHandle = 0;
+        this.vboHandle = 0;
+        this.eboHandle = 0;
+
+        // Reset the vertex and index count
         this.vertexCount = 0;
-        this.normalCount = 0;
+        this.indexCount = 0;
     }
 
     /**
      * Render or draw the mesh using OpenGL.
+     * The vertex array stays bound after drawing, call {@link #unbindVertexArray()} when done drawing meshes.
      */
     public void draw(Material material) {
-        // Bind the vertex buffer
-        glBindBuffer(GL_ARRAY_BUFFER, vboVertexHandle);
-        GL11.glVertexPointer(this.raw.getVertexAxisCount(), GL11.GL_FLOAT, 0, 0L);
-
-        // Bind the normal coordinate buffer if available
-        if(hasNormalData()) {
-            glBindBuffer(GL_ARRAY_BUFFER, vboNormalHandle);
-            GL11.glNormalPointer(GL11.GL_FLOAT, 0, 0L);
-        }
-
-        // Bind the texture coordinate buffer if available
-        if(hasTextureData()) {
-            glBindBuffer(GL_ARRAY_BUFFER, vboTextureHandle);
-            GL11.glTexCoordPointer(this.raw.getTextureAxisCount(), GL11.GL_FLOAT, 0, 0L);
-        }
-
-        // Enable the client states for the buffers that were bound
-        GL11.glEnableClientState(GL11.GL_VERTEX_ARRAY);
-        if(hasNormalData())
-            GL11.glEnableClientState(GL11.GL_NORMAL_ARRAY);
-        if(hasTextureData())
-            GL11.glEnableClientState(GL11.GL_TEXTURE_COORD_ARRAY);
+        // Bind the vertex array and draw the mesh, indexed if available
+        bindVertexArray();
+        if(this.eboHandle != 0)
+            GL11.glDrawElements(GL11.GL_TRIANGLES, this.indexCount, this.indexType, 0L);
+        else
+            GL11.glDrawArrays(GL11.GL_TRIANGLES, 0, this.vertexCount);
+    }
 
-        // Draw the mesh
-        GL11.glDrawArrays(GL11.GL_TRIANGLES, 0, this.vertexCount);
+    /**
+     * Render or draw the given number of instances of the mesh using OpenGL.
+     * The per instance attributes must be bound by the caller, after binding the vertex array of this mesh.
+     *
+     * @param material Material.
+     * @param instanceCount Number of instances to draw.
+     */
+    public void drawInstanced(Material material, int instanceCount) {
+        // Bind the vertex array and draw the mesh instances, indexed if available
+        bindVertexArray();
+        if(this.eboHandle != 0)
+            GL31.glDrawElementsInstanced(GL11.GL_TRIANGLES, this.indexCount, this.indexType, 0L, instanceCount);
+        else
+            GL31.glDrawArraysInstanced(GL11.GL_TRIANGLES, 0, this.vertexCount, instanceCount);
+    }
 
-        // Disable the client used states
-        GL11.glDisableClientState(GL11.GL_VERTEX_ARRAY);
-        if(hasNormalData())
-            GL11.glDisableClientState(GL11.GL_NORMAL_ARRAY);
-        if(hasTextureData())
-            GL11.glDisableClientState(GL11.GL_TEXTURE_COORD_ARRAY);
+    /**
+     * Bind the vertex array object of this mesh, if it isn't bound already.
+     */
+    public void bindVertexArray() {
+        if(boundVaoHandle != this.vaoHandle) {
+            GL30.glBindVertexArray(this.vaoHandle);
+            boundVaoHandle = this.vaoHandle;
+        }
+    }
 
-        // Unbind all buffers
-        GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, 0);
+    /**
+     * Unbind the currently bound mesh vertex array object, if any.
+     * This should be called after drawing meshes, before any other code touches the vertex array state.
+     */
+    public static void unbindVertexArray() {
+        if(boundVaoHandle != 0) {
+            GL30.glBindVertexArray(0);
+            boundVaoHandle = 0;
+        }
     }
 }
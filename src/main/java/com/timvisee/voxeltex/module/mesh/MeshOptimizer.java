@@ -0,0 +1,470 @@
+/******************************************************************************
+ * Copyright (c) Tim Visee 2016. All rights reserved.                         *
+ *                                                                            *
+ * @author Tim Visee                                                          *
+ * @website http://timvisee.com/                                              *
+ *                                                                            *
+ * Open Source != No Copyright                                                *
+ *                                                                            *
+ * Permission is hereby granted, free of charge, to any person obtaining a    *
+ * copy of this software and associated documentation files (the "Software"), *
+ * to deal in the Software without restriction, including without limitation  *
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,   *
+ * and/or sell copies of the Software, and to permit persons to whom the      *
+ * Software is furnished to do so, subject to the following conditions:       *
+ *                                                                            *
+ * The above copyright notice and this permission notice shall be included    *
+ * in all copies or substantial portions of the Software.                     *
+ *                                                                            *
+ * You should have received a copy of The MIT License (MIT) along with this   *
+ * program. If not, see <http://opensource.org/licenses/MIT/>.                *
+ ******************************************************************************/
+
+package com.timvisee.voxeltex.module.mesh;
+
+import java.util.Arrays;
+
+public class MeshOptimizer {
+
+    /**
+     * Quantization step used to compare vertex attributes when welding.
+     * Attributes that round to the same step are considered identical.
+     */
+    public static final float WELD_QUANTIZATION = 1.0f / 65536.0f;
+
+    /**
+     * Size of the simulated vertex cache used for optimizing the triangle order.
+     */
+    private static final int CACHE_SIZE = 32;
+
+    /**
+     * Size of the FIFO vertex cache used for measuring the average cache miss ratio.
+     */
+    public static final int ACMR_CACHE_SIZE = 16;
+
+    /**
+     * Score of a vertex used by the last added triangle.
+     */
+    private static final float LAST_TRIANGLE_SCORE = 0.75f;
+
+    /**
+     * Power of the cache position decay of the vertex score.
+     */
+    private static final float CACHE_DECAY_POWER = 1.5f;
+
+    /**
+     * Scale of the valence boost of the vertex score, to favor finishing vertexes with few triangles left.
+     */
+    private static final float VALENCE_BOOST_SCALE = 2.0f;
+
+    /**
+     * Power of the valence boost of the vertex score.
+     */
+    private static final float VALENCE_BOOST_POWER = 0.5f;
+
+    /**
+     * Fully optimize the given mesh.
+     * Identical vertexes are welded, triangles are reordered for the vertex cache and vertexes are reordered for
+     * fetch locality.
+     *
+     * @param raw Raw mesh.
+     *
+     * @return Optimized indexed raw mesh.
+     */
+    public static RawMesh optimize(RawMesh raw) {
+        return optimizeVertexFetch(optimizeVertexCache(weld(raw)));
+    }
+
+    /**
+     * Weld identical vertexes of the given mesh into single indexed vertexes.
+     * Vertexes are identical if all their attributes quantize to the same values.
+     *
+     * @param raw Raw mesh, indexed or not.
+     *
+     * @return Indexed raw mesh with unique vertexes.
+     */
+    public static RawMesh weld(RawMesh raw) {
+        // Get the source data
+        final int vertexCount = raw.getVertexCount();
+        final boolean normals = raw.hasNormalData();
+        final boolean textures = raw.hasTextureData();
+
+        // Create an open addressing hash table, large enough to keep the load factor at or below one half
+        int tableSize = 16;
+        while(tableSize < vertexCount * 2)
+            tableSize <<= 1;
+        final int[] table = new int[tableSize];
+        Arrays.fill(table, -1);
+
+        // Map each vertex to the first identical vertex
+        final int[] remap = new int[vertexCount];
+        final int[] uniqueSource = new int[vertexCount];
+        int uniqueCount = 0;
+        for(int i = 0; i < vertexCount; i++) {
+            // Find the slot of this vertex, or an identical one
+            int slot = hash(raw, i, normals, textures) & (tableSize - 1);
+            while(table[slot] >= 0 && !equal(raw, uniqueSource[table[slot]], i, normals, textures))
+                slot = (slot + 1) & (tableSize - 1);
+
+            // Add the vertex if it's unique
+            if(table[slot] < 0) {
+                table[slot] = uniqueCount;
+                uniqueSource[uniqueCount++] = i;
+            }
+            remap[i] = table[slot];
+        }
+
+        // Build the index list
+        final int[] indexes = new int[raw.getIndexCount()];
+        for(int i = 0; i < indexes.length; i++)
+            indexes[i] = remap[raw.getIndex(i)];
+
+        // Copy the unique vertexes and create the mesh
+        return copyVertexes(raw, uniqueSource, uniqueCount, indexes);
+    }
+
+    /**
+     * Reorder the triangles of the given indexed mesh to improve the hit ratio of the post transform vertex cache.
+     * This uses the linear speed vertex cache optimization by Tom Forsyth.
+     *
+     * @param raw Raw mesh, indexed or not.
+     *
+     * @return Indexed raw mesh sharing the vertexes of the given mesh, with reordered triangles.
+     */
+    public static RawMesh optimizeVertexCache(RawMesh raw) {
+        // Get the source data
+        final int vertexCount = raw.getVertexCount();
+        final int triangleCount = raw.getTriangleCount();
+
+        // Count the triangles using each vertex
+        final int[] adjacencyStart = new int[vertexCount + 1];
+        for(int i = 0, size = triangleCount * 3; i < size; i++)
+            adjacencyStart[raw.getIndex(i) + 1]++;
+        for(int i = 0; i < vertexCount; i++)
+            adjacencyStart[i + 1] += adjacencyStart[i];
+
+        // Build the triangle adjacency list of each vertex, the live count shrinks as triangles are added
+        final int[] adjacency = new int[triangleCount * 3];
+        final int[] liveCount = new int[vertexCount];
+        for(int i = 0, size = triangleCount * 3; i < size; i++) {
+            final int vertex = raw.getIndex(i);
+            adjacency[adjacencyStart[vertex] + liveCount[vertex]++] = i / 3;
+        }
+
+        // Compute the initial vertex and triangle scores
+        final int[] cachePosition = new int[vertexCount];
+        final float[] vertexScore = new float[vertexCount];
+        Arrays.fill(cachePosition, -1);
+        for(int i = 0; i < vertexCount; i++)
+            vertexScore[i] = vertexScore(-1, liveCount[i]);
+        final float[] triangleScore = new float[triangleCount];
+        final boolean[] added = new boolean[triangleCount];
+        for(int t = 0; t < triangleCount; t++)
+            triangleScore[t] = vertexScore[raw.getIndex(t * 3)]
+                    + vertexScore[raw.getIndex(t * 3 + 1)]
+                    + vertexScore[raw.getIndex(t * 3 + 2)];
+
+        // Cache of the simulated vertex cache, with room for the vertexes of one added triangle
+        int[] cache = new int[CACHE_SIZE + 3];
+        int[] newCache = new int[CACHE_SIZE + 3];
+        int cacheCount = 0;
+
+        // Stack of all emitted vertexes, used to continue near the previous triangles when the cache runs dry
+        final int[] deadEnd = new int[triangleCount * 3];
+        int deadEndSize = 0;
+
+        // Add the triangles one by one
+        final int[] indexes = new int[triangleCount * 3];
+        int bestTriangle = -1;
+        int scanCursor = 0;
+        for(int output = 0; output < triangleCount; output++) {
+            // Continue at the most recently emitted vertex that has triangles left if none was found through the cache,
+            // each vertex is popped once so this stays linear on meshes with many disconnected parts
+            while(bestTriangle < 0 && deadEndSize > 0) {
+                final int vertex = deadEnd[--deadEndSize];
+                float bestScore = -1f;
+                for(int k = adjacencyStart[vertex], end = k + liveCount[vertex]; k < end; k++) {
+                    if(triangleScore[adjacency[k]] > bestScore) {
+                        bestScore = triangleScore[adjacency[k]];
+                        bestTriangle = adjacency[k];
+                    }
+                }
+            }
+
+            // Continue with the next remaining triangle in input order if there's no such vertex
+            if(bestTriangle < 0) {
+                while(added[scanCursor])
+                    scanCursor++;
+                bestTriangle = scanCursor;
+            }
+
+            // Emit the triangle, and remove it from the adjacency of it's vertexes
+            added[bestTriangle] = true;
+            int newCacheCount = 0;
+            for(int corner = 0; corner < 3; corner++) {
+                final int vertex = raw.getIndex(bestTriangle * 3 + corner);
+                indexes[output * 3 + corner] = vertex;
+                final int start = adjacencyStart[vertex];
+                final int last = start + --liveCount[vertex];
+                for(int j = start; j <= last; j++) {
+                    if(adjacency[j] == bestTriangle) {
+                        adjacency[j] = adjacency[last];
+                        adjacency[last] = bestTriangle;
+                        break;
+                    }
+                }
+                newCache[newCacheCount++] = vertex;
+                deadEnd[deadEndSize++] = vertex;
+            }
+
+            // Move the triangle vertexes to the front of the cache, followed by the previous cache entries
+            for(int j = 0; j < cacheCount; j++) {
+                final int vertex = cache[j];
+                if(vertex != newCache[0] && vertex != newCache[1] && vertex != newCache[2])
+                    newCache[newCacheCount++] = vertex;
+            }
+            final int[] swap = cache;
+            cache = newCache;
+            newCache = swap;
+            cacheCount = newCacheCount;
+
+            // Update the cache positions and scores, vertexes pushed out of the cache are reset
+            for(int j = 0; j < cacheCount; j++) {
+                final int vertex = cache[j];
+                cachePosition[vertex] = j < CACHE_SIZE ? j : -1;
+                vertexScore[vertex] = vertexScore(cachePosition[vertex], liveCount[vertex]);
+            }
+
+            // Rescore the live triangles of the cached vertexes, and pick the best one
+            bestTriangle = -1;
+            float bestScore = -1f;
+            for(int j = 0; j < cacheCount; j++) {
+                final int vertex = cache[j];
+                for(int k = adjacencyStart[vertex], end = k + liveCount[vertex]; k < end; k++) {
+                    final int t = adjacency[k];
+                    final float score = vertexScore[raw.getIndex(t * 3)]
+                            + vertexScore[raw.getIndex(t * 3 + 1)]
+                            + vertexScore[raw.getIndex(t * 3 + 2)];
+                    triangleScore[t] = score;
+                    if(score > bestScore) {
+                        bestScore = score;
+                        bestTriangle = t;
+                    }
+                }
+            }
+
+            // Drop the vertexes that were pushed out of the cache
+            if(cacheCount > CACHE_SIZE)
+                cacheCount = CACHE_SIZE;
+        }
+
+        // Create the mesh with the reordered triangles
+        return new RawMesh(raw.getVertexes(), raw.getNormals(), raw.getTextures(), indexes);
+    }
+
+    /**
+     * Reorder the vertexes of the given indexed mesh in the order they're first used by the triangles.
+     * This improves the locality of vertex fetches. Unused vertexes are dropped.
+     *
+     * @param raw Raw mesh, indexed or not.
+     *
+     * @return Indexed raw mesh with reordered vertexes.
+     */
+    public static RawMesh optimizeVertexFetch(RawMesh raw) {
+        // Assign new vertex indexes in the order of first use
+        final int[] remap = new int[raw.getVertexCount()];
+        Arrays.fill(remap, -1);
+        final int[] source = new int[raw.getVertexCount()];
+        final int[] indexes = new int[raw.getIndexCount()];
+        int count = 0;
+        for(int i = 0; i < indexes.length; i++) {
+            final int vertex = raw.getIndex(i);
+            if(remap[vertex] < 0) {
+                remap[vertex] = count;
+                source[count++] = vertex;
+            }
+            indexes[i] = remap[vertex];
+        }
+
+        // Copy the vertexes in their new order and create the mesh
+        return copyVertexes(raw, source, count, indexes);
+    }
+
+    /**
+     * Compute the average cache miss ratio of the given mesh, the number of transformed vertexes for each triangle.
+     * A FIFO cache of {@link #ACMR_CACHE_SIZE} entries is simulated. Lower is better, the minimum is about one half
+     * for regular grids and the maximum is three.
+     *
+     * @param raw Raw mesh, indexed or not.
+     *
+     * @return Average cache miss ratio, or zero if the mesh doesn't have any triangles.
+     */
+    public static float computeAcmr(RawMesh raw) {
+        // Make sure the mesh has triangles
+        final int triangleCount = raw.getTriangleCount();
+        if(triangleCount == 0)
+            return 0f;
+
+        // Simulate the FIFO cache, each vertex stores the time it entered the cache
+        final int[] cacheTime = new int[raw.getVertexCount()];
+        Arrays.fill(cacheTime, Integer.MIN_VALUE);
+        int time = 0;
+        int misses = 0;
+        for(int i = 0, size = triangleCount * 3; i < size; i++) {
+            final int vertex = raw.getIndex(i);
+            if(cacheTime[vertex] == Integer.MIN_VALUE || time - cacheTime[vertex] > ACMR_CACHE_SIZE) {
+                cacheTime[vertex] = time++;
+                misses++;
+            }
+        }
+
+        // Return the ratio
+        return (float) misses / triangleCount;
+    }
+
+    /**
+     * Compute the score of a vertex.
+     *
+     * @param cachePosition Position of the vertex in the cache, or -1 if it isn't cached.
+     * @param liveCount Number of triangles left that use the vertex.
+     *
+     * @return Vertex score.
+     */
+    private static float vertexScore(int cachePosition, int liveCount) {
+        // Vertexes without any triangles left are never picked
+        if(liveCount == 0)
+            return -1f;
+
+        // Score based on the cache position, the vertexes of the last triangle get a fixed score
+        float score = 0f;
+        if(cachePosition >= 0) {
+            if(cachePosition < 3)
+                score = LAST_TRIANGLE_SCORE;
+            else
+                score = (float) Math.pow(1f - (float) (cachePosition - 3) / (CACHE_SIZE - 3), CACHE_DECAY_POWER);
+        }
+
+        // Boost vertexes with few triangles left
+        return score + VALENCE_BOOST_SCALE * (float) Math.pow(liveCount, -VALENCE_BOOST_POWER);
+    }
+
+    /**
+     * Create a mesh from a subset of the vertexes of the given mesh.
+     *
+     * @param raw Source mesh.
+     * @param source Source vertex index of each new vertex.
+     * @param count Number of new vertexes.
+     * @param indexes Index list of the new mesh.
+     *
+     * @return Raw mesh.
+     */
+    private static RawMesh copyVertexes(RawMesh raw, int[] source, int count, int[] indexes) {
+        // Create the attribute arrays
+        final float[] vertexes = new float[count * RawMesh.VERTEX_AXIS_COUNT];
+        final float[] normals = new float[raw.hasNormalData() ? count * RawMesh.NORMAL_AXIS_COUNT : 0];
+        final float[] textures = new float[raw.hasTextureData() ? count * RawMesh.TEXTURE_AXIS_COUNT : 0];
+
+        // Copy the attributes of each vertex
+        for(int i = 0; i < count; i++) {
+            System.arraycopy(raw.getVertexes(), source[i] * RawMesh.VERTEX_AXIS_COUNT,
+                    vertexes, i * RawMesh.VERTEX_AXIS_COUNT, RawMesh.VERTEX_AXIS_COUNT);
+            if(normals.length > 0)
+                System.arraycopy(raw.getNormals(), source[i] * RawMesh.NORMAL_AXIS_COUNT,
+                        normals, i * RawMesh.NORMAL_AXIS_COUNT, RawMesh.NORMAL_AXIS_COUNT);
+            if(textures.length > 0)
+                System.arraycopy(raw.getTextures(), source[i] * RawMesh.TEXTURE_AXIS_COUNT,
+                        textures, i * RawMesh.TEXTURE_AXIS_COUNT, RawMesh.TEXTURE_AXIS_COUNT);
+        }
+
+        // Create the mesh
+        return new RawMesh(vertexes, normals, textures, indexes);
+    }
+
+    /**
+     * Hash the quantized attributes of a vertex.
+     *
+     * @param raw Raw mesh.
+     * @param vertex Vertex index.
+     * @param normals True to include the normal.
+     * @param textures True to include the texture coordinate.
+     *
+     * @return Hash.
+     */
+    private static int hash(RawMesh raw, int vertex, boolean normals, boolean textures) {
+        // Hash the position
+        long hash = hash(0L, raw.getVertexes(), vertex * RawMesh.VERTEX_AXIS_COUNT, RawMesh.VERTEX_AXIS_COUNT);
+
+        // Hash the normal and texture coordinate if available
+        if(normals)
+            hash = hash(hash, raw.getNormals(), vertex * RawMesh.NORMAL_AXIS_COUNT, RawMesh.NORMAL_AXIS_COUNT);
+        if(textures)
+            hash = hash(hash, raw.getTextures(), vertex * RawMesh.TEXTURE_AXIS_COUNT, RawMesh.TEXTURE_AXIS_COUNT);
+
+        // Mix the bits and fold the hash
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        return (int) hash;
+    }
+
+    /**
+     * Add the quantized values of a range of an array to a hash.
+     *
+     * @param hash Current hash.
+     * @param values Values.
+     * @param offset Offset of the first value.
+     * @param count Number of values.
+     *
+     * @return New hash.
+     */
+    private static long hash(long hash, float[] values, int offset, int count) {
+        for(int i = 0; i < count; i++)
+            hash = hash * 31 + quantize(values[offset + i]);
+        return hash;
+    }
+
+    /**
+     * Check whether two vertexes of a mesh are identical after quantization.
+     *
+     * @param raw Raw mesh.
+     * @param a First vertex index.
+     * @param b Second vertex index.
+     * @param normals True to compare the normals.
+     * @param textures True to compare the texture coordinates.
+     *
+     * @return True if the vertexes are identical, false if not.
+     */
+    private static boolean equal(RawMesh raw, int a, int b, boolean normals, boolean textures) {
+        return equal(raw.getVertexes(), a, b, RawMesh.VERTEX_AXIS_COUNT)
+                && (!normals || equal(raw.getNormals(), a, b, RawMesh.NORMAL_AXIS_COUNT))
+                && (!textures || equal(raw.getTextures(), a, b, RawMesh.TEXTURE_AXIS_COUNT));
+    }
+
+    /**
+     * Check whether two attribute tuples of an array are identical after quantization.
+     *
+     * @param values Attribute values.
+     * @param a First vertex index.
+     * @param b Second vertex index.
+     * @param size Number of values for each vertex.
+     *
+     * @return True if the tuples are identical, false if not.
+     */
+    private static boolean equal(float[] values, int a, int b, int size) {
+        for(int i = 0; i < size; i++)
+            if(quantize(values[a * size + i]) != quantize(values[b * size + i]))
+                return false;
+        return true;
+    }
+
+    /**
+     * Quantize an attribute value to the weld quantization step.
+     *
+     * @param value Value.
+     *
+     * @return Quantized value.
+     */
+    private static long quantize(float value) {
+        return (long) Math.floor(value / WELD_QUANTIZATION + 0.5f);
+    }
+}
@@ -0,0 +1,209 @@
+/******************************************************************************
+ * Copyright (c) Tim Visee 2016. All rights reserved.                         *
+ *                                                                            *
+ * @author Tim Visee                                                          *
+ * @website http://timvisee.com/                                              *
+ *                                                                            *
+ * Open Source != No Copyright                                                *
+ *                                                                            *
+ * Permission is hereby granted, free of charge, to any person obtaining a    *
+ * copy of this software and associated documentation files (the "Software"), *
+ * to deal in the Software without restriction, including without limitation  *
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,   *
+ * and/or sell copies of the Software, and to permit persons to whom the      *
+ * Software is furnished to do so, subject to the following conditions:       *
+ *                                                                            *
+ * The above copyright notice and this permission notice shall be included    *
+ * in all copies or substantial portions of the Software.                     *
+ *                                                                            *
+ * You should have received a copy of The MIT License (MIT) along with this   *
+ * program. If not, see <http://opensource.org/licenses/MIT/>.                *
+ ******************************************************************************/
+
+
+package com.timvisee.voxeltex.module.mesh;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class MeshOptimizerTest {
+
+    /**
+     * Number of quads along each side of the test grid.
+     */
+    private static final int GRID_SIZE = 32;
+
+    @org.junit.Test
+    public void weldQuad() throws Exception {
+        // Create a quad from two unindexed triangles, sharing two corners
+        final RawMesh raw = new RawMesh(new float[]{
+                0, 0, 0, 1, 0, 0, 1, 1, 0,
+                0, 0, 0, 1, 1, 0, 0, 1, 0
+        });
+
+        // The shared corners must be welded
+        final RawMesh welded = MeshOptimizer.weld(raw);
+        assertEquals(4, welded.getVertexCount());
+        assertEquals(6, welded.getIndexCount());
+        assertValid(raw, welded);
+    }
+
+    @org.junit.Test
+    public void weldQuantization() throws Exception {
+        // Create a triangle pair of which the corners differ by less than the quantization step, or by their normal
+        final float offset = MeshOptimizer.WELD_QUANTIZATION / 8f;
+        final RawMesh raw = new RawMesh(new float[]{
+                0, 0, 0, 1, 0, 0, 1, 1, 0,
+                offset, 0, 0, 1, offset, 0, 1, 1, 0
+        }, new float[]{
+                0, 0, 1, 0, 0, 1, 0, 0, 1,
+                0, 0, 1, 0, 0, 1, 0, 1, 0
+        }, new float[0]);
+
+        // The corners within the quantization step must be welded, the corner with a different normal must not
+        final RawMesh welded = MeshOptimizer.weld(raw);
+        assertEquals(4, welded.getVertexCount());
+        assertEquals(6, welded.getIndexCount());
+    }
+
+    @org.junit.Test
+    public void weldGrid() throws Exception {
+        // Weld the unindexed grid, each grid point must be a single vertex
+        final RawMesh raw = createGrid(new Random(1));
+        final RawMesh welded = MeshOptimizer.weld(raw);
+        assertEquals((GRID_SIZE + 1) * (GRID_SIZE + 1), welded.getVertexCount());
+        assertValid(raw, welded);
+    }
+
+    @org.junit.Test
+    public void optimizeAcmr() throws Exception {
+        // Create a grid with shuffled triangles, and weld it
+        final RawMesh raw = createGrid(new Random(2));
+        final RawMesh welded = MeshOptimizer.weld(raw);
+        final float before = MeshOptimizer.computeAcmr(welded);
+
+        // Optimize the mesh, the ACMR must be much better than the shuffled order
+        final RawMesh optimized = MeshOptimizer.optimize(raw);
+        final float after = MeshOptimizer.computeAcmr(optimized);
+        assertTrue("ACMR " + before + " -> " + after, after < before);
+        assertTrue("ACMR " + after, after < 1f);
+        assertValid(raw, optimized);
+    }
+
+    @org.junit.Test
+    public void optimizeDisconnected() throws Exception {
+        // Create many separate triangles, so the simulated cache runs dry after each triangle
+        final int triangleCount = 50000;
+        final float[] vertexes = new float[triangleCount * 9];
+        for(int t = 0; t < triangleCount; t++) {
+            vertexes[t * 9] = t * 2;
+            vertexes[t * 9 + 3] = t * 2 + 1;
+            vertexes[t * 9 + 6] = t * 2;
+            vertexes[t * 9 + 7] = 1;
+        }
+        final RawMesh raw = new RawMesh(vertexes);
+
+        // Optimize the mesh, all triangles must be kept
+        final RawMesh optimized = MeshOptimizer.optimize(raw);
+        assertEquals(triangleCount * 3, optimized.getVertexCount());
+        assertValid(raw, optimized);
+    }
+
+    @org.junit.Test
+    public void optimizeVertexFetch() throws Exception {
+        // Optimize the vertex fetch of the welded grid
+        final RawMesh raw = createGrid(new Random(3));
+        final RawMesh optimized = MeshOptimizer.optimizeVertexFetch(MeshOptimizer.weld(raw));
+
+        // The vertexes must be ordered by their first use
+        int next = 0;
+        for(int i = 0; i < optimized.getIndexCount(); i++) {
+            assertTrue(optimized.getIndex(i) <= next);
+            if(optimized.getIndex(i) == next)
+                next++;
+        }
+        assertEquals(optimized.getVertexCount(), next);
+        assertValid(raw, optimized);
+    }
+
+    @org.junit.Test
+    public void computeAcmrEmpty() throws Exception {
+        assertEquals(0f, MeshOptimizer.computeAcmr(new RawMesh(new float[0])), 0f);
+    }
+
+    /**
+     * Create an unindexed grid of quads in the XY plane, with the triangles in a random order.
+     *
+     * @param random Random used to shuffle the triangles.
+     *
+     * @return Raw mesh.
+     */
+    private static RawMesh createGrid(Random random) {
+        // Create the triangles of each quad
+        final List<float[]> triangles = new ArrayList<>();
+        for(int y = 0; y < GRID_SIZE; y++) {
+            for(int x = 0; x < GRID_SIZE; x++) {
+                triangles.add(new float[]{x, y, 0, x + 1, y, 0, x + 1, y + 1, 0});
+                triangles.add(new float[]{x, y, 0, x + 1, y + 1, 0, x, y + 1, 0});
+            }
+        }
+
+        // Shuffle the triangles, and put them in a single array
+        Collections.shuffle(triangles, random);
+        final float[] vertexes = new float[triangles.size() * 9];
+        for(int i = 0; i < triangles.size(); i++)
+            System.arraycopy(triangles.get(i), 0, vertexes, i * 9, 9);
+        return new RawMesh(vertexes);
+    }
+
+    /**
+     * Assert that the given optimized mesh has valid indexes, and describes the same triangles as the source mesh.
+     *
+     * @param source Source mesh.
+     * @param optimized Optimized mesh.
+     */
+    private static void assertValid(RawMesh source, RawMesh optimized) {
+        // All indexes must be in range
+        assertEquals(source.getTriangleCount(), optimized.getTriangleCount());
+        for(int i = 0; i < optimized.getIndexCount(); i++)
+            assertTrue(optimized.getIndex(i) >= 0 && optimized.getIndex(i) < optimized.getVertexCount());
+
+        // Both meshes must contain the same triangles, with the same winding
+        assertEquals(Arrays.asList(triangleKeys(source)), Arrays.asList(triangleKeys(optimized)));
+    }
+
+    /**
+     * Get a sorted list of keys describing the triangles of the given mesh by the positions of their corners.
+     * The corners of each triangle are rotated to start at the smallest corner, which keeps the winding.
+     *
+     * @param raw Raw mesh.
+     *
+     * @return Sorted triangle keys.
+     */
+    private static String[] triangleKeys(RawMesh raw) {
+        final String[] keys = new String[raw.getTriangleCount()];
+        final String[] corners = new String[3];
+        for(int t = 0; t < keys.length; t++) {
+            // Describe each corner
+            for(int corner = 0; corner < 3; corner++) {
+                final int offset = raw.getIndex(t * 3 + corner) * RawMesh.VERTEX_AXIS_COUNT;
+                corners[corner] = raw.getVertexes()[offset] + "," + raw.getVertexes()[offset + 1] + "," + raw.getVertexes()[offset + 2];
+            }
+
+            // Rotate the corners to start at the smallest one
+            int first = 0;
+            for(int corner = 1; corner < 3; corner++)
+                if(corners[corner].compareTo(corners[first]) < 0)
+                    first = corner;
+            keys[t] = corners[first] + ";" + corners[(first + 1) % 3] + ";" + corners[(first + 2) % 3];
+        }
+        Arrays.sort(keys);
+        return keys;
+    }
+}
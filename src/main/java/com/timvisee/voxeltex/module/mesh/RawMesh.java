@@ -22,6 +22,8 @@
 
 package com.timvisee.voxeltex.module.mesh;
 
+import org.joml.Vector3f;
+
 public class RawMesh {
 
     /**
@@ -54,6 +56,31 @@ public class RawMesh {
      */
     private float[] textures = new float[0];
 
+    /**
+     * Triangle vertex indexes of this mesh, or an empty array if the vertexes form the triangles in order.
+     */
+    private int[] indexes = new int[0];
+
+    /**
+     * Minimum corner of the axis aligned bounding box of this mesh, in mesh space.
+     */
+    private final Vector3f boundsMin = new Vector3f();
+
+    /**
+     * Maximum corner of the axis aligned bounding box of this mesh, in mesh space.
+     */
+    private final Vector3f boundsMax = new Vector3f();
+
+    /**
+     * Center of the bounding sphere of this mesh, in mesh space.
+     */
+    private final Vector3f boundsCenter = new Vector3f();
+
+    /**
+     * Radius of the bounding sphere of this mesh, in mesh space.
+     */
+    private float boundsRadius = 0f;
+
     /**
      * Constructor.
      *
@@ -71,10 +98,102 @@ public class RawMesh {
      * @param textures The textures data.
      */
     public RawMesh(float[] vertexes, float[] normals, float[] textures) {
+        this(vertexes, normals, textures, new int[0]);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param vertexes The vertexes data.
+     * @param normals The normals data.
+     * @param textures The textures data.
+     * @param indexes The triangle vertex indexes, or an empty array if the vertexes form the triangles in order.
+     */
+    public RawMesh(float[] vertexes, float[] normals, float[] textures, int[] indexes) {
         // Set the fields
         this.vertexes = vertexes;
         this.normals = normals;
         this.textures = textures;
+        this.indexes = indexes;
+
+        // Compute the bounds
+        computeBounds();
+    }
+
+    /**
+     * Compute the bounding box and bounding sphere of this mesh from the vertexes.
+     * This must be called again when the vertex data is modified.
+     */
+    public void computeBounds() {
+        // Reset the bounds if the mesh doesn't have any vertexes
+        if(this.vertexes.length < VERTEX_AXIS_COUNT) {
+            this.boundsMin.zero();
+            this.boundsMax.zero();
+            this.boundsCenter.zero();
+            this.boundsRadius = 0f;
+            return;
+        }
+
+        // Find the minimum and maximum coordinates
+        float minX = Float.POSITIVE_INFINITY, minY = Float.POSITIVE_INFINITY, minZ = Float.POSITIVE_INFINITY;
+        float maxX = Float.NEGATIVE_INFINITY, maxY = Float.NEGATIVE_INFINITY, maxZ = Float.NEGATIVE_INFINITY;
+        for(int i = 0; i + 2 < this.vertexes.length; i += VERTEX_AXIS_COUNT) {
+            minX = Math.min(minX, this.vertexes[i]);
+            minY = Math.min(minY, this.vertexes[i + 1]);
+            minZ = Math.min(minZ, this.vertexes[i + 2]);
+            maxX = Math.max(maxX, this.vertexes[i]);
+            maxY = Math.max(maxY, this.vertexes[i + 1]);
+            maxZ = Math.max(maxZ, this.vertexes[i + 2]);
+        }
+        this.boundsMin.set(minX, minY, minZ);
+        this.boundsMax.set(maxX, maxY, maxZ);
+
+        // Center the sphere on the box, and find the furthest vertex for the radius
+        this.boundsCenter.set(minX + maxX, minY + maxY, minZ + maxZ).mul(0.5f);
+        float radiusSquared = 0f;
+        for(int i = 0; i + 2 < this.vertexes.length; i += VERTEX_AXIS_COUNT)
+            radiusSquared = Math.max(radiusSquared, this.boundsCenter.distanceSquared(
+                    this.vertexes[i], this.vertexes[i + 1], this.vertexes[i + 2]));
+        this.boundsRadius = (float) Math.sqrt(radiusSquared);
+    }
+
+    /**
+     * Get the minimum corner of the axis aligned bounding box of this mesh.
+     * The returned vector must not be modified.
+     *
+     * @return Minimum bounds.
+     */
+    public Vector3f getBoundsMin() {
+        return this.boundsMin;
+    }
+
+    /**
+     * Get the maximum corner of the axis aligned bounding box of this mesh.
+     * The returned vector must not be modified.
+     *
+     * @return Maximum bounds.
+     */
+    public Vector3f getBoundsMax() {
+        return this.boundsMax;
+    }
+
+    /**
+     * Get the center of the bounding sphere of this mesh.
+     * The returned vector must not be modified.
+     *
+     * @return Bounding sphere center.
+     */
+    public Vector3f getBoundsCenter() {
+        return this.boundsCenter;
+    }
+
+    /**
+     * Get the radius of the bounding sphere of this mesh.
+     *
+     * @return Bounding sphere radius.
+     */
+    public float getBoundsRadius() {
+        return this.boundsRadius;
     }
 
     /**
@@ -140,6 +259,56 @@ public class RawMesh {
         return this.textures.length > 0;
     }
 
+    /**
+     * Get all triangle vertex indexes of this mesh.
+     * The array is empty if the mesh isn't indexed.
+     *
+     * @return Indexes.
+     */
+    public int[] getIndexes() {
+        return this.indexes;
+    }
+
+    /**
+     * Check whether this mesh has any index data.
+     *
+     * @return True if this mesh is indexed, false if the vertexes form the triangles in order.
+     */
+    public boolean hasIndexData() {
+        return this.indexes.length > 0;
+    }
+
+    /**
+     * Get the number of triangle vertex indexes of this mesh.
+     * If the mesh isn't indexed, this is the number of vertexes.
+     *
+     * @return Index count.
+     */
+    public int getIndexCount() {
+        return hasIndexData() ? this.indexes.length : getVertexCount();
+    }
+
+    /**
+     * Get the vertex index at the given position in the triangle list.
+     * If the mesh isn't indexed, the position itself is returned.
+     *
+     * @param i Position in the triangle list.
+     *
+     * @return Vertex index.
+     */
+    public int getIndex(int i) {
+        return hasIndexData() ? this.indexes[i] : i;
+    }
+
+    /**
+     * Get the number of triangles in this mesh.
+     *
+     * @return Triangle count.
+     */
+    public int getTriangleCount() {
+        return getIndexCount() / 3;
+    }
+
     /**
      * Get the number of axis used for vertex data.
      *
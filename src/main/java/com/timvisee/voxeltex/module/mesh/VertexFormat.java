@@ -0,0 +1,243 @@
+/******************************************************************************
+ * Copyright (c) Tim Visee 2016. All rights reserved.                         *
+ *                                                                            *
+ * @author Tim Visee                                                          *
+ * @website http://timvisee.com/                                              *
+ *                                                                            *
+ * Open Source != No Copyright                                                *
+ *                                                                            *
+ * Permission is hereby granted, free of charge, to any person obtaining a    *
+ * copy of this software and associated documentation files (the "Software"), *
+ * to deal in the Software without restriction, including without limitation  *
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,   *
+ * and/or sell copies of the Software, and to permit persons to whom the      *
+ * Software is furnished to do so, subject to the following conditions:       *
+ *                                                                            *
+ * The above copyright notice and this permission notice shall be included    *
+ * in all copies or substantial portions of the Software.                     *
+ *                                                                            *
+ * You should have received a copy of The MIT License (MIT) along with this   *
+ * program. If not, see <http://opensource.org/licenses/MIT/>.                *
+ ******************************************************************************/
+
+package com.timvisee.voxeltex.module.mesh;
+
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL20;
+
+import java.nio.FloatBuffer;
+
+public class VertexFormat {
+
+    /**
+     * Generic attribute location of the vertex position.
+     * This location aliases the fixed function vertex array, so shaders using gl_Vertex keep working.
+     */
+    public static final int POSITION_LOCATION = 0;
+
+    /**
+     * Generic attribute location of the vertex normal.
+     * This matches the location commonly aliased by gl_Normal.
+     */
+    public static final int NORMAL_LOCATION = 2;
+
+    /**
+     * Generic attribute location of the vertex texture coordinate.
+     * This matches the location commonly aliased by gl_MultiTexCoord0.
+     */
+    public static final int TEXTURE_LOCATION = 8;
+
+    /**
+     * Shader attribute name of the vertex position.
+     */
+    public static final String POSITION_ATTRIBUTE = "vt_position";
+
+    /**
+     * Shader attribute name of the vertex normal.
+     */
+    public static final String NORMAL_ATTRIBUTE = "vt_normal";
+
+    /**
+     * Shader attribute name of the vertex texture coordinate.
+     */
+    public static final String TEXTURE_ATTRIBUTE = "vt_texCoord";
+
+    /**
+     * Number of bytes in a float.
+     */
+    private static final int FLOAT_BYTES = 4;
+
+    /**
+     * True if the format contains normals.
+     */
+    private final boolean normals;
+
+    /**
+     * True if the format contains texture coordinates.
+     */
+    private final boolean textures;
+
+    /**
+     * Offset of the normal in each vertex, in floats.
+     */
+    private final int normalOffset;
+
+    /**
+     * Offset of the texture coordinate in each vertex, in floats.
+     */
+    private final int textureOffset;
+
+    /**
+     * Number of floats for each vertex.
+     */
+    private final int vertexFloats;
+
+    /**
+     * Constructor.
+     *
+     * @param normals True if the format contains normals.
+     * @param textures True if the format contains texture coordinates.
+     */
+    public VertexFormat(boolean normals, boolean textures) {
+        // Set the fields
+        this.normals = normals;
+        this.textures = textures;
+
+        // Determine the interleaved layout, a position followed by the optional normal and texture coordinate
+        this.normalOffset = RawMesh.VERTEX_AXIS_COUNT;
+        this.textureOffset = this.normalOffset + (normals ? RawMesh.NORMAL_AXIS_COUNT : 0);
+        this.vertexFloats = this.textureOffset + (textures ? RawMesh.TEXTURE_AXIS_COUNT : 0);
+    }
+
+    /**
+     * Get the vertex format of the given raw mesh.
+     *
+     * @param raw Raw mesh.
+     *
+     * @return Vertex format.
+     */
+    public static VertexFormat of(RawMesh raw) {
+        return new VertexFormat(raw.hasNormalData(), raw.hasTextureData());
+    }
+
+    /**
+     * Check whether this format contains normals.
+     *
+     * @return True if it contains normals, false if not.
+     */
+    public boolean hasNormals() {
+        return this.normals;
+    }
+
+    /**
+     * Check whether this format contains texture coordinates.
+     *
+     * @return True if it contains texture coordinates, false if not.
+     */
+    public boolean hasTextures() {
+        return this.textures;
+    }
+
+    /**
+     * Get the offset of the normal in each vertex.
+     *
+     * @return Normal offset in floats.
+     */
+    public int getNormalOffset() {
+        return this.normalOffset;
+    }
+
+    /**
+     * Get the offset of the texture coordinate in each vertex.
+     *
+     * @return Texture coordinate offset in floats.
+     */
+    public int getTextureOffset() {
+        return this.textureOffset;
+    }
+
+    /**
+     * Get the number of floats for each vertex.
+     *
+     * @return Floats per vertex.
+     */
+    public int getVertexFloats() {
+        return this.vertexFloats;
+    }
+
+    /**
+     * Get the number of bytes for each vertex.
+     *
+     * @return Vertex stride in bytes.
+     */
+    public int getStride() {
+        return this.vertexFloats * FLOAT_BYTES;
+    }
+
+    /**
+     * Write the vertexes of the given raw mesh into the given buffer, interleaved in this format.
+     * The buffer must have room for the vertex count times the floats per vertex.
+     *
+     * @param raw Raw mesh.
+     * @param buffer Destination buffer.
+     */
+    public void interleave(RawMesh raw, FloatBuffer buffer) {
+        // Get the source arrays
+        final float[] vertexes = raw.getVertexes();
+        final float[] normals = raw.getNormals();
+        final float[] textures = raw.getTextures();
+
+        // Write each vertex
+        final int vertexCount = raw.getVertexCount();
+        for(int i = 0; i < vertexCount; i++) {
+            buffer.put(vertexes, i * RawMesh.VERTEX_AXIS_COUNT, RawMesh.VERTEX_AXIS_COUNT);
+            if(this.normals)
+                buffer.put(normals, i * RawMesh.NORMAL_AXIS_COUNT, RawMesh.NORMAL_AXIS_COUNT);
+            if(this.textures)
+                buffer.put(textures, i * RawMesh.TEXTURE_AXIS_COUNT, RawMesh.TEXTURE_AXIS_COUNT);
+        }
+    }
+
+    /**
+     * Configure the attribute pointers of the bound vertex array object to read the bound array buffer in this format.
+     * Both the generic attributes and the fixed function arrays are configured, so shaders may use either.
+     */
+    public void setupVertexArray() {
+        // Configure the position
+        final int stride = getStride();
+        GL11.glVertexPointer(RawMesh.VERTEX_AXIS_COUNT, GL11.GL_FLOAT, stride, 0L);
+        GL11.glEnableClientState(GL11.GL_VERTEX_ARRAY);
+        GL20.glVertexAttribPointer(POSITION_LOCATION, RawMesh.VERTEX_AXIS_COUNT, GL11.GL_FLOAT, false, stride, 0L);
+        GL20.glEnableVertexAttribArray(POSITION_LOCATION);
+
+        // Configure the normal if available
+        if(this.normals) {
+            final long offset = (long) this.normalOffset * FLOAT_BYTES;
+            GL11.glNormalPointer(GL11.GL_FLOAT, stride, offset);
+            GL11.glEnableClientState(GL11.GL_NORMAL_ARRAY);
+            GL20.glVertexAttribPointer(NORMAL_LOCATION, RawMesh.NORMAL_AXIS_COUNT, GL11.GL_FLOAT, false, stride, offset);
+            GL20.glEnableVertexAttribArray(NORMAL_LOCATION);
+        }
+
+        // Configure the texture coordinate if available
+        if(this.textures) {
+            final long offset = (long) this.textureOffset * FLOAT_BYTES;
+            GL11.glTexCoordPointer(RawMesh.TEXTURE_AXIS_COUNT, GL11.GL_FLOAT, stride, offset);
+            GL11.glEnableClientState(GL11.GL_TEXTURE_COORD_ARRAY);
+            GL20.glVertexAttribPointer(TEXTURE_LOCATION, RawMesh.TEXTURE_AXIS_COUNT, GL11.GL_FLOAT, false, stride, offset);
+            GL20.glEnableVertexAttribArray(TEXTURE_LOCATION);
+        }
+    }
+
+    /**
+     * Bind the vertex attribute names to their generic locations in the given shader program.
+     * This must be called before the program is linked.
+     *
+     * @param program OpenGL shader program ID.
+     */
+    public static void bindAttributeLocations(int program) {
+        GL20.glBindAttribLocation(program, POSITION_LOCATION, POSITION_ATTRIBUTE);
+        GL20.glBindAttribLocation(program, NORMAL_LOCATION, NORMAL_ATTRIBUTE);
+        GL20.glBindAttribLocation(program, TEXTURE_LOCATION, TEXTURE_ATTRIBUTE);
+    }
+}
@@ -0,0 +1,356 @@
+/******************************************************************************
+ * Copyright (c) Tim Visee 2016. All rights reserved.                         *
+ *                                                                            *
+ * @author Tim Visee                                                          *
+ * @website http://timvisee.com/                                              *
+ *                                                                            *
+ * Open Source != No Copyright                                                *
+ *                                                                            *
+ * Permission is hereby granted, free of charge, to any person obtaining a    *
+ * copy of this software and associated documentation files (the "Software"), *
+ * to deal in the Software without restriction, including without limitation  *
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,   *
+ * and/or sell copies of the Software, and to permit persons to whom the      *
+ * Software is furnished to do so, subject to the following conditions:       *
+ *                                                                            *
+ * The above copyright notice and this permission notice shall be included    *
+ * in all copies or substantial portions of the Software.                     *
+ *                                                                            *
+ * You should have received a copy of The MIT License (MIT) along with this   *
+ * program. If not, see <http://opensource.org/licenses/MIT/>.                *
+ ******************************************************************************/
+
+package com.timvisee.voxeltex.module.mesh.baked;
+
+import com.timvisee.voxeltex.module.mesh.VertexFormat;
+import org.joml.Vector3f;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+public class BakedMesh {
+
+    /**
+     * File extension of baked mesh files.
+     */
+    public static final String FILE_EXTENSION = ".vtmesh";
+
+    /**
+     * Magic number at the start of each baked mesh file, the bytes "VTMS" read as little endian integer.
+     */
+    public static final int MAGIC = 0x534D5456;
+
+    /**
+     * Current version of the baked mesh format.
+     */
+    public static final int VERSION = 1;
+
+    /**
+     * Header flag set if the indexes are 32-bit unsigned integers instead of 16-bit unsigned shorts.
+     */
+    public static final int FLAG_INT_INDEXES = 1;
+
+    /**
+     * Size of the fixed file header in bytes.
+     */
+    public static final int HEADER_SIZE = 88;
+
+    /**
+     * Size of each entry in the vertex attribute table in bytes.
+     */
+    public static final int ATTRIBUTE_SIZE = 8;
+
+    /**
+     * Component type of float attributes.
+     */
+    public static final int TYPE_FLOAT = 0;
+
+    /**
+     * Attribute semantic of the vertex position.
+     */
+    public static final int ATTRIBUTE_POSITION = 0;
+
+    /**
+     * Attribute semantic of the vertex normal.
+     */
+    public static final int ATTRIBUTE_NORMAL = 1;
+
+    /**
+     * Attribute semantic of the vertex texture coordinate.
+     */
+    public static final int ATTRIBUTE_TEXTURE = 2;
+
+    /**
+     * Alignment of the vertex and index data in the file, in bytes.
+     */
+    public static final int DATA_ALIGNMENT = 16;
+
+    /**
+     * Vertex format of the vertex data.
+     */
+    private final VertexFormat format;
+
+    /**
+     * Number of vertexes.
+     */
+    private final int vertexCount;
+
+    /**
+     * Number of indexes.
+     */
+    private final int indexCount;
+
+    /**
+     * True if the indexes are 32-bit, false if they're 16-bit.
+     */
+    private final boolean intIndexes;
+
+    /**
+     * Minimum corner of the axis aligned bounding box, in mesh space.
+     */
+    private final Vector3f boundsMin;
+
+    /**
+     * Maximum corner of the axis aligned bounding box, in mesh space.
+     */
+    private final Vector3f boundsMax;
+
+    /**
+     * Center of the bounding sphere, in mesh space.
+     */
+    private final Vector3f boundsCenter;
+
+    /**
+     * Radius of the bounding sphere, in mesh space.
+     */
+    private final float boundsRadius;
+
+    /**
+     * Index ranges of the sub meshes.
+     */
+    private final List<SubMesh> subMeshes;
+
+    /**
+     * Little endian interleaved vertex data, ready for uploading.
+     */
+    private final ByteBuffer vertexData;
+
+    /**
+     * Little endian index data, ready for uploading.
+     */
+    private final ByteBuffer indexData;
+
+    /**
+     * Constructor.
+     *
+     * @param format Vertex format.
+     * @param vertexCount Number of vertexes.
+     * @param indexCount Number of indexes.
+     * @param intIndexes True if the indexes are 32-bit, false if they're 16-bit.
+     * @param boundsMin Minimum bounds.
+     * @param boundsMax Maximum bounds.
+     * @param boundsCenter Bounding sphere center.
+     * @param boundsRadius Bounding sphere radius.
+     * @param subMeshes Sub mesh ranges.
+     * @param vertexData Vertex data.
+     * @param indexData Index data.
+     */
+    public BakedMesh(VertexFormat format, int vertexCount, int indexCount, boolean intIndexes,
+                     Vector3f boundsMin, Vector3f boundsMax, Vector3f boundsCenter, float boundsRadius,
+                     List<SubMesh> subMeshes, ByteBuffer vertexData, ByteBuffer indexData) {
+        this.format = format;
+        this.vertexCount = vertexCount;
+        this.indexCount = indexCount;
+        this.intIndexes = intIndexes;
+        this.boundsMin = boundsMin;
+        this.boundsMax = boundsMax;
+        this.boundsCenter = boundsCenter;
+        this.boundsRadius = boundsRadius;
+        this.subMeshes = subMeshes;
+        this.vertexData = vertexData;
+        this.indexData = indexData;
+    }
+
+    /**
+     * Get the vertex format of the vertex data.
+     *
+     * @return Vertex format.
+     */
+    public VertexFormat getFormat() {
+        return this.format;
+    }
+
+    /**
+     * Get the number of vertexes.
+     *
+     * @return Vertex count.
+     */
+    public int getVertexCount() {
+        return this.vertexCount;
+    }
+
+    /**
+     * Get the number of indexes.
+     *
+     * @return Index count.
+     */
+    public int getIndexCount() {
+        return this.indexCount;
+    }
+
+    /**
+     * Get the number of triangles.
+     *
+     * @return Triangle count.
+     */
+    public int getTriangleCount() {
+        return this.indexCount / 3;
+    }
+
+    /**
+     * Check whether the indexes are 32-bit.
+     *
+     * @return True if the indexes are 32-bit unsigned integers, false if they're 16-bit unsigned shorts.
+     */
+    public boolean hasIntIndexes() {
+        return this.intIndexes;
+    }
+
+    /**
+     * Get the size of a single index in bytes.
+     *
+     * @return Index size.
+     */
+    public int getIndexSize() {
+        return this.intIndexes ? 4 : 2;
+    }
+
+    /**
+     * Get the minimum corner of the axis aligned bounding box, in mesh space.
+     * The returned vector must not be modified.
+     *
+     * @return Minimum bounds.
+     */
+    public Vector3f getBoundsMin() {
+        return this.boundsMin;
+    }
+
+    /**
+     * Get the maximum corner of the axis aligned bounding box, in mesh space.
+     * The returned vector must not be modified.
+     *
+     * @return Maximum bounds.
+     */
+    public Vector3f getBoundsMax() {
+        return this.boundsMax;
+    }
+
+    /**
+     * Get the center of the bounding sphere, in mesh space.
+     * The returned vector must not be modified.
+     *
+     * @return Bounding sphere center.
+     */
+    public Vector3f getBoundsCenter() {
+        return this.boundsCenter;
+    }
+
+    /**
+     * Get the radius of the bounding sphere, in mesh space.
+     *
+     * @return Bounding sphere radius.
+     */
+    public float getBoundsRadius() {
+        return this.boundsRadius;
+    }
+
+    /**
+     * Get the index ranges of the sub meshes.
+     *
+     * @return Sub meshes.
+     */
+    public List<SubMesh> getSubMeshes() {
+        return this.subMeshes;
+    }
+
+    /**
+     * Get the little endian interleaved vertex data.
+     * The buffer may be memory mapped, and must not be modified.
+     *
+     * @return Vertex data.
+     */
+    public ByteBuffer getVertexData() {
+        return this.vertexData;
+    }
+
+    /**
+     * Get the little endian index data.
+     * The buffer may be memory mapped, and must not be modified.
+     *
+     * @return Index data.
+     */
+    public ByteBuffer getIndexData() {
+        return this.indexData;
+    }
+
+    /**
+     * A named range of indexes, usually drawn with it's own material.
+     */
+    public static class SubMesh {
+
+        /**
+         * Name of the sub mesh, usually the material name.
+         */
+        private final String name;
+
+        /**
+         * First index of the range.
+         */
+        private final int firstIndex;
+
+        /**
+         * Number of indexes in the range.
+         */
+        private final int indexCount;
+
+        /**
+         * Constructor.
+         *
+         * @param name Name of the sub mesh.
+         * @param firstIndex First index of the range.
+         * @param indexCount Number of indexes in the range.
+         */
+        public SubMesh(String name, int firstIndex, int indexCount) {
+            this.name = name;
+            this.firstIndex = firstIndex;
+            this.indexCount = indexCount;
+        }
+
+        /**
+         * Get the name of the sub mesh.
+         *
+         * @return Name.
+         */
+        public String getName() {
+            return this.name;
+        }
+
+        /**
+         * Get the first index of the range.
+         *
+         * @return First index.
+         */
+        public int getFirstIndex() {
+            return this.firstIndex;
+        }
+
+        /**
+         * Get the number of indexes in the range.
+         *
+         * @return Index count.
+         */
+        public int getIndexCount() {
+            return this.indexCount;
+        }
+    }
+}
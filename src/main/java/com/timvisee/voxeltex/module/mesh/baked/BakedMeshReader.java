@@ -0,0 +1,193 @@
+/******************************************************************************
+ * Copyright (c) Tim Visee 2016. All rights reserved.                         *
+ *                                                                            *
+ * @author Tim Visee                                                          *
+ * @website http://timvisee.com/                                              *
+ *                                                                            *
+ * Open Source != No Copyright                                                *
+ *                                                                            *
+ * Permission is hereby granted, free of charge, to any person obtaining a    *
+ * copy of this software and associated documentation files (the "Software"), *
+ * to deal in the Software without restriction, including without limitation  *
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,   *
+ * and/or sell copies of the Software, and to permit persons to whom the      *
+ * Software is furnished to do so, subject to the following conditions:       *
+ *                                                                            *
+ * The above copyright notice and this permission notice shall be included    *
+ * in all copies or substantial portions of the Software.                     *
+ *                                                                            *
+ * You should have received a copy of The MIT License (MIT) along with this   *
+ * program. If not, see <http://opensource.org/licenses/MIT/>.                *
+ ******************************************************************************/
+
+package com.timvisee.voxeltex.module.mesh.baked;
+
+import com.timvisee.voxeltex.module.mesh.RawMesh;
+import com.timvisee.voxeltex.module.mesh.VertexFormat;
+import com.timvisee.voxeltex.module.resource.engine.EngineAssetLoader;
+import org.joml.Vector3f;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+public class BakedMeshReader {
+
+    /**
+     * Read a baked mesh from the engine assets.
+     * The asset file is memory mapped if it's available on the file system.
+     *
+     * @param path Path of the engine asset.
+     *
+     * @return Baked mesh.
+     */
+    public static BakedMesh readFromEngineAssets(String path) {
+        try {
+            // Memory map the asset if it's a plain file, assets in a mounted pack are mapped already
+            final EngineAssetLoader loader = EngineAssetLoader.getInstance();
+            final URL url = BakedMeshReader.class.getResource(loader.getBasePath() + path);
+            if(url != null && "file".equals(url.getProtocol()) && !loader.isPacked(path))
+                return read(Paths.get(url.toURI()));
+
+            // Load the asset into a buffer
+            final ByteBuffer buffer = loader.loadResourceByteBuffer(path);
+            if(buffer == null)
+                throw new IOException("Failed to load resource: " + path);
+            return read(buffer);
+
+        } catch(IOException | URISyntaxException e) {
+            e.printStackTrace();
+            throw new RuntimeException("Failed to load baked mesh!");
+        }
+    }
+
+    /**
+     * Read a baked mesh from a file, which is memory mapped.
+     * The vertex and index data of the returned mesh reference the mapped file directly.
+     *
+     * @param path Path of the file.
+     *
+     * @return Baked mesh.
+     *
+     * @throws IOException
+     */
+    public static BakedMesh read(Path path) throws IOException {
+        try(FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // Make sure the file can be mapped at once
+            if(channel.size() > Integer.MAX_VALUE)
+                throw new IOException("Baked mesh file is too large to map: " + path);
+
+            // Map and read the file, the mapping stays valid after the channel is closed
+            return read(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Read a baked mesh from the remaining bytes of the given buffer.
+     * The vertex and index data of the returned mesh are slices of the given buffer, no data is copied.
+     *
+     * @param buffer Buffer holding the baked mesh.
+     *
+     * @return Baked mesh.
+     *
+     * @throws IOException Thrown if the buffer doesn't hold a valid baked mesh.
+     */
+    public static BakedMesh read(ByteBuffer buffer) throws IOException {
+        // Create a little endian view of the buffer, positioned at the start of the mesh
+        final ByteBuffer data = buffer.slice().order(ByteOrder.LITTLE_ENDIAN);
+        if(data.remaining() < BakedMesh.HEADER_SIZE)
+            throw new IOException("Invalid baked mesh, file is too small");
+
+        // Read and validate the header
+        if(data.getInt() != BakedMesh.MAGIC)
+            throw new IOException("Invalid baked mesh, magic number mismatch");
+        final int version = data.getInt();
+        if(version != BakedMesh.VERSION)
+            throw new IOException("Unsupported baked mesh version: " + version);
+        final int flags = data.getInt();
+        final int vertexCount = data.getInt();
+        final int indexCount = data.getInt();
+        final int vertexStride = data.getInt();
+        final int attributeCount = data.getInt();
+        final int subMeshCount = data.getInt();
+        final Vector3f boundsMin = new Vector3f(data.getFloat(), data.getFloat(), data.getFloat());
+        final Vector3f boundsMax = new Vector3f(data.getFloat(), data.getFloat(), data.getFloat());
+        final Vector3f boundsCenter = new Vector3f(data.getFloat(), data.getFloat(), data.getFloat());
+        final float boundsRadius = data.getFloat();
+        final int vertexDataOffset = data.getInt();
+        final int vertexDataSize = data.getInt();
+        final int indexDataOffset = data.getInt();
+        final int indexDataSize = data.getInt();
+
+        // Read the vertex attribute table, and determine the vertex format
+        boolean normals = false, textures = false;
+        final int[] attributeOffsets = new int[3];
+        for(int i = 0; i < attributeCount; i++) {
+            final int semantic = data.get();
+            final int components = data.get();
+            final int type = data.get();
+            data.get();
+            final int offset = data.getInt();
+            if(type != BakedMesh.TYPE_FLOAT || semantic < 0 || semantic >= attributeOffsets.length)
+                throw new IOException("Unsupported baked mesh vertex attribute");
+            normals |= semantic == BakedMesh.ATTRIBUTE_NORMAL && components == RawMesh.NORMAL_AXIS_COUNT;
+            textures |= semantic == BakedMesh.ATTRIBUTE_TEXTURE && components == RawMesh.TEXTURE_AXIS_COUNT;
+            attributeOffsets[semantic] = offset;
+        }
+
+        // Make sure the attribute layout matches the engine vertex format
+        final VertexFormat format = new VertexFormat(normals, textures);
+        if(format.getStride() != vertexStride
+                || (normals && attributeOffsets[BakedMesh.ATTRIBUTE_NORMAL] != format.getNormalOffset() * 4)
+                || (textures && attributeOffsets[BakedMesh.ATTRIBUTE_TEXTURE] != format.getTextureOffset() * 4))
+            throw new IOException("Unsupported baked mesh vertex layout");
+
+        // Read the sub mesh table
+        final List<BakedMesh.SubMesh> subMeshes = new ArrayList<>(subMeshCount);
+        for(int i = 0; i < subMeshCount; i++) {
+            final int firstIndex = data.getInt();
+            final int subIndexCount = data.getInt();
+            final byte[] name = new byte[data.getInt()];
+            data.get(name);
+            data.position(data.position() + ((-name.length) & 3));
+            subMeshes.add(new BakedMesh.SubMesh(name.length > 0 ? new String(name, StandardCharsets.UTF_8) : null,
+                    firstIndex, subIndexCount));
+        }
+
+        // Validate the data ranges
+        final boolean intIndexes = (flags & BakedMesh.FLAG_INT_INDEXES) != 0;
+        if(vertexDataSize != vertexCount * vertexStride || indexDataSize != indexCount * (intIndexes ? 4 : 2)
+                || vertexDataOffset < data.position() || indexDataOffset < vertexDataOffset + vertexDataSize
+                || indexDataOffset + indexDataSize > data.limit())
+            throw new IOException("Invalid baked mesh, data ranges are corrupt");
+
+        // Create the mesh referencing slices of the data
+        return new BakedMesh(format, vertexCount, indexCount, intIndexes,
+                boundsMin, boundsMax, boundsCenter, boundsRadius, subMeshes,
+                slice(data, vertexDataOffset, vertexDataSize), slice(data, indexDataOffset, indexDataSize));
+    }
+
+    /**
+     * Create a little endian slice of a range of the given buffer.
+     *
+     * @param buffer Buffer.
+     * @param offset Offset of the range.
+     * @param size Size of the range.
+     *
+     * @return Slice.
+     */
+    private static ByteBuffer slice(ByteBuffer buffer, int offset, int size) {
+        final ByteBuffer view = buffer.duplicate();
+        view.limit(offset + size).position(offset);
+        return view.slice().order(ByteOrder.LITTLE_ENDIAN);
+    }
+}
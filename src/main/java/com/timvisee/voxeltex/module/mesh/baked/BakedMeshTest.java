@@ -0,0 +1,236 @@
+/******************************************************************************
+ * Copyright (c) Tim Visee 2016. All rights reserved.                         *
+ *                                                                            *
+ * @author Tim Visee                                                          *
+ * @website http://timvisee.com/                                              *
+ *                                                                            *
+ * Open Source != No Copyright                                                *
+ *                                                                            *
+ * Permission is hereby granted, free of charge, to any person obtaining a    *
+ * copy of this software and associated documentation files (the "Software"), *
+ * to deal in the Software without restriction, including without limitation  *
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,   *
+ * and/or sell copies of the Software, and to permit persons to whom the      *
+ * Software is furnished to do so, subject to the following conditions:       *
+ *                                                                            *
+ * The above copyright notice and this permission notice shall be included    *
+ * in all copies or substantial portions of the Software.                     *
+ *                                                                            *
+ * You should have received a copy of The MIT License (MIT) along with this   *
+ * program. If not, see <http://opensource.org/licenses/MIT/>.                *
+ ******************************************************************************/
+
+
+package com.timvisee.voxeltex.module.mesh.baked;
+
+import com.timvisee.voxeltex.module.mesh.RawMesh;
+import com.timvisee.voxeltex.module.mesh.VertexFormat;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class BakedMeshTest {
+
+    /**
+     * Vertex positions of the test quad.
+     */
+    private static final float[] VERTEXES = {0, 0, 0, 1, 0, 0, 1, 1, 0, 0, 1, 0.5f};
+
+    /**
+     * Vertex normals of the test quad.
+     */
+    private static final float[] NORMALS = {0, 0, 1, 0, 0, 1, 0, 0.6f, 0.8f, 0, 0, 1};
+
+    /**
+     * Texture coordinates of the test quad.
+     */
+    private static final float[] TEXTURES = {0, 0, 1, 0, 1, 1, 0, 1};
+
+    /**
+     * Triangle indexes of the test quad.
+     */
+    private static final int[] INDEXES = {0, 1, 2, 0, 2, 3};
+
+    @org.junit.Test
+    public void header() throws Exception {
+        // Bake the quad, and check the little endian header fields
+        final ByteBuffer data = BakedMeshWriter.bake(createQuad(), createSubMeshes()).order(ByteOrder.LITTLE_ENDIAN);
+        final VertexFormat format = new VertexFormat(true, true);
+        assertEquals(BakedMesh.MAGIC, data.getInt(0));
+        assertEquals(BakedMesh.VERSION, data.getInt(4));
+        assertEquals(0, data.getInt(8));
+        assertEquals(4, data.getInt(12));
+        assertEquals(6, data.getInt(16));
+        assertEquals(format.getStride(), data.getInt(20));
+        assertEquals(3, data.getInt(24));
+        assertEquals(2, data.getInt(28));
+
+        // The data blobs must be aligned
+        assertEquals(0, data.getInt(BakedMesh.HEADER_SIZE - 16) % BakedMesh.DATA_ALIGNMENT);
+        assertEquals(0, data.getInt(BakedMesh.HEADER_SIZE - 8) % BakedMesh.DATA_ALIGNMENT);
+    }
+
+    @org.junit.Test
+    public void roundTrip() throws Exception {
+        // Bake and read the quad
+        final RawMesh raw = createQuad();
+        final BakedMesh mesh = BakedMeshReader.read(BakedMeshWriter.bake(raw, createSubMeshes()));
+
+        // Check the counts, format and bounds
+        assertEquals(4, mesh.getVertexCount());
+        assertEquals(6, mesh.getIndexCount());
+        assertEquals(2, mesh.getTriangleCount());
+        assertFalse(mesh.hasIntIndexes());
+        assertTrue(mesh.getFormat().hasNormals());
+        assertTrue(mesh.getFormat().hasTextures());
+        assertEquals(raw.getBoundsMin(), mesh.getBoundsMin());
+        assertEquals(raw.getBoundsMax(), mesh.getBoundsMax());
+        assertEquals(raw.getBoundsCenter(), mesh.getBoundsCenter());
+        assertEquals(raw.getBoundsRadius(), mesh.getBoundsRadius(), 0f);
+
+        // Check the sub mesh table, a missing name must stay missing
+        final List<BakedMesh.SubMesh> subMeshes = mesh.getSubMeshes();
+        assertEquals(2, subMeshes.size());
+        assertEquals("Material.001", subMeshes.get(0).getName());
+        assertEquals(0, subMeshes.get(0).getFirstIndex());
+        assertEquals(3, subMeshes.get(0).getIndexCount());
+        assertNull(subMeshes.get(1).getName());
+        assertEquals(3, subMeshes.get(1).getFirstIndex());
+        assertEquals(3, subMeshes.get(1).getIndexCount());
+    }
+
+    @org.junit.Test
+    public void payloads() throws Exception {
+        // Bake and read the quad
+        final BakedMesh mesh = BakedMeshReader.read(BakedMeshWriter.bake(createQuad(), createSubMeshes()));
+        final VertexFormat format = mesh.getFormat();
+
+        // Each vertex attribute must be stored exactly at it's offset in the interleaved data
+        final ByteBuffer vertexData = mesh.getVertexData();
+        assertEquals(4 * format.getStride(), vertexData.remaining());
+        for(int i = 0; i < 4; i++) {
+            final int vertex = i * format.getStride();
+            for(int axis = 0; axis < 3; axis++) {
+                assertBits(VERTEXES[i * 3 + axis], vertexData.getFloat(vertex + axis * 4));
+                assertBits(NORMALS[i * 3 + axis], vertexData.getFloat(vertex + (format.getNormalOffset() + axis) * 4));
+            }
+            for(int axis = 0; axis < 2; axis++)
+                assertBits(TEXTURES[i * 2 + axis],
+                        vertexData.getFloat(vertex + (format.getTextureOffset() + axis) * 4));
+        }
+
+        // The indexes must be stored as shorts
+        final ByteBuffer indexData = mesh.getIndexData();
+        assertEquals(INDEXES.length * 2, indexData.remaining());
+        for(int i = 0; i < INDEXES.length; i++)
+            assertEquals(INDEXES[i], indexData.getShort(i * 2));
+    }
+
+    @org.junit.Test
+    public void intIndexes() throws Exception {
+        // Create a mesh with more vertexes than short indexes can address, positions only
+        final int vertexCount = 0x10000 + 3;
+        final float[] vertexes = new float[vertexCount * 3];
+        for(int i = 0; i < vertexCount; i++)
+            vertexes[i * 3] = i;
+        final int[] indexes = {0, vertexCount - 2, vertexCount - 1};
+        final RawMesh raw = new RawMesh(vertexes, new float[0], new float[0], indexes);
+
+        // The indexes must be stored as integers
+        final BakedMesh mesh = BakedMeshReader.read(
+                BakedMeshWriter.bake(raw, Collections.<BakedMesh.SubMesh>emptyList()));
+        assertTrue(mesh.hasIntIndexes());
+        assertFalse(mesh.getFormat().hasNormals());
+        assertFalse(mesh.getFormat().hasTextures());
+        assertEquals(vertexCount * mesh.getFormat().getStride(), mesh.getVertexData().remaining());
+        for(int i = 0; i < indexes.length; i++)
+            assertEquals(indexes[i], mesh.getIndexData().getInt(i * 4));
+        assertBits(vertexCount - 1, mesh.getVertexData().getFloat((vertexCount - 1) * mesh.getFormat().getStride()));
+    }
+
+    @org.junit.Test
+    public void file() throws Exception {
+        // Write the quad to a file, and read it through a memory mapping
+        final Path path = Files.createTempFile("voxeltex", BakedMesh.FILE_EXTENSION);
+        try {
+            BakedMeshWriter.write(createQuad(), createSubMeshes(), path);
+            final BakedMesh mesh = BakedMeshReader.read(path);
+            assertEquals(4, mesh.getVertexCount());
+            assertEquals(2, mesh.getSubMeshes().size());
+            assertEquals(INDEXES[2], mesh.getIndexData().getShort(4));
+
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    @org.junit.Test
+    public void invalid() throws Exception {
+        // A corrupt magic number must be rejected
+        final ByteBuffer magic = BakedMeshWriter.bake(createQuad(), createSubMeshes());
+        magic.put(0, (byte) 0);
+        assertInvalid(magic);
+
+        // An unknown version must be rejected
+        final ByteBuffer version = BakedMeshWriter.bake(createQuad(), createSubMeshes()).order(ByteOrder.LITTLE_ENDIAN);
+        version.putInt(4, BakedMesh.VERSION + 1);
+        assertInvalid(version);
+
+        // A truncated mesh must be rejected
+        final ByteBuffer truncated = BakedMeshWriter.bake(createQuad(), createSubMeshes());
+        truncated.limit(truncated.limit() - 2);
+        assertInvalid(truncated);
+    }
+
+    /**
+     * Create the indexed test quad, with normals and texture coordinates.
+     *
+     * @return Raw mesh.
+     */
+    private static RawMesh createQuad() {
+        return new RawMesh(VERTEXES.clone(), NORMALS.clone(), TEXTURES.clone(), INDEXES.clone());
+    }
+
+    /**
+     * Create a named and an unnamed sub mesh, each covering one triangle of the test quad.
+     *
+     * @return Sub meshes.
+     */
+    private static List<BakedMesh.SubMesh> createSubMeshes() {
+        return Arrays.asList(new BakedMesh.SubMesh("Material.001", 0, 3), new BakedMesh.SubMesh(null, 3, 3));
+    }
+
+    /**
+     * Assert that the given floats are bit identical.
+     *
+     * @param expected Expected value.
+     * @param actual Actual value.
+     */
+    private static void assertBits(float expected, float actual) {
+        assertEquals(Float.floatToRawIntBits(expected), Float.floatToRawIntBits(actual));
+    }
+
+    /**
+     * Assert that reading the given mesh data fails.
+     *
+     * @param data Mesh data.
+     */
+    private static void assertInvalid(ByteBuffer data) {
+        try {
+            BakedMeshReader.read(data);
+            fail("Invalid baked mesh was read");
+        } catch(IOException ignored) { }
+    }
+}
@@ -0,0 +1,197 @@
+/******************************************************************************
+ * Copyright (c) Tim Visee 2016. All rights reserved.                         *
+ *                                                                            *
+ * @author Tim Visee                                                          *
+ * @website http://timvisee.com/                                              *
+ *                                                                            *
+ * Open Source != No Copyright                                                *
+ *                                                                            *
+ * Permission is hereby granted, free of charge, to any person obtaining a    *
+ * copy of this software and associated documentation files (the "Software"), *
+ * to deal in the Software without restriction, including without limitation  *
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,   *
+ * and/or sell copies of the Software, and to permit persons to whom the      *
+ * Software is furnished to do so, subject to the following conditions:       *
+ *                                                                            *
+ * The above copyright notice and this permission notice shall be included    *
+ * in all copies or substantial portions of the Software.                     *
+ *                                                                            *
+ * You should have received a copy of The MIT License (MIT) along with this   *
+ * program. If not, see <http://opensource.org/licenses/MIT/>.                *
+ ******************************************************************************/
+
+package com.timvisee.voxeltex.module.mesh.baked;
+
+import com.timvisee.voxeltex.module.mesh.RawMesh;
+import com.timvisee.voxeltex.module.mesh.VertexFormat;
+import com.timvisee.voxeltex.module.model.ObjMesh;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class BakedMeshWriter {
+
+    /**
+     * Bake the given mesh into a buffer in the baked mesh format.
+     *
+     * The file starts with a fixed little endian header, holding the magic number, version, flags, vertex and index
+     * counts, vertex stride, table sizes, bounds and the offsets and sizes of the data blobs. The header is followed by
+     * the vertex attribute table, the sub mesh table, and the aligned vertex and index data.
+     *
+     * @param raw Raw mesh.
+     * @param subMeshes Sub mesh ranges, may be empty.
+     *
+     * @return Baked mesh data, ready for writing.
+     */
+    public static ByteBuffer bake(RawMesh raw, List<BakedMesh.SubMesh> subMeshes) {
+        // Determine the layout
+        final VertexFormat format = VertexFormat.of(raw);
+        final int vertexCount = raw.getVertexCount();
+        final int indexCount = raw.getIndexCount();
+        final boolean intIndexes = vertexCount > 0xFFFF + 1;
+        final int attributeCount = 1 + (format.hasNormals() ? 1 : 0) + (format.hasTextures() ? 1 : 0);
+
+        // Encode the sub mesh names, and determine the table size
+        final List<byte[]> names = new ArrayList<>(subMeshes.size());
+        int subMeshTableSize = 0;
+        for(BakedMesh.SubMesh subMesh : subMeshes) {
+            final byte[] name = subMesh.getName() != null ? subMesh.getName().getBytes(StandardCharsets.UTF_8) : new byte[0];
+            names.add(name);
+            subMeshTableSize += 12 + align(name.length, 4);
+        }
+
+        // Determine the data offsets and sizes
+        final int vertexDataOffset = align(BakedMesh.HEADER_SIZE + attributeCount * BakedMesh.ATTRIBUTE_SIZE + subMeshTableSize,
+                BakedMesh.DATA_ALIGNMENT);
+        final int vertexDataSize = vertexCount * format.getStride();
+        final int indexDataOffset = align(vertexDataOffset + vertexDataSize, BakedMesh.DATA_ALIGNMENT);
+        final int indexDataSize = indexCount * (intIndexes ? 4 : 2);
+
+        // Write the header
+        final ByteBuffer buffer = ByteBuffer.allocate(indexDataOffset + indexDataSize).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(BakedMesh.MAGIC)
+                .putInt(BakedMesh.VERSION)
+                .putInt(intIndexes ? BakedMesh.FLAG_INT_INDEXES : 0)
+                .putInt(vertexCount)
+                .putInt(indexCount)
+                .putInt(format.getStride())
+                .putInt(attributeCount)
+                .putInt(subMeshes.size());
+        buffer.putFloat(raw.getBoundsMin().x).putFloat(raw.getBoundsMin().y).putFloat(raw.getBoundsMin().z);
+        buffer.putFloat(raw.getBoundsMax().x).putFloat(raw.getBoundsMax().y).putFloat(raw.getBoundsMax().z);
+        buffer.putFloat(raw.getBoundsCenter().x).putFloat(raw.getBoundsCenter().y).putFloat(raw.getBoundsCenter().z);
+        buffer.putFloat(raw.getBoundsRadius());
+        buffer.putInt(vertexDataOffset).putInt(vertexDataSize).putInt(indexDataOffset).putInt(indexDataSize);
+
+        // Write the vertex attribute table
+        putAttribute(buffer, BakedMesh.ATTRIBUTE_POSITION, RawMesh.VERTEX_AXIS_COUNT, 0);
+        if(format.hasNormals())
+            putAttribute(buffer, BakedMesh.ATTRIBUTE_NORMAL, RawMesh.NORMAL_AXIS_COUNT, format.getNormalOffset() * 4);
+        if(format.hasTextures())
+            putAttribute(buffer, BakedMesh.ATTRIBUTE_TEXTURE, RawMesh.TEXTURE_AXIS_COUNT, format.getTextureOffset() * 4);
+
+        // Write the sub mesh table, names are padded to four bytes
+        for(int i = 0; i < subMeshes.size(); i++) {
+            final byte[] name = names.get(i);
+            buffer.putInt(subMeshes.get(i).getFirstIndex()).putInt(subMeshes.get(i).getIndexCount()).putInt(name.length);
+            buffer.put(name);
+            buffer.position(buffer.position() + align(name.length, 4) - name.length);
+        }
+
+        // Write the interleaved vertex data
+        buffer.position(vertexDataOffset);
+        format.interleave(raw, buffer.asFloatBuffer());
+
+        // Write the index data
+        buffer.position(indexDataOffset);
+        for(int i = 0; i < indexCount; i++) {
+            if(intIndexes)
+                buffer.putInt(raw.getIndex(i));
+            else
+                buffer.putShort((short) raw.getIndex(i));
+        }
+
+        // Flip and return the buffer
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * Bake the given mesh into a file.
+     *
+     * @param raw Raw mesh.
+     * @param subMeshes Sub mesh ranges, may be empty.
+     * @param path Path of the file to write.
+     *
+     * @throws IOException
+     */
+    public static void write(RawMesh raw, List<BakedMesh.SubMesh> subMeshes, Path path) throws IOException {
+        // Bake the mesh
+        final ByteBuffer buffer = bake(raw, subMeshes);
+
+        // Write it to the file
+        try(FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while(buffer.hasRemaining())
+                channel.write(buffer);
+        }
+    }
+
+    /**
+     * Bake the given mesh into a file, without any sub meshes.
+     *
+     * @param raw Raw mesh.
+     * @param path Path of the file to write.
+     *
+     * @throws IOException
+     */
+    public static void write(RawMesh raw, Path path) throws IOException {
+        write(raw, Collections.<BakedMesh.SubMesh>emptyList(), path);
+    }
+
+    /**
+     * Create the sub mesh ranges for the groups of the given model, named by their material.
+     *
+     * @param mesh Model mesh.
+     *
+     * @return Sub meshes.
+     */
+    public static List<BakedMesh.SubMesh> subMeshesOf(ObjMesh mesh) {
+        final List<BakedMesh.SubMesh> subMeshes = new ArrayList<>(mesh.getGroups().size());
+        for(ObjMesh.Group group : mesh.getGroups())
+            subMeshes.add(new BakedMesh.SubMesh(group.getMaterialName(), group.getFirstIndex(), group.getIndexCount()));
+        return subMeshes;
+    }
+
+    /**
+     * Write an entry of the vertex attribute table.
+     *
+     * @param buffer Buffer to write to.
+     * @param semantic Attribute semantic.
+     * @param components Number of float components.
+     * @param offset Offset of the attribute in each vertex, in bytes.
+     */
+    private static void putAttribute(ByteBuffer buffer, int semantic, int components, int offset) {
+        buffer.put((byte) semantic).put((byte) components).put((byte) BakedMesh.TYPE_FLOAT).put((byte) 0).putInt(offset);
+    }
+
+    /**
+     * Round the given value up to a multiple of the given alignment.
+     *
+     * @param value Value.
+     * @param alignment Alignment, a power of two.
+     *
+     * @return Aligned value.
+     */
+    private static int align(int value, int alignment) {
+        return (value + alignment - 1) & -alignment;
+    }
+}
@@ -23,11 +23,12 @@
 package com.timvisee.voxeltex.module.mesh.generator;
 
 import com.timvisee.voxeltex.module.mesh.Mesh;
+import com.timvisee.voxeltex.module.mesh.MeshOptimizer;
 
 public abstract class AbstractMeshGenerator implements MeshGenerateInterface {
 
     @Override
     public Mesh createMesh() {
-        return new Mesh(getRawMesh());
+        return new Mesh(MeshOptimizer.optimize(getRawMesh()));
     }
 }
@@ -0,0 +1,163 @@
+/******************************************************************************
+ * Copyright (c) Tim Visee 2016. All rights reserved.                         *
+ *                                                                            *
+ * @author Tim Visee                                                          *
+ * @website http://timvisee.com/                                              *
+ *                                                                            *
+ * Open Source != No Copyright                                                *
+ *                                                                            *
+ * Permission is hereby granted, free of charge, to any person obtaining a    *
+ * copy of this software and associated documentation files (the "Software"), *
+ * to deal in the Software without restriction, including without limitation  *
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,   *
+ * and/or sell copies of the Software, and to permit persons to whom the      *
+ * Software is furnished to do so, subject to the following conditions:       *
+ *                                                                            *
+ * The above copyright notice and this permission notice shall be included    *
+ * in all copies or substantial portions of the Software.                     *
+ *                                                                            *
+ * You should have received a copy of The MIT License (MIT) along with this   *
+ * program. If not, see <http://opensource.org/licenses/MIT/>.                *
+ ******************************************************************************/
+
+package com.timvisee.voxeltex.module.model;
+
+import com.timvisee.voxeltex.module.mesh.RawMesh;
+
+import java.util.List;
+
+public class ObjMesh {
+
+    /**
+     * Indexed raw mesh holding all triangles of the model, in file order.
+     */
+    private final RawMesh rawMesh;
+
+    /**
+     * Triangle ranges of the object, group and material sections of the model, in file order.
+     */
+    private final List<Group> groups;
+
+    /**
+     * Constructor.
+     *
+     * @param rawMesh Indexed raw mesh.
+     * @param groups Triangle ranges of the model sections.
+     */
+    public ObjMesh(RawMesh rawMesh, List<Group> groups) {
+        this.rawMesh = rawMesh;
+        this.groups = groups;
+    }
+
+    /**
+     * Get the indexed raw mesh holding all triangles of the model.
+     * The triangles are in file order, reordering them invalidates the group ranges.
+     *
+     * @return Raw mesh.
+     */
+    public RawMesh getRawMesh() {
+        return this.rawMesh;
+    }
+
+    /**
+     * Get the triangle ranges of the object, group and material sections of the model.
+     *
+     * @return Groups, in file order.
+     */
+    public List<Group> getGroups() {
+        return this.groups;
+    }
+
+    /**
+     * A range of triangles sharing the same object, group and material in the model.
+     */
+    public static class Group {
+
+        /**
+         * Object name, or null if none.
+         */
+        private final String objectName;
+
+        /**
+         * Group name, or null if none.
+         */
+        private final String groupName;
+
+        /**
+         * Material name, or null if none.
+         */
+        private final String materialName;
+
+        /**
+         * Index of the first index of this group in the index list of the mesh.
+         */
+        private final int firstIndex;
+
+        /**
+         * Number of indexes in this group.
+         */
+        private final int indexCount;
+
+        /**
+         * Constructor.
+         *
+         * @param objectName Object name, or null.
+         * @param groupName Group name, or null.
+         * @param materialName Material name, or null.
+         * @param firstIndex First index in the index list of the mesh.
+         * @param indexCount Number of indexes.
+         */
+        public Group(String objectName, String groupName, String materialName, int firstIndex, int indexCount) {
+            this.objectName = objectName;
+            this.groupName = groupName;
+            this.materialName = materialName;
+            this.firstIndex = firstIndex;
+            this.indexCount = indexCount;
+        }
+
+        /**
+         * Get the object name.
+         *
+         * @return Object name, or null if none.
+         */
+        public String getObjectName() {
+            return this.objectName;
+        }
+
+        /**
+         * Get the group name.
+         *
+         * @return Group name, or null if none.
+         */
+        public String getGroupName() {
+            return this.groupName;
+        }
+
+        /**
+         * Get the material name.
+         *
+         * @return Material name, or null if none.
+         */
+        public String getMaterialName() {
+            return this.materialName;
+        }
+
+        /**
+         * Get the first index of this group in the index list of the mesh.
+         *
+         * @return First index.
+         */
+        public int getFirstIndex() {
+            return this.firstIndex;
+        }
+
+        /**
+         * Get the number of indexes in this group.
+         *
+         * @return Index count.
+         */
+        public int getIndexCount() {
+            return this.indexCount;
+        }
+    }
+}
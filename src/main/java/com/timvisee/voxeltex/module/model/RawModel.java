@@ -22,6 +22,7 @@
 
 package com.timvisee.voxeltex.module.model;
 
+import com.timvisee.voxeltex.module.mesh.MeshOptimizer;
 import com.timvisee.voxeltex.module.mesh.RawMesh;
 import org.joml.Vector3f;
 
@@ -185,8 +186,11 @@ public class RawModel {
             normals[i * 3 + 2] = normal.z;
         }
 
-        // Create and return the raw mesh
+        // Create the raw mesh
         // TODO: Load texture coordinates, or skip it?
-        return new RawMesh(vertexes, normals, new float[0]);
+        RawMesh raw = new RawMesh(vertexes, normals, new float[0]);
+
+        // Weld and optimize the mesh
+        return MeshOptimizer.optimize(raw);
     }
 }
@@ -0,0 +1,785 @@
+/******************************************************************************
+ * Copyright (c) Tim Visee 2016. All rights reserved.                         *
+ *                                                                            *
+ * @author Tim Visee                                                          *
+ * @website http://timvisee.com/                                              *
+ *                                                                            *
+ * Open Source != No Copyright                                                *
+ *                                                                            *
+ * Permission is hereby granted, free of charge, to any person obtaining a    *
+ * copy of this software and associated documentation files (the "Software"), *
+ * to deal in the Software without restriction, including without limitation  *
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,   *
+ * and/or sell copies of the Software, and to permit persons to whom the      *
+ * Software is furnished to do so, subject to the following conditions:       *
+ *                                                                            *
+ * The above copyright notice and this permission notice shall be included    *
+ * in all copies or substantial portions of the Software.                     *
+ *                                                                            *
+ * You should have received a copy of The MIT License (MIT) along with this   *
+ * program. If not, see <http://opensource.org/licenses/MIT/>.                *
+ ******************************************************************************/
+
+package com.timvisee.voxeltex.module.model.loader;
+
+import com.timvisee.voxeltex.module.mesh.RawMesh;
+import com.timvisee.voxeltex.module.model.ObjMesh;
+import com.timvisee.voxeltex.module.resource.engine.EngineAssetLoader;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+public class ObjMeshLoader {
+
+    /**
+     * Minimum size of a chunk in bytes, smaller files are parsed on a single thread.
+     */
+    private static final int MIN_CHUNK_SIZE = 1 << 20;
+
+    /**
+     * Number of chunks for each available processor, for balancing the parse work.
+     */
+    private static final int CHUNKS_PER_PROCESSOR = 4;
+
+    /**
+     * Exact powers of ten representable as double.
+     */
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    /**
+     * Maximum number of significant digits parsed into the mantissa of a number.
+     */
+    private static final int MAX_MANTISSA_DIGITS = 18;
+
+    /**
+     * Event type of an object statement.
+     */
+    private static final int EVENT_OBJECT = 0;
+
+    /**
+     * Event type of a group statement.
+     */
+    private static final int EVENT_GROUP = 1;
+
+    /**
+     * Event type of a material statement.
+     */
+    private static final int EVENT_MATERIAL = 2;
+
+    /**
+     * Load a mesh from the engine assets.
+     * The asset file is memory mapped if it's available on the file system.
+     *
+     * @param path Path of the engine asset model.
+     *
+     * @return The loaded mesh.
+     */
+    public static ObjMesh loadMeshFromEngineAssets(String path) {
+        // Memory map the asset if it's a plain file, assets in a mounted pack are mapped already
+        final EngineAssetLoader loader = EngineAssetLoader.getInstance();
+        final URL url = ObjMeshLoader.class.getResource(loader.getBasePath() + path);
+        if(url != null && "file".equals(url.getProtocol()) && !loader.isPacked(path)) {
+            try {
+                return loadMesh(Paths.get(url.toURI()));
+
+            } catch(IOException | URISyntaxException e) {
+                e.printStackTrace();
+                throw new RuntimeException("Failed to load 3D model!");
+            }
+        }
+
+        // Load the asset into a buffer
+        final ByteBuffer buffer = loader.loadResourceByteBuffer(path);
+        if(buffer == null)
+            throw new RuntimeException("Failed to load 3D model!");
+        return loadMesh(buffer);
+    }
+
+    /**
+     * Load a mesh from a file, which is memory mapped for parsing.
+     *
+     * @param path Path of the file.
+     *
+     * @return The loaded mesh.
+     *
+     * @throws IOException
+     */
+    public static ObjMesh loadMesh(Path path) throws IOException {
+        try(FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // Make sure the file can be mapped at once
+            if(channel.size() > Integer.MAX_VALUE)
+                throw new IOException("Model file is too large to map: " + path);
+
+            // Map and parse the file
+            return loadMesh(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Load a mesh from the remaining bytes of the given buffer.
+     * The buffer is split into line aligned chunks that are parsed in parallel, directly into primitive arrays.
+     *
+     * @param buffer Buffer holding the model file.
+     *
+     * @return The loaded mesh.
+     */
+    public static ObjMesh loadMesh(ByteBuffer buffer) {
+        // Show a status message
+        System.out.print("Loading model... ");
+        final long startTime = System.nanoTime();
+
+        // Split the buffer into chunks, and count the elements in each chunk in parallel
+        final Chunk[] chunks = split(buffer);
+        IntStream.range(0, chunks.length).parallel().forEach(i -> chunks[i].count());
+
+        // Determine the offset of each chunk in the element arrays
+        int positionCount = 0, textureCount = 0, normalCount = 0, triangleCount = 0;
+        //noinspection ForLoopReplaceableByForEach
+        for(int i = 0; i < chunks.length; i++) {
+            final Chunk chunk = chunks[i];
+            chunk.positionOffset = positionCount;
+            chunk.textureOffset = textureCount;
+            chunk.normalOffset = normalCount;
+            chunk.triangleOffset = triangleCount;
+            positionCount += chunk.positionCount;
+            textureCount += chunk.textureCount;
+            normalCount += chunk.normalCount;
+            triangleCount += chunk.triangleCount;
+        }
+
+        // Allocate the element arrays, and parse the chunks into them in parallel
+        final Elements elements = new Elements(positionCount, textureCount, normalCount, triangleCount);
+        IntStream.range(0, chunks.length).parallel().forEach(i -> chunks[i].parse(elements));
+
+        // Build the indexed mesh and the groups
+        final RawMesh raw = buildMesh(elements);
+        final List<ObjMesh.Group> groups = buildGroups(chunks, triangleCount);
+
+        // Show a status message
+        System.out.printf("OK (%d triangles, %d vertexes, %d ms)%n",
+                raw.getTriangleCount(), raw.getVertexCount(), (System.nanoTime() - startTime) / 1000000L);
+
+        // Return the mesh
+        return new ObjMesh(raw, groups);
+    }
+
+    /**
+     * Split the remaining bytes of the given buffer into line aligned chunks.
+     *
+     * @param buffer Buffer.
+     *
+     * @return Chunks, in file order.
+     */
+    private static Chunk[] split(ByteBuffer buffer) {
+        // Determine the number of chunks
+        final int start = buffer.position();
+        final int end = buffer.limit();
+        final int maxChunks = Runtime.getRuntime().availableProcessors() * CHUNKS_PER_PROCESSOR;
+        final int chunkCount = Math.max(Math.min((end - start) / MIN_CHUNK_SIZE, maxChunks), 1);
+        final int chunkSize = (end - start) / chunkCount;
+
+        // Create the chunks, moving each boundary to the start of the next line
+        final List<Chunk> chunks = new ArrayList<>(chunkCount);
+        int chunkStart = start;
+        for(int i = 1; i <= chunkCount && chunkStart < end; i++) {
+            int chunkEnd = i == chunkCount ? end : Math.max(start + i * chunkSize, chunkStart);
+            while(chunkEnd < end && buffer.get(chunkEnd - 1) != '\n')
+                chunkEnd++;
+            chunks.add(new Chunk(buffer, chunkStart, chunkEnd));
+            chunkStart = chunkEnd;
+        }
+
+        // Always return at least one chunk
+        if(chunks.isEmpty())
+            chunks.add(new Chunk(buffer, start, end));
+        return chunks.toArray(new Chunk[chunks.size()]);
+    }
+
+    /**
+     * Build an indexed raw mesh from the parsed elements.
+     * Each unique combination of position, texture coordinate and normal becomes a single vertex.
+     *
+     * @param elements Parsed elements.
+     *
+     * @return Indexed raw mesh.
+     */
+    private static RawMesh buildMesh(Elements elements) {
+        // Validate the face indexes
+        final int cornerCount = elements.facePositions.length;
+        final int positionCount = elements.positions.length / RawMesh.VERTEX_AXIS_COUNT;
+        final int textureCount = elements.textures.length / RawMesh.TEXTURE_AXIS_COUNT;
+        final int normalCount = elements.normals.length / RawMesh.NORMAL_AXIS_COUNT;
+        boolean hasTextures = false, hasNormals = false;
+        for(int i = 0; i < cornerCount; i++) {
+            if(elements.facePositions[i] < 0 || elements.facePositions[i] >= positionCount
+                    || elements.faceTextures[i] >= textureCount || elements.faceNormals[i] >= normalCount)
+                throw new RuntimeException("Failed to load 3D model, face index out of range!");
+            hasTextures |= elements.faceTextures[i] >= 0;
+            hasNormals |= elements.faceNormals[i] >= 0;
+        }
+
+        // Use the positions as vertexes directly if the faces don't reference any other attributes
+        if(!hasTextures && !hasNormals)
+            return new RawMesh(elements.positions, new float[0], new float[0], elements.facePositions);
+
+        // Vertexes sharing a position are linked in a list, each vertex holds it's source attribute indexes
+        final int[] first = new int[positionCount];
+        Arrays.fill(first, -1);
+        int capacity = Math.max(positionCount, 16);
+        int[] next = new int[capacity];
+        int[] vertexPositions = new int[capacity];
+        int[] vertexTextures = new int[capacity];
+        int[] vertexNormals = new int[capacity];
+        int vertexCount = 0;
+
+        // Find or create the vertex for each face corner
+        final int[] indexes = new int[cornerCount];
+        for(int i = 0; i < cornerCount; i++) {
+            // Find an existing vertex with the same attributes
+            final int position = elements.facePositions[i];
+            final int texture = elements.faceTextures[i];
+            final int normal = elements.faceNormals[i];
+            int vertex = first[position];
+            while(vertex >= 0 && (vertexTextures[vertex] != texture || vertexNormals[vertex] != normal))
+                vertex = next[vertex];
+
+            // Create a new vertex if none was found, and grow the arrays if required
+            if(vertex < 0) {
+                if(vertexCount == capacity) {
+                    capacity += capacity >> 1;
+                    next = Arrays.copyOf(next, capacity);
+                    vertexPositions = Arrays.copyOf(vertexPositions, capacity);
+                    vertexTextures = Arrays.copyOf(vertexTextures, capacity);
+                    vertexNormals = Arrays.copyOf(vertexNormals, capacity);
+                }
+                vertex = vertexCount++;
+                vertexPositions[vertex] = position;
+                vertexTextures[vertex] = texture;
+                vertexNormals[vertex] = normal;
+                next[vertex] = first[position];
+                first[position] = vertex;
+            }
+            indexes[i] = vertex;
+        }
+
+        // Gather the attributes of each vertex, missing attributes are zero
+        final float[] vertexes = new float[vertexCount * RawMesh.VERTEX_AXIS_COUNT];
+        final float[] textures = new float[hasTextures ? vertexCount * RawMesh.TEXTURE_AXIS_COUNT : 0];
+        final float[] normals = new float[hasNormals ? vertexCount * RawMesh.NORMAL_AXIS_COUNT : 0];
+        for(int i = 0; i < vertexCount; i++) {
+            System.arraycopy(elements.positions, vertexPositions[i] * RawMesh.VERTEX_AXIS_COUNT,
+                    vertexes, i * RawMesh.VERTEX_AXIS_COUNT, RawMesh.VERTEX_AXIS_COUNT);
+            if(hasTextures && vertexTextures[i] >= 0)
+                System.arraycopy(elements.textures, vertexTextures[i] * RawMesh.TEXTURE_AXIS_COUNT,
+                        textures, i * RawMesh.TEXTURE_AXIS_COUNT, RawMesh.TEXTURE_AXIS_COUNT);
+            if(hasNormals && vertexNormals[i] >= 0)
+                System.arraycopy(elements.normals, vertexNormals[i] * RawMesh.NORMAL_AXIS_COUNT,
+                        normals, i * RawMesh.NORMAL_AXIS_COUNT, RawMesh.NORMAL_AXIS_COUNT);
+        }
+
+        // Create the mesh
+        return new RawMesh(vertexes, normals, textures, indexes);
+    }
+
+    /**
+     * Build the triangle ranges of the object, group and material sections from the statements of all chunks.
+     *
+     * @param chunks Parsed chunks, in file order.
+     * @param triangleCount Total number of triangles.
+     *
+     * @return Groups, in file order.
+     */
+    private static List<ObjMesh.Group> buildGroups(Chunk[] chunks, int triangleCount) {
+        // Walk through the statements, and close the current range whenever a section changes
+        final List<ObjMesh.Group> groups = new ArrayList<>();
+        String objectName = null, groupName = null, materialName = null;
+        int start = 0;
+        //noinspection ForLoopReplaceableByForEach
+        for(int i = 0; i < chunks.length; i++) {
+            final Chunk chunk = chunks[i];
+            for(int j = 0; j < chunk.eventTypes.size(); j++) {
+                // Close the current range if it has any triangles
+                final int triangle = chunk.eventTriangles.get(j);
+                if(triangle > start) {
+                    groups.add(new ObjMesh.Group(objectName, groupName, materialName, start * 3, (triangle - start) * 3));
+                    start = triangle;
+                }
+
+                // Apply the statement
+                final String name = chunk.eventNames.get(j);
+                switch(chunk.eventTypes.get(j)) {
+                    case EVENT_OBJECT:
+                        objectName = name;
+                        break;
+                    case EVENT_GROUP:
+                        groupName = name;
+                        break;
+                    case EVENT_MATERIAL:
+                        materialName = name;
+                        break;
+                }
+            }
+        }
+
+        // Close the last range
+        if(triangleCount > start)
+            groups.add(new ObjMesh.Group(objectName, groupName, materialName, start * 3, (triangleCount - start) * 3));
+        return groups;
+    }
+
+    /**
+     * Element arrays shared by all chunks, each chunk writes to it's own range.
+     */
+    private static class Elements {
+
+        /**
+         * Vertex positions.
+         */
+        final float[] positions;
+
+        /**
+         * Texture coordinates.
+         */
+        final float[] textures;
+
+        /**
+         * Normals.
+         */
+        final float[] normals;
+
+        /**
+         * Position index of each triangle corner.
+         */
+        final int[] facePositions;
+
+        /**
+         * Texture coordinate index of each triangle corner, or -1 if none.
+         */
+        final int[] faceTextures;
+
+        /**
+         * Normal index of each triangle corner, or -1 if none.
+         */
+        final int[] faceNormals;
+
+        /**
+         * Constructor.
+         *
+         * @param positionCount Number of positions.
+         * @param textureCount Number of texture coordinates.
+         * @param normalCount Number of normals.
+         * @param triangleCount Number of triangles.
+         */
+        Elements(int positionCount, int textureCount, int normalCount, int triangleCount) {
+            this.positions = new float[positionCount * RawMesh.VERTEX_AXIS_COUNT];
+            this.textures = new float[textureCount * RawMesh.TEXTURE_AXIS_COUNT];
+            this.normals = new float[normalCount * RawMesh.NORMAL_AXIS_COUNT];
+            this.facePositions = new int[triangleCount * 3];
+            this.faceTextures = new int[triangleCount * 3];
+            this.faceNormals = new int[triangleCount * 3];
+        }
+    }
+
+    /**
+     * A line aligned range of the model file, with a hand written scanner for it's statements.
+     */
+    private static class Chunk {
+
+        /**
+         * Buffer holding the model file, only read through absolute gets so it can be shared between threads.
+         */
+        private final ByteBuffer buffer;
+
+        /**
+         * Start of the chunk in the buffer.
+         */
+        private final int start;
+
+        /**
+         * End of the chunk in the buffer, exclusive.
+         */
+        private final int end;
+
+        /**
+         * Current scan position.
+         */
+        private int cursor;
+
+        /**
+         * Number of positions, texture coordinates, normals and triangles in this chunk.
+         */
+        int positionCount, textureCount, normalCount, triangleCount;
+
+        /**
+         * Offsets of the elements of this chunk in the shared element arrays.
+         */
+        int positionOffset, textureOffset, normalOffset, triangleOffset;
+
+        /**
+         * Types of the object, group and material statements in this chunk.
+         */
+        final List<Integer> eventTypes = new ArrayList<>();
+
+        /**
+         * Names of the object, group and material statements in this chunk.
+         */
+        final List<String> eventNames = new ArrayList<>();
+
+        /**
+         * Global index of the first triangle after each object, group and material statement in this chunk.
+         */
+        final List<Integer> eventTriangles = new ArrayList<>();
+
+        /**
+         * Constructor.
+         *
+         * @param buffer Buffer holding the model file.
+         * @param start Start of the chunk.
+         * @param end End of the chunk, exclusive.
+         */
+        Chunk(ByteBuffer buffer, int start, int end) {
+            this.buffer = buffer;
+            this.start = start;
+            this.end = end;
+        }
+
+        /**
+         * Count the positions, texture coordinates, normals and triangles in this chunk.
+         */
+        void count() {
+            for(this.cursor = this.start; this.cursor < this.end; nextLine()) {
+                // Determine the statement type
+                skipSpaces();
+                if(this.cursor + 1 >= this.end)
+                    continue;
+                final byte first = this.buffer.get(this.cursor);
+                final byte second = this.buffer.get(this.cursor + 1);
+
+                // Count the elements
+                if(first == 'v' && isSpace(second))
+                    this.positionCount++;
+                else if(first == 'v' && second == 't')
+                    this.textureCount++;
+                else if(first == 'v' && second == 'n')
+                    this.normalCount++;
+                else if(first == 'f' && isSpace(second)) {
+                    // Count the corners, a polygon is triangulated as a fan
+                    this.cursor++;
+                    int corners = 0;
+                    while(skipSpaces()) {
+                        corners++;
+                        while(this.cursor < this.end && !isSpace(this.buffer.get(this.cursor)) && !isLineEnd(this.buffer.get(this.cursor)))
+                            this.cursor++;
+                    }
+                    if(corners >= 3)
+                        this.triangleCount += corners - 2;
+                }
+            }
+        }
+
+        /**
+         * Parse the statements of this chunk into the shared element arrays.
+         *
+         * @param elements Element arrays.
+         */
+        void parse(Elements elements) {
+            // Local element counters
+            int positions = 0, textures = 0, normals = 0, triangles = 0;
+
+            for(this.cursor = this.start; this.cursor < this.end; nextLine()) {
+                // Determine the statement type
+                skipSpaces();
+                if(this.cursor + 1 >= this.end)
+                    continue;
+                final byte first = this.buffer.get(this.cursor);
+                final byte second = this.buffer.get(this.cursor + 1);
+
+                // Parse a position
+                if(first == 'v' && isSpace(second)) {
+                    this.cursor += 1;
+                    final int offset = (this.positionOffset + positions++) * RawMesh.VERTEX_AXIS_COUNT;
+                    for(int i = 0; i < RawMesh.VERTEX_AXIS_COUNT; i++)
+                        elements.positions[offset + i] = nextFloat();
+
+                // Parse a texture coordinate, the second coordinate is optional
+                } else if(first == 'v' && second == 't') {
+                    this.cursor += 2;
+                    final int offset = (this.textureOffset + textures++) * RawMesh.TEXTURE_AXIS_COUNT;
+                    elements.textures[offset] = nextFloat();
+                    elements.textures[offset + 1] = skipSpaces() ? nextFloat() : 0f;
+
+                // Parse a normal
+                } else if(first == 'v' && second == 'n') {
+                    this.cursor += 2;
+                    final int offset = (this.normalOffset + normals++) * RawMesh.NORMAL_AXIS_COUNT;
+                    for(int i = 0; i < RawMesh.NORMAL_AXIS_COUNT; i++)
+                        elements.normals[offset + i] = nextFloat();
+
+                // Parse a face, and triangulate it as a fan around the first corner
+                } else if(first == 'f' && isSpace(second)) {
+                    this.cursor += 1;
+                    int firstPosition = 0, firstTexture = 0, firstNormal = 0;
+                    int lastPosition = 0, lastTexture = 0, lastNormal = 0;
+                    for(int corner = 0; skipSpaces(); corner++) {
+                        // Parse the corner, relative indexes are resolved against the elements defined so far
+                        final int position = resolve(nextInt(), this.positionOffset + positions);
+                        int texture = -1, normal = -1;
+                        if(peek() == '/') {
+                            this.cursor++;
+                            if(peek() != '/')
+                                texture = resolve(nextInt(), this.textureOffset + textures);
+                            if(peek() == '/') {
+                                this.cursor++;
+                                normal = resolve(nextInt(), this.normalOffset + normals);
+                            }
+                        }
+
+                        // Emit a triangle for each corner after the second
+                        if(corner == 0) {
+                            firstPosition = position;
+                            firstTexture = texture;
+                            firstNormal = normal;
+                        } else if(corner >= 2) {
+                            final int offset = (this.triangleOffset + triangles++) * 3;
+                            setCorner(elements, offset, firstPosition, firstTexture, firstNormal);
+                            setCorner(elements, offset + 1, lastPosition, lastTexture, lastNormal);
+                            setCorner(elements, offset + 2, position, texture, normal);
+                        }
+                        lastPosition = position;
+                        lastTexture = texture;
+                        lastNormal = normal;
+                    }
+
+                // Parse object, group and material statements
+                } else if(first == 'o' && isSpace(second))
+                    addEvent(EVENT_OBJECT, 1, this.triangleOffset + triangles);
+                else if(first == 'g' && isSpace(second))
+                    addEvent(EVENT_GROUP, 1, this.triangleOffset + triangles);
+                else if(matches("usemtl") && this.cursor + 6 < this.end && isSpace(this.buffer.get(this.cursor + 6)))
+                    addEvent(EVENT_MATERIAL, 6, this.triangleOffset + triangles);
+            }
+        }
+
+        /**
+         * Set the attribute indexes of a triangle corner.
+         *
+         * @param elements Element arrays.
+         * @param corner Corner index.
+         * @param position Position index.
+         * @param texture Texture coordinate index, or -1.
+         * @param normal Normal index, or -1.
+         */
+        private static void setCorner(Elements elements, int corner, int position, int texture, int normal) {
+            elements.facePositions[corner] = position;
+            elements.faceTextures[corner] = texture;
+            elements.faceNormals[corner] = normal;
+        }
+
+        /**
+         * Resolve a one based or negative relative element index to a zero based index.
+         *
+         * @param index Index from the file.
+         * @param count Number of elements defined before the current statement.
+         *
+         * @return Zero based index.
+         */
+        private int resolve(int index, int count) {
+            if(index > 0)
+                return index - 1;
+            if(index < 0)
+                return count + index;
+            throw new RuntimeException("Failed to load 3D model, invalid index at byte " + this.cursor + "!");
+        }
+
+        /**
+         * Add an object, group or material statement, named by the rest of the line.
+         *
+         * @param type Statement type.
+         * @param keywordLength Length of the statement keyword.
+         * @param triangle Global index of the next triangle.
+         */
+        private void addEvent(int type, int keywordLength, int triangle) {
+            // Find the name bounds, without surrounding whitespace
+            this.cursor += keywordLength;
+            skipSpaces();
+            final int nameStart = this.cursor;
+            int nameEnd = nameStart;
+            while(nameEnd < this.end && !isLineEnd(this.buffer.get(nameEnd)))
+                nameEnd++;
+            while(nameEnd > nameStart && isSpace(this.buffer.get(nameEnd - 1)))
+                nameEnd--;
+
+            // Read the name
+            final byte[] name = new byte[nameEnd - nameStart];
+            for(int i = 0; i < name.length; i++)
+                name[i] = this.buffer.get(nameStart + i);
+
+            // Add the event
+            this.eventTypes.add(type);
+            this.eventNames.add(new String(name, StandardCharsets.UTF_8));
+            this.eventTriangles.add(triangle);
+        }
+
+        /**
+         * Check whether the bytes at the cursor match the given keyword.
+         *
+         * @param keyword Keyword.
+         *
+         * @return True if they match, false if not.
+         */
+        private boolean matches(String keyword) {
+            if(this.cursor + keyword.length() > this.end)
+                return false;
+            for(int i = 0; i < keyword.length(); i++)
+                if(this.buffer.get(this.cursor + i) != keyword.charAt(i))
+                    return false;
+            return true;
+        }
+
+        /**
+         * Parse a float at the cursor, after skipping spaces.
+         *
+         * @return Parsed value.
+         */
+        private float nextFloat() {
+            // Parse the sign
+            skipSpaces();
+            boolean negative = false;
+            byte c = peek();
+            if(c == '-' || c == '+') {
+                negative = c == '-';
+                this.cursor++;
+            }
+
+            // Parse the integer and fraction digits into the mantissa, keeping track of the decimal exponent
+            long mantissa = 0;
+            int digits = 0, significant = 0, exponent = 0;
+            boolean fraction = false;
+            for(c = peek(); ; c = peek()) {
+                if(c >= '0' && c <= '9') {
+                    if(significant < MAX_MANTISSA_DIGITS) {
+                        mantissa = mantissa * 10 + (c - '0');
+                        if(mantissa != 0)
+                            significant++;
+                        if(fraction)
+                            exponent--;
+                    } else if(!fraction)
+                        exponent++;
+                    digits++;
+                } else if(c == '.' && !fraction)
+                    fraction = true;
+                else
+                    break;
+                this.cursor++;
+            }
+            if(digits == 0)
+                throw new RuntimeException("Failed to load 3D model, invalid number at byte " + this.cursor + "!");
+
+            // Parse the exponent
+            if(c == 'e' || c == 'E') {
+                this.cursor++;
+                exponent += nextInt();
+            }
+
+            // Scale the mantissa by the exponent
+            double value = mantissa;
+            if(exponent > 0)
+                value *= exponent < POWERS_OF_TEN.length ? POWERS_OF_TEN[exponent] : Math.pow(10, exponent);
+            else if(exponent < 0)
+                value /= -exponent < POWERS_OF_TEN.length ? POWERS_OF_TEN[-exponent] : Math.pow(10, -exponent);
+            return (float) (negative ? -value : value);
+        }
+
+        /**
+         * Parse an integer at the cursor.
+         *
+         * @return Parsed value.
+         */
+        private int nextInt() {
+            // Parse the sign
+            boolean negative = false;
+            byte c = peek();
+            if(c == '-' || c == '+') {
+                negative = c == '-';
+                this.cursor++;
+            }
+
+            // Parse the digits
+            int value = 0;
+            int digits = 0;
+            for(c = peek(); c >= '0' && c <= '9'; c = peek()) {
+                value = value * 10 + (c - '0');
+                digits++;
+                this.cursor++;
+            }
+            if(digits == 0)
+                throw new RuntimeException("Failed to load 3D model, invalid number at byte " + this.cursor + "!");
+            return negative ? -value : value;
+        }
+
+        /**
+         * Get the byte at the cursor.
+         *
+         * @return Byte, or a line feed at the end of the chunk.
+         */
+        private byte peek() {
+            return this.cursor < this.end ? this.buffer.get(this.cursor) : (byte) '\n';
+        }
+
+        /**
+         * Skip spaces and tabs at the cursor.
+         *
+         * @return True if there's more content on the current line, false if not.
+         */
+        private boolean skipSpaces() {
+            while(this.cursor < this.end && isSpace(this.buffer.get(this.cursor)))
+                this.cursor++;
+            return this.cursor < this.end && !isLineEnd(this.buffer.get(this.cursor)) && this.buffer.get(this.cursor) != '#';
+        }
+
+        /**
+         * Move the cursor to the start of the next line.
+         */
+        private void nextLine() {
+            while(this.cursor < this.end && this.buffer.get(this.cursor) != '\n')
+                this.cursor++;
+            this.cursor++;
+        }
+
+        /**
+         * Check whether the given byte is a space, tab or carriage return.
+         *
+         * @param c Byte.
+         *
+         * @return True if it's a space, false if not.
+         */
+        private static boolean isSpace(byte c) {
+            return c == ' ' || c == '\t' || c == '\r';
+        }
+
+        /**
+         * Check whether the given byte ends a line.
+         *
+         * @param c Byte.
+         *
+         * @return True if it ends a line, false if not.
+         */
+        private static boolean isLineEnd(byte c) {
+            return c == '\n';
+        }
+    }
+}
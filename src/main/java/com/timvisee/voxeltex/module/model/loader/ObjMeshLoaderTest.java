@@ -0,0 +1,322 @@
+/******************************************************************************
+ * Copyright (c) Tim Visee 2016. All rights reserved.                         *
+ *                                                                            *
+ * @author Tim Visee                                                          *
+ * @website http://timvisee.com/                                              *
+ *                                                                            *
+ * Open Source != No Copyright                                                *
+ *                                                                            *
+ * Permission is hereby granted, free of charge, to any person obtaining a    *
+ * copy of this software and associated documentation files (the "Software"), *
+ * to deal in the Software without restriction, including without limitation  *
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,   *
+ * and/or sell copies of the Software, and to permit persons to whom the      *
+ * Software is furnished to do so, subject to the following conditions:       *
+ *                                                                            *
+ * The above copyright notice and this permission notice shall be included    *
+ * in all copies or substantial portions of the Software.                     *
+ *                                                                            *
+ * You should have received a copy of The MIT License (MIT) along with this   *
+ * program. If not, see <http://opensource.org/licenses/MIT/>.                *
+ ******************************************************************************/
+
+
+package com.timvisee.voxeltex.module.model.loader;
+
+import com.timvisee.voxeltex.module.mesh.RawMesh;
+import com.timvisee.voxeltex.module.model.ObjMesh;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ObjMeshLoaderTest {
+
+    /**
+     * Number of quads in each half of the chunk boundary fixture.
+     * Both halves together are just over two minimum chunk sizes, so the file is split into exactly two chunks.
+     */
+    private static final int BOUNDARY_QUAD_COUNT = 14000;
+
+    @org.junit.Test
+    public void negativeIndexes() throws Exception {
+        // Relative indexes are resolved against the positions defined before the face
+        final ObjMesh mesh = load(
+                "v 0 0 0\n" +
+                "v 1 0 0\n" +
+                "v 1 1 0\n" +
+                "f -3 -2 -1\n" +
+                "v 0 1 0\n" +
+                "f -4 -2 -1\n");
+        final RawMesh raw = mesh.getRawMesh();
+        assertEquals(2, raw.getTriangleCount());
+        assertCorner(raw, 0, 0, 0, 0);
+        assertCorner(raw, 1, 1, 0, 0);
+        assertCorner(raw, 2, 1, 1, 0);
+        assertCorner(raw, 3, 0, 0, 0);
+        assertCorner(raw, 4, 1, 1, 0);
+        assertCorner(raw, 5, 0, 1, 0);
+    }
+
+    @org.junit.Test
+    public void polygonFan() throws Exception {
+        // A pentagon is triangulated as a fan around it's first corner
+        final ObjMesh mesh = load(
+                "v 0 0 0\n" +
+                "v 1 0 0\n" +
+                "v 2 1 0\n" +
+                "v 1 2 0\n" +
+                "v 0 1 0\n" +
+                "f 1 2 3 4 5\n");
+        final RawMesh raw = mesh.getRawMesh();
+        assertEquals(3, raw.getTriangleCount());
+        final int[] expected = {0, 1, 2, 0, 2, 3, 0, 3, 4};
+        for(int i = 0; i < expected.length; i++)
+            assertEquals(expected[i], raw.getIndex(i));
+    }
+
+    @org.junit.Test
+    public void positionNormalFaces() throws Exception {
+        // Faces without texture coordinates, corners sharing a position but not a normal are separate vertexes
+        final ObjMesh mesh = load(
+                "v 0 0 0\n" +
+                "v 1 0 0\n" +
+                "v 1 1 0\n" +
+                "vn 0 0 1\n" +
+                "vn 0 1 0\n" +
+                "f 1//1 2//1 3//1\n" +
+                "f 1//2 3//2 2//2\n");
+        final RawMesh raw = mesh.getRawMesh();
+        assertEquals(2, raw.getTriangleCount());
+        assertEquals(6, raw.getVertexCount());
+        assertTrue(raw.hasNormalData());
+        assertFalse(raw.hasTextureData());
+        assertNormal(raw, raw.getIndex(0), 0, 0, 1);
+        assertNormal(raw, raw.getIndex(3), 0, 1, 0);
+        assertCorner(raw, 4, 1, 1, 0);
+    }
+
+    @org.junit.Test
+    public void singleComponentTexture() throws Exception {
+        // The second texture coordinate component is optional, also with carriage returns
+        final ObjMesh mesh = load(
+                "v 0 0 0\r\n" +
+                "v 1 0 0\r\n" +
+                "v 1 1 0\r\n" +
+                "vt 0.5\r\n" +
+                "vt 0.25 0.75\r\n" +
+                "f 1/1 2/2 3/1\r\n");
+        final RawMesh raw = mesh.getRawMesh();
+        assertTrue(raw.hasTextureData());
+        assertFalse(raw.hasNormalData());
+        assertTexture(raw, raw.getIndex(0), 0.5f, 0f);
+        assertTexture(raw, raw.getIndex(1), 0.25f, 0.75f);
+        assertTexture(raw, raw.getIndex(2), 0.5f, 0f);
+    }
+
+    @org.junit.Test
+    public void groups() throws Exception {
+        // Each object, group or material change closes the current range, statements without faces in between don't
+        final ObjMesh mesh = load(
+                "v 0 0 0\n" +
+                "v 1 0 0\n" +
+                "v 1 1 0\n" +
+                "v 0 1 0\n" +
+                "o Object\n" +
+                "g First\n" +
+                "usemtl Red \n" +
+                "f 1 2 3\n" +
+                "f 1 3 4\n" +
+                "usemtl Blue\n" +
+                "f 1 2 3\n" +
+                "g Unused\n" +
+                "g Second\n" +
+                "f 1 3 4 2\n");
+        final List<ObjMesh.Group> groups = mesh.getGroups();
+        assertEquals(3, groups.size());
+        assertGroup(groups.get(0), "Object", "First", "Red", 0, 6);
+        assertGroup(groups.get(1), "Object", "First", "Blue", 6, 3);
+        assertGroup(groups.get(2), "Object", "Second", "Blue", 9, 6);
+    }
+
+    @org.junit.Test
+    public void chunkBoundary() throws Exception {
+        // Build a file of two identical quad halves with a polygon in between, the polygon line straddles the middle
+        // of the file where the naive boundary of the two chunks is
+        final String half = createQuads(BOUNDARY_QUAD_COUNT);
+        final String polygon = "f -8 -7 -6 -5 -4 -3 -2 -1\n";
+        final String source = half + polygon + "g Second\n" + half;
+        assertEquals(2, source.length() >> 20);
+        final ObjMesh mesh = load(source);
+        final RawMesh raw = mesh.getRawMesh();
+
+        // Each half has two triangles per quad, the polygon is a fan of six triangles
+        assertEquals(BOUNDARY_QUAD_COUNT * 4 + 6, raw.getTriangleCount());
+        assertEquals(BOUNDARY_QUAD_COUNT * 8, raw.getVertexCount());
+
+        // Check the triangles of both halves, the relative indexes of the second half must resolve to it's own positions
+        for(int part = 0; part < 2; part++) {
+            final int corner = part * (BOUNDARY_QUAD_COUNT * 6 + 18);
+            for(int k = 0; k < BOUNDARY_QUAD_COUNT; k++) {
+                assertEquals(BOUNDARY_QUAD_COUNT * 4 * part + k * 4, raw.getIndex(corner + k * 6));
+                assertCorner(raw, corner + k * 6 + 4, k, 1, 1);
+                assertCorner(raw, corner + k * 6 + 5, k, 0, 1);
+            }
+        }
+
+        // Check the polygon fan over the last eight positions of the first half
+        final int first = BOUNDARY_QUAD_COUNT * 4 - 8;
+        for(int i = 0; i < 6; i++) {
+            final int corner = BOUNDARY_QUAD_COUNT * 6 + i * 3;
+            assertEquals(first, raw.getIndex(corner));
+            assertEquals(first + i + 1, raw.getIndex(corner + 1));
+            assertEquals(first + i + 2, raw.getIndex(corner + 2));
+        }
+
+        // The group statement in the second chunk must split the ranges
+        final List<ObjMesh.Group> groups = mesh.getGroups();
+        assertEquals(2, groups.size());
+        assertGroup(groups.get(0), null, null, null, 0, BOUNDARY_QUAD_COUNT * 6 + 18);
+        assertGroup(groups.get(1), null, "Second", null, BOUNDARY_QUAD_COUNT * 6 + 18, BOUNDARY_QUAD_COUNT * 6);
+    }
+
+    @org.junit.Test
+    public void floatExponents() throws Exception {
+        // Signs, exponents, missing integer or fraction digits, and exponents beyond the exact powers of ten
+        final ObjMesh mesh = load(
+                "v 1.5e3 -2.5E-2 +3e+2\n" +
+                "v -.5 7. 1e-30\n" +
+                "v 2.5e38 1E0 -0\n");
+        assertFloats(mesh.getRawMesh().getVertexes(),
+                1500f, -0.025f, 300f,
+                -0.5f, 7f, 1e-30f,
+                2.5e38f, 1f, -0f);
+    }
+
+    @org.junit.Test
+    public void floatLongMantissa() throws Exception {
+        // Digits beyond the mantissa precision are dropped, integer digits still scale the value
+        final String[] numbers = {
+                "3.14159265358979323846264338327950288",
+                "0.000000000000000000001234567890123456789",
+                "123456789012345678901234567890",
+                "-98765432109876543210.0123456789"
+        };
+        final ObjMesh mesh = load("v " + numbers[0] + " " + numbers[1] + " " + numbers[2] + "\n" +
+                "v " + numbers[3] + " 0 0\n");
+        final float[] vertexes = mesh.getRawMesh().getVertexes();
+        for(int i = 0; i < numbers.length; i++) {
+            final float expected = Float.parseFloat(numbers[i]);
+            assertEquals(numbers[i], expected, vertexes[i], Math.ulp(expected));
+        }
+    }
+
+    /**
+     * Load a mesh from the given OBJ source.
+     *
+     * @param source OBJ source.
+     *
+     * @return Loaded mesh.
+     */
+    private static ObjMesh load(String source) {
+        return ObjMeshLoader.loadMesh(ByteBuffer.wrap(source.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Create the OBJ source of the given number of quads, each with it's own four positions and relative indexes.
+     * Quad k spans the positions (k, 0, 0), (k, 1, 0), (k, 1, 1) and (k, 0, 1).
+     *
+     * @param count Number of quads.
+     *
+     * @return OBJ source.
+     */
+    private static String createQuads(int count) {
+        final StringBuilder builder = new StringBuilder();
+        for(int k = 0; k < count; k++) {
+            builder.append("v ").append(k).append(".0 0.0 0.0\n");
+            builder.append("v ").append(k).append(".0 1.0 0.0\n");
+            builder.append("v ").append(k).append(".0 1.0 1.0\n");
+            builder.append("v ").append(k).append(".0 0.0 1.0\n");
+            builder.append("f -4 -3 -2 -1\n");
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Assert the position of the vertex at a triangle corner.
+     *
+     * @param raw Mesh.
+     * @param corner Corner index.
+     * @param x Expected X coordinate.
+     * @param y Expected Y coordinate.
+     * @param z Expected Z coordinate.
+     */
+    private static void assertCorner(RawMesh raw, int corner, float x, float y, float z) {
+        final int offset = raw.getIndex(corner) * RawMesh.VERTEX_AXIS_COUNT;
+        assertFloats(new float[]{raw.getVertexes()[offset], raw.getVertexes()[offset + 1], raw.getVertexes()[offset + 2]},
+                x, y, z);
+    }
+
+    /**
+     * Assert the normal of a vertex.
+     *
+     * @param raw Mesh.
+     * @param vertex Vertex index.
+     * @param x Expected X component.
+     * @param y Expected Y component.
+     * @param z Expected Z component.
+     */
+    private static void assertNormal(RawMesh raw, int vertex, float x, float y, float z) {
+        final int offset = vertex * RawMesh.NORMAL_AXIS_COUNT;
+        assertFloats(new float[]{raw.getNormals()[offset], raw.getNormals()[offset + 1], raw.getNormals()[offset + 2]},
+                x, y, z);
+    }
+
+    /**
+     * Assert the texture coordinate of a vertex.
+     *
+     * @param raw Mesh.
+     * @param vertex Vertex index.
+     * @param u Expected U coordinate.
+     * @param v Expected V coordinate.
+     */
+    private static void assertTexture(RawMesh raw, int vertex, float u, float v) {
+        final int offset = vertex * RawMesh.TEXTURE_AXIS_COUNT;
+        assertFloats(new float[]{raw.getTextures()[offset], raw.getTextures()[offset + 1]}, u, v);
+    }
+
+    /**
+     * Assert that the given values exactly match the expected values.
+     *
+     * @param actual Actual values.
+     * @param expected Expected values.
+     */
+    private static void assertFloats(float[] actual, float... expected) {
+        assertEquals(expected.length, actual.length);
+        for(int i = 0; i < expected.length; i++)
+            assertEquals("Value " + i, expected[i], actual[i], 0f);
+    }
+
+    /**
+     * Assert the names and range of a group.
+     *
+     * @param group Group.
+     * @param objectName Expected object name.
+     * @param groupName Expected group name.
+     * @param materialName Expected material name.
+     * @param firstIndex Expected first index.
+     * @param indexCount Expected index count.
+     */
+    private static void assertGroup(ObjMesh.Group group, String objectName, String groupName, String materialName,
+                                    int firstIndex, int indexCount) {
+        assertEquals(objectName, group.getObjectName());
+        assertEquals(groupName, group.getGroupName());
+        assertEquals(materialName, group.getMaterialName());
+        assertEquals(firstIndex, group.getFirstIndex());
+        assertEquals(indexCount, group.getIndexCount());
+    }
+}
@@ -24,12 +24,39 @@ package com.timvisee.voxeltex.module.render;
 
 import com.timvisee.voxeltex.module.Color;
 import com.timvisee.voxeltex.module.font.BitmapFont;
+import com.timvisee.voxeltex.module.font.TextLayout;
+import com.timvisee.voxeltex.module.material.Material;
 import com.timvisee.voxeltex.module.transform.rectangle.Rectangle;
 import org.joml.Vector2f;
 import org.lwjgl.opengl.GL11;
 
 public class RenderOverlayHelper {
 
+    /**
+     * Red channel intensity of the drawing color.
+     */
+    private static float colorRed = 1f;
+
+    /**
+     * Green channel intensity of the drawing color.
+     */
+    private static float colorGreen = 1f;
+
+    /**
+     * Blue channel intensity of the drawing color.
+     */
+    private static float colorBlue = 1f;
+
+    /**
+     * Alpha channel intensity of the drawing color.
+     */
+    private static float colorAlpha = 1f;
+
+    /**
+     * Layout used to render text that doesn't have a layout of it's own.
+     */
+    private static final TextLayout sharedLayout = new TextLayout();
+
     /**
      * Set the width of lines being rendered.
      *
@@ -56,7 +83,7 @@ public class RenderOverlayHelper {
      * @param b Blue channel intensity.
      */
     public static void color(float r, float g, float b) {
-        GL11.glColor3f(r, g, b);
+        color(r, g, b, 1f);
     }
 
     /**
@@ -68,7 +95,10 @@ public class RenderOverlayHelper {
      * @param a Alpha channel intensity.
      */
     public static void color(float r, float g, float b, float a) {
-        GL11.glColor4f(r, g, b, a);
+        colorRed = r;
+        colorGreen = g;
+        colorBlue = b;
+        colorAlpha = a;
     }
 
     /**
@@ -82,7 +112,8 @@ public class RenderOverlayHelper {
     }
 
     /**
-     * Render a rectangle at the given position.
+     * Render an untextured rectangle at the given position with the drawing color.
+     * The rectangle is added to the sprite batch, and drawn together with the rectangles around it.
      *
      * @param x Rectangle X position.
      * @param y Rectangle Y position.
@@ -90,21 +121,23 @@ public class RenderOverlayHelper {
      * @param h Rectangle height.
      */
     public static void renderRectangle(float x, float y, float w, float h) {
-        // Enable line drawing mode
-        GL11.glBegin(GL11.GL_QUADS);
-
-        // Draw the grid
-        GL11.glVertex3f(x, y, 0f);
-        GL11.glTexCoord2f(1, 1);
-        GL11.glVertex3f(x + w, y, 0f);
-        GL11.glTexCoord2f(1, 0);
-        GL11.glVertex3f(x + w, y + h, 0f);
-        GL11.glTexCoord2f(0, 0);
-        GL11.glVertex3f(x, y + h, 0f);
-        GL11.glTexCoord2f(0, 1);
+        SpriteBatch.getInstance().draw(null, null, x, y, w, h, 0f, 0f, 1f, 1f, colorRed, colorGreen, colorBlue, colorAlpha);
+    }
 
-        // Finish drawing
-        GL11.glEnd();
+    /**
+     * Render a rectangle at the given position, textured with the given material.
+     * The rectangle is added to the sprite batch, and drawn together with the rectangles around it that use the same
+     * shader and texture, such as other regions of the same texture atlas.
+     *
+     * @param x Rectangle X position.
+     * @param y Rectangle Y position.
+     * @param w Rectangle width.
+     * @param h Rectangle height.
+     * @param material Material to texture the rectangle with.
+     * @param color Color channel intensity.
+     */
+    public static void renderRectangle(float x, float y, float w, float h, Material material, Color color) {
+        SpriteBatch.getInstance().draw(material, x, y, w, h, color);
     }
 
     /**
@@ -126,6 +159,12 @@ public class RenderOverlayHelper {
      * @param h Line height.
      */
     public static void renderLine(float x, float y, float w, float h) {
+        // Draw the batched rectangles first to keep the drawing order
+        SpriteBatch.getInstance().flush();
+
+        // Set the drawing color
+        GL11.glColor4f(colorRed, colorGreen, colorBlue, colorAlpha);
+
         // Enable line drawing mode
         GL11.glBegin(GL11.GL_LINES);
 
@@ -138,7 +177,7 @@ public class RenderOverlayHelper {
     }
 
     /**
-     * Render a font inside the given rectangle with the given text.
+     * Render a font inside the given rectangle with the given text, in the color of the font material.
      * The size of the font will be adjusted automatically to fit the rectangle.
      *
      * @param rectangle Rectangle to draw in, in overlay space.
@@ -146,47 +185,56 @@ public class RenderOverlayHelper {
      * @param text The text to draw.
      */
     public static void renderFont(Rectangle rectangle, BitmapFont font, String text) {
+        // Lay out the text, and render it
+        sharedLayout.update(font, text);
+        renderFont(rectangle, sharedLayout, font.getMaterial().getColor());
+    }
+
+    /**
+     * Render laid out text inside the given rectangle.
+     * The size of the text will be adjusted automatically to fit the rectangle.
+     *
+     * @param rectangle Rectangle to draw in, in overlay space.
+     * @param layout Laid out text.
+     * @param color Text color.
+     */
+    public static void renderFont(Rectangle rectangle, TextLayout layout, Color color) {
         // Get the window ratio factor
         final float windowRatio = OverlayUtil.getWindowRatioFactor();
 
-        // Determine the size, to fit the button
+        // Determine the size, to fit the rectangle
         float size = rectangle.getHeight();
 
-        // Calculate the total width of the string
-        float fontWidthX = font.getFontWidths().getStringWidthFactor(text) / windowRatio * size;
+        // Calculate the total width of the text
+        float fontWidthX = layout.getWidth(size, windowRatio);
 
-        // Make sure the string will fit, if not decrease the size and update the width accordingly
+        // Make sure the text will fit, if not decrease the size and update the width accordingly
         if(fontWidthX > rectangle.getWidth()) {
             size *= rectangle.getWidth() / fontWidthX;
-            fontWidthX *= rectangle.getWidth() / fontWidthX;
+            fontWidthX = rectangle.getWidth();
         }
 
-        // Determine the X and Y offset of the string
+        // Determine the X and Y offset of the text
         float fontOffsetX = (rectangle.getWidth() - fontWidthX) / 2.0f;
         float fontOffsetY = (rectangle.getHeight() - size) / 2.0f;
 
-        // Bind and render each character separately
-        for(int i = 0; i < text.length(); i++) {
-            // Get the current character
-            final char c = text.charAt(i);
-
-            // Calculate the width factor of the current character
-            final float widthFactor = font.getFontWidths().getCharacterWidthFactor(c);
-
-            // Bind the font material with the current character and the proper character width
-            font.getMaterial().bind(c, widthFactor);
-
-            // Calculate the character width offset
-            final float characterWidthOffset = size * font.getFontWidths().getStringWidthFactor(text.substring(0, i));
-
-            // Render the rectangle, and compensate with the window ratio factor
-            renderRectangle(
-                    rectangle.getX() + characterWidthOffset / windowRatio + fontOffsetX, rectangle.getY() + fontOffsetY,
-                    size * widthFactor / windowRatio, size
-            );
+        // Render the text
+        layout.draw(rectangle.getX() + fontOffsetX, rectangle.getY() + fontOffsetY, size, windowRatio, color);
+    }
 
-            // Unbind the material
-            font.getMaterial().unbind();
-        }
+    /**
+     * Render text at the given position, in the color of the font material.
+     * Texts that are drawn every frame should keep their own {@link TextLayout}, so they're only laid out once.
+     *
+     * @param x Text X position, in overlay space.
+     * @param y Text Y position, in overlay space.
+     * @param size Text height, in overlay space.
+     * @param font The font to draw.
+     * @param text The text to draw.
+     */
+    public static void renderText(float x, float y, float size, BitmapFont font, String text) {
+        // Lay out the text, and render it
+        sharedLayout.update(font, text);
+        sharedLayout.draw(x, y, size, OverlayUtil.getWindowRatioFactor(), font.getMaterial().getColor());
     }
 }
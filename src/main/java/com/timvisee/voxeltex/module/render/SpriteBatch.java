@@ -0,0 +1,393 @@
+/******************************************************************************
+ * Copyright (c) Tim Visee 2016. All rights reserved.                         *
+ *                                                                            *
+ * @author Tim Visee                                                          *
+ * @website http://timvisee.com/                                              *
+ *                                                                            *
+ * Open Source != No Copyright                                                *
+ *                                                                            *
+ * Permission is hereby granted, free of charge, to any person obtaining a    *
+ * copy of this software and associated documentation files (the "Software"), *
+ * to deal in the Software without restriction, including without limitation  *
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,   *
+ * and/or sell copies of the Software, and to permit persons to whom the      *
+ * Software is furnished to do so, subject to the following conditions:       *
+ *                                                                            *
+ * The above copyright notice and this permission notice shall be included    *
+ * in all copies or substantial portions of the Software.                     *
+ *                                                                            *
+ * You should have received a copy of The MIT License (MIT) along with this   *
+ * program. If not, see <http://opensource.org/licenses/MIT/>.                *
+ ******************************************************************************/
+
+package com.timvisee.voxeltex.module.render;
+
+import com.timvisee.voxeltex.module.Color;
+import com.timvisee.voxeltex.module.material.Material;
+import com.timvisee.voxeltex.module.mesh.Mesh;
+import com.timvisee.voxeltex.module.shader.Shader;
+import com.timvisee.voxeltex.module.texture.Texture;
+import com.timvisee.voxeltex.util.math.vector.Vector2fFactory;
+import com.timvisee.voxeltex.util.math.vector.Vector4fFactory;
+import org.joml.Vector2f;
+import org.joml.Vector4f;
+import org.lwjgl.BufferUtils;
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL13;
+import org.lwjgl.opengl.GL15;
+
+import java.nio.ByteBuffer;
+import java.nio.ShortBuffer;
+
+public class SpriteBatch {
+
+    /**
+     * Maximum number of quads in a single draw call. Limited by the unsigned short indices.
+     */
+    public static final int QUAD_CAPACITY = 4096;
+
+    /**
+     * Number of bytes for each vertex, a two component position and texture coordinate followed by an RGBA color.
+     */
+    private static final int VERTEX_STRIDE = 2 * 4 + 2 * 4 + 4;
+
+    /**
+     * Byte offset of the texture coordinate in each vertex.
+     */
+    private static final int TEXTURE_COORD_OFFSET = 2 * 4;
+
+    /**
+     * Byte offset of the color in each vertex.
+     */
+    private static final int COLOR_OFFSET = 4 * 4;
+
+    /**
+     * Sprite batch instance.
+     */
+    private static SpriteBatch instance = null;
+
+    /**
+     * Client side vertex data of the quads in the current batch.
+     */
+    private final ByteBuffer vertices = BufferUtils.createByteBuffer(QUAD_CAPACITY * 4 * VERTEX_STRIDE);
+
+    /**
+     * OpenGL vertex buffer handle, or zero if the buffer hasn't been created yet.
+     */
+    private int vboHandle = 0;
+
+    /**
+     * OpenGL index buffer handle, or zero if the buffer hasn't been created yet.
+     */
+    private int iboHandle = 0;
+
+    /**
+     * Number of quads in the current batch.
+     */
+    private int quadCount = 0;
+
+    /**
+     * Shader of the current batch, or null to draw without a shader.
+     */
+    private Shader shader = null;
+
+    /**
+     * Texture of the current batch, or null to draw untextured quads.
+     */
+    private Texture texture = null;
+
+    /**
+     * Number of draw calls since the batch began.
+     */
+    private int drawCalls = 0;
+
+    /**
+     * Number of quads drawn since the batch began.
+     */
+    private int drawnQuads = 0;
+
+    /**
+     * Number of draw calls in the last finished frame.
+     */
+    private int lastDrawCalls = 0;
+
+    /**
+     * Number of quads drawn in the last finished frame.
+     */
+    private int lastDrawnQuads = 0;
+
+    /**
+     * Identity texture coordinate scale, sent to batched shaders.
+     */
+    private final Vector2f identityScale = Vector2fFactory.one();
+
+    /**
+     * Identity texture coordinate offset, sent to batched shaders.
+     */
+    private final Vector2f identityOffset = Vector2fFactory.zero();
+
+    /**
+     * White color, sent to batched shaders.
+     */
+    private final Vector4f white = Vector4fFactory.one();
+
+    /**
+     * Get the sprite batch instance.
+     *
+     * @return Sprite batch instance.
+     */
+    public static SpriteBatch getInstance() {
+        // Return the instance if it does exist
+        if(instance != null)
+            return instance;
+
+        // Create an instance, then store and return it
+        instance = new SpriteBatch();
+        return instance;
+    }
+
+    /**
+     * Begin a new frame of batched quads, and reset the statistics.
+     */
+    public void begin() {
+        this.vertices.clear();
+        this.quadCount = 0;
+        this.shader = null;
+        this.texture = null;
+        this.drawCalls = 0;
+        this.drawnQuads = 0;
+    }
+
+    /**
+     * Draw the remaining quads, and finish the frame.
+     */
+    public void end() {
+        flush();
+        this.lastDrawCalls = this.drawCalls;
+        this.lastDrawnQuads = this.drawnQuads;
+    }
+
+    /**
+     * Add an untextured quad to the batch.
+     *
+     * @param x Quad X position.
+     * @param y Quad Y position.
+     * @param w Quad width.
+     * @param h Quad height.
+     * @param color Quad color.
+     */
+    public void draw(float x, float y, float w, float h, Color color) {
+        draw(null, null, x, y, w, h, 0f, 0f, 1f, 1f, color.getRed(), color.getGreen(), color.getBlue(), color.getAlpha());
+    }
+
+    /**
+     * Add a quad showing the texture of the given material to the batch.
+     * The tiling and texture region of the material are applied to the texture coordinates of the quad. Batched quads
+     * can't repeat inside a texture region, so tiling a region runs into it's neighbours and only whole textures should be
+     * tiled.
+     *
+     * @param material Material, with it's texture and shader.
+     * @param x Quad X position.
+     * @param y Quad Y position.
+     * @param w Quad width.
+     * @param h Quad height.
+     * @param color Quad color.
+     */
+    public void draw(Material material, float x, float y, float w, float h, Color color) {
+        // Map the texture coordinates onto the tiled texture region
+        final Vector2f offset = material.getTextureOffset();
+        final Vector2f scale = material.getTextureScale();
+        final Vector2f tiling = material.getTiling();
+        draw(material.getShader(), material.getTexture(), x, y, w, h,
+                offset.x, offset.y, offset.x + tiling.x * scale.x, offset.y + tiling.y * scale.y,
+                color.getRed(), color.getGreen(), color.getBlue(), color.getAlpha());
+    }
+
+    /**
+     * Add a quad to the batch.
+     * The batch is drawn first if it's full, or if the shader or texture differs from the quads in the batch.
+     * The first texture coordinate maps to the top left corner of the quad, the second to the bottom right.
+     *
+     * @param shader Shader to draw the quad with, or null to draw without a shader.
+     * @param texture Texture to draw the quad with, or null to draw an untextured quad.
+     * @param x Quad X position.
+     * @param y Quad Y position.
+     * @param w Quad width.
+     * @param h Quad height.
+     * @param u0 Left texture coordinate.
+     * @param v0 Top texture coordinate.
+     * @param u1 Right texture coordinate.
+     * @param v1 Bottom texture coordinate.
+     * @param r Red channel intensity.
+     * @param g Green channel intensity.
+     * @param b Blue channel intensity.
+     * @param a Alpha channel intensity.
+     */
+    public void draw(Shader shader, Texture texture, float x, float y, float w, float h,
+                     float u0, float v0, float u1, float v1, float r, float g, float b, float a) {
+        // Draw the current batch if the state changes or if it's full
+        if(shader != this.shader || texture != this.texture || this.quadCount >= QUAD_CAPACITY) {
+            flush();
+            this.shader = shader;
+            this.texture = texture;
+        }
+
+        // Pack the color
+        final int color = (int) (clamp(r) * 255f + .5f) | (int) (clamp(g) * 255f + .5f) << 8
+                | (int) (clamp(b) * 255f + .5f) << 16 | (int) (clamp(a) * 255f + .5f) << 24;
+
+        // Write the bottom left, bottom right, top right and top left vertices
+        putVertex(x, y, u0, v1, color);
+        putVertex(x + w, y, u1, v1, color);
+        putVertex(x + w, y + h, u1, v0, color);
+        putVertex(x, y + h, u0, v0, color);
+        this.quadCount++;
+    }
+
+    /**
+     * Draw the quads in the current batch with a single draw call.
+     * Must be called before drawing anything without the batch, to keep the drawing order.
+     *
+     * The vertex colors and texture coordinates hold the color, tiling and texture region of each quad, so the
+     * matching uniforms of the shader are reset to identity.
+     */
+    public void flush() {
+        // Skip if there's nothing to draw
+        if(this.quadCount == 0)
+            return;
+
+        // Create the buffers if they haven't been created yet
+        if(this.vboHandle == 0)
+            createBuffers();
+
+        // Unbind any mesh vertex array, so the vertex state below isn't recorded into it
+        Mesh.unbindVertexArray();
+
+        // Upload the vertices, and orphan the previous storage so the driver doesn't have to wait for the last draw
+        this.vertices.flip();
+        GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, this.vboHandle);
+        GL15.glBufferData(GL15.GL_ARRAY_BUFFER, this.vertices.capacity(), GL15.GL_STREAM_DRAW);
+        GL15.glBufferSubData(GL15.GL_ARRAY_BUFFER, 0, this.vertices);
+
+        // Bind the shader and texture
+        if(this.shader != null) {
+            this.shader.bind();
+            this.shader.setUniform2f("tiling", this.identityScale);
+            this.shader.setUniform2f("textureOffset", this.identityOffset);
+            this.shader.setUniform2f("textureScale", this.identityScale);
+            this.shader.setUniform4f("color", this.white);
+        }
+        if(this.texture != null)
+            this.texture.bind(GL13.GL_TEXTURE0);
+        else
+            Texture.unbind();
+
+        // Bind the vertex attributes
+        GL11.glEnableClientState(GL11.GL_VERTEX_ARRAY);
+        GL11.glEnableClientState(GL11.GL_TEXTURE_COORD_ARRAY);
+        GL11.glEnableClientState(GL11.GL_COLOR_ARRAY);
+        GL11.glVertexPointer(2, GL11.GL_FLOAT, VERTEX_STRIDE, 0L);
+        GL11.glTexCoordPointer(2, GL11.GL_FLOAT, VERTEX_STRIDE, TEXTURE_COORD_OFFSET);
+        GL11.glColorPointer(4, GL11.GL_UNSIGNED_BYTE, VERTEX_STRIDE, COLOR_OFFSET);
+
+        // Draw the quads
+        GL15.glBindBuffer(GL15.GL_ELEMENT_ARRAY_BUFFER, this.iboHandle);
+        GL11.glDrawElements(GL11.GL_TRIANGLES, this.quadCount * 6, GL11.GL_UNSIGNED_SHORT, 0L);
+
+        // Reset the state, the current color is undefined after drawing with a color array
+        GL11.glDisableClientState(GL11.GL_VERTEX_ARRAY);
+        GL11.glDisableClientState(GL11.GL_TEXTURE_COORD_ARRAY);
+        GL11.glDisableClientState(GL11.GL_COLOR_ARRAY);
+        GL11.glColor4f(1f, 1f, 1f, 1f);
+        GL15.glBindBuffer(GL15.GL_ELEMENT_ARRAY_BUFFER, 0);
+        GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, 0);
+        if(this.texture != null)
+            Texture.unbind();
+        if(this.shader != null)
+            this.shader.unbind();
+
+        // Update the statistics, and clear the batch
+        this.drawCalls++;
+        this.drawnQuads += this.quadCount;
+        this.vertices.clear();
+        this.quadCount = 0;
+    }
+
+    /**
+     * Get the number of draw calls in the last finished frame.
+     *
+     * @return Draw call count.
+     */
+    public int getDrawCallCount() {
+        return this.lastDrawCalls;
+    }
+
+    /**
+     * Get the number of quads drawn in the last finished frame.
+     *
+     * @return Quad count.
+     */
+    public int getQuadCount() {
+        return this.lastDrawnQuads;
+    }
+
+    /**
+     * Delete the OpenGL buffers.
+     */
+    public void dispose() {
+        if(this.vboHandle != 0)
+            GL15.glDeleteBuffers(this.vboHandle);
+        if(this.iboHandle != 0)
+            GL15.glDeleteBuffers(this.iboHandle);
+        this.vboHandle = 0;
+        this.iboHandle = 0;
+    }
+
+    /**
+     * Create the vertex buffer, and the static index buffer holding two triangles for each quad.
+     */
+    private void createBuffers() {
+        // Create the vertex buffer
+        this.vboHandle = GL15.glGenBuffers();
+
+        // Build the indices of each quad
+        final ShortBuffer indices = BufferUtils.createShortBuffer(QUAD_CAPACITY * 6);
+        for(int quad = 0; quad < QUAD_CAPACITY; quad++) {
+            final int vertex = quad * 4;
+            indices.put((short) vertex).put((short) (vertex + 1)).put((short) (vertex + 2))
+                    .put((short) (vertex + 2)).put((short) (vertex + 3)).put((short) vertex);
+        }
+        indices.flip();
+
+        // Create and fill the index buffer
+        this.iboHandle = GL15.glGenBuffers();
+        GL15.glBindBuffer(GL15.GL_ELEMENT_ARRAY_BUFFER, this.iboHandle);
+        GL15.glBufferData(GL15.GL_ELEMENT_ARRAY_BUFFER, indices, GL15.GL_STATIC_DRAW);
+        GL15.glBindBuffer(GL15.GL_ELEMENT_ARRAY_BUFFER, 0);
+    }
+
+    /**
+     * Write a vertex to the batch.
+     *
+     * @param x Vertex X position.
+     * @param y Vertex Y position.
+     * @param u Texture coordinate U.
+     * @param v Texture coordinate V.
+     * @param color Packed color, with the red channel in the lowest byte.
+     */
+    private void putVertex(float x, float y, float u, float v, int color) {
+        this.vertices.putFloat(x).putFloat(y).putFloat(u).putFloat(v)
+                .put((byte) color).put((byte) (color >> 8)).put((byte) (color >> 16)).put((byte) (color >> 24));
+    }
+
+    /**
+     * Clamp a color channel intensity between zero and one.
+     *
+     * @param value Channel intensity.
+     *
+     * @return Clamped intensity.
+     */
+    private static float clamp(float value) {
+        return Math.min(Math.max(value, 0f), 1f);
+    }
+}
@@ -62,6 +62,11 @@ public class ResourceLoader implements ResourceLoaderInterface {
         return RELATIVE_BASE_PATH;
     }
 
+    @Override
+    public boolean hasResource(String path) {
+        return System.class.getResource(getBasePath() + path) != null;
+    }
+
     @Override
     public InputStream loadResourceStream(String path) {
         // Show a loading message in the console
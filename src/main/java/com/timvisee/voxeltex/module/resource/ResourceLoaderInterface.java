@@ -34,6 +34,15 @@ public interface ResourceLoaderInterface {
      */
     String getBasePath();
 
+    /**
+     * Check whether a resource exists.
+     *
+     * @param path Path of the resource.
+     *
+     * @return True if the resource exists, false if not.
+     */
+    boolean hasResource(String path);
+
     /**
      * Load a resource as stream.
      *
@@ -22,10 +22,14 @@
 
 package com.timvisee.voxeltex.module.resource.bundle;
 
+import com.timvisee.voxeltex.module.asset.AssetHandle;
+import com.timvisee.voxeltex.module.asset.AssetManager;
 import com.timvisee.voxeltex.module.material.Material;
-import com.timvisee.voxeltex.module.texture.Image;
 import com.timvisee.voxeltex.module.texture.Texture;
 
+import java.util.ArrayList;
+import java.util.List;
+
 public class EngineResourceBundle implements ResourceBundleInterface {
 
     /**
@@ -33,6 +37,11 @@ public class EngineResourceBundle implements ResourceBundleInterface {
      */
     private static EngineResourceBundle instance = new EngineResourceBundle();
 
+    /**
+     * Handles of the assets loaded by this bundle.
+     */
+    private final List<AssetHandle<?>> handles = new ArrayList<>();
+
     public Texture TEXTURE_BOX;
     public Material MATERIAL_BOX;
     public Texture TEXTURE_GROUND;
@@ -66,30 +75,22 @@ public class EngineResourceBundle implements ResourceBundleInterface {
         // Show a status message
         System.out.println("Disposing engine resources...");
 
-        // Dispose all resources
-        this.TEXTURE_BOX.dispose();
-        this.TEXTURE_GROUND.dispose();
+        // Release all resources, the asset manager disposes them once they're evicted
+        for(AssetHandle<?> handle : this.handles)
+            handle.release();
+        this.handles.clear();
     }
 
     /**
-     * Load a texture from engine resources.
+     * Load a texture from engine resources through the asset manager, and keep a reference to it.
      *
      * @param path Image resource path.
      *
      * @return Texture.
      */
     private Texture loadEngineTexture(String path) {
-        return Texture.fromImage(loadEngineImage(path));
-    }
-
-    /**
-     * Load an image from engine resources.
-     *
-     * @param path Image resource path.
-     *
-     * @return Image.
-     */
-    private Image loadEngineImage(String path) {
-        return Image.loadFromEngineAssets(path);
+        final AssetHandle<Texture> handle = AssetManager.getInstance().loadNow(path, AssetManager.TEXTURE);
+        this.handles.add(handle);
+        return handle.getNow();
     }
 }
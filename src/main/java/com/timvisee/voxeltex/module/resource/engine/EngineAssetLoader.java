@@ -22,8 +22,27 @@
 
 package com.timvisee.voxeltex.module.resource.engine;
 
+import com.timvisee.voxeltex.module.resource.pack.AssetPack;
+import com.timvisee.voxeltex.module.resource.pack.PackResourceLoader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.CodeSource;
+
 public class EngineAssetLoader extends EngineResourceLoader {
 
+    /**
+     * File name of the engine asset pack.
+     * The pack is looked up in the working directory, and next to the engine jar or class directory where the
+     * compile-assets build profile writes it.
+     */
+    public static final String DEFAULT_PACK_PATH = "assets" + AssetPack.FILE_EXTENSION;
+
     /**
      * Relative base path.
      */
@@ -34,6 +53,11 @@ public class EngineAssetLoader extends EngineResourceLoader {
      */
     private static EngineAssetLoader instance;
 
+    /**
+     * Loader for the mounted asset pack, or null if no pack is mounted.
+     */
+    private PackResourceLoader packLoader = null;
+
     /**
      * Get a resource loader instance.
      *
@@ -53,5 +77,122 @@ public class EngineAssetLoader extends EngineResourceLoader {
     public String getBasePath() {
         return super.getBasePath() + RELATIVE_BASE_PATH;
     }
+
+    /**
+     * Mount the given asset pack.
+     * Assets are loaded from the pack if it contains them, other assets are still loaded from the class path.
+     *
+     * @param pack Asset pack, or null to unmount the current pack.
+     */
+    public void mountPack(AssetPack pack) {
+        this.packLoader = pack != null ? new PackResourceLoader(pack, "") : null;
+    }
+
+    /**
+     * Mount the engine asset pack at {@link #DEFAULT_PACK_PATH} if it exists.
+     *
+     * @return True if the pack has been mounted, false if it doesn't exist or failed to open.
+     */
+    public boolean mountDefaultPack() {
+        // Find the pack
+        final Path path = findDefaultPack();
+        if(path == null) {
+            System.out.println("No asset pack found, loading assets from the class path.");
+            return false;
+        }
+
+        try {
+            // Open and mount the pack
+            final AssetPack pack = AssetPack.open(path);
+            mountPack(pack);
+            System.out.println("Mounted asset pack with " + pack.getEntryCount() + " assets: " + path);
+            return true;
+
+        } catch(IOException e) {
+            e.printStackTrace();
+        }
+
+        // Failed, return false
+        return false;
+    }
+
+    /**
+     * Find the engine asset pack, in the working directory or next to the engine jar or class directory.
+     *
+     * @return Path of the pack, or null if it doesn't exist.
+     */
+    private static Path findDefaultPack() {
+        // Look in the working directory
+        final Path workingPath = Paths.get(DEFAULT_PACK_PATH);
+        if(Files.isRegularFile(workingPath))
+            return workingPath;
+
+        // Look next to the engine jar or class directory
+        final CodeSource source = EngineAssetLoader.class.getProtectionDomain().getCodeSource();
+        if(source == null || source.getLocation() == null)
+            return null;
+        try {
+            final Path sourcePath = Paths.get(source.getLocation().toURI()).resolveSibling(DEFAULT_PACK_PATH);
+            return Files.isRegularFile(sourcePath) ? sourcePath : null;
+
+        } catch(URISyntaxException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Get the mounted asset pack.
+     *
+     * @return Asset pack, or null if no pack is mounted.
+     */
+    public AssetPack getMountedPack() {
+        return this.packLoader != null ? this.packLoader.getPack() : null;
+    }
+
+    /**
+     * Check whether the given asset is loaded from the mounted asset pack.
+     *
+     * @param path Path of the asset.
+     *
+     * @return True if it's in the mounted pack, false if not.
+     */
+    public boolean isPacked(String path) {
+        return this.packLoader != null && this.packLoader.hasResource(path);
+    }
+
+    @Override
+    public boolean hasResource(String path) {
+        return isPacked(path) || super.hasResource(path);
+    }
+
+    @Override
+    public InputStream loadResourceStream(String path) {
+        return isPacked(path) ? this.packLoader.loadResourceStream(path) : super.loadResourceStream(path);
+    }
+
+    @Override
+    public String loadResourceString(String path) {
+        return isPacked(path) ? this.packLoader.loadResourceString(path) : super.loadResourceString(path);
+    }
+
+    @Override
+    public ByteBuffer loadResourceByteBuffer(String path) {
+        return isPacked(path) ? this.packLoader.loadResourceByteBuffer(path) : super.loadResourceByteBuffer(path);
+    }
+
+    /**
+     * Get the path of the baked variant of an asset, if it has been baked by the asset compiler.
+     * Baked variants are stored next to their source asset, with the baked extension appended to the file name.
+     * Loaders should prefer the baked variant when one exists.
+     *
+     * @param path Path of the source asset.
+     * @param bakedExtension Extension of the baked format, including the dot.
+     *
+     * @return Path of the baked variant, or null if the asset hasn't been baked.
+     */
+    public String getBakedPath(String path, String bakedExtension) {
+        final String bakedPath = path + bakedExtension;
+        return hasResource(bakedPath) ? bakedPath : null;
+    }
 }
 
@@ -0,0 +1,341 @@
+/******************************************************************************
+ * Copyright (c) Tim Visee 2016. All rights reserved.                         *
+ *                                                                            *
+ * @author Tim Visee                                                          *
+ * @website http://timvisee.com/                                              *
+ *                                                                            *
+ * Open Source != No Copyright                                                *
+ *                                                                            *
+ * Permission is hereby granted, free of charge, to any person obtaining a    *
+ * copy of this software and associated documentation files (the "Software"), *
+ * to deal in the Software without restriction, including without limitation  *
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,   *
+ * and/or sell copies of the Software, and to permit persons to whom the      *
+ * Software is furnished to do so, subject to the following conditions:       *
+ *                                                                            *
+ * The above copyright notice and this permission notice shall be included    *
+ * in all copies or substantial portions of the Software.                     *
+ *                                                                            *
+ * You should have received a copy of The MIT License (MIT) along with this   *
+ * program. If not, see <http://opensource.org/licenses/MIT/>.                *
+ ******************************************************************************/
+
+package com.timvisee.voxeltex.module.resource.pack;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+public class AssetPack {
+
+    /**
+     * File extension of asset pack archives.
+     */
+    public static final String FILE_EXTENSION = ".vtpak";
+
+    /**
+     * Magic number at the start of each asset pack, the bytes "VTPK" read as little endian integer.
+     */
+    public static final int MAGIC = 0x4B505456;
+
+    /**
+     * Current version of the asset pack format.
+     */
+    public static final int VERSION = 1;
+
+    /**
+     * Size of the fixed file header in bytes.
+     */
+    public static final int HEADER_SIZE = 16;
+
+    /**
+     * Size of each entry in the entry table in bytes.
+     */
+    public static final int ENTRY_SIZE = 24;
+
+    /**
+     * Alignment of the entry data in the archive, in bytes.
+     */
+    public static final int DATA_ALIGNMENT = 16;
+
+    /**
+     * Compression type of entries that are stored as is.
+     */
+    public static final int COMPRESSION_NONE = 0;
+
+    /**
+     * Compression type of entries that are compressed with deflate.
+     */
+    public static final int COMPRESSION_DEFLATE = 1;
+
+    /**
+     * The mapped archive.
+     */
+    private final ByteBuffer data;
+
+    /**
+     * Paths of all entries, sorted to allow binary searching.
+     */
+    private final String[] paths;
+
+    /**
+     * Offset of the data of each entry in the archive, in the order of the paths.
+     */
+    private final int[] offsets;
+
+    /**
+     * Stored size of each entry in bytes, in the order of the paths.
+     */
+    private final int[] sizes;
+
+    /**
+     * Uncompressed size of each entry in bytes, in the order of the paths.
+     */
+    private final int[] uncompressedSizes;
+
+    /**
+     * Compression type of each entry, in the order of the paths.
+     */
+    private final int[] compressions;
+
+    /**
+     * Constructor.
+     *
+     * @param data The archive data.
+     * @param paths Sorted entry paths.
+     * @param offsets Entry data offsets.
+     * @param sizes Stored entry sizes.
+     * @param uncompressedSizes Uncompressed entry sizes.
+     * @param compressions Entry compression types.
+     */
+    private AssetPack(ByteBuffer data, String[] paths, int[] offsets, int[] sizes, int[] uncompressedSizes, int[] compressions) {
+        this.data = data;
+        this.paths = paths;
+        this.offsets = offsets;
+        this.sizes = sizes;
+        this.uncompressedSizes = uncompressedSizes;
+        this.compressions = compressions;
+    }
+
+    /**
+     * Open an asset pack by memory mapping the given file.
+     * The archive is mapped once, entries are read from the mapping without copying.
+     *
+     * @param path Path of the archive file.
+     *
+     * @return Asset pack.
+     *
+     * @throws IOException Thrown if the file couldn't be mapped, or isn't a valid asset pack.
+     */
+    public static AssetPack open(Path path) throws IOException {
+        try(FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // Make sure the file can be mapped at once
+            if(channel.size() > Integer.MAX_VALUE)
+                throw new IOException("Asset pack is too large to map: " + path);
+
+            // Map and read the archive, the mapping stays valid after the channel is closed
+            return read(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Read an asset pack from the remaining bytes of the given buffer.
+     * The buffer is used as backing storage for the entries and must not be modified afterwards.
+     *
+     * The archive starts with a little endian header holding the magic number, version, number of entries and the
+     * size of the path table. It's followed by the entry table, sorted by path, in which each entry holds the offset
+     * and length of it's UTF-8 path in the path table, the offset of it's data, the stored size, the uncompressed size
+     * and the compression type. The path table and the aligned entry data follow.
+     *
+     * @param buffer Buffer holding the archive.
+     *
+     * @return Asset pack.
+     *
+     * @throws IOException Thrown if the buffer doesn't hold a valid asset pack.
+     */
+    public static AssetPack read(ByteBuffer buffer) throws IOException {
+        // Create a little endian view of the buffer, positioned at the start of the archive
+        final ByteBuffer data = buffer.slice().order(ByteOrder.LITTLE_ENDIAN);
+        if(data.remaining() < HEADER_SIZE)
+            throw new IOException("Invalid asset pack, file is too small");
+
+        // Read and validate the header
+        if(data.getInt() != MAGIC)
+            throw new IOException("Invalid asset pack, magic number mismatch");
+        final int version = data.getInt();
+        if(version != VERSION)
+            throw new IOException("Unsupported asset pack version: " + version);
+        final int entryCount = data.getInt();
+        final int pathTableSize = data.getInt();
+        final long pathTableOffset = HEADER_SIZE + (long) entryCount * ENTRY_SIZE;
+        if(entryCount < 0 || pathTableSize < 0 || pathTableOffset + pathTableSize > data.limit())
+            throw new IOException("Invalid asset pack header");
+
+        // Read the entry table
+        final String[] paths = new String[entryCount];
+        final int[] offsets = new int[entryCount];
+        final int[] sizes = new int[entryCount];
+        final int[] uncompressedSizes = new int[entryCount];
+        final int[] compressions = new int[entryCount];
+        final byte[] pathBytes = new byte[pathTableSize];
+        ((ByteBuffer) data.duplicate().position((int) pathTableOffset)).get(pathBytes);
+        for(int i = 0; i < entryCount; i++) {
+            // Read the entry fields
+            final int pathOffset = data.getInt();
+            final int pathLength = data.getInt();
+            offsets[i] = data.getInt();
+            sizes[i] = data.getInt();
+            uncompressedSizes[i] = data.getInt();
+            compressions[i] = data.getInt();
+
+            // Validate the entry
+            if(pathOffset < 0 || pathLength < 0 || pathOffset + pathLength > pathTableSize
+                    || offsets[i] < 0 || sizes[i] < 0 || (long) offsets[i] + sizes[i] > data.limit()
+                    || (compressions[i] != COMPRESSION_NONE && compressions[i] != COMPRESSION_DEFLATE))
+                throw new IOException("Invalid asset pack, entry " + i + " is corrupt");
+
+            // Decode the path, and make sure the table is sorted
+            paths[i] = new String(pathBytes, pathOffset, pathLength, StandardCharsets.UTF_8);
+            if(i > 0 && paths[i - 1].compareTo(paths[i]) >= 0)
+                throw new IOException("Invalid asset pack, entry table isn't sorted");
+        }
+
+        // Create the asset pack
+        return new AssetPack(data, paths, offsets, sizes, uncompressedSizes, compressions);
+    }
+
+    /**
+     * Get the number of entries in this pack.
+     *
+     * @return Entry count.
+     */
+    public int getEntryCount() {
+        return this.paths.length;
+    }
+
+    /**
+     * Get the path of the entry at the given index.
+     *
+     * @param index Entry index.
+     *
+     * @return Entry path.
+     */
+    public String getPath(int index) {
+        return this.paths[index];
+    }
+
+    /**
+     * Find the index of the entry with the given path.
+     *
+     * @param path Entry path.
+     *
+     * @return Entry index, or a negative number if the pack doesn't contain the entry.
+     */
+    public int indexOf(String path) {
+        return Arrays.binarySearch(this.paths, path);
+    }
+
+    /**
+     * Check whether this pack contains an entry with the given path.
+     *
+     * @param path Entry path.
+     *
+     * @return True if the entry exists, false if not.
+     */
+    public boolean hasEntry(String path) {
+        return indexOf(path) >= 0;
+    }
+
+    /**
+     * Check whether the entry at the given index is compressed.
+     *
+     * @param index Entry index.
+     *
+     * @return True if compressed, false if it's stored as is.
+     */
+    public boolean isCompressed(int index) {
+        return this.compressions[index] != COMPRESSION_NONE;
+    }
+
+    /**
+     * Get the uncompressed size of the entry at the given index.
+     *
+     * @param index Entry index.
+     *
+     * @return Size in bytes.
+     */
+    public int getSize(int index) {
+        return this.uncompressedSizes[index];
+    }
+
+    /**
+     * Get the data of the entry with the given path.
+     *
+     * @param path Entry path.
+     *
+     * @return Entry data, or null if the pack doesn't contain the entry.
+     *
+     * @throws IOException Thrown if the entry data is corrupt.
+     */
+    public ByteBuffer getEntry(String path) throws IOException {
+        // Find the entry
+        final int index = indexOf(path);
+        if(index < 0)
+            return null;
+
+        // Get the entry data
+        return getEntry(index);
+    }
+
+    /**
+     * Get the data of the entry at the given index.
+     * Entries that are stored as is are returned as slice of the mapped archive, without copying any data.
+     * Compressed entries are inflated into a new direct buffer.
+     *
+     * @param index Entry index.
+     *
+     * @return Entry data.
+     *
+     * @throws IOException Thrown if the entry data is corrupt.
+     */
+    public ByteBuffer getEntry(int index) throws IOException {
+        // Slice the stored data
+        final ByteBuffer view = this.data.duplicate();
+        view.limit(this.offsets[index] + this.sizes[index]).position(this.offsets[index]);
+        final ByteBuffer stored = view.slice();
+
+        // Return the slice if the entry isn't compressed
+        if(this.compressions[index] == COMPRESSION_NONE)
+            return stored;
+
+        // Inflate the entry
+        final byte[] compressed = new byte[this.sizes[index]];
+        stored.get(compressed);
+        final byte[] uncompressed = new byte[this.uncompressedSizes[index]];
+        final Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            if(inflater.inflate(uncompressed) != uncompressed.length || !inflater.finished())
+                throw new IOException("Invalid asset pack, entry size mismatch: " + this.paths[index]);
+
+        } catch(DataFormatException e) {
+            throw new IOException("Invalid asset pack, entry is corrupt: " + this.paths[index], e);
+
+        } finally {
+            inflater.end();
+        }
+
+        // Put the inflated data in a direct buffer
+        final ByteBuffer buffer = ByteBuffer.allocateDirect(uncompressed.length);
+        buffer.put(uncompressed);
+        buffer.flip();
+        return buffer;
+    }
+}
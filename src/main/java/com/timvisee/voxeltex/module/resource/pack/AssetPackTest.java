@@ -0,0 +1,209 @@
+/******************************************************************************
+ * Copyright (c) Tim Visee 2016. All rights reserved.                         *
+ *                                                                            *
+ * @author Tim Visee                                                          *
+ * @website http://timvisee.com/                                              *
+ *                                                                            *
+ * Open Source != No Copyright                                                *
+ *                                                                            *
+ * Permission is hereby granted, free of charge, to any person obtaining a    *
+ * copy of this software and associated documentation files (the "Software"), *
+ * to deal in the Software without restriction, including without limitation  *
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,   *
+ * and/or sell copies of the Software, and to permit persons to whom the      *
+ * Software is furnished to do so, subject to the following conditions:       *
+ *                                                                            *
+ * The above copyright notice and this permission notice shall be included    *
+ * in all copies or substantial portions of the Software.                     *
+ *                                                                            *
+ * You should have received a copy of The MIT License (MIT) along with this   *
+ * program. If not, see <http://opensource.org/licenses/MIT/>.                *
+ ******************************************************************************/
+
+
+package com.timvisee.voxeltex.module.resource.pack;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class AssetPackTest {
+
+    /**
+     * Compressible text entry data.
+     */
+    private static final byte[] TEXT = repeat("voxeltex shader source line\n", 64);
+
+    /**
+     * Incompressible entry data.
+     */
+    private static final byte[] NOISE = noise(1000, 1);
+
+    /**
+     * Stored entry data, which is never compressed because of it's extension.
+     */
+    private static final byte[] MESH = repeat("mesh", 100);
+
+    @org.junit.Test
+    public void header() throws Exception {
+        // Build a pack, and check the little endian header fields
+        final ByteBuffer data = createWriter().build().order(ByteOrder.LITTLE_ENDIAN);
+        assertEquals(AssetPack.MAGIC, data.getInt(0));
+        assertEquals(AssetPack.VERSION, data.getInt(4));
+        assertEquals(3, data.getInt(8));
+        assertEquals("mesh/cube.vtmesh".length() + "shaders/default.frag".length() + "textures/noise.bin".length(),
+                data.getInt(12));
+    }
+
+    @org.junit.Test
+    public void entryTable() throws Exception {
+        // Read the pack, the entries must be sorted by path
+        final AssetPack pack = AssetPack.read(createWriter().build());
+        assertEquals(3, pack.getEntryCount());
+        assertEquals("mesh/cube.vtmesh", pack.getPath(0));
+        assertEquals("shaders/default.frag", pack.getPath(1));
+        assertEquals("textures/noise.bin", pack.getPath(2));
+
+        // Check the lookup
+        assertEquals(1, pack.indexOf("shaders/default.frag"));
+        assertTrue(pack.hasEntry("textures/noise.bin"));
+        assertFalse(pack.hasEntry("textures/missing.bin"));
+        assertNull(pack.getEntry("textures/missing.bin"));
+
+        // Only the compressible entry must be compressed, stored extensions and noise must not
+        assertFalse(pack.isCompressed(0));
+        assertTrue(pack.isCompressed(1));
+        assertFalse(pack.isCompressed(2));
+        assertEquals(TEXT.length, pack.getSize(1));
+    }
+
+    @org.junit.Test
+    public void payloads() throws Exception {
+        // Each entry must read back byte exact
+        final AssetPack pack = AssetPack.read(createWriter().build());
+        assertArrayEquals(MESH, toArray(pack.getEntry("mesh/cube.vtmesh")));
+        assertArrayEquals(TEXT, toArray(pack.getEntry("shaders/default.frag")));
+        assertArrayEquals(NOISE, toArray(pack.getEntry("textures/noise.bin")));
+    }
+
+    @org.junit.Test
+    public void alignment() throws Exception {
+        // Uncompressed entries are sliced from the pack, their data must start at an aligned offset
+        final ByteBuffer data = createWriter().build().order(ByteOrder.LITTLE_ENDIAN);
+        for(int i = 0; i < 3; i++) {
+            final int offset = data.getInt(AssetPack.HEADER_SIZE + i * AssetPack.ENTRY_SIZE + 8);
+            assertEquals(0, offset % AssetPack.DATA_ALIGNMENT);
+        }
+    }
+
+    @org.junit.Test
+    public void file() throws Exception {
+        // Write the pack to a file, and open it through a memory mapping
+        final Path path = Files.createTempFile("voxeltex", AssetPack.FILE_EXTENSION);
+        try {
+            createWriter().write(path);
+            final AssetPack pack = AssetPack.open(path);
+            assertEquals(3, pack.getEntryCount());
+            assertArrayEquals(TEXT, toArray(pack.getEntry("shaders/default.frag")));
+            assertArrayEquals(NOISE, toArray(pack.getEntry("textures/noise.bin")));
+
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    @org.junit.Test
+    public void invalid() throws Exception {
+        // A corrupt magic number must be rejected
+        final ByteBuffer magic = createWriter().build();
+        magic.put(0, (byte) 0);
+        assertInvalid(magic);
+
+        // An unknown version must be rejected
+        final ByteBuffer version = createWriter().build().order(ByteOrder.LITTLE_ENDIAN);
+        version.putInt(4, AssetPack.VERSION + 1);
+        assertInvalid(version);
+
+        // A truncated pack must be rejected
+        final ByteBuffer truncated = createWriter().build();
+        truncated.limit(truncated.limit() - 1);
+        assertInvalid(truncated);
+    }
+
+    /**
+     * Create a pack writer with a compressible, an incompressible and a stored entry.
+     *
+     * @return Pack writer.
+     */
+    private static AssetPackWriter createWriter() {
+        final AssetPackWriter writer = new AssetPackWriter();
+        writer.addEntry("textures/noise.bin", NOISE);
+        writer.addEntry("shaders/default.frag", TEXT);
+        writer.addEntry("mesh/cube.vtmesh", MESH);
+        return writer;
+    }
+
+    /**
+     * Assert that reading the given pack data fails.
+     *
+     * @param data Pack data.
+     */
+    private static void assertInvalid(ByteBuffer data) {
+        try {
+            AssetPack.read(data);
+            fail("Invalid asset pack was read");
+        } catch(IOException ignored) { }
+    }
+
+    /**
+     * Copy the remaining bytes of the given buffer into an array.
+     *
+     * @param buffer Buffer.
+     *
+     * @return Byte array.
+     */
+    private static byte[] toArray(ByteBuffer buffer) {
+        final byte[] bytes = new byte[buffer.remaining()];
+        buffer.duplicate().get(bytes);
+        return bytes;
+    }
+
+    /**
+     * Create data holding the given text a number of times.
+     *
+     * @param text Text.
+     * @param count Number of repetitions.
+     *
+     * @return Data.
+     */
+    private static byte[] repeat(String text, int count) {
+        final StringBuilder builder = new StringBuilder();
+        for(int i = 0; i < count; i++)
+            builder.append(text);
+        return builder.toString().getBytes();
+    }
+
+    /**
+     * Create random data.
+     *
+     * @param size Data size.
+     * @param seed Random seed.
+     *
+     * @return Data.
+     */
+    private static byte[] noise(int size, long seed) {
+        final byte[] bytes = new byte[size];
+        new Random(seed).nextBytes(bytes);
+        return bytes;
+    }
+}
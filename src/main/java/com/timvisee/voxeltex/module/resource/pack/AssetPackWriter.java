@@ -0,0 +1,219 @@
+/******************************************************************************
+ * Copyright (c) Tim Visee 2016. All rights reserved.                         *
+ *                                                                            *
+ * @author Tim Visee                                                          *
+ * @website http://timvisee.com/                                              *
+ *                                                                            *
+ * Open Source != No Copyright                                                *
+ *                                                                            *
+ * Permission is hereby granted, free of charge, to any person obtaining a    *
+ * copy of this software and associated documentation files (the "Software"), *
+ * to deal in the Software without restriction, including without limitation  *
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,   *
+ * and/or sell copies of the Software, and to permit persons to whom the      *
+ * Software is furnished to do so, subject to the following conditions:       *
+ *                                                                            *
+ * The above copyright notice and this permission notice shall be included    *
+ * in all copies or substantial portions of the Software.                     *
+ *                                                                            *
+ * You should have received a copy of The MIT License (MIT) along with this   *
+ * program. If not, see <http://opensource.org/licenses/MIT/>.                *
+ ******************************************************************************/
+
+package com.timvisee.voxeltex.module.resource.pack;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+
+public class AssetPackWriter {
+
+    /**
+     * Extensions of files that are always stored as is, because they're loaded straight from the mapping or are
+     * compressed already.
+     */
+    private static final String[] STORED_EXTENSIONS = {".vtmesh", ".vtimg", ".vtfont", ".vtatlas", ".png", ".jpg", ".jpeg", ".gif"};
+
+    /**
+     * Entries are only compressed if that saves at least this fraction of their size.
+     */
+    private static final float MIN_COMPRESSION_SAVING = 0.1f;
+
+    /**
+     * Entries in the pack, by path.
+     */
+    private final TreeMap<String, byte[]> entries = new TreeMap<>();
+
+    /**
+     * Add an entry to the pack.
+     *
+     * @param path Entry path, with forward slashes.
+     * @param data Entry data.
+     */
+    public void addEntry(String path, byte[] data) {
+        this.entries.put(path, data);
+    }
+
+    /**
+     * Add all files in the given directory to the pack, recursively.
+     * Files starting with a dot are skipped. The entry paths are relative to the directory.
+     *
+     * @param directory Directory to add.
+     *
+     * @throws IOException Thrown if the files couldn't be read.
+     */
+    public void addDirectory(Path directory) throws IOException {
+        // Collect the files
+        final List<Path> files;
+        try(Stream<Path> walk = Files.walk(directory)) {
+            files = walk.filter(Files::isRegularFile)
+                    .filter(file -> !file.getFileName().toString().startsWith("."))
+                    .collect(Collectors.toList());
+        }
+
+        // Add each file
+        for(Path file : files)
+            addEntry(directory.relativize(file).toString().replace('\\', '/'), Files.readAllBytes(file));
+    }
+
+    /**
+     * Build the pack in the asset pack format.
+     * See {@link AssetPack#read(ByteBuffer)} for a description of the layout.
+     *
+     * @return Pack data, ready for writing.
+     */
+    public ByteBuffer build() {
+        // Encode the paths, and compress the entries where worthwhile
+        final int entryCount = this.entries.size();
+        final List<byte[]> paths = new ArrayList<>(entryCount);
+        final List<byte[]> stored = new ArrayList<>(entryCount);
+        final int[] uncompressedSizes = new int[entryCount];
+        final int[] compressions = new int[entryCount];
+        int pathTableSize = 0;
+        int index = 0;
+        for(String path : this.entries.keySet()) {
+            // Encode the path
+            final byte[] pathBytes = path.getBytes(StandardCharsets.UTF_8);
+            paths.add(pathBytes);
+            pathTableSize += pathBytes.length;
+
+            // Compress the data if allowed and it's worth it
+            final byte[] data = this.entries.get(path);
+            final byte[] compressed = isStored(path) ? null : deflate(data);
+            final boolean compress = compressed != null && compressed.length < data.length * (1f - MIN_COMPRESSION_SAVING);
+            stored.add(compress ? compressed : data);
+            uncompressedSizes[index] = data.length;
+            compressions[index] = compress ? AssetPack.COMPRESSION_DEFLATE : AssetPack.COMPRESSION_NONE;
+            index++;
+        }
+
+        // Determine the offset of each entry
+        final int[] offsets = new int[entryCount];
+        int size = AssetPack.HEADER_SIZE + entryCount * AssetPack.ENTRY_SIZE + pathTableSize;
+        for(int i = 0; i < entryCount; i++) {
+            offsets[i] = align(size, AssetPack.DATA_ALIGNMENT);
+            size = offsets[i] + stored.get(i).length;
+        }
+
+        // Write the header
+        final ByteBuffer buffer = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(AssetPack.MAGIC).putInt(AssetPack.VERSION).putInt(entryCount).putInt(pathTableSize);
+
+        // Write the entry table
+        int pathOffset = 0;
+        for(int i = 0; i < entryCount; i++) {
+            buffer.putInt(pathOffset).putInt(paths.get(i).length).putInt(offsets[i]).putInt(stored.get(i).length)
+                    .putInt(uncompressedSizes[i]).putInt(compressions[i]);
+            pathOffset += paths.get(i).length;
+        }
+
+        // Write the path table and the entry data
+        for(byte[] path : paths)
+            buffer.put(path);
+        for(int i = 0; i < entryCount; i++) {
+            buffer.position(offsets[i]);
+            buffer.put(stored.get(i));
+        }
+
+        // Flip and return the buffer
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * Build the pack and write it to the given file.
+     *
+     * @param path Path of the file to write.
+     *
+     * @throws IOException Thrown if the file couldn't be written.
+     */
+    public void write(Path path) throws IOException {
+        final ByteBuffer buffer = build();
+        try(FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while(buffer.hasRemaining())
+                channel.write(buffer);
+        }
+    }
+
+    /**
+     * Check whether the entry with the given path must be stored as is.
+     *
+     * @param path Entry path.
+     *
+     * @return True if the entry must not be compressed.
+     */
+    private static boolean isStored(String path) {
+        final String lowerPath = path.toLowerCase();
+        return Arrays.stream(STORED_EXTENSIONS).anyMatch(lowerPath::endsWith);
+    }
+
+    /**
+     * Compress the given data with deflate.
+     *
+     * @param data Data to compress.
+     *
+     * @return Compressed data.
+     */
+    private static byte[] deflate(byte[] data) {
+        // Create the deflater
+        final Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        deflater.setInput(data);
+        deflater.finish();
+
+        // Compress the data into a growing buffer
+        byte[] output = new byte[Math.max(data.length / 2, 64)];
+        int length = 0;
+        while(!deflater.finished()) {
+            if(length == output.length)
+                output = Arrays.copyOf(output, output.length * 2);
+            length += deflater.deflate(output, length, output.length - length);
+        }
+        deflater.end();
+        return Arrays.copyOf(output, length);
+    }
+
+    /**
+     * Round the given value up to a multiple of the given alignment.
+     *
+     * @param value Value.
+     * @param alignment Alignment, a power of two.
+     *
+     * @return Aligned value.
+     */
+    private static int align(int value, int alignment) {
+        return (value + alignment - 1) & -alignment;
+    }
+}
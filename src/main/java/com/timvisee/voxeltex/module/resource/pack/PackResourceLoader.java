@@ -0,0 +1,150 @@
+/******************************************************************************
+ * Copyright (c) Tim Visee 2016. All rights reserved.                         *
+ *                                                                            *
+ * @author Tim Visee                                                          *
+ * @website http://timvisee.com/                                              *
+ *                                                                            *
+ * Open Source != No Copyright                                                *
+ *                                                                            *
+ * Permission is hereby granted, free of charge, to any person obtaining a    *
+ * copy of this software and associated documentation files (the "Software"), *
+ * to deal in the Software without restriction, including without limitation  *
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,   *
+ * and/or sell copies of the Software, and to permit persons to whom the      *
+ * Software is furnished to do so, subject to the following conditions:       *
+ *                                                                            *
+ * The above copyright notice and this permission notice shall be included    *
+ * in all copies or substantial portions of the Software.                     *
+ *                                                                            *
+ * You should have received a copy of The MIT License (MIT) along with this   *
+ * program. If not, see <http://opensource.org/licenses/MIT/>.                *
+ ******************************************************************************/
+
+package com.timvisee.voxeltex.module.resource.pack;
+
+import com.timvisee.voxeltex.module.resource.ResourceLoaderInterface;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+public class PackResourceLoader implements ResourceLoaderInterface {
+
+    /**
+     * Asset pack to load the resources from.
+     */
+    private final AssetPack pack;
+
+    /**
+     * Base path of the resources inside the pack.
+     */
+    private final String basePath;
+
+    /**
+     * Constructor.
+     *
+     * @param pack Asset pack to load the resources from.
+     * @param basePath Base path of the resources inside the pack, empty for the root of the pack.
+     */
+    public PackResourceLoader(AssetPack pack, String basePath) {
+        this.pack = pack;
+        this.basePath = basePath;
+    }
+
+    /**
+     * Get the asset pack the resources are loaded from.
+     *
+     * @return Asset pack.
+     */
+    public AssetPack getPack() {
+        return this.pack;
+    }
+
+    @Override
+    public String getBasePath() {
+        return this.basePath;
+    }
+
+    @Override
+    public boolean hasResource(String path) {
+        return this.pack.hasEntry(getBasePath() + path);
+    }
+
+    @Override
+    public InputStream loadResourceStream(String path) {
+        // Load the resource, and wrap it in a stream
+        final ByteBuffer buffer = loadResourceByteBuffer(path);
+        return buffer != null ? new ByteBufferInputStream(buffer) : null;
+    }
+
+    @Override
+    public String loadResourceString(String path) {
+        // Load the resource
+        final ByteBuffer buffer = loadResourceByteBuffer(path);
+        if(buffer == null)
+            return "";
+
+        // Decode the resource as string
+        return StandardCharsets.UTF_8.decode(buffer).toString();
+    }
+
+    @Override
+    public ByteBuffer loadResourceByteBuffer(String path) {
+        // Show a loading message in the console
+        System.out.println("Loading resource (" + this.getClass().getSimpleName() + "): " + getBasePath() + path);
+
+        try {
+            // Get the entry from the pack, uncompressed entries aren't copied
+            return this.pack.getEntry(getBasePath() + path);
+
+        } catch(IOException e) {
+            e.printStackTrace();
+        }
+
+        // Failed, return null
+        return null;
+    }
+
+    /**
+     * Input stream reading the remaining bytes of a byte buffer.
+     */
+    private static class ByteBufferInputStream extends InputStream {
+
+        /**
+         * Buffer to read from.
+         */
+        private final ByteBuffer buffer;
+
+        /**
+         * Constructor.
+         *
+         * @param buffer Buffer to read from.
+         */
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return this.buffer.hasRemaining() ? this.buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            // Return the end of the stream if the buffer is drained
+            if(!this.buffer.hasRemaining())
+                return -1;
+
+            // Read the bytes
+            length = Math.min(length, this.buffer.remaining());
+            this.buffer.get(bytes, offset, length);
+            return length;
+        }
+
+        @Override
+        public int available() {
+            return this.buffer.remaining();
+        }
+    }
+}
@@ -27,6 +27,10 @@ import org.lwjgl.BufferUtils;
 
 import java.nio.FloatBuffer;
 import java.nio.IntBuffer;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 
 import static org.lwjgl.opengl.GL20.*;
 
@@ -38,10 +42,21 @@ public abstract class AbstractShader implements ShaderInterface {
     protected int programId;
 
     /**
-     * Cached float buffer for a matrix.
-     * This is used to minimize object allocation which drastically improves performance.
+     * Uniforms of this shader by their name.
+     * All active uniforms are reflected once the shader is created, other names are cached when they're first used.
      */
-    private static final FloatBuffer matrixFloatBufferCache = BufferUtils.createFloatBuffer(16);
+    private final Map<String, ShaderUniform> uniforms = new HashMap<>();
+
+    /**
+     * Attribute locations of this shader by their name.
+     * All active attributes are reflected once the shader is created, other names are cached when they're first used.
+     */
+    private final Map<String, Integer> attributes = new HashMap<>();
+
+    /**
+     * Version of the light data that was last uploaded to this shader, or 0 if none was uploaded.
+     */
+    private long lightDataVersion = 0;
 
     /**
      * Constructor.
@@ -52,6 +67,9 @@ public abstract class AbstractShader implements ShaderInterface {
         // Set the fields
         this.programId = programId;
 
+        // Reflect the active uniforms and attributes
+        reflect();
+
         // Track the shader
         ShaderTracker.trackShader(this);
     }
@@ -81,93 +99,151 @@ public abstract class AbstractShader implements ShaderInterface {
         ShaderTracker.untrackShader(this);
     }
 
+    @Override
+    public long getLightDataVersion() {
+        return this.lightDataVersion;
+    }
+
+    @Override
+    public void setLightDataVersion(long version) {
+        this.lightDataVersion = version;
+    }
+
     /**
-     * Retrieve an attribute location of this shader.
-     *
-     * @param name Attribute name.
-     *
-     * @return Attribute location.
+     * Reflect all active uniforms and attributes of the linked shader program, and cache their locations.
      */
+    private void reflect() {
+        // Create buffers for the size and type of each uniform or attribute
+        final IntBuffer sizeBuffer = BufferUtils.createIntBuffer(1);
+        final IntBuffer typeBuffer = BufferUtils.createIntBuffer(1);
+
+        // Reflect the uniforms, array uniforms are stored by their name without the array suffix
+        for(int i = 0, count = glGetProgrami(this.programId, GL_ACTIVE_UNIFORMS); i < count; i++) {
+            String name = glGetActiveUniform(this.programId, i, sizeBuffer, typeBuffer);
+            if(name.endsWith("[0]"))
+                name = name.substring(0, name.length() - 3);
+            this.uniforms.put(name, new ShaderUniform(name, glGetUniformLocation(this.programId, name),
+                    typeBuffer.get(0), sizeBuffer.get(0)));
+        }
+
+        // Reflect the attributes
+        for(int i = 0, count = glGetProgrami(this.programId, GL_ACTIVE_ATTRIBUTES); i < count; i++) {
+            final String name = glGetActiveAttrib(this.programId, i, sizeBuffer, typeBuffer);
+            this.attributes.put(name, glGetAttribLocation(this.programId, name));
+        }
+    }
+
+    @Override
     public int getAttributeLocation(String name) {
-        return glGetAttribLocation(this.programId, name);
+        // Get the cached location, or look it up and cache it
+        Integer location = this.attributes.get(name);
+        if(location == null) {
+            location = glGetAttribLocation(this.programId, name);
+            this.attributes.put(name, location);
+        }
+        return location;
     }
 
-    /**
-     * Retrieve uniform location of a variable from the shader.
-     *
-     * @param name Variable name.
-     *
-     * @return Uniform variable location.
-     */
+    @Override
     public int getUniformLocation(String name) {
-        return glGetUniformLocation(this.programId, name);
+        return getUniform(name).getLocation();
+    }
+
+    @Override
+    public ShaderUniform getUniform(String name) {
+        // Get the cached uniform, or look it up and cache it
+        ShaderUniform uniform = this.uniforms.get(name);
+        if(uniform == null) {
+            uniform = new ShaderUniform(name, glGetUniformLocation(this.programId, name), 0, 1);
+            this.uniforms.put(name, uniform);
+        }
+        return uniform;
+    }
+
+    @Override
+    public Collection<ShaderUniform> getUniforms() {
+        return Collections.unmodifiableCollection(this.uniforms.values());
+    }
+
+    @Override
+    public void invalidateUniforms() {
+        for(ShaderUniform uniform : this.uniforms.values())
+            uniform.invalidate();
     }
 
     @Override
     public void setUniform1f(String name, float value) {
-        glUniform1f(getUniformLocation(name), value);
+        getUniform(name).set1f(value);
+    }
+
+    @Override
+    public void setUniform1fv(String name, FloatBuffer buff) {
+        getUniform(name).set1fv(buff);
     }
 
     @Override
     public void setUniform1i(String name, int value) {
-        glUniform1i(getUniformLocation(name), value);
+        getUniform(name).set1i(value);
     }
 
     @Override
     public void setUniform1iv(String name, IntBuffer buff) {
-        glUniform1iv(getUniformLocation(name), buff);
+        getUniform(name).set1iv(buff);
     }
 
     @Override
     public void setUniform2f(String name, Vector2f value) {
-        glUniform2f(getUniformLocation(name), value.x, value.y);
+        getUniform(name).set2f(value);
     }
 
     @Override
     public void setUniform2i(String name, Vector2i value) {
-        glUniform2i(getUniformLocation(name), value.x, value.y);
+        final ShaderUniform uniform = getUniform(name);
+        uniform.invalidate();
+        glUniform2i(uniform.getLocation(), value.x, value.y);
     }
 
     @Override
     public void setUniform3f(String name, Vector3f value) {
-        glUniform3f(getUniformLocation(name), value.x, value.y, value.z);
+        getUniform(name).set3f(value.x, value.y, value.z);
     }
 
     @Override
     public void setUniform3i(String name, Vector3i value) {
-        glUniform3i(getUniformLocation(name), value.x, value.y, value.z);
+        final ShaderUniform uniform = getUniform(name);
+        uniform.invalidate();
+        glUniform3i(uniform.getLocation(), value.x, value.y, value.z);
     }
 
     @Override
     public void setUniform3fv(String name, FloatBuffer buff) {
-        glUniform3fv(getUniformLocation(name), buff);
+        getUniform(name).set3fv(buff);
     }
 
     @Override
     public void setUniform4f(String name, Vector4f value) {
-        glUniform4f(getUniformLocation(name), value.x, value.y, value.z, value.w);
+        getUniform(name).set4f(value);
     }
 
     @Override
     public void setUniform4i(String name, Vector4i value) {
-        glUniform4i(getUniformLocation(name), value.x, value.y, value.z, value.w);
+        final ShaderUniform uniform = getUniform(name);
+        uniform.invalidate();
+        glUniform4i(uniform.getLocation(), value.x, value.y, value.z, value.w);
     }
 
     @Override
     public void setUniform4fv(String name, FloatBuffer buff) {
-        glUniform4fv(getUniformLocation(name), buff);
+        getUniform(name).set4fv(buff);
     }
 
     @Override
     public void setUniformMatrix4f(String name, Matrix4f matrix) {
-        // Synchronize so we don't modify the cached float buffer from multiple places at the same time
-        synchronized(matrixFloatBufferCache) {
-            setUniformMatrix4f(name, matrix, matrixFloatBufferCache);
-        }
+        getUniform(name).setMatrix4f(matrix);
     }
 
     @Override
     public void setUniformMatrix4f(String name, Matrix4f matrix, FloatBuffer buff) {
-        glUniformMatrix4fv(getUniformLocation(name), false, matrix.get(buff));
+        getUniform(name).setMatrix4f(matrix, buff);
     }
 }
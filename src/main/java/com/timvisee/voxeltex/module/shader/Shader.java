@@ -28,6 +28,11 @@ import com.timvisee.voxeltex.module.shader.raw.AbstractRawShader;
 
 public class Shader extends AbstractShader {
 
+    /**
+     * Instanced variant of this shader, used to draw many instances of a mesh at once, or null.
+     */
+    private Shader instancedShader = null;
+
     /**
      * Constructor.
      *
@@ -47,10 +52,58 @@ public class Shader extends AbstractShader {
         this(rawShader.compile());
     }
 
+    /**
+     * Get the instanced variant of this shader.
+     * The instanced shader must implement {@link InstancedShaderInterface}.
+     *
+     * @return Instanced shader, or null if this shader doesn't have an instanced variant.
+     */
+    public Shader getInstancedShader() {
+        return this.instancedShader;
+    }
+
+    /**
+     * Check whether this shader has an instanced variant.
+     *
+     * @return True if it has an instanced variant, false if not.
+     */
+    public boolean hasInstancedShader() {
+        return this.instancedShader != null;
+    }
+
+    /**
+     * Set the instanced variant of this shader.
+     *
+     * @param instancedShader Instanced shader implementing {@link InstancedShaderInterface}, or null.
+     */
+    public void setInstancedShader(Shader instancedShader) {
+        this.instancedShader = instancedShader;
+    }
+
     @Override
     public void update(AbstractScene scene, Material material) {
+        // Send the frame and material uniforms
+        updateFrame(scene);
+        updateMaterial(material);
+    }
+
+    /**
+     * Send the uniforms that are equal for every draw in the current frame, such as the lighting data.
+     * The shader must be bound. The render queue calls this once for each run of draws using this shader.
+     *
+     * @param scene Scene that is drawn.
+     */
+    public void updateFrame(AbstractScene scene) {
         // Configure the projection and view matrix of the shader
 //        setUniformMatrix4f("projectionMatrix", MainCamera.getProjectionMatrix());
 //        setUniformMatrix4f("viewMatrix", MainCamera.createCameraViewMatrix());
     }
+
+    /**
+     * Send the uniforms of the given material.
+     * The shader must be bound. The render queue calls this once for each run of draws using the same material.
+     *
+     * @param material Material, or null.
+     */
+    public void updateMaterial(Material material) { }
 }
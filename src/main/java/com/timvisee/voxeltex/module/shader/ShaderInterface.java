@@ -28,6 +28,7 @@ import org.joml.*;
 
 import java.nio.FloatBuffer;
 import java.nio.IntBuffer;
+import java.util.Collection;
 
 public interface ShaderInterface {
 
@@ -60,6 +61,65 @@ public interface ShaderInterface {
      */
     void dispose();
 
+    /**
+     * Get the version of the light data that was last uploaded to this shader.
+     * Versions are unique across all light managers.
+     *
+     * @return Light data version, or 0 if no light data was uploaded.
+     */
+    long getLightDataVersion();
+
+    /**
+     * Set the version of the light data that was last uploaded to this shader.
+     *
+     * @param version Light data version, or 0 to force the next upload.
+     */
+    void setLightDataVersion(long version);
+
+    /**
+     * Get the location of an attribute.
+     * The location is cached after it's first looked up.
+     *
+     * @param name Attribute name.
+     *
+     * @return Attribute location, or -1 if the attribute isn't active.
+     */
+    int getAttributeLocation(String name);
+
+    /**
+     * Get the location of a uniform.
+     * The location is cached after it's first looked up.
+     *
+     * @param name Uniform name.
+     *
+     * @return Uniform location, or -1 if the uniform isn't active.
+     */
+    int getUniformLocation(String name);
+
+    /**
+     * Get the pre-resolved handle of a uniform, which can be used to set it's value without a name lookup.
+     * Values set through the handle are only uploaded if they differ from the last uploaded value.
+     * Handles for names that aren't active in the shader are valid, but don't do anything.
+     *
+     * @param name Uniform name, without an array suffix.
+     *
+     * @return Uniform handle.
+     */
+    ShaderUniform getUniform(String name);
+
+    /**
+     * Get the handles of all known uniforms.
+     *
+     * @return Uniform handles.
+     */
+    Collection<ShaderUniform> getUniforms();
+
+    /**
+     * Forget the last uploaded value of all uniforms, so the next values are always uploaded.
+     * This must be called if uniforms are set without using the shader.
+     */
+    void invalidateUniforms();
+
     /**
      * Set a variable to a float value.
      *
@@ -68,6 +128,14 @@ public interface ShaderInterface {
      */
     void setUniform1f(String name, float value);
 
+    /**
+     * Set a variable to an array of floats.
+     *
+     * @param name Variable name.
+     * @param buff Float buffer.
+     */
+    void setUniform1fv(String name, FloatBuffer buff);
+
     /**
      * Set a variable to an integer value.
      *
@@ -25,6 +25,7 @@ package com.timvisee.voxeltex.module.shader;
 import com.timvisee.voxeltex.module.shader.specific.BitmapFontShader;
 import com.timvisee.voxeltex.module.shader.specific.DefaultShader;
 import com.timvisee.voxeltex.module.shader.specific.GuiTextureShader;
+import com.timvisee.voxeltex.module.shader.specific.TexturedInstancedShader;
 import com.timvisee.voxeltex.module.shader.specific.TexturedShader;
 
 public class ShaderManager {
@@ -39,6 +40,11 @@ public class ShaderManager {
      */
     public static Shader SHADER_DEFAULT_TEXTURED;
 
+    /**
+     * Default instanced textured shader.
+     */
+    public static Shader SHADER_DEFAULT_TEXTURED_INSTANCED;
+
     /**
      * Default bitmap font shader.
      */
@@ -55,6 +61,8 @@ public class ShaderManager {
     public static void load() {
         SHADER_DEFAULT = new DefaultShader();
         SHADER_DEFAULT_TEXTURED = new TexturedShader();
+        SHADER_DEFAULT_TEXTURED_INSTANCED = new TexturedInstancedShader();
+        SHADER_DEFAULT_TEXTURED.setInstancedShader(SHADER_DEFAULT_TEXTURED_INSTANCED);
         SHADER_DEFAULT_BITMAP_FONT = new BitmapFontShader();
         SHADER_DEFAULT_GUI_TEXTURE = new GuiTextureShader();
     }
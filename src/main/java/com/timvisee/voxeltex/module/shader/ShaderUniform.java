@@ -0,0 +1,469 @@
+/******************************************************************************
+ * Copyright (c) Tim Visee 2016. All rights reserved.                         *
+ *                                                                            *
+ * @author Tim Visee                                                          *
+ * @website http://timvisee.com/                                              *
+ *                                                                            *
+ * Open Source != No Copyright                                                *
+ *                                                                            *
+ * Permission is hereby granted, free of charge, to any person obtaining a    *
+ * copy of this software and associated documentation files (the "Software"), *
+ * to deal in the Software without restriction, including without limitation  *
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,   *
+ * and/or sell copies of the Software, and to permit persons to whom the      *
+ * Software is furnished to do so, subject to the following conditions:       *
+ *                                                                            *
+ * The above copyright notice and this permission notice shall be included    *
+ * in all copies or substantial portions of the Software.                     *
+ *                                                                            *
+ * You should have received a copy of The MIT License (MIT) along with this   *
+ * program. If not, see <http://opensource.org/licenses/MIT/>.                *
+ ******************************************************************************/
+
+package com.timvisee.voxeltex.module.shader;
+
+import org.joml.Matrix4f;
+import org.joml.Vector2f;
+import org.joml.Vector4f;
+import org.lwjgl.BufferUtils;
+
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+
+import static org.lwjgl.opengl.GL20.*;
+
+public class ShaderUniform {
+
+    /**
+     * Cached float buffer for a matrix.
+     * This is used to minimize object allocation which drastically improves performance.
+     */
+    private static final FloatBuffer matrixFloatBufferCache = BufferUtils.createFloatBuffer(16);
+
+    /**
+     * Uniform name, without an array suffix.
+     */
+    private final String name;
+
+    /**
+     * Uniform location, or -1 if the uniform isn't active in the shader.
+     */
+    private final int location;
+
+    /**
+     * OpenGL type of the uniform, or zero if unknown.
+     */
+    private final int type;
+
+    /**
+     * Number of array elements of the uniform, one if the uniform isn't an array.
+     */
+    private final int size;
+
+    /**
+     * Shadow copy of the last uploaded float values, or null if nothing has been uploaded yet.
+     */
+    private float[] floatShadow = null;
+
+    /**
+     * Shadow copy of the last uploaded integer values, or null if nothing has been uploaded yet.
+     */
+    private int[] intShadow = null;
+
+    /**
+     * Number of values in the shadow copy.
+     */
+    private int shadowCount = 0;
+
+    /**
+     * Number of uploads that were skipped because the value didn't change.
+     */
+    private long skippedCount = 0;
+
+    /**
+     * Constructor.
+     *
+     * @param name Uniform name.
+     * @param location Uniform location, or -1 if the uniform isn't active.
+     * @param type OpenGL uniform type, or zero if unknown.
+     * @param size Number of array elements.
+     */
+    public ShaderUniform(String name, int location, int type, int size) {
+        this.name = name;
+        this.location = location;
+        this.type = type;
+        this.size = size;
+    }
+
+    /**
+     * Get the uniform name.
+     *
+     * @return Uniform name.
+     */
+    public String getName() {
+        return this.name;
+    }
+
+    /**
+     * Get the uniform location.
+     *
+     * @return Uniform location, or -1 if the uniform isn't active.
+     */
+    public int getLocation() {
+        return this.location;
+    }
+
+    /**
+     * Check whether the uniform is active in the shader.
+     * Setting a value of an inactive uniform doesn't do anything.
+     *
+     * @return True if active, false if not.
+     */
+    public boolean isActive() {
+        return this.location >= 0;
+    }
+
+    /**
+     * Get the OpenGL type of the uniform.
+     *
+     * @return OpenGL type, or zero if unknown.
+     */
+    public int getType() {
+        return this.type;
+    }
+
+    /**
+     * Get the number of array elements of the uniform.
+     *
+     * @return Array size, one if the uniform isn't an array.
+     */
+    public int getSize() {
+        return this.size;
+    }
+
+    /**
+     * Get the number of uploads that were skipped because the value didn't change.
+     *
+     * @return Skipped upload count.
+     */
+    public long getSkippedCount() {
+        return this.skippedCount;
+    }
+
+    /**
+     * Forget the shadow copy, so the next value is always uploaded.
+     */
+    public void invalidate() {
+        this.floatShadow = null;
+        this.intShadow = null;
+        this.shadowCount = 0;
+    }
+
+    /**
+     * Set a float value.
+     * The shader must be bound.
+     *
+     * @param x Value.
+     */
+    public void set1f(float x) {
+        if(!isActive() || equalsShadow(1, x, 0f, 0f, 0f))
+            return;
+        storeShadow(1, x, 0f, 0f, 0f);
+        glUniform1f(this.location, x);
+    }
+
+    /**
+     * Set an integer value.
+     * The shader must be bound.
+     *
+     * @param x Value.
+     */
+    public void set1i(int x) {
+        if(!isActive())
+            return;
+
+        // Compare and store the shadow copy
+        if(this.intShadow != null && this.shadowCount == 1 && this.intShadow[0] == x) {
+            this.skippedCount++;
+            return;
+        }
+        ensureIntShadow(1);
+        this.intShadow[0] = x;
+
+        // Upload the value
+        glUniform1i(this.location, x);
+    }
+
+    /**
+     * Set a two component float vector.
+     * The shader must be bound.
+     *
+     * @param value Value.
+     */
+    public void set2f(Vector2f value) {
+        set2f(value.x, value.y);
+    }
+
+    /**
+     * Set a two component float vector.
+     * The shader must be bound.
+     *
+     * @param x X value.
+     * @param y Y value.
+     */
+    public void set2f(float x, float y) {
+        if(!isActive() || equalsShadow(2, x, y, 0f, 0f))
+            return;
+        storeShadow(2, x, y, 0f, 0f);
+        glUniform2f(this.location, x, y);
+    }
+
+    /**
+     * Set a three component float vector.
+     * The shader must be bound.
+     *
+     * @param x X value.
+     * @param y Y value.
+     * @param z Z value.
+     */
+    public void set3f(float x, float y, float z) {
+        if(!isActive() || equalsShadow(3, x, y, z, 0f))
+            return;
+        storeShadow(3, x, y, z, 0f);
+        glUniform3f(this.location, x, y, z);
+    }
+
+    /**
+     * Set a four component float vector.
+     * The shader must be bound.
+     *
+     * @param value Value.
+     */
+    public void set4f(Vector4f value) {
+        set4f(value.x, value.y, value.z, value.w);
+    }
+
+    /**
+     * Set a four component float vector.
+     * The shader must be bound.
+     *
+     * @param x X value.
+     * @param y Y value.
+     * @param z Z value.
+     * @param w W value.
+     */
+    public void set4f(float x, float y, float z, float w) {
+        if(!isActive() || equalsShadow(4, x, y, z, w))
+            return;
+        storeShadow(4, x, y, z, w);
+        glUniform4f(this.location, x, y, z, w);
+    }
+
+    /**
+     * Set a 4x4 float matrix.
+     * The shader must be bound.
+     *
+     * @param matrix Matrix.
+     */
+    public void setMatrix4f(Matrix4f matrix) {
+        // Synchronize so we don't modify the cached float buffer from multiple places at the same time
+        synchronized(matrixFloatBufferCache) {
+            setMatrix4f(matrix, matrixFloatBufferCache);
+        }
+    }
+
+    /**
+     * Set a 4x4 float matrix, using the given buffer for the upload.
+     * The shader must be bound.
+     *
+     * @param matrix Matrix.
+     * @param buff Float buffer with room for 16 floats.
+     */
+    public void setMatrix4f(Matrix4f matrix, FloatBuffer buff) {
+        if(!isActive())
+            return;
+
+        // Compare the matrix to the shadow copy
+        if(this.floatShadow != null && this.shadowCount == 16
+                && this.floatShadow[0] == matrix.m00() && this.floatShadow[1] == matrix.m01()
+                && this.floatShadow[2] == matrix.m02() && this.floatShadow[3] == matrix.m03()
+                && this.floatShadow[4] == matrix.m10() && this.floatShadow[5] == matrix.m11()
+                && this.floatShadow[6] == matrix.m12() && this.floatShadow[7] == matrix.m13()
+                && this.floatShadow[8] == matrix.m20() && this.floatShadow[9] == matrix.m21()
+                && this.floatShadow[10] == matrix.m22() && this.floatShadow[11] == matrix.m23()
+                && this.floatShadow[12] == matrix.m30() && this.floatShadow[13] == matrix.m31()
+                && this.floatShadow[14] == matrix.m32() && this.floatShadow[15] == matrix.m33()) {
+            this.skippedCount++;
+            return;
+        }
+
+        // Store the shadow copy, and upload the matrix
+        ensureFloatShadow(16);
+        matrix.get(this.floatShadow, 0);
+        glUniformMatrix4fv(this.location, false, matrix.get(buff));
+    }
+
+    /**
+     * Set an integer array from the remaining values in the given buffer.
+     * The position of the buffer isn't changed.
+     * The shader must be bound.
+     *
+     * @param buff Integer buffer.
+     */
+    public void set1iv(IntBuffer buff) {
+        if(!isActive())
+            return;
+
+        // Compare the values to the shadow copy
+        final int position = buff.position();
+        final int count = buff.remaining();
+        if(this.intShadow != null && this.shadowCount == count) {
+            boolean equal = true;
+            for(int i = 0; i < count && equal; i++)
+                equal = this.intShadow[i] == buff.get(position + i);
+            if(equal) {
+                this.skippedCount++;
+                return;
+            }
+        }
+
+        // Store the shadow copy, and upload the values
+        ensureIntShadow(count);
+        for(int i = 0; i < count; i++)
+            this.intShadow[i] = buff.get(position + i);
+        glUniform1iv(this.location, buff);
+    }
+
+    /**
+     * Set a float array from the remaining values in the given buffer.
+     * The position of the buffer isn't changed.
+     * The shader must be bound.
+     *
+     * @param buff Float buffer.
+     */
+    public void set1fv(FloatBuffer buff) {
+        if(!isActive() || !updateFloatShadow(buff))
+            return;
+        glUniform1fv(this.location, buff);
+    }
+
+    /**
+     * Set a three component float vector array from the remaining values in the given buffer.
+     * The position of the buffer isn't changed.
+     * The shader must be bound.
+     *
+     * @param buff Float buffer.
+     */
+    public void set3fv(FloatBuffer buff) {
+        if(!isActive() || !updateFloatShadow(buff))
+            return;
+        glUniform3fv(this.location, buff);
+    }
+
+    /**
+     * Set a four component float vector array from the remaining values in the given buffer.
+     * The position of the buffer isn't changed.
+     * The shader must be bound.
+     *
+     * @param buff Float buffer.
+     */
+    public void set4fv(FloatBuffer buff) {
+        if(!isActive() || !updateFloatShadow(buff))
+            return;
+        glUniform4fv(this.location, buff);
+    }
+
+    /**
+     * Compare the remaining values of the given buffer to the shadow copy, and store them if they're different.
+     *
+     * @param buff Float buffer.
+     *
+     * @return True if the values changed and must be uploaded, false if the upload can be skipped.
+     */
+    private boolean updateFloatShadow(FloatBuffer buff) {
+        // Compare the values to the shadow copy
+        final int position = buff.position();
+        final int count = buff.remaining();
+        if(this.floatShadow != null && this.shadowCount == count) {
+            boolean equal = true;
+            for(int i = 0; i < count && equal; i++)
+                equal = this.floatShadow[i] == buff.get(position + i);
+            if(equal) {
+                this.skippedCount++;
+                return false;
+            }
+        }
+
+        // Store the shadow copy
+        ensureFloatShadow(count);
+        for(int i = 0; i < count; i++)
+            this.floatShadow[i] = buff.get(position + i);
+        return true;
+    }
+
+    /**
+     * Check whether the given values equal the float shadow copy, and count the skipped upload if so.
+     *
+     * @param count Number of used values, up to four.
+     * @param x First value.
+     * @param y Second value.
+     * @param z Third value.
+     * @param w Fourth value.
+     *
+     * @return True if equal, false if not.
+     */
+    private boolean equalsShadow(int count, float x, float y, float z, float w) {
+        // Compare the values
+        if(this.floatShadow == null || this.shadowCount != count
+                || this.floatShadow[0] != x
+                || (count > 1 && this.floatShadow[1] != y)
+                || (count > 2 && this.floatShadow[2] != z)
+                || (count > 3 && this.floatShadow[3] != w))
+            return false;
+
+        // Count the skipped upload
+        this.skippedCount++;
+        return true;
+    }
+
+    /**
+     * Store the given values as float shadow copy.
+     *
+     * @param count Number of used values, up to four.
+     * @param x First value.
+     * @param y Second value.
+     * @param z Third value.
+     * @param w Fourth value.
+     */
+    private void storeShadow(int count, float x, float y, float z, float w) {
+        ensureFloatShadow(count);
+        this.floatShadow[0] = x;
+        this.floatShadow[1] = y;
+        this.floatShadow[2] = z;
+        this.floatShadow[3] = w;
+    }
+
+    /**
+     * Make sure the float shadow copy can hold the given number of values, and drop the integer shadow copy.
+     *
+     * @param count Number of values.
+     */
+    private void ensureFloatShadow(int count) {
+        if(this.floatShadow == null || this.floatShadow.length < count)
+            this.floatShadow = new float[Math.max(count, 4)];
+        this.intShadow = null;
+        this.shadowCount = count;
+    }
+
+    /**
+     * Make sure the integer shadow copy can hold the given number of values, and drop the float shadow copy.
+     *
+     * @param count Number of values.
+     */
+    private void ensureIntShadow(int count) {
+        if(this.intShadow == null || this.intShadow.length < count)
+            this.intShadow = new int[Math.max(count, 4)];
+        this.floatShadow = null;
+        this.shadowCount = count;
+    }
+}
@@ -22,6 +22,7 @@
 
 package com.timvisee.voxeltex.module.shader.raw;
 
+import com.timvisee.voxeltex.module.mesh.VertexFormat;
 import org.lwjgl.opengl.GL11;
 import org.lwjgl.opengl.GL20;
 
@@ -133,6 +134,9 @@ public class RawShader extends AbstractRawShader {
         if(hasFragmentShader())
             GL20.glAttachShader(program, fragmentId);
 
+        // Bind the vertex attributes to the generic locations used by meshes
+        VertexFormat.bindAttributeLocations(program);
+
         // Link the shader program to OpenGL and link it
         GL20.glLinkProgram(program);
         GL20.glValidateProgram(program);
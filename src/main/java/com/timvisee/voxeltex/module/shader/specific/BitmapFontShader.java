@@ -75,8 +75,11 @@ public class BitmapFontShader extends Shader {
         // Call the parent
         super.update(scene, material);
 
-        // Send texture tiling data to the shader
-        if(material != null)
+        // Send texture tiling and region data to the shader
+        if(material != null) {
             setUniform2f("tiling", material.getTiling());
+            setUniform2f("textureOffset", material.getTextureOffset());
+            setUniform2f("textureScale", material.getTextureScale());
+        }
     }
 }
@@ -24,7 +24,6 @@ package com.timvisee.voxeltex.module.shader.specific;
 
 import com.timvisee.voxeltex.architecture.scene.AbstractScene;
 import com.timvisee.voxeltex.module.Color;
-import com.timvisee.voxeltex.module.material.Material;
 import com.timvisee.voxeltex.module.shader.Shader;
 import com.timvisee.voxeltex.module.shader.raw.AbstractRawShader;
 import com.timvisee.voxeltex.module.shader.raw.EngineAssetsRawShader;
@@ -67,9 +66,9 @@ public class DefaultShader extends Shader {
     }
 
     @Override
-    public void update(AbstractScene scene, Material material) {
+    public void updateFrame(AbstractScene scene) {
         // Update the super
-        super.update(scene, material);
+        super.updateFrame(scene);
 
         // Set the shader color
         setUniform4f("colour", Color.ORANGE.toVector4f());
@@ -84,9 +84,12 @@ public class GuiTextureShader extends Shader {
         // Call the parent
         super.update(scene, material);
 
-        // Send texture tiling data to the shader
-        if(material != null)
+        // Send texture tiling and region data to the shader
+        if(material != null) {
             setUniform2f("tiling", material.getTiling());
+            setUniform2f("textureOffset", material.getTextureOffset());
+            setUniform2f("textureScale", material.getTextureScale());
+        }
 
         // Make sure we aren't using the temporary vector more than once at the same time
         synchronized(this.tempVector4f) {
@@ -0,0 +1,100 @@
+/******************************************************************************
+ * Copyright (c) Tim Visee 2016. All rights reserved.                         *
+ *                                                                            *
+ * @author Tim Visee                                                          *
+ * @website http://timvisee.com/                                              *
+ *                                                                            *
+ * Open Source != No Copyright                                                *
+ *                                                                            *
+ * Permission is hereby granted, free of charge, to any person obtaining a    *
+ * copy of this software and associated documentation files (the "Software"), *
+ * to deal in the Software without restriction, including without limitation  *
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,   *
+ * and/or sell copies of the Software, and to permit persons to whom the      *
+ * Software is furnished to do so, subject to the following conditions:       *
+ *                                                                            *
+ * The above copyright notice and this permission notice shall be included    *
+ * in all copies or substantial portions of the Software.                     *
+ *                                                                            *
+ * You should have received a copy of The MIT License (MIT) along with this   *
+ * program. If not, see <http://opensource.org/licenses/MIT/>.                *
+ ******************************************************************************/
+
+package com.timvisee.voxeltex.module.shader.specific;
+
+import com.timvisee.voxeltex.module.shader.InstancedShaderInterface;
+import com.timvisee.voxeltex.module.shader.raw.AbstractRawShader;
+import com.timvisee.voxeltex.module.shader.raw.EngineAssetsRawShader;
+
+public class TexturedInstancedShader extends TexturedShader implements InstancedShaderInterface {
+
+    /**
+     * The engine asset path of the vertex shader.
+     */
+    private static final String SHADER_VERTEX_ASSET_PATH = "shaders/textured_instanced.vert";
+
+    /**
+     * The engine asset path of the fragment shader.
+     */
+    private static final String SHADER_FRAGMENT_ASSET_PATH = "shaders/textured_instanced.frag";
+
+    /**
+     * Name of the per instance model matrix attribute.
+     */
+    public static final String ATTRIBUTE_MODEL_MATRIX = "instanceModelMatrix";
+
+    /**
+     * Name of the per instance color attribute.
+     */
+    public static final String ATTRIBUTE_COLOR = "instanceColor";
+
+    /**
+     * Location of the per instance model matrix attribute.
+     */
+    private final int modelMatrixAttribute;
+
+    /**
+     * Location of the per instance color attribute.
+     */
+    private final int colorAttribute;
+
+    /**
+     * Constructor.
+     */
+    public TexturedInstancedShader() {
+        this(new EngineAssetsRawShader(SHADER_VERTEX_ASSET_PATH, SHADER_FRAGMENT_ASSET_PATH));
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param programId OpenGL shader program ID.
+     */
+    public TexturedInstancedShader(int programId) {
+        super(programId);
+
+        // Get the attribute locations
+        this.modelMatrixAttribute = getAttributeLocation(ATTRIBUTE_MODEL_MATRIX);
+        this.colorAttribute = getAttributeLocation(ATTRIBUTE_COLOR);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param rawShader Raw shader.
+     */
+    public TexturedInstancedShader(AbstractRawShader rawShader) {
+        // Compile the shader and use it's program ID
+        this(rawShader.compile());
+    }
+
+    @Override
+    public int getInstanceModelMatrixAttribute() {
+        return this.modelMatrixAttribute;
+    }
+
+    @Override
+    public int getInstanceColorAttribute() {
+        return this.colorAttribute;
+    }
+}
@@ -25,6 +25,7 @@ package com.timvisee.voxeltex.module.shader.specific;
 import com.timvisee.voxeltex.architecture.scene.AbstractScene;
 import com.timvisee.voxeltex.module.material.Material;
 import com.timvisee.voxeltex.module.shader.Shader;
+import com.timvisee.voxeltex.module.shader.ShaderUniform;
 import com.timvisee.voxeltex.module.shader.raw.AbstractRawShader;
 import com.timvisee.voxeltex.module.shader.raw.EngineAssetsRawShader;
 
@@ -40,6 +41,21 @@ public class TexturedShader extends Shader {
      */
     private static final String SHADER_FRAGMENT_ASSET_PATH = "shaders/textured.frag";
 
+    /**
+     * Texture tiling uniform.
+     */
+    private final ShaderUniform tilingUniform;
+
+    /**
+     * Texture region offset uniform.
+     */
+    private final ShaderUniform textureOffsetUniform;
+
+    /**
+     * Texture region scale uniform.
+     */
+    private final ShaderUniform textureScaleUniform;
+
     /**
      * Constructor.
      */
@@ -54,6 +70,11 @@ public class TexturedShader extends Shader {
      */
     public TexturedShader(int programId) {
         super(programId);
+
+        // Resolve the uniforms
+        this.tilingUniform = getUniform("tiling");
+        this.textureOffsetUniform = getUniform("textureOffset");
+        this.textureScaleUniform = getUniform("textureScale");
     }
 
     /**
@@ -62,19 +83,29 @@ public class TexturedShader extends Shader {
      * @param rawShader Raw shader.
      */
     public TexturedShader(AbstractRawShader rawShader) {
-        super(rawShader);
+        // Compile the shader and use it's program ID
+        this(rawShader.compile());
     }
 
     @Override
-    public void update(AbstractScene scene, Material material) {
+    public void updateFrame(AbstractScene scene) {
         // Call the parent
-        super.update(scene, material);
+        super.updateFrame(scene);
 
         // Send the lighting data to the shader
         scene.getLightManager().sendToShader(this);
+    }
+
+    @Override
+    public void updateMaterial(Material material) {
+        // Call the parent
+        super.updateMaterial(material);
 
-        // Send texture tiling data to the shader
-        if(material != null)
-            setUniform2f("tiling", material.getTiling());
+        // Send texture tiling and region data to the shader
+        if(material != null) {
+            this.tilingUniform.set2f(material.getTiling());
+            this.textureOffsetUniform.set2f(material.getTextureOffset());
+            this.textureScaleUniform.set2f(material.getTextureScale());
+        }
     }
 }
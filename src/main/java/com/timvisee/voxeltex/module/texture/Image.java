@@ -23,6 +23,8 @@
 package com.timvisee.voxeltex.module.texture;
 
 import com.timvisee.voxeltex.module.resource.engine.EngineAssetLoader;
+import com.timvisee.voxeltex.module.texture.baked.BakedImageReader;
+import com.timvisee.voxeltex.module.texture.baked.BakedImageWriter;
 import com.timvisee.voxeltex.util.BufferUtil;
 import org.lwjgl.BufferUtils;
 import org.lwjgl.stb.STBImage;
@@ -30,6 +32,8 @@ import org.lwjgl.stb.STBImage;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.IntBuffer;
+import java.util.Collections;
+import java.util.List;
 
 public class Image {
 
@@ -63,6 +67,16 @@ public class Image {
      */
     private final int components;
 
+    /**
+     * Precomputed mipmap levels of this image, starting at level one. Empty if none are available.
+     */
+    private List<ByteBuffer> mipmaps;
+
+    /**
+     * True if the image data has been allocated by STB, and must be freed through it.
+     */
+    private final boolean stbAllocated;
+
     /**
      * Constructor.
      *
@@ -72,11 +86,40 @@ public class Image {
      * @param components Components on this image.
      */
     public Image(ByteBuffer image, int width, int height, int components) {
+        this(image, width, height, components, Collections.<ByteBuffer>emptyList(), true);
+    }
+
+    /**
+     * Constructor, for image data that isn't allocated by STB.
+     *
+     * @param image Image as byte buffer.
+     * @param width Width of the image.
+     * @param height Height of the image.
+     * @param components Components on this image.
+     * @param mipmaps Precomputed mipmap levels, starting at level one.
+     */
+    public Image(ByteBuffer image, int width, int height, int components, List<ByteBuffer> mipmaps) {
+        this(image, width, height, components, mipmaps, false);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param image Image as byte buffer.
+     * @param width Width of the image.
+     * @param height Height of the image.
+     * @param components Components on this image.
+     * @param mipmaps Precomputed mipmap levels, starting at level one.
+     * @param stbAllocated True if the image data has been allocated by STB.
+     */
+    private Image(ByteBuffer image, int width, int height, int components, List<ByteBuffer> mipmaps, boolean stbAllocated) {
         // Set the image fields
         this.image = image;
         this.width = width;
         this.height = height;
         this.components = components;
+        this.mipmaps = mipmaps;
+        this.stbAllocated = stbAllocated;
 
         // Add the image to the image manager
         ImageTracker.trackImage(this);
@@ -90,16 +133,28 @@ public class Image {
      * @return Image.
      */
     public static Image loadFromByteBuffer(ByteBuffer imageBuffer) {
+        return loadFromByteBuffer(imageBuffer, 0);
+    }
+
+    /**
+     * Load an image from the given byte buffer, converted to the given number of components.
+     *
+     * @param imageBuffer Byte buffer containing the image.
+     * @param desiredComponents Number of components to convert the image to, or zero to keep the components of the image.
+     *
+     * @return Image.
+     */
+    public static Image loadFromByteBuffer(ByteBuffer imageBuffer, int desiredComponents) {
         // Create some integer buffers for STB interaction
         IntBuffer width = BufferUtils.createIntBuffer(1);
         IntBuffer height = BufferUtils.createIntBuffer(1);
         IntBuffer components = BufferUtils.createIntBuffer(1);
 
         // Load the image into memory using STB
-        ByteBuffer image = STBImage.stbi_load_from_memory(imageBuffer, width, height, components, 0);
+        ByteBuffer image = STBImage.stbi_load_from_memory(imageBuffer, width, height, components, desiredComponents);
 
         // Create the image instance and return it
-        return new Image(image, width.get(0), height.get(0), components.get(0));
+        return new Image(image, width.get(0), height.get(0), desiredComponents != 0 ? desiredComponents : components.get(0));
     }
 
     /**
@@ -110,8 +165,26 @@ public class Image {
      * @return Image.
      */
     public static Image loadFromEngineAssets(String path) {
+        return loadFromEngineAssets(path, 0);
+    }
+
+    /**
+     * Load an image from the given path, converted to the given number of components.
+     * Baked images are always loaded as RGBA.
+     *
+     * @param path Image path.
+     * @param desiredComponents Number of components to convert the image to, or zero to keep the components of the image.
+     *
+     * @return Image.
+     */
+    public static Image loadFromEngineAssets(String path, int desiredComponents) {
+        // Prefer the baked variant of the image, which is ready for uploading and includes it's mipmaps
+        final String bakedPath = EngineAssetLoader.getInstance().getBakedPath(path, BakedImageWriter.FILE_EXTENSION);
+        if(bakedPath != null)
+            return BakedImageReader.readFromEngineAssets(bakedPath);
+
         // Load the image into a byte buffer, and load the image itself from it
-        return loadFromByteBuffer(EngineAssetLoader.getInstance().loadResourceByteBuffer(path));
+        return loadFromByteBuffer(EngineAssetLoader.getInstance().loadResourceByteBuffer(path), desiredComponents);
     }
 
     /**
@@ -183,12 +256,50 @@ public class Image {
         return components;
     }
 
+    /**
+     * Get the precomputed mipmap levels of this image.
+     *
+     * @return Mipmap levels, starting at level one. Empty if none are available.
+     */
+    public List<ByteBuffer> getMipmaps() {
+        return this.mipmaps;
+    }
+
+    /**
+     * Generate the mipmap levels of this sRGB image on the CPU with a gamma correct box filter, if it doesn't have any
+     * yet. This is expensive for large images, and should be done on a worker thread.
+     *
+     * @throws IllegalStateException Thrown if this isn't an RGBA image.
+     */
+    public void generateMipmaps() {
+        generateMipmaps(MipmapGenerator.Filter.BOX, true);
+    }
+
+    /**
+     * Generate the mipmap chain of this image on the CPU with the given filter, if it doesn't have mipmaps yet.
+     *
+     * @param filter Downsampling filter.
+     * @param srgb True if the color channels are sRGB encoded, false for data such as normal maps.
+     *
+     * @throws IllegalStateException Thrown if this isn't an RGBA image.
+     */
+    public void generateMipmaps(MipmapGenerator.Filter filter, boolean srgb) {
+        // Make sure this is an RGBA image
+        if(this.components != COMPONENTS_RGBA)
+            throw new IllegalStateException("Mipmaps can only be generated for RGBA images");
+
+        // Generate the mipmaps if there aren't any
+        if(this.mipmaps.isEmpty())
+            this.mipmaps = MipmapGenerator.generate(this.image, this.width, this.height, filter, srgb);
+    }
+
     /**
      * Dispose the image, and free the memory.
      */
     public void dispose() {
-        // Free the image memory through STB
-        STBImage.stbi_image_free(image);
+        // Free the image memory through STB if it was allocated by it
+        if(this.stbAllocated)
+            STBImage.stbi_image_free(image);
 
         // Remove the image from the image manager
         ImageTracker.untrackImage(this);
@@ -23,6 +23,7 @@
 package com.timvisee.voxeltex.module.texture;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 public class ImageTracker {
@@ -30,7 +31,7 @@ public class ImageTracker {
     /**
      * List of images managed by the engine.
      */
-    private static List<Image> images = new ArrayList<>();
+    private static List<Image> images = Collections.synchronizedList(new ArrayList<>());
 
     /**
      * Add a new image to the tracker.
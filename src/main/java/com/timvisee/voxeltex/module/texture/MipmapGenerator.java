@@ -0,0 +1,366 @@
+/******************************************************************************
+ * Copyright (c) Tim Visee 2016. All rights reserved.                         *
+ *                                                                            *
+ * @author Tim Visee                                                          *
+ * @website http://timvisee.com/                                              *
+ *                                                                            *
+ * Open Source != No Copyright                                                *
+ *                                                                            *
+ * Permission is hereby granted, free of charge, to any person obtaining a    *
+ * copy of this software and associated documentation files (the "Software"), *
+ * to deal in the Software without restriction, including without limitation  *
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,   *
+ * and/or sell copies of the Software, and to permit persons to whom the      *
+ * Software is furnished to do so, subject to the following conditions:       *
+ *                                                                            *
+ * The above copyright notice and this permission notice shall be included    *
+ * in all copies or substantial portions of the Software.                     *
+ *                                                                            *
+ * You should have received a copy of The MIT License (MIT) along with this   *
+ * program. If not, see <http://opensource.org/licenses/MIT/>.                *
+ ******************************************************************************/
+
+package com.timvisee.voxeltex.module.texture;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+public class MipmapGenerator {
+
+    /**
+     * Number of RGBA components.
+     */
+    private static final int COMPONENTS = 4;
+
+    /**
+     * Minimum number of pixels in a level before it's rows are filtered in parallel.
+     */
+    private static final int PARALLEL_THRESHOLD = 128 * 128;
+
+    /**
+     * Size of the table used to encode linear values into sRGB bytes.
+     */
+    private static final int SRGB_ENCODE_TABLE_SIZE = 4096;
+
+    /**
+     * Alpha parameter of the Kaiser window, higher values give a smoother but blurrier result.
+     */
+    private static final double KAISER_ALPHA = 4.0;
+
+    /**
+     * Kaiser filter taps for halving an image, for the six source pixels around each destination pixel.
+     */
+    private static final float[] KAISER_WEIGHTS = createKaiserWeights();
+
+    /**
+     * Table converting sRGB bytes into linear values.
+     */
+    private static final float[] SRGB_DECODE = new float[256];
+
+    /**
+     * Table converting linear values into sRGB bytes.
+     */
+    private static final byte[] SRGB_ENCODE = new byte[SRGB_ENCODE_TABLE_SIZE];
+
+    static {
+        // Build the sRGB conversion tables
+        for(int i = 0; i < SRGB_DECODE.length; i++)
+            SRGB_DECODE[i] = (float) toLinear(i / 255.0);
+        for(int i = 0; i < SRGB_ENCODE.length; i++)
+            SRGB_ENCODE[i] = (byte) Math.round(toSrgb(i / (double) (SRGB_ENCODE_TABLE_SIZE - 1)) * 255.0);
+    }
+
+    /**
+     * Filter used to downsample each level.
+     */
+    public enum Filter {
+
+        /**
+         * Average of each two by two block of pixels. Fast, but slightly blurry.
+         */
+        BOX,
+
+        /**
+         * Kaiser windowed sinc over six by six pixels. Sharper, at a higher cost, and best suited for baking.
+         */
+        KAISER
+    }
+
+    /**
+     * Generate the mipmap chain of an sRGB encoded RGBA image on the CPU, down to a single pixel, using a gamma correct
+     * box filter.
+     *
+     * @param image RGBA image data, with four bytes for each pixel.
+     * @param width Image width.
+     * @param height Image height.
+     *
+     * @return Mipmap levels, starting at level one. Empty if the image is a single pixel.
+     */
+    public static List<ByteBuffer> generate(ByteBuffer image, int width, int height) {
+        return generate(image, width, height, Filter.BOX, true);
+    }
+
+    /**
+     * Generate the mipmap chain of an RGBA image on the CPU, down to a single pixel.
+     * Each level is filtered from the previous level at full precision, so rounding errors don't accumulate. The rows
+     * of larger levels are filtered in parallel.
+     *
+     * @param image RGBA image data, with four bytes for each pixel.
+     * @param width Image width.
+     * @param height Image height.
+     * @param filter Downsampling filter.
+     * @param srgb True if the color channels are sRGB encoded and must be filtered in linear space, false for data such
+     *             as normal maps. The alpha channel is always filtered linearly.
+     *
+     * @return Mipmap levels, starting at level one. Empty if the image is a single pixel.
+     */
+    public static List<ByteBuffer> generate(ByteBuffer image, int width, int height, Filter filter, boolean srgb) {
+        // Decode the base level into linear values
+        float[] source = decode(image, width * height, srgb);
+
+        // Generate each level from the previous one
+        final List<ByteBuffer> levels = new ArrayList<>();
+        while(width > 1 || height > 1) {
+            final int levelWidth = Math.max(width / 2, 1);
+            final int levelHeight = Math.max(height / 2, 1);
+            final float[] level = filter == Filter.KAISER
+                    ? downsampleKaiser(source, width, height, levelWidth, levelHeight)
+                    : downsampleBox(source, width, height, levelWidth, levelHeight);
+            levels.add(encode(level, levelWidth * levelHeight, srgb));
+            source = level;
+            width = levelWidth;
+            height = levelHeight;
+        }
+        return levels;
+    }
+
+    /**
+     * Get the number of mipmap levels below the base level for an image of the given size.
+     *
+     * @param width Image width.
+     * @param height Image height.
+     *
+     * @return Number of mipmap levels.
+     */
+    public static int getLevelCount(int width, int height) {
+        int levels = 0;
+        for(int size = Math.max(width, height); size > 1; size >>= 1)
+            levels++;
+        return levels;
+    }
+
+    /**
+     * Downsample an image to the given size, averaging blocks of up to two by two pixels. Odd edges are clamped.
+     *
+     * @param source Source image values.
+     * @param width Source width.
+     * @param height Source height.
+     * @param levelWidth Destination width.
+     * @param levelHeight Destination height.
+     *
+     * @return Destination image values.
+     */
+    private static float[] downsampleBox(float[] source, int width, int height, int levelWidth, int levelHeight) {
+        final float[] level = new float[levelWidth * levelHeight * COMPONENTS];
+        forEachRow(levelWidth, levelHeight, y -> {
+            // Determine the source rows, clamped to the image
+            final int y0 = Math.min(y * 2, height - 1);
+            final int y1 = Math.min(y * 2 + 1, height - 1);
+
+            for(int x = 0; x < levelWidth; x++) {
+                // Determine the source columns, clamped to the image
+                final int x0 = Math.min(x * 2, width - 1);
+                final int x1 = Math.min(x * 2 + 1, width - 1);
+
+                // Average each component of the four source pixels
+                for(int c = 0; c < COMPONENTS; c++)
+                    level[(y * levelWidth + x) * COMPONENTS + c] = 0.25f * (
+                            source[(y0 * width + x0) * COMPONENTS + c] + source[(y0 * width + x1) * COMPONENTS + c]
+                            + source[(y1 * width + x0) * COMPONENTS + c] + source[(y1 * width + x1) * COMPONENTS + c]);
+            }
+        });
+        return level;
+    }
+
+    /**
+     * Downsample an image to the given size with a separable Kaiser windowed sinc filter. Edges are clamped.
+     * Dimensions that don't shrink are copied as they are.
+     *
+     * @param source Source image values.
+     * @param width Source width.
+     * @param height Source height.
+     * @param levelWidth Destination width.
+     * @param levelHeight Destination height.
+     *
+     * @return Destination image values.
+     */
+    private static float[] downsampleKaiser(float[] source, int width, int height, int levelWidth, int levelHeight) {
+        // Filter the rows horizontally
+        final float[] horizontal = new float[levelWidth * height * COMPONENTS];
+        forEachRow(levelWidth, height, y -> {
+            for(int x = 0; x < levelWidth; x++)
+                filterKaiser(source, (y * width) * COMPONENTS, COMPONENTS, width, x, width > levelWidth,
+                        horizontal, (y * levelWidth + x) * COMPONENTS);
+        });
+
+        // Filter the columns vertically
+        final float[] level = new float[levelWidth * levelHeight * COMPONENTS];
+        forEachRow(levelWidth, levelHeight, y -> {
+            for(int x = 0; x < levelWidth; x++)
+                filterKaiser(horizontal, x * COMPONENTS, levelWidth * COMPONENTS, height, y, height > levelHeight,
+                        level, (y * levelWidth + x) * COMPONENTS);
+        });
+        return level;
+    }
+
+    /**
+     * Filter a single destination pixel along one axis with the Kaiser filter.
+     *
+     * @param source Source image values.
+     * @param offset Offset of the first pixel on the axis in the source.
+     * @param stride Distance between successive pixels on the axis in the source.
+     * @param size Number of source pixels on the axis.
+     * @param position Destination pixel position on the axis.
+     * @param shrink True if the axis is halved, false if the pixel is copied as is.
+     * @param dest Destination image values.
+     * @param destOffset Offset of the destination pixel.
+     */
+    private static void filterKaiser(float[] source, int offset, int stride, int size, int position, boolean shrink,
+                                     float[] dest, int destOffset) {
+        // Copy the pixel if this axis doesn't shrink
+        if(!shrink) {
+            System.arraycopy(source, offset + position * stride, dest, destOffset, COMPONENTS);
+            return;
+        }
+
+        // Accumulate the weighted source pixels around the destination pixel, clamped to the edges
+        for(int c = 0; c < COMPONENTS; c++) {
+            float sum = 0;
+            for(int tap = 0; tap < KAISER_WEIGHTS.length; tap++) {
+                final int i = Math.min(Math.max(position * 2 - 2 + tap, 0), size - 1);
+                sum += KAISER_WEIGHTS[tap] * source[offset + i * stride + c];
+            }
+
+            // Clamp the ringing of the negative lobes
+            dest[destOffset + c] = Math.min(Math.max(sum, 0f), 1f);
+        }
+    }
+
+    /**
+     * Create the normalized Kaiser filter taps for halving an image.
+     *
+     * @return Filter taps.
+     */
+    private static float[] createKaiserWeights() {
+        // Determine the weight of each tap by it's distance to the destination pixel center, in destination pixels
+        final float[] weights = new float[6];
+        final double radius = weights.length / 4.0;
+        double total = 0;
+        for(int tap = 0; tap < weights.length; tap++) {
+            final double distance = (tap - 2.5) / 2.0;
+            final double ratio = distance / radius;
+            final double sinc = Math.sin(Math.PI * distance) / (Math.PI * distance);
+            final double window = besselI0(KAISER_ALPHA * Math.sqrt(Math.max(1.0 - ratio * ratio, 0.0))) / besselI0(KAISER_ALPHA);
+            weights[tap] = (float) (sinc * window);
+            total += weights[tap];
+        }
+
+        // Normalize the weights
+        for(int tap = 0; tap < weights.length; tap++)
+            weights[tap] /= total;
+        return weights;
+    }
+
+    /**
+     * Compute the zeroth order modified Bessel function of the first kind, used by the Kaiser window.
+     *
+     * @param x Input value.
+     *
+     * @return Function value.
+     */
+    private static double besselI0(double x) {
+        double sum = 1.0;
+        double term = 1.0;
+        for(int k = 1; k < 32; k++) {
+            term *= (x / (2.0 * k)) * (x / (2.0 * k));
+            sum += term;
+        }
+        return sum;
+    }
+
+    /**
+     * Invoke the given row function for each row of a level, in parallel if the level is large enough.
+     *
+     * @param width Level width.
+     * @param height Level height.
+     * @param row Row function.
+     */
+    private static void forEachRow(int width, int height, IntConsumer row) {
+        final IntStream rows = IntStream.range(0, height);
+        (width * height >= PARALLEL_THRESHOLD ? rows.parallel() : rows).forEach(row);
+    }
+
+    /**
+     * Decode RGBA bytes into values between zero and one.
+     *
+     * @param image RGBA image data.
+     * @param pixels Number of pixels.
+     * @param srgb True to convert the sRGB color channels into linear space.
+     *
+     * @return Image values.
+     */
+    private static float[] decode(ByteBuffer image, int pixels, boolean srgb) {
+        final float[] values = new float[pixels * COMPONENTS];
+        for(int i = 0; i < values.length; i++) {
+            final int value = image.get(i) & 0xFF;
+            values[i] = srgb && i % COMPONENTS != 3 ? SRGB_DECODE[value] : value / 255f;
+        }
+        return values;
+    }
+
+    /**
+     * Encode values between zero and one into RGBA bytes.
+     *
+     * @param values Image values.
+     * @param pixels Number of pixels.
+     * @param srgb True to convert the linear color channels into sRGB.
+     *
+     * @return RGBA image data, in a direct buffer.
+     */
+    private static ByteBuffer encode(float[] values, int pixels, boolean srgb) {
+        final ByteBuffer image = ByteBuffer.allocateDirect(pixels * COMPONENTS).order(ByteOrder.nativeOrder());
+        for(int i = 0; i < values.length; i++) {
+            if(srgb && i % COMPONENTS != 3)
+                image.put(i, SRGB_ENCODE[Math.round(values[i] * (SRGB_ENCODE_TABLE_SIZE - 1))]);
+            else
+                image.put(i, (byte) Math.round(values[i] * 255f));
+        }
+        return image;
+    }
+
+    /**
+     * Convert an sRGB encoded value into linear space.
+     *
+     * @param value sRGB value between zero and one.
+     *
+     * @return Linear value.
+     */
+    private static double toLinear(double value) {
+        return value <= 0.04045 ? value / 12.92 : Math.pow((value + 0.055) / 1.055, 2.4);
+    }
+
+    /**
+     * Convert a linear value into sRGB space.
+     *
+     * @param value Linear value between zero and one.
+     *
+     * @return sRGB value.
+     */
+    private static double toSrgb(double value) {
+        return value <= 0.0031308 ? value * 12.92 : 1.055 * Math.pow(value, 1.0 / 2.4) - 0.055;
+    }
+}
@@ -0,0 +1,148 @@
+/******************************************************************************
+ * Copyright (c) Tim Visee 2016. All rights reserved.                         *
+ *                                                                            *
+ * @author Tim Visee                                                          *
+ * @website http://timvisee.com/                                              *
+ *                                                                            *
+ * Open Source != No Copyright                                                *
+ *                                                                            *
+ * Permission is hereby granted, free of charge, to any person obtaining a    *
+ * copy of this software and associated documentation files (the "Software"), *
+ * to deal in the Software without restriction, including without limitation  *
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,   *
+ * and/or sell copies of the Software, and to permit persons to whom the      *
+ * Software is furnished to do so, subject to the following conditions:       *
+ *                                                                            *
+ * The above copyright notice and this permission notice shall be included    *
+ * in all copies or substantial portions of the Software.                     *
+ *                                                                            *
+ * You should have received a copy of The MIT License (MIT) along with this   *
+ * program. If not, see <http://opensource.org/licenses/MIT/>.                *
+ ******************************************************************************/
+
+
+package com.timvisee.voxeltex.module.texture;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class MipmapGeneratorTest {
+
+    @org.junit.Test
+    public void levelSizes() throws Exception {
+        // Each level halves both sides, clamped to one pixel
+        final List<ByteBuffer> levels = MipmapGenerator.generate(createSolid(8, 2, 0, 0, 0, 0), 8, 2);
+        assertEquals(3, levels.size());
+        assertEquals(3, MipmapGenerator.getLevelCount(8, 2));
+        assertEquals(4 * 1 * 4, levels.get(0).capacity());
+        assertEquals(2 * 1 * 4, levels.get(1).capacity());
+        assertEquals(4, levels.get(2).capacity());
+
+        // Single pixel images have no levels
+        assertEquals(0, MipmapGenerator.getLevelCount(1, 1));
+        assertEquals(0, MipmapGenerator.generate(createSolid(1, 1, 0, 0, 0, 0), 1, 1).size());
+        assertEquals(8, MipmapGenerator.getLevelCount(256, 3));
+    }
+
+    @org.junit.Test
+    public void solidColor() throws Exception {
+        // A solid image must keep it's color in every level, with every filter, in linear and sRGB space
+        for(MipmapGenerator.Filter filter : MipmapGenerator.Filter.values()) {
+            for(boolean srgb : new boolean[]{false, true}) {
+                final List<ByteBuffer> levels = MipmapGenerator.generate(
+                        createSolid(256, 64, 10, 128, 250, 77), 256, 64, filter, srgb);
+                assertEquals(8, levels.size());
+                for(ByteBuffer level : levels)
+                    for(int i = 0; i < level.capacity(); i += 4)
+                        assertPixel(level, i, 10, 128, 250, 77, 1);
+            }
+        }
+    }
+
+    @org.junit.Test
+    public void boxAverage() throws Exception {
+        // Average a black and white checkerboard with a transparent and opaque alpha
+        final ByteBuffer image = createChecker(4, 4);
+
+        // Linear averaging gives the middle value
+        final ByteBuffer linear = MipmapGenerator.generate(image, 4, 4, MipmapGenerator.Filter.BOX, false).get(0);
+        for(int i = 0; i < linear.capacity(); i += 4)
+            assertPixel(linear, i, 128, 128, 128, 128, 1);
+
+        // sRGB averaging happens in linear space, only the color channels are converted
+        final ByteBuffer srgb = MipmapGenerator.generate(image, 4, 4, MipmapGenerator.Filter.BOX, true).get(0);
+        for(int i = 0; i < srgb.capacity(); i += 4)
+            assertPixel(srgb, i, 188, 188, 188, 128, 1);
+    }
+
+    @org.junit.Test
+    public void kaiserRange() throws Exception {
+        // A high contrast image mustn't produce out of range values, and must average to the middle value
+        final List<ByteBuffer> levels = MipmapGenerator.generate(
+                createChecker(64, 64), 64, 64, MipmapGenerator.Filter.KAISER, true);
+        assertEquals(6, levels.size());
+        final ByteBuffer last = levels.get(levels.size() - 1);
+        assertPixel(last, 0, 188, 188, 188, 128, 2);
+    }
+
+    /**
+     * Create a solid RGBA image.
+     *
+     * @param width Image width.
+     * @param height Image height.
+     * @param r Red.
+     * @param g Green.
+     * @param b Blue.
+     * @param a Alpha.
+     *
+     * @return RGBA image data.
+     */
+    private static ByteBuffer createSolid(int width, int height, int r, int g, int b, int a) {
+        final ByteBuffer image = ByteBuffer.allocateDirect(width * height * 4).order(ByteOrder.nativeOrder());
+        for(int i = 0; i < width * height; i++)
+            image.put((byte) r).put((byte) g).put((byte) b).put((byte) a);
+        image.flip();
+        return image;
+    }
+
+    /**
+     * Create an RGBA checkerboard of black transparent and white opaque pixels.
+     *
+     * @param width Image width.
+     * @param height Image height.
+     *
+     * @return RGBA image data.
+     */
+    private static ByteBuffer createChecker(int width, int height) {
+        final ByteBuffer image = ByteBuffer.allocateDirect(width * height * 4).order(ByteOrder.nativeOrder());
+        for(int y = 0; y < height; y++) {
+            for(int x = 0; x < width; x++) {
+                final byte value = (byte) ((x + y) % 2 == 0 ? 255 : 0);
+                image.put(value).put(value).put(value).put(value);
+            }
+        }
+        image.flip();
+        return image;
+    }
+
+    /**
+     * Assert the components of a pixel.
+     *
+     * @param image RGBA image data.
+     * @param offset Byte offset of the pixel.
+     * @param r Expected red.
+     * @param g Expected green.
+     * @param b Expected blue.
+     * @param a Expected alpha.
+     * @param tolerance Allowed difference per component.
+     */
+    private static void assertPixel(ByteBuffer image, int offset, int r, int g, int b, int a, int tolerance) {
+        assertEquals(r, image.get(offset) & 0xFF, tolerance);
+        assertEquals(g, image.get(offset + 1) & 0xFF, tolerance);
+        assertEquals(b, image.get(offset + 2) & 0xFF, tolerance);
+        assertEquals(a, image.get(offset + 3) & 0xFF, tolerance);
+    }
+}
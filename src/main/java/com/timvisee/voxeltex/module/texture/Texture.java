@@ -24,9 +24,11 @@ package com.timvisee.voxeltex.module.texture;
 
 import com.timvisee.voxeltex.module.Color;
 import com.timvisee.voxeltex.util.BufferUtil;
+import org.lwjgl.opengl.GL12;
 import org.lwjgl.opengl.GL13;
 
 import java.nio.ByteBuffer;
+import java.util.List;
 
 import static org.lwjgl.opengl.GL11.*;
 import static org.lwjgl.opengl.GL12.GL_BGR;
@@ -60,22 +62,66 @@ public class Texture {
     private float height;
 
     /**
-     * Filter option for this image.
+     * Number of mipmap levels uploaded for this texture, including the base level.
+     */
+    private int levelCount = 1;
+
+    /**
+     * Lowest mipmap level that is resident on the graphics card. Textures that are still streaming start at their
+     * smallest level, and become fully resident once this reaches zero.
+     */
+    int residentLevel = 0;
+
+    /**
+     * True while the texture is being streamed by the {@link TextureStreamer}.
+     */
+    boolean streaming = false;
+
+    /**
+     * Lowest mipmap level that may be sampled, as clamped by {@link #setLevelClamp(int, int)}.
+     */
+    private int baseLevelClamp = 0;
+
+    /**
+     * Highest mipmap level that may be sampled, as clamped by {@link #setLevelClamp(int, int)}.
+     */
+    private int maxLevelClamp = Integer.MAX_VALUE;
+
+    /**
+     * Default filter option for new textures.
      *
      * Possible options:
      * - GL_LINEAR
      * - GL_NEAREST
      */
-    private static int filter = GL_LINEAR;
+    private static int defaultFilter = GL_LINEAR;
 
     /**
-     * Wrap option for this image.
+     * Default wrap option for new textures.
      *
      * Possible options:
      * - GL_REPEAT
      * - GL_CLAMP
      */
-    private static int wrap = GL_REPEAT;
+    private static int defaultWrap = GL_REPEAT;
+
+    /**
+     * Filter option for this texture.
+     *
+     * Possible options:
+     * - GL_LINEAR
+     * - GL_NEAREST
+     */
+    private int filter = defaultFilter;
+
+    /**
+     * Wrap option for this texture.
+     *
+     * Possible options:
+     * - GL_REPEAT
+     * - GL_CLAMP
+     */
+    private int wrap = defaultWrap;
 
     /**
      * Constructor.
@@ -118,26 +164,78 @@ public class Texture {
 
     /**
      * Create a texture based on the given image.
+     * Precomputed mipmaps of the image are uploaded, but none are generated. Used for GUI images and fonts.
      *
      * @param image Image to use for the texture.
      *
      * @return Texture.
      */
     public static Texture fromImage(Image image) {
-        // Create and return the texture
-        return fromByteBuffer(image.getImage(), image.getWidth(), image.getHeight(), image.getComponents());
+        return fromImage(image, false);
+    }
+
+    /**
+     * Create a texture based on the given image.
+     * Precomputed mipmaps of the image are uploaded. RGBA images without precomputed mipmaps get them generated on
+     * the CPU if requested.
+     *
+     * @param image Image to use for the texture.
+     * @param generateMipmaps True to generate the mipmaps if the image doesn't have any yet.
+     *
+     * @return Texture.
+     */
+    public static Texture fromImage(Image image, boolean generateMipmaps) {
+        // Generate the mipmaps if requested and the image doesn't have any yet
+        if(generateMipmaps && image.getMipmaps().isEmpty() && image.getComponents() == COMPONENTS_RGBA)
+            image.generateMipmaps();
+
+        // Create the texture
+        final Texture texture = fromByteBuffer(image.getImage(), image.getWidth(), image.getHeight(), image.getComponents());
+
+        // Upload the mipmaps of the image if available
+        final List<ByteBuffer> mipmaps = image.getMipmaps();
+        if(!mipmaps.isEmpty()) {
+            // Upload each level
+            texture.bind(GL13.GL_TEXTURE0);
+            final int format = image.getComponents() == 4 ? GL_RGBA : GL_RGB;
+            for(int level = 1; level <= mipmaps.size(); level++)
+                glTexImage2D(GL_TEXTURE_2D, level, GL_RGBA, Math.max(image.getWidth() >> level, 1),
+                        Math.max(image.getHeight() >> level, 1), 0, format, GL_UNSIGNED_BYTE, mipmaps.get(level - 1));
+
+            // Limit sampling to the uploaded levels, and use them for minification
+            texture.levelCount = mipmaps.size() + 1;
+            texture.applySamplingState();
+            texture.applyLevelRange();
+            Texture.unbind();
+        }
+
+        // Return the texture
+        return texture;
     }
 
     /**
      * Create a texture based on the given image and consume/dispose the image.
+     * Precomputed mipmaps of the image are uploaded, but none are generated.
      *
      * @param image Image to use for the texture.
      *
      * @return Texture.
      */
     public static Texture consumeImage(Image image) {
+        return consumeImage(image, false);
+    }
+
+    /**
+     * Create a texture based on the given image and consume/dispose the image.
+     *
+     * @param image Image to use for the texture.
+     * @param generateMipmaps True to generate the mipmaps if the image doesn't have any yet.
+     *
+     * @return Texture.
+     */
+    public static Texture consumeImage(Image image, boolean generateMipmaps) {
         // Create the texture
-        Texture texture = fromImage(image);
+        Texture texture = fromImage(image, generateMipmaps);
 
         // Dispose/consume the image since we're done
         image.dispose();
@@ -146,6 +244,49 @@ public class Texture {
         return texture;
     }
 
+    /**
+     * Create a texture with storage for the given number of mipmap levels, of which only the smallest level is filled
+     * with the given placeholder pixel. The other levels are filled in by the {@link TextureStreamer}.
+     *
+     * @param width Texture width.
+     * @param height Texture height.
+     * @param levelCount Number of mipmap levels, including the base level.
+     * @param placeholder Direct buffer holding the RGBA placeholder pixel.
+     *
+     * @return Texture.
+     */
+    static Texture createStreaming(int width, int height, int levelCount, ByteBuffer placeholder) {
+        // Create a new texture instance, and bind it
+        final Texture texture = new Texture();
+        texture.bind(GL13.GL_TEXTURE0);
+
+        // Set the texture parameters
+        texture.levelCount = levelCount;
+        texture.applySamplingState();
+
+        // Allocate the storage of each level without uploading anything
+        for(int level = 0; level < levelCount; level++)
+            glTexImage2D(GL_TEXTURE_2D, level, GL_RGBA, Math.max(width >> level, 1), Math.max(height >> level, 1), 0,
+                    GL_RGBA, GL_UNSIGNED_BYTE, (ByteBuffer) null);
+
+        // Fill the smallest level with the placeholder, and only sample from that level until more levels are resident
+        final int smallestLevel = levelCount - 1;
+        for(int y = 0; y < Math.max(height >> smallestLevel, 1); y++)
+            for(int x = 0; x < Math.max(width >> smallestLevel, 1); x++)
+                glTexSubImage2D(GL_TEXTURE_2D, smallestLevel, x, y, 1, 1, GL_RGBA, GL_UNSIGNED_BYTE, placeholder);
+        texture.residentLevel = smallestLevel;
+        texture.applyLevelRange();
+
+        // Done using the texture, unbind
+        Texture.unbind();
+
+        // Set the texture properties
+        texture.width = width;
+        texture.height = height;
+        texture.streaming = true;
+        return texture;
+    }
+
     /**
      * Create a texture from a byte buffer.
      *
@@ -164,10 +305,7 @@ public class Texture {
         texture.bind(GL13.GL_TEXTURE0);
 
         // Set the texture parameters
-        glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_WRAP_S, wrap);
-        glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_WRAP_T, wrap);
-        glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_MIN_FILTER, filter);
-        glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_MAG_FILTER, filter);
+        texture.applySamplingState();
 
         // Configure the texture and write the buffer to the texture
         glTexImage2D(GL_TEXTURE_2D, 0, GL_RGBA, width, height, 0, components == 4 ? GL_RGBA : GL_RGB, GL_UNSIGNED_BYTE, buffer);
@@ -183,6 +321,146 @@ public class Texture {
         return texture;
     }
 
+    /**
+     * Get the lowest mipmap level that is resident on the graphics card.
+     *
+     * @return Resident level, zero if the texture is fully resident.
+     */
+    public int getResidentLevel() {
+        return this.residentLevel;
+    }
+
+    /**
+     * Check whether all mipmap levels of this texture are resident on the graphics card.
+     *
+     * @return True if fully resident, false if the texture is still streaming.
+     */
+    public boolean isResident() {
+        return !this.streaming;
+    }
+
+    /**
+     * Get the number of mipmap levels uploaded for this texture.
+     *
+     * @return Level count, including the base level.
+     */
+    public int getLevelCount() {
+        return this.levelCount;
+    }
+
+    /**
+     * Get the estimated video memory used by this texture, including it's mipmap levels.
+     * Textures are stored as RGBA, with four bytes for each texel.
+     *
+     * @return Memory size in bytes.
+     */
+    public long getMemorySize() {
+        return getMemorySize(0, this.levelCount - 1);
+    }
+
+    /**
+     * Get the estimated video memory of the mipmap levels that are currently sampled, as limited by the resident level
+     * and the level clamp. Used by texture budget managers to account for textures of which the top levels were dropped.
+     *
+     * @return Memory size in bytes.
+     */
+    public long getSampledMemorySize() {
+        return getMemorySize(getBaseLevel(), getMaxLevel());
+    }
+
+    /**
+     * Get the estimated video memory of the given range of mipmap levels.
+     *
+     * @param fromLevel First level, inclusive.
+     * @param toLevel Last level, inclusive.
+     *
+     * @return Memory size in bytes.
+     */
+    private long getMemorySize(int fromLevel, int toLevel) {
+        long size = 0;
+        for(int level = fromLevel; level <= toLevel; level++)
+            size += (long) Math.max((int) this.width >> level, 1) * Math.max((int) this.height >> level, 1) * 4;
+        return size;
+    }
+
+    /**
+     * Clamp the range of mipmap levels that may be sampled from this texture.
+     * A texture budget manager may raise the base level of distant textures to stop sampling from, and touching, their
+     * largest levels. The clamp is combined with the resident level of streaming textures, and is limited to the
+     * available levels.
+     *
+     * @param baseLevel Lowest level to sample from, zero for the full resolution.
+     * @param maxLevel Highest level to sample from, or {@link Integer#MAX_VALUE} for the smallest level.
+     *
+     * @throws IllegalArgumentException Thrown if the base level is negative, or larger than the max level.
+     */
+    public void setLevelClamp(int baseLevel, int maxLevel) {
+        // Validate the range
+        if(baseLevel < 0 || maxLevel < baseLevel)
+            throw new IllegalArgumentException("Invalid mipmap level clamp: " + baseLevel + " to " + maxLevel);
+
+        // Set the clamp, and apply it to the texture
+        this.baseLevelClamp = baseLevel;
+        this.maxLevelClamp = maxLevel;
+        bind(GL13.GL_TEXTURE0);
+        applyLevelRange();
+        Texture.unbind();
+    }
+
+    /**
+     * Get the lowest mipmap level that may be sampled, as clamped by {@link #setLevelClamp(int, int)}.
+     *
+     * @return Base level clamp.
+     */
+    public int getBaseLevelClamp() {
+        return this.baseLevelClamp;
+    }
+
+    /**
+     * Get the highest mipmap level that may be sampled, as clamped by {@link #setLevelClamp(int, int)}.
+     *
+     * @return Max level clamp.
+     */
+    public int getMaxLevelClamp() {
+        return this.maxLevelClamp;
+    }
+
+    /**
+     * Get the lowest mipmap level that is currently sampled, based on the resident level and the level clamp.
+     *
+     * @return Effective base level.
+     */
+    public int getBaseLevel() {
+        return Math.min(Math.max(this.residentLevel, this.baseLevelClamp), this.levelCount - 1);
+    }
+
+    /**
+     * Get the highest mipmap level that is currently sampled, based on the level clamp.
+     *
+     * @return Effective max level.
+     */
+    public int getMaxLevel() {
+        return Math.max(Math.min(this.maxLevelClamp, this.levelCount - 1), getBaseLevel());
+    }
+
+    /**
+     * Apply the effective mipmap level range to the texture. The texture must be bound.
+     */
+    void applyLevelRange() {
+        glTexParameteri(GL_TEXTURE_2D, GL12.GL_TEXTURE_BASE_LEVEL, getBaseLevel());
+        glTexParameteri(GL_TEXTURE_2D, GL12.GL_TEXTURE_MAX_LEVEL, getMaxLevel());
+    }
+
+    /**
+     * Apply the filter and wrap state to the texture. The texture must be bound.
+     */
+    private void applySamplingState() {
+        glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_WRAP_S, this.wrap);
+        glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_WRAP_T, this.wrap);
+        glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_MIN_FILTER, this.levelCount > 1 ? getMipmapFilter() : this.filter);
+        glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_MAG_FILTER, this.filter);
+    }
+
     /**
      * Get the OpenGL texture ID.
      *
@@ -211,7 +489,7 @@ public class Texture {
     }
 
     /**
-     * Get the texture filter mode.
+     * Get the filter mode of this texture.
      *
      * Possible options:
      * - GL_LINEAR
@@ -219,12 +497,28 @@ public class Texture {
      *
      * @return Texture filter.
      */
-    public static int getFilter() {
-        return Texture.filter;
+    public int getFilter() {
+        return this.filter;
+    }
+
+    /**
+     * Set the filter mode of this texture. Mipmapped textures use the matching mipmap filter for minification.
+     *
+     * Possible options:
+     * - GL_LINEAR
+     * - GL_NEAREST
+     *
+     * @param filter Texture filter.
+     */
+    public void setFilter(int filter) {
+        this.filter = filter;
+        bind(GL13.GL_TEXTURE0);
+        applySamplingState();
+        Texture.unbind();
     }
 
     /**
-     * Get the texture wrap mode.
+     * Get the wrap mode of this texture.
      *
      * Possible options:
      * - GL_REPEAT
@@ -232,34 +526,85 @@ public class Texture {
      *
      * @return Texture wrap.
      */
-    public static int getWrap() {
-        return Texture.wrap;
+    public int getWrap() {
+        return this.wrap;
+    }
+
+    /**
+     * Set the wrap mode of this texture.
+     *
+     * Possible options:
+     * - GL_REPEAT
+     * - GL_CLAMP
+     *
+     * @param wrap Texture wrap.
+     */
+    public void setWrap(int wrap) {
+        this.wrap = wrap;
+        bind(GL13.GL_TEXTURE0);
+        applySamplingState();
+        Texture.unbind();
+    }
+
+    /**
+     * Get the minification filter to use for mipmapped textures, matching the filter mode of this texture.
+     *
+     * @return Mipmap minification filter.
+     */
+    private int getMipmapFilter() {
+        return this.filter == GL_LINEAR ? GL_LINEAR_MIPMAP_LINEAR : GL_NEAREST_MIPMAP_NEAREST;
     }
 
     /**
-     * Set the texture filter mode.
+     * Get the default filter mode for new textures.
      *
      * Possible options:
      * - GL_LINEAR
      * - GL_NEAREST
      *
-     * @param filter Texture filter.
+     * @return Default texture filter.
+     */
+    public static int getDefaultFilter() {
+        return Texture.defaultFilter;
+    }
+
+    /**
+     * Set the default filter mode for new textures. Existing textures aren't affected.
+     *
+     * Possible options:
+     * - GL_LINEAR
+     * - GL_NEAREST
+     *
+     * @param filter Default texture filter.
      */
-    public static void setFilter(int filter) {
-        Texture.filter = filter;
+    public static void setDefaultFilter(int filter) {
+        Texture.defaultFilter = filter;
     }
 
     /**
-     * Set the texture wrap mode.
+     * Get the default wrap mode for new textures.
      *
      * Possible options:
      * - GL_REPEAT
      * - GL_CLAMP
      *
-     * @param wrap Texture wrap.
+     * @return Default texture wrap.
      */
-    public static void setWrap(int wrap) {
-        Texture.wrap = wrap;
+    public static int getDefaultWrap() {
+        return Texture.defaultWrap;
+    }
+
+    /**
+     * Set the default wrap mode for new textures. Existing textures aren't affected.
+     *
+     * Possible options:
+     * - GL_REPEAT
+     * - GL_CLAMP
+     *
+     * @param wrap Default texture wrap.
+     */
+    public static void setDefaultWrap(int wrap) {
+        Texture.defaultWrap = wrap;
     }
 
     /**
@@ -345,6 +690,10 @@ public class Texture {
      * This will free the memory used by this texture.
      */
     public void dispose() {
+        // Stop streaming the texture if it's still streaming
+        if(this.streaming)
+            TextureStreamer.getInstance().cancel(this);
+
         // Remove the texture from OpenGL
         if(glIsTexture(id))
             glDeleteTextures(id);
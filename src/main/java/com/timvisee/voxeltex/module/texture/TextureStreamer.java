@@ -0,0 +1,371 @@
+/******************************************************************************
+ * Copyright (c) Tim Visee 2016. All rights reserved.                         *
+ *                                                                            *
+ * @author Tim Visee                                                          *
+ * @website http://timvisee.com/                                              *
+ *                                                                            *
+ * Open Source != No Copyright                                                *
+ *                                                                            *
+ * Permission is hereby granted, free of charge, to any person obtaining a    *
+ * copy of this software and associated documentation files (the "Software"), *
+ * to deal in the Software without restriction, including without limitation  *
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,   *
+ * and/or sell copies of the Software, and to permit persons to whom the      *
+ * Software is furnished to do so, subject to the following conditions:       *
+ *                                                                            *
+ * The above copyright notice and this permission notice shall be included    *
+ * in all copies or substantial portions of the Software.                     *
+ *                                                                            *
+ * You should have received a copy of The MIT License (MIT) along with this   *
+ * program. If not, see <http://opensource.org/licenses/MIT/>.                *
+ ******************************************************************************/
+
+package com.timvisee.voxeltex.module.texture;
+
+import org.lwjgl.opengl.GL13;
+import org.lwjgl.opengl.GL15;
+import org.lwjgl.opengl.GL21;
+
+import java.nio.ByteBuffer;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import static org.lwjgl.opengl.GL11.*;
+
+public class TextureStreamer {
+
+    /**
+     * Number of pixel buffer objects used in turn for uploading, so an upload doesn't wait for the previous one.
+     */
+    private static final int PIXEL_BUFFER_COUNT = 4;
+
+    /**
+     * Maximum number of bytes uploaded at once. Larger levels are uploaded in bands of rows.
+     */
+    private static final int MAX_UPLOAD_SIZE = 1024 * 1024;
+
+    /**
+     * Default time the render thread may spend on streaming textures each frame, in nanoseconds.
+     */
+    public static final long DEFAULT_UPLOAD_TIME_BUDGET = 2000000L;
+
+    /**
+     * RGBA color of the placeholder shown while a texture is streaming.
+     */
+    private static final byte[] PLACEHOLDER_COLOR = {(byte) 128, (byte) 128, (byte) 128, (byte) 255};
+
+    /**
+     * Texture streamer instance.
+     */
+    private static TextureStreamer instance;
+
+    /**
+     * Pending level uploads, smallest levels of all textures first so every texture becomes usable as soon as possible.
+     */
+    private final PriorityQueue<LevelUpload> uploads = new PriorityQueue<>(
+            Comparator.comparingLong((LevelUpload upload) -> (long) upload.width * upload.height)
+                    .thenComparingLong(upload -> upload.sequence));
+
+    /**
+     * Images of the textures that are still streaming, by texture.
+     */
+    private final Map<Texture, Image> streaming = new IdentityHashMap<>();
+
+    /**
+     * Pixel buffer object handles, created when first used.
+     */
+    private final int[] pixelBuffers = new int[PIXEL_BUFFER_COUNT];
+
+    /**
+     * Index of the pixel buffer object to use for the next upload.
+     */
+    private int nextPixelBuffer = 0;
+
+    /**
+     * Sequence number of the next level upload, used to upload levels of equal size in order.
+     */
+    private long nextSequence = 0;
+
+    /**
+     * Direct buffer holding the placeholder pixel.
+     */
+    private ByteBuffer placeholder;
+
+    /**
+     * Time the render thread may spend on streaming textures each frame, in nanoseconds.
+     */
+    private long uploadTimeBudget = DEFAULT_UPLOAD_TIME_BUDGET;
+
+    /**
+     * Get the texture streamer instance.
+     *
+     * @return Texture streamer instance.
+     */
+    public static TextureStreamer getInstance() {
+        // Return the instance if it does exist
+        if(instance != null)
+            return instance;
+
+        // Create an instance, then store and return it
+        instance = new TextureStreamer();
+        return instance;
+    }
+
+    /**
+     * Create a texture for the given RGBA image, and stream it's levels to the graphics card over the next frames.
+     * The texture can be used right away, it shows a placeholder until it's smallest level has been uploaded, and it
+     * gets sharper as larger levels become resident. The image is disposed once all levels have been uploaded.
+     *
+     * Mipmaps are generated for the image if it doesn't have any yet, which should preferably be done on a worker
+     * thread before calling this method. Must be called on the render thread.
+     *
+     * @param image RGBA image to stream.
+     *
+     * @return Streaming texture.
+     */
+    public Texture stream(Image image) {
+        // Make sure the image has it's mipmaps
+        image.generateMipmaps();
+
+        // Create the placeholder pixel
+        if(this.placeholder == null) {
+            this.placeholder = ByteBuffer.allocateDirect(PLACEHOLDER_COLOR.length);
+            this.placeholder.put(PLACEHOLDER_COLOR).flip();
+        }
+
+        // Create the texture with storage for all levels
+        final int levelCount = image.getMipmaps().size() + 1;
+        final Texture texture = Texture.createStreaming(image.getWidth(), image.getHeight(), levelCount, this.placeholder);
+
+        // Queue the levels for uploading
+        for(int level = 0; level < levelCount; level++)
+            this.uploads.add(new LevelUpload(texture, level, Math.max(image.getWidth() >> level, 1),
+                    Math.max(image.getHeight() >> level, 1),
+                    level == 0 ? image.getImage() : image.getMipmaps().get(level - 1), this.nextSequence++));
+        this.streaming.put(texture, image);
+
+        // Return the texture
+        return texture;
+    }
+
+    /**
+     * Stream pending texture levels until the upload time budget for this frame is spent.
+     * At least one band is uploaded each frame to guarantee progress. Must be called on the render thread.
+     */
+    public void update() {
+        // Skip if there's nothing to upload
+        if(this.uploads.isEmpty())
+            return;
+
+        // Upload bands until the budget is spent
+        final long deadline = System.nanoTime() + this.uploadTimeBudget;
+        do {
+            uploadNextBand();
+        } while(!this.uploads.isEmpty() && System.nanoTime() < deadline);
+
+        // Unbind the pixel buffer, so client side uploads elsewhere aren't affected
+        GL15.glBindBuffer(GL21.GL_PIXEL_UNPACK_BUFFER, 0);
+    }
+
+    /**
+     * Upload the next band of rows of the smallest pending level through a pixel buffer object.
+     */
+    private void uploadNextBand() {
+        // Determine the rows to upload
+        final LevelUpload upload = this.uploads.peek();
+        final int rowSize = upload.width * Image.COMPONENTS_RGBA;
+        final int rows = Math.min(upload.height - upload.nextRow, Math.max(MAX_UPLOAD_SIZE / rowSize, 1));
+        final int size = rows * rowSize;
+
+        // Get the rows to upload from the level data
+        final ByteBuffer rowData = upload.data.duplicate();
+        rowData.limit(upload.nextRow * rowSize + size).position(upload.nextRow * rowSize);
+
+        // Orphan the next pixel buffer, and map it
+        GL15.glBindBuffer(GL21.GL_PIXEL_UNPACK_BUFFER, getNextPixelBuffer());
+        GL15.glBufferData(GL21.GL_PIXEL_UNPACK_BUFFER, size, GL15.GL_STREAM_DRAW);
+        final ByteBuffer mapped = GL15.glMapBuffer(GL21.GL_PIXEL_UNPACK_BUFFER, GL15.GL_WRITE_ONLY, size, null);
+        upload.texture.bind(GL13.GL_TEXTURE0);
+        if(mapped != null) {
+            // Copy the rows into the pixel buffer, and upload them into the texture level from there
+            mapped.put(rowData);
+            GL15.glUnmapBuffer(GL21.GL_PIXEL_UNPACK_BUFFER);
+            glTexSubImage2D(GL_TEXTURE_2D, upload.level, 0, upload.nextRow, upload.width, rows, GL_RGBA,
+                    GL_UNSIGNED_BYTE, 0L);
+        } else {
+            // The buffer couldn't be mapped, unbind it and upload the rows directly from client memory instead
+            GL15.glBindBuffer(GL21.GL_PIXEL_UNPACK_BUFFER, 0);
+            glTexSubImage2D(GL_TEXTURE_2D, upload.level, 0, upload.nextRow, upload.width, rows, GL_RGBA,
+                    GL_UNSIGNED_BYTE, rowData);
+        }
+        upload.nextRow += rows;
+
+        // Finish the level once all rows have been uploaded
+        if(upload.nextRow >= upload.height) {
+            // Sample from this level from now on
+            this.uploads.poll();
+            upload.texture.residentLevel = upload.level;
+            upload.texture.applyLevelRange();
+
+            // Dispose the image once the texture is fully resident
+            if(upload.level == 0) {
+                upload.texture.streaming = false;
+                this.streaming.remove(upload.texture).dispose();
+            }
+        }
+
+        // Done using the texture, unbind
+        Texture.unbind();
+    }
+
+    /**
+     * Get the next pixel buffer object to upload with, creating it if it doesn't exist yet.
+     *
+     * @return Pixel buffer object handle.
+     */
+    private int getNextPixelBuffer() {
+        // Create the pixel buffer if it doesn't exist
+        if(this.pixelBuffers[this.nextPixelBuffer] == 0)
+            this.pixelBuffers[this.nextPixelBuffer] = GL15.glGenBuffers();
+
+        // Return the buffer, and move to the next one
+        final int pixelBuffer = this.pixelBuffers[this.nextPixelBuffer];
+        this.nextPixelBuffer = (this.nextPixelBuffer + 1) % PIXEL_BUFFER_COUNT;
+        return pixelBuffer;
+    }
+
+    /**
+     * Stop streaming the given texture, and dispose it's image.
+     *
+     * @param texture Texture to stop streaming.
+     */
+    public void cancel(Texture texture) {
+        // Remove the pending uploads of the texture
+        for(Iterator<LevelUpload> it = this.uploads.iterator(); it.hasNext(); )
+            if(it.next().texture == texture)
+                it.remove();
+
+        // Dispose the image
+        final Image image = this.streaming.remove(texture);
+        if(image != null)
+            image.dispose();
+    }
+
+    /**
+     * Get the number of textures that are still streaming.
+     *
+     * @return Streaming texture count.
+     */
+    public int getStreamingCount() {
+        return this.streaming.size();
+    }
+
+    /**
+     * Get the number of bytes that still have to be uploaded.
+     *
+     * @return Pending bytes.
+     */
+    public long getPendingBytes() {
+        long pending = 0;
+        for(LevelUpload upload : this.uploads)
+            pending += (long) (upload.height - upload.nextRow) * upload.width * Image.COMPONENTS_RGBA;
+        return pending;
+    }
+
+    /**
+     * Get the time the render thread may spend on streaming textures each frame.
+     *
+     * @return Upload time budget in nanoseconds.
+     */
+    public long getUploadTimeBudget() {
+        return this.uploadTimeBudget;
+    }
+
+    /**
+     * Set the time the render thread may spend on streaming textures each frame.
+     *
+     * @param uploadTimeBudget Upload time budget in nanoseconds.
+     */
+    public void setUploadTimeBudget(long uploadTimeBudget) {
+        this.uploadTimeBudget = uploadTimeBudget;
+    }
+
+    /**
+     * Cancel all streaming textures, and delete the pixel buffer objects.
+     */
+    public void dispose() {
+        // Cancel all textures that are still streaming
+        for(Texture texture : this.streaming.keySet().toArray(new Texture[0]))
+            cancel(texture);
+
+        // Delete the pixel buffers
+        for(int i = 0; i < PIXEL_BUFFER_COUNT; i++) {
+            if(this.pixelBuffers[i] != 0)
+                GL15.glDeleteBuffers(this.pixelBuffers[i]);
+            this.pixelBuffers[i] = 0;
+        }
+    }
+
+    /**
+     * A texture level waiting to be uploaded.
+     */
+    private static class LevelUpload {
+
+        /**
+         * Texture to upload to.
+         */
+        final Texture texture;
+
+        /**
+         * Mipmap level.
+         */
+        final int level;
+
+        /**
+         * Level width.
+         */
+        final int width;
+
+        /**
+         * Level height.
+         */
+        final int height;
+
+        /**
+         * RGBA pixel data of the level.
+         */
+        final ByteBuffer data;
+
+        /**
+         * Sequence number, used to upload levels of equal size in order.
+         */
+        final long sequence;
+
+        /**
+         * The next row to upload.
+         */
+        int nextRow = 0;
+
+        /**
+         * Constructor.
+         *
+         * @param texture Texture to upload to.
+         * @param level Mipmap level.
+         * @param width Level width.
+         * @param height Level height.
+         * @param data RGBA pixel data of the level.
+         * @param sequence Sequence number.
+         */
+        LevelUpload(Texture texture, int level, int width, int height, ByteBuffer data, long sequence) {
+            this.texture = texture;
+            this.level = level;
+            this.width = width;
+            this.height = height;
+            this.data = data;
+            this.sequence = sequence;
+        }
+    }
+}
@@ -0,0 +1,173 @@
+/******************************************************************************
+ * Copyright (c) Tim Visee 2016. All rights reserved.                         *
+ *                                                                            *
+ * @author Tim Visee                                                          *
+ * @website http://timvisee.com/                                              *
+ *                                                                            *
+ * Open Source != No Copyright                                                *
+ *                                                                            *
+ * Permission is hereby granted, free of charge, to any person obtaining a    *
+ * copy of this software and associated documentation files (the "Software"), *
+ * to deal in the Software without restriction, including without limitation  *
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,   *
+ * and/or sell copies of the Software, and to permit persons to whom the      *
+ * Software is furnished to do so, subject to the following conditions:       *
+ *                                                                            *
+ * The above copyright notice and this permission notice shall be included    *
+ * in all copies or substantial portions of the Software.                     *
+ *                                                                            *
+ * You should have received a copy of The MIT License (MIT) along with this   *
+ * program. If not, see <http://opensource.org/licenses/MIT/>.                *
+ ******************************************************************************/
+
+package com.timvisee.voxeltex.module.texture.atlas;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class AtlasPacker {
+
+    /**
+     * Width of the area to pack into.
+     */
+    private final int width;
+
+    /**
+     * Height of the area to pack into.
+     */
+    private final int height;
+
+    /**
+     * Maximal free rectangles, each as x, y, width and height. Free rectangles may overlap each other.
+     */
+    private final List<int[]> freeRectangles = new ArrayList<>();
+
+    /**
+     * Constructor.
+     * Packs rectangles using the MaxRects algorithm, placing each rectangle at the free spot that best fits it's
+     * shortest side.
+     *
+     * @param width Width of the area to pack into.
+     * @param height Height of the area to pack into.
+     */
+    public AtlasPacker(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.freeRectangles.add(new int[]{0, 0, width, height});
+    }
+
+    /**
+     * Get the width of the area to pack into.
+     *
+     * @return Width.
+     */
+    public int getWidth() {
+        return this.width;
+    }
+
+    /**
+     * Get the height of the area to pack into.
+     *
+     * @return Height.
+     */
+    public int getHeight() {
+        return this.height;
+    }
+
+    /**
+     * Insert a rectangle of the given size.
+     *
+     * @param width Rectangle width.
+     * @param height Rectangle height.
+     *
+     * @return The X and Y position of the placed rectangle, or null if it doesn't fit.
+     */
+    public int[] insert(int width, int height) {
+        // Find the free rectangle that leaves the least space on it's shortest side, then on it's longest side
+        int[] best = null;
+        int bestShortSide = Integer.MAX_VALUE;
+        int bestLongSide = Integer.MAX_VALUE;
+        //noinspection ForLoopReplaceableByForEach
+        for(int i = 0; i < this.freeRectangles.size(); i++) {
+            final int[] free = this.freeRectangles.get(i);
+            if(free[2] < width || free[3] < height)
+                continue;
+
+            final int leftoverX = free[2] - width;
+            final int leftoverY = free[3] - height;
+            final int shortSide = Math.min(leftoverX, leftoverY);
+            final int longSide = Math.max(leftoverX, leftoverY);
+            if(shortSide < bestShortSide || (shortSide == bestShortSide && longSide < bestLongSide)) {
+                best = free;
+                bestShortSide = shortSide;
+                bestLongSide = longSide;
+            }
+        }
+
+        // Return if the rectangle doesn't fit anywhere
+        if(best == null)
+            return null;
+
+        // Place the rectangle, and update the free rectangles
+        final int[] placed = {best[0], best[1], width, height};
+        splitFreeRectangles(placed);
+        pruneFreeRectangles();
+        return new int[]{placed[0], placed[1]};
+    }
+
+    /**
+     * Split all free rectangles that overlap the given placed rectangle into the maximal free rectangles around it.
+     *
+     * @param placed Placed rectangle.
+     */
+    private void splitFreeRectangles(int[] placed) {
+        final List<int[]> created = new ArrayList<>();
+        for(int i = this.freeRectangles.size() - 1; i >= 0; i--) {
+            // Skip free rectangles that don't overlap
+            final int[] free = this.freeRectangles.get(i);
+            if(placed[0] >= free[0] + free[2] || placed[0] + placed[2] <= free[0]
+                    || placed[1] >= free[1] + free[3] || placed[1] + placed[3] <= free[1])
+                continue;
+
+            // Replace the free rectangle with the parts on each side of the placed rectangle
+            this.freeRectangles.remove(i);
+            if(placed[0] > free[0])
+                created.add(new int[]{free[0], free[1], placed[0] - free[0], free[3]});
+            if(placed[0] + placed[2] < free[0] + free[2])
+                created.add(new int[]{placed[0] + placed[2], free[1], free[0] + free[2] - placed[0] - placed[2], free[3]});
+            if(placed[1] > free[1])
+                created.add(new int[]{free[0], free[1], free[2], placed[1] - free[1]});
+            if(placed[1] + placed[3] < free[1] + free[3])
+                created.add(new int[]{free[0], placed[1] + placed[3], free[2], free[1] + free[3] - placed[1] - placed[3]});
+        }
+        this.freeRectangles.addAll(created);
+    }
+
+    /**
+     * Remove free rectangles that are fully contained in another free rectangle.
+     */
+    private void pruneFreeRectangles() {
+        for(int i = 0; i < this.freeRectangles.size(); i++)
+            for(int j = i + 1; j < this.freeRectangles.size(); j++) {
+                if(contains(this.freeRectangles.get(j), this.freeRectangles.get(i))) {
+                    this.freeRectangles.remove(i--);
+                    break;
+                }
+                if(contains(this.freeRectangles.get(i), this.freeRectangles.get(j)))
+                    this.freeRectangles.remove(j--);
+            }
+    }
+
+    /**
+     * Check whether the outer rectangle fully contains the inner rectangle.
+     *
+     * @param outer Outer rectangle.
+     * @param inner Inner rectangle.
+     *
+     * @return True if contained, false if not.
+     */
+    private static boolean contains(int[] outer, int[] inner) {
+        return inner[0] >= outer[0] && inner[1] >= outer[1]
+                && inner[0] + inner[2] <= outer[0] + outer[2] && inner[1] + inner[3] <= outer[1] + outer[3];
+    }
+}
@@ -0,0 +1,201 @@
+/******************************************************************************
+ * Copyright (c) Tim Visee 2016. All rights reserved.                         *
+ *                                                                            *
+ * @author Tim Visee                                                          *
+ * @website http://timvisee.com/                                              *
+ *                                                                            *
+ * Open Source != No Copyright                                                *
+ *                                                                            *
+ * Permission is hereby granted, free of charge, to any person obtaining a    *
+ * copy of this software and associated documentation files (the "Software"), *
+ * to deal in the Software without restriction, including without limitation  *
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,   *
+ * and/or sell copies of the Software, and to permit persons to whom the      *
+ * Software is furnished to do so, subject to the following conditions:       *
+ *                                                                            *
+ * The above copyright notice and this permission notice shall be included    *
+ * in all copies or substantial portions of the Software.                     *
+ *                                                                            *
+ * You should have received a copy of The MIT License (MIT) along with this   *
+ * program. If not, see <http://opensource.org/licenses/MIT/>.                *
+ ******************************************************************************/
+
+
+package com.timvisee.voxeltex.module.texture.atlas;
+
+import com.timvisee.voxeltex.module.texture.Image;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class AtlasPackerTest {
+
+    @org.junit.Test
+    public void randomRectangles() throws Exception {
+        // Insert random rectangles until the packer is full
+        final AtlasPacker packer = new AtlasPacker(256, 256);
+        final Random random = new Random(1);
+        final List<int[]> placed = new ArrayList<>();
+        for(int i = 0; i < 200; i++) {
+            final int width = 1 + random.nextInt(40);
+            final int height = 1 + random.nextInt(40);
+            final int[] position = packer.insert(width, height);
+            if(position != null)
+                placed.add(new int[]{position[0], position[1], width, height});
+        }
+        assertFalse(placed.isEmpty());
+
+        // Every rectangle must be in bounds, and mustn't overlap any other rectangle
+        for(int i = 0; i < placed.size(); i++) {
+            final int[] a = placed.get(i);
+            assertTrue(a[0] >= 0 && a[1] >= 0);
+            assertTrue(a[0] + a[2] <= packer.getWidth() && a[1] + a[3] <= packer.getHeight());
+            for(int j = i + 1; j < placed.size(); j++)
+                assertFalse("Rectangles " + i + " and " + j + " overlap", overlaps(a, placed.get(j)));
+        }
+    }
+
+    @org.junit.Test
+    public void exactFit() throws Exception {
+        // Four quarters fill the packer exactly
+        final AtlasPacker packer = new AtlasPacker(128, 128);
+        final List<int[]> placed = new ArrayList<>();
+        for(int i = 0; i < 4; i++) {
+            final int[] position = packer.insert(64, 64);
+            assertNotNull(position);
+            placed.add(new int[]{position[0], position[1], 64, 64});
+        }
+        for(int i = 0; i < placed.size(); i++)
+            for(int j = i + 1; j < placed.size(); j++)
+                assertFalse(overlaps(placed.get(i), placed.get(j)));
+
+        // Nothing fits anymore
+        assertNull(packer.insert(64, 64));
+        assertNull(packer.insert(1, 1));
+    }
+
+    @org.junit.Test
+    public void oversized() throws Exception {
+        // Rectangles larger than the packer never fit
+        final AtlasPacker packer = new AtlasPacker(64, 32);
+        assertNull(packer.insert(65, 1));
+        assertNull(packer.insert(1, 33));
+        assertNotNull(packer.insert(64, 32));
+    }
+
+    @org.junit.Test
+    public void builderRegions() throws Exception {
+        // Pack a few solid images with padding
+        final TextureAtlasBuilder builder = new TextureAtlasBuilder();
+        builder.setPadding(2);
+        builder.add("red", createImage(16, 8, 0xFF0000FF));
+        builder.add("green", createImage(5, 20, 0x00FF00FF));
+        builder.add("blue", createImage(1, 1, 0x0000FFFF));
+        final PackedAtlas atlas = builder.pack();
+        final Image image = atlas.getImage();
+        assertEquals(3, atlas.getRegions().size());
+        assertEquals(2, atlas.getPadding());
+
+        // Regions including their padding must be in bounds and mustn't overlap
+        final List<int[]> padded = new ArrayList<>();
+        for(AtlasRegion region : atlas.getRegions())
+            padded.add(new int[]{region.getX() - 2, region.getY() - 2, region.getWidth() + 4, region.getHeight() + 4});
+        for(int i = 0; i < padded.size(); i++) {
+            final int[] a = padded.get(i);
+            assertTrue(a[0] >= 0 && a[1] >= 0);
+            assertTrue(a[0] + a[2] <= image.getWidth() && a[1] + a[3] <= image.getHeight());
+            for(int j = i + 1; j < padded.size(); j++)
+                assertFalse(overlaps(a, padded.get(j)));
+        }
+
+        // The image and it's extruded padding must be filled with the image color
+        for(AtlasRegion region : atlas.getRegions()) {
+            final int color = getColor(region.getName());
+            for(int y = region.getY() - 2; y < region.getY() + region.getHeight() + 2; y++)
+                for(int x = region.getX() - 2; x < region.getX() + region.getWidth() + 2; x++)
+                    assertEquals(region.getName(), color, getPixel(image, x, y));
+        }
+    }
+
+    @org.junit.Test
+    public void builderTooLarge() throws Exception {
+        // Images that don't fit in the maximum atlas size must fail
+        final TextureAtlasBuilder builder = new TextureAtlasBuilder();
+        builder.setMaxSize(32);
+        builder.add("large", createImage(33, 4, 0xFFFFFFFF));
+        try {
+            builder.pack();
+            fail("Packing should fail");
+        } catch(IllegalStateException ignored) { }
+    }
+
+    /**
+     * Check whether two rectangles overlap.
+     *
+     * @param a First rectangle, as x, y, width and height.
+     * @param b Second rectangle, as x, y, width and height.
+     *
+     * @return True if they overlap, false if not.
+     */
+    private static boolean overlaps(int[] a, int[] b) {
+        return a[0] < b[0] + b[2] && b[0] < a[0] + a[2] && a[1] < b[1] + b[3] && b[1] < a[1] + a[3];
+    }
+
+    /**
+     * Create a solid RGBA image.
+     *
+     * @param width Image width.
+     * @param height Image height.
+     * @param color RGBA color.
+     *
+     * @return Image.
+     */
+    private static Image createImage(int width, int height, int color) {
+        final ByteBuffer pixels = ByteBuffer.allocateDirect(width * height * 4).order(ByteOrder.nativeOrder());
+        for(int i = 0; i < width * height; i++)
+            pixels.putInt(i * 4, color);
+        return new Image(pixels, width, height, Image.COMPONENTS_RGBA);
+    }
+
+    /**
+     * Get the color of the image with the given region name.
+     *
+     * @param name Region name.
+     *
+     * @return RGBA color.
+     */
+    private static int getColor(String name) {
+        switch(name) {
+            case "red":
+                return 0xFF0000FF;
+            case "green":
+                return 0x00FF00FF;
+            default:
+                return 0x0000FFFF;
+        }
+    }
+
+    /**
+     * Get a pixel from an RGBA image.
+     *
+     * @param image Image.
+     * @param x Pixel X.
+     * @param y Pixel Y.
+     *
+     * @return RGBA color.
+     */
+    private static int getPixel(Image image, int x, int y) {
+        final ByteBuffer pixels = image.getImage().duplicate().order(ByteOrder.nativeOrder());
+        return pixels.getInt((y * image.getWidth() + x) * 4);
+    }
+}
@@ -0,0 +1,113 @@
+/******************************************************************************
+ * Copyright (c) Tim Visee 2016. All rights reserved.                         *
+ *                                                                            *
+ * @author Tim Visee                                                          *
+ * @website http://timvisee.com/                                              *
+ *                                                                            *
+ * Open Source != No Copyright                                                *
+ *                                                                            *
+ * Permission is hereby granted, free of charge, to any person obtaining a    *
+ * copy of this software and associated documentation files (the "Software"), *
+ * to deal in the Software without restriction, including without limitation  *
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,   *
+ * and/or sell copies of the Software, and to permit persons to whom the      *
+ * Software is furnished to do so, subject to the following conditions:       *
+ *                                                                            *
+ * The above copyright notice and this permission notice shall be included    *
+ * in all copies or substantial portions of the Software.                     *
+ *                                                                            *
+ * You should have received a copy of The MIT License (MIT) along with this   *
+ * program. If not, see <http://opensource.org/licenses/MIT/>.                *
+ ******************************************************************************/
+
+package com.timvisee.voxeltex.module.texture.atlas;
+
+public class AtlasRegion {
+
+    /**
+     * Region name, the path of the source image as listed in the atlas definition.
+     */
+    private final String name;
+
+    /**
+     * X position of the region in the atlas, in pixels, excluding it's padding.
+     */
+    private final int x;
+
+    /**
+     * Y position of the region in the atlas, in pixels, excluding it's padding.
+     */
+    private final int y;
+
+    /**
+     * Region width in pixels.
+     */
+    private final int width;
+
+    /**
+     * Region height in pixels.
+     */
+    private final int height;
+
+    /**
+     * Constructor.
+     *
+     * @param name Region name.
+     * @param x X position in the atlas.
+     * @param y Y position in the atlas.
+     * @param width Region width.
+     * @param height Region height.
+     */
+    public AtlasRegion(String name, int x, int y, int width, int height) {
+        this.name = name;
+        this.x = x;
+        this.y = y;
+        this.width = width;
+        this.height = height;
+    }
+
+    /**
+     * Get the region name.
+     *
+     * @return Region name.
+     */
+    public String getName() {
+        return this.name;
+    }
+
+    /**
+     * Get the X position of the region in the atlas.
+     *
+     * @return X position in pixels.
+     */
+    public int getX() {
+        return this.x;
+    }
+
+    /**
+     * Get the Y position of the region in the atlas.
+     *
+     * @return Y position in pixels.
+     */
+    public int getY() {
+        return this.y;
+    }
+
+    /**
+     * Get the region width.
+     *
+     * @return Width in pixels.
+     */
+    public int getWidth() {
+        return this.width;
+    }
+
+    /**
+     * Get the region height.
+     *
+     * @return Height in pixels.
+     */
+    public int getHeight() {
+        return this.height;
+    }
+}
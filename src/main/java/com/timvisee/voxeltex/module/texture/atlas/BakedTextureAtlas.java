@@ -0,0 +1,177 @@
+/******************************************************************************
+ * Copyright (c) Tim Visee 2016. All rights reserved.                         *
+ *                                                                            *
+ * @author Tim Visee                                                          *
+ * @website http://timvisee.com/                                              *
+ *                                                                            *
+ * Open Source != No Copyright                                                *
+ *                                                                            *
+ * Permission is hereby granted, free of charge, to any person obtaining a    *
+ * copy of this software and associated documentation files (the "Software"), *
+ * to deal in the Software without restriction, including without limitation  *
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,   *
+ * and/or sell copies of the Software, and to permit persons to whom the      *
+ * Software is furnished to do so, subject to the following conditions:       *
+ *                                                                            *
+ * The above copyright notice and this permission notice shall be included    *
+ * in all copies or substantial portions of the Software.                     *
+ *                                                                            *
+ * You should have received a copy of The MIT License (MIT) along with this   *
+ * program. If not, see <http://opensource.org/licenses/MIT/>.                *
+ ******************************************************************************/
+
+package com.timvisee.voxeltex.module.texture.atlas;
+
+import com.timvisee.voxeltex.module.texture.Image;
+import com.timvisee.voxeltex.module.texture.baked.BakedImageReader;
+import com.timvisee.voxeltex.module.texture.baked.BakedImageWriter;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+public class BakedTextureAtlas {
+
+    /**
+     * File extension of baked atlas files.
+     */
+    public static final String FILE_EXTENSION = ".vtatlas";
+
+    /**
+     * Magic number at the start of each baked atlas file, the bytes "VTAT" read as little endian integer.
+     */
+    public static final int MAGIC = 0x54415456;
+
+    /**
+     * Current version of the baked atlas format.
+     */
+    public static final int VERSION = 1;
+
+    /**
+     * Size of the fixed file header in bytes.
+     */
+    public static final int HEADER_SIZE = 20;
+
+    /**
+     * Alignment of the embedded baked image in the file, in bytes.
+     */
+    public static final int IMAGE_ALIGNMENT = BakedImageWriter.DATA_ALIGNMENT;
+
+    /**
+     * Bake a packed atlas into a buffer in the baked atlas format.
+     *
+     * The file starts with a little endian header holding the magic number, version, padding, number of regions and
+     * the offset of the atlas image. It's followed by the region table, with the UTF-8 name length, name, position and
+     * size of each region, and the atlas image with it's mipmaps in the baked image format.
+     *
+     * @param atlas Packed atlas.
+     *
+     * @return Baked atlas data, ready for writing.
+     */
+    public static ByteBuffer bake(PackedAtlas atlas) {
+        // Encode the region names, and determine the size of the region table
+        final List<AtlasRegion> regions = atlas.getRegions();
+        final byte[][] names = new byte[regions.size()][];
+        int tableSize = 0;
+        for(int i = 0; i < regions.size(); i++) {
+            names[i] = regions.get(i).getName().getBytes(StandardCharsets.UTF_8);
+            tableSize += 4 + names[i].length + 16;
+        }
+
+        // Bake the atlas image
+        final Image image = atlas.getImage();
+        final ByteBuffer bakedImage = BakedImageWriter.bake(image.getImage(), image.getWidth(), image.getHeight(),
+                image.getMipmaps());
+
+        // Write the header
+        final int imageOffset = (HEADER_SIZE + tableSize + IMAGE_ALIGNMENT - 1) & -IMAGE_ALIGNMENT;
+        final ByteBuffer buffer = ByteBuffer.allocate(imageOffset + bakedImage.remaining()).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(atlas.getPadding()).putInt(regions.size()).putInt(imageOffset);
+
+        // Write the region table
+        for(int i = 0; i < regions.size(); i++) {
+            final AtlasRegion region = regions.get(i);
+            buffer.putInt(names[i].length).put(names[i]);
+            buffer.putInt(region.getX()).putInt(region.getY()).putInt(region.getWidth()).putInt(region.getHeight());
+        }
+
+        // Write the atlas image
+        buffer.position(imageOffset);
+        buffer.put(bakedImage);
+
+        // Return the buffer, covering the whole file
+        buffer.clear();
+        return buffer;
+    }
+
+    /**
+     * Bake a packed atlas into a file.
+     *
+     * @param atlas Packed atlas.
+     * @param path Path of the file to write.
+     *
+     * @throws IOException
+     */
+    public static void write(PackedAtlas atlas, Path path) throws IOException {
+        // Bake the atlas
+        final ByteBuffer buffer = bake(atlas);
+
+        // Write it to the file
+        try(FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while(buffer.hasRemaining())
+                channel.write(buffer);
+        }
+    }
+
+    /**
+     * Read a baked atlas from the given buffer. The atlas image references the buffer, and isn't copied.
+     *
+     * @param buffer Buffer positioned at the start of the baked atlas.
+     *
+     * @return Packed atlas, with it's mipmaps.
+     *
+     * @throws IOException Thrown if the buffer doesn't hold a valid baked atlas.
+     */
+    public static PackedAtlas read(ByteBuffer buffer) throws IOException {
+        // Create a little endian view of the buffer, positioned at the start of the atlas
+        final ByteBuffer data = buffer.slice().order(ByteOrder.LITTLE_ENDIAN);
+        if(data.remaining() < HEADER_SIZE)
+            throw new IOException("Invalid baked atlas, file is too small");
+
+        // Read and validate the header
+        if(data.getInt() != MAGIC)
+            throw new IOException("Invalid baked atlas, magic number mismatch");
+        final int version = data.getInt();
+        if(version != VERSION)
+            throw new IOException("Unsupported baked atlas version: " + version);
+        final int padding = data.getInt();
+        final int regionCount = data.getInt();
+        final int imageOffset = data.getInt();
+        if(padding < 0 || regionCount < 0 || imageOffset < HEADER_SIZE || imageOffset > data.limit())
+            throw new IOException("Invalid baked atlas header");
+
+        // Read the region table
+        final List<AtlasRegion> regions = new ArrayList<>(regionCount);
+        try {
+            for(int i = 0; i < regionCount; i++) {
+                final byte[] name = new byte[data.getInt()];
+                data.get(name);
+                regions.add(new AtlasRegion(new String(name, StandardCharsets.UTF_8),
+                        data.getInt(), data.getInt(), data.getInt(), data.getInt()));
+            }
+        } catch(RuntimeException e) {
+            throw new IOException("Invalid baked atlas, region table is corrupt", e);
+        }
+
+        // Read the atlas image
+        data.position(imageOffset);
+        return new PackedAtlas(BakedImageReader.read(data), regions, padding);
+    }
+}
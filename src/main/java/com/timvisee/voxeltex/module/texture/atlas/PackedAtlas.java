@@ -0,0 +1,95 @@
+/******************************************************************************
+ * Copyright (c) Tim Visee 2016. All rights reserved.                         *
+ *                                                                            *
+ * @author Tim Visee                                                          *
+ * @website http://timvisee.com/                                              *
+ *                                                                            *
+ * Open Source != No Copyright                                                *
+ *                                                                            *
+ * Permission is hereby granted, free of charge, to any person obtaining a    *
+ * copy of this software and associated documentation files (the "Software"), *
+ * to deal in the Software without restriction, including without limitation  *
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,   *
+ * and/or sell copies of the Software, and to permit persons to whom the      *
+ * Software is furnished to do so, subject to the following conditions:       *
+ *                                                                            *
+ * The above copyright notice and this permission notice shall be included    *
+ * in all copies or substantial portions of the Software.                     *
+ *                                                                            *
+ * You should have received a copy of The MIT License (MIT) along with this   *
+ * program. If not, see <http://opensource.org/licenses/MIT/>.                *
+ ******************************************************************************/
+
+package com.timvisee.voxeltex.module.texture.atlas;
+
+import com.timvisee.voxeltex.module.texture.Image;
+
+import java.util.List;
+
+public class PackedAtlas {
+
+    /**
+     * Atlas image, holding all regions and their padding.
+     */
+    private final Image image;
+
+    /**
+     * Regions packed into the atlas.
+     */
+    private final List<AtlasRegion> regions;
+
+    /**
+     * Padding around each region in pixels, filled with the extruded region edges.
+     */
+    private final int padding;
+
+    /**
+     * Constructor.
+     *
+     * @param image Atlas image.
+     * @param regions Regions packed into the atlas.
+     * @param padding Padding around each region in pixels.
+     */
+    public PackedAtlas(Image image, List<AtlasRegion> regions, int padding) {
+        this.image = image;
+        this.regions = regions;
+        this.padding = padding;
+    }
+
+    /**
+     * Get the atlas image.
+     *
+     * @return Atlas image.
+     */
+    public Image getImage() {
+        return this.image;
+    }
+
+    /**
+     * Get the regions packed into the atlas.
+     *
+     * @return Regions.
+     */
+    public List<AtlasRegion> getRegions() {
+        return this.regions;
+    }
+
+    /**
+     * Get the padding around each region.
+     *
+     * @return Padding in pixels.
+     */
+    public int getPadding() {
+        return this.padding;
+    }
+
+    /**
+     * Get the highest mipmap level that may be sampled without texels mixing neighbouring regions.
+     * Regions are separated by twice the padding, so texels of up to that size stay within a single region.
+     *
+     * @return Highest mipmap level.
+     */
+    public int getMaxLevel() {
+        return this.padding > 0 ? 31 - Integer.numberOfLeadingZeros(this.padding * 2) : 0;
+    }
+}
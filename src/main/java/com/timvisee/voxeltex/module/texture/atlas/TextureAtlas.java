@@ -0,0 +1,174 @@
+/******************************************************************************
+ * Copyright (c) Tim Visee 2016. All rights reserved.                         *
+ *                                                                            *
+ * @author Tim Visee                                                          *
+ * @website http://timvisee.com/                                              *
+ *                                                                            *
+ * Open Source != No Copyright                                                *
+ *                                                                            *
+ * Permission is hereby granted, free of charge, to any person obtaining a    *
+ * copy of this software and associated documentation files (the "Software"), *
+ * to deal in the Software without restriction, including without limitation  *
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,   *
+ * and/or sell copies of the Software, and to permit persons to whom the      *
+ * Software is furnished to do so, subject to the following conditions:       *
+ *                                                                            *
+ * The above copyright notice and this permission notice shall be included    *
+ * in all copies or substantial portions of the Software.                     *
+ *                                                                            *
+ * You should have received a copy of The MIT License (MIT) along with this   *
+ * program. If not, see <http://opensource.org/licenses/MIT/>.                *
+ ******************************************************************************/
+
+package com.timvisee.voxeltex.module.texture.atlas;
+
+import com.timvisee.voxeltex.module.resource.engine.EngineAssetLoader;
+import com.timvisee.voxeltex.module.texture.Image;
+import com.timvisee.voxeltex.module.texture.Texture;
+import org.joml.Vector2f;
+import org.lwjgl.opengl.GL12;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class TextureAtlas {
+
+    /**
+     * File extension of atlas definitions.
+     */
+    public static final String DEFINITION_EXTENSION = ".atlas";
+
+    /**
+     * Atlas texture, holding all regions.
+     */
+    private final Texture texture;
+
+    /**
+     * Regions of the atlas, by their name.
+     */
+    private final Map<String, TextureRegion> regions;
+
+    /**
+     * Constructor.
+     *
+     * @param texture Atlas texture.
+     * @param regions Regions of the atlas, by their name.
+     */
+    private TextureAtlas(Texture texture, Map<String, TextureRegion> regions) {
+        this.texture = texture;
+        this.regions = regions;
+    }
+
+    /**
+     * Create a texture atlas from a packed atlas, and consume it's image.
+     * Mipmaps are generated if the atlas image doesn't have them yet, and sampling is limited to the levels at which
+     * regions don't bleed into each other.
+     *
+     * @param atlas Packed atlas.
+     *
+     * @return Texture atlas.
+     */
+    public static TextureAtlas create(PackedAtlas atlas) {
+        // Create the texture, and keep the regions from wrapping or bleeding into each other
+        final Image image = atlas.getImage();
+        final float width = image.getWidth();
+        final float height = image.getHeight();
+        final Texture texture = Texture.consumeImage(image, true);
+        texture.setWrap(GL12.GL_CLAMP_TO_EDGE);
+        texture.setLevelClamp(0, atlas.getMaxLevel());
+
+        // Create the texture region for each atlas region
+        final Map<String, TextureRegion> regions = new HashMap<>();
+        for(AtlasRegion region : atlas.getRegions())
+            regions.put(region.getName(), new TextureRegion(texture,
+                    new Vector2f(region.getX() / width, region.getY() / height),
+                    new Vector2f(region.getWidth() / width, region.getHeight() / height)));
+
+        // Create the atlas
+        return new TextureAtlas(texture, regions);
+    }
+
+    /**
+     * Load a texture atlas from the atlas definition at the given engine asset path.
+     * The atlas baked by the asset compiler is used if available, the listed images are packed at runtime otherwise.
+     *
+     * @param path Engine asset path of the atlas definition.
+     *
+     * @return Texture atlas.
+     */
+    public static TextureAtlas loadFromEngineAssets(String path) {
+        // Prefer the baked atlas, which is packed already and includes it's mipmaps
+        final EngineAssetLoader loader = EngineAssetLoader.getInstance();
+        final String bakedPath = loader.getBakedPath(path, BakedTextureAtlas.FILE_EXTENSION);
+        if(bakedPath != null) {
+            try {
+                final ByteBuffer buffer = loader.loadResourceByteBuffer(bakedPath);
+                if(buffer == null)
+                    throw new IOException("Failed to load resource: " + bakedPath);
+                return create(BakedTextureAtlas.read(buffer));
+
+            } catch(IOException e) {
+                e.printStackTrace();
+                throw new RuntimeException("Failed to load baked atlas!");
+            }
+        }
+
+        // Load the listed images, relative to the directory of the definition
+        final String directory = path.substring(0, path.lastIndexOf('/') + 1);
+        final TextureAtlasBuilder builder = new TextureAtlasBuilder();
+        final List<Image> images = new ArrayList<>();
+        for(String imagePath : TextureAtlasBuilder.parseDefinition(loader.loadResourceString(path))) {
+            final Image image = Image.loadFromEngineAssets(directory + imagePath, Image.COMPONENTS_RGBA);
+            images.add(image);
+            builder.add(imagePath, image);
+        }
+
+        // Pack the atlas, and dispose the source images
+        final PackedAtlas atlas = builder.pack();
+        for(Image image : images)
+            image.dispose();
+        return create(atlas);
+    }
+
+    /**
+     * Get the atlas texture.
+     *
+     * @return Atlas texture.
+     */
+    public Texture getTexture() {
+        return this.texture;
+    }
+
+    /**
+     * Get the region with the given name.
+     *
+     * @param name Region name, the image path as listed in the atlas definition.
+     *
+     * @return Texture region, or null if the atlas doesn't contain it.
+     */
+    public TextureRegion getRegion(String name) {
+        return this.regions.get(name);
+    }
+
+    /**
+     * Get the names of all regions in this atlas.
+     *
+     * @return Region names.
+     */
+    public Collection<String> getRegionNames() {
+        return Collections.unmodifiableCollection(this.regions.keySet());
+    }
+
+    /**
+     * Dispose the atlas texture.
+     */
+    public void dispose() {
+        this.texture.dispose();
+    }
+}
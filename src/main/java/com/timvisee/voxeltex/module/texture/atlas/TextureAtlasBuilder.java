@@ -0,0 +1,272 @@
+/******************************************************************************
+ * Copyright (c) Tim Visee 2016. All rights reserved.                         *
+ *                                                                            *
+ * @author Tim Visee                                                          *
+ * @website http://timvisee.com/                                              *
+ *                                                                            *
+ * Open Source != No Copyright                                                *
+ *                                                                            *
+ * Permission is hereby granted, free of charge, to any person obtaining a    *
+ * copy of this software and associated documentation files (the "Software"), *
+ * to deal in the Software without restriction, including without limitation  *
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,   *
+ * and/or sell copies of the Software, and to permit persons to whom the      *
+ * Software is furnished to do so, subject to the following conditions:       *
+ *                                                                            *
+ * The above copyright notice and this permission notice shall be included    *
+ * in all copies or substantial portions of the Software.                     *
+ *                                                                            *
+ * You should have received a copy of The MIT License (MIT) along with this   *
+ * program. If not, see <http://opensource.org/licenses/MIT/>.                *
+ ******************************************************************************/
+
+package com.timvisee.voxeltex.module.texture.atlas;
+
+import com.timvisee.voxeltex.module.texture.Image;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class TextureAtlasBuilder {
+
+    /**
+     * Default padding around each region in pixels.
+     */
+    public static final int DEFAULT_PADDING = 2;
+
+    /**
+     * Default maximum width and height of the atlas in pixels.
+     */
+    public static final int DEFAULT_MAX_SIZE = 4096;
+
+    /**
+     * Images to pack, by their region name.
+     */
+    private final Map<String, Image> images = new LinkedHashMap<>();
+
+    /**
+     * Padding around each region in pixels.
+     */
+    private int padding = DEFAULT_PADDING;
+
+    /**
+     * Maximum width and height of the atlas in pixels.
+     */
+    private int maxSize = DEFAULT_MAX_SIZE;
+
+    /**
+     * Add an image to the atlas.
+     * The image isn't consumed, and must stay available until the atlas is packed.
+     *
+     * @param name Region name.
+     * @param image RGBA image.
+     *
+     * @throws IllegalArgumentException Thrown if the image isn't an RGBA image, or if the name is used already.
+     */
+    public void add(String name, Image image) {
+        // Validate the image
+        if(image.getComponents() != Image.COMPONENTS_RGBA)
+            throw new IllegalArgumentException("Only RGBA images can be added to an atlas: " + name);
+        if(this.images.containsKey(name))
+            throw new IllegalArgumentException("Atlas already contains a region named: " + name);
+
+        // Add the image
+        this.images.put(name, image);
+    }
+
+    /**
+     * Get the padding around each region.
+     *
+     * @return Padding in pixels.
+     */
+    public int getPadding() {
+        return this.padding;
+    }
+
+    /**
+     * Set the padding around each region. The padding is filled with the extruded region edges, so filtering at the
+     * region edges doesn't sample neighbouring regions.
+     *
+     * @param padding Padding in pixels.
+     */
+    public void setPadding(int padding) {
+        this.padding = padding;
+    }
+
+    /**
+     * Get the maximum width and height of the atlas.
+     *
+     * @return Maximum size in pixels.
+     */
+    public int getMaxSize() {
+        return this.maxSize;
+    }
+
+    /**
+     * Set the maximum width and height of the atlas.
+     *
+     * @param maxSize Maximum size in pixels.
+     */
+    public void setMaxSize(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Pack the images into an atlas image.
+     * The smallest power of two atlas that fits all images is used, larger images are placed first.
+     *
+     * @return Packed atlas, without mipmaps.
+     *
+     * @throws IllegalStateException Thrown if the images don't fit in an atlas of the maximum size.
+     */
+    public PackedAtlas pack() {
+        // Sort the images by their longest side, then by their area
+        final List<Map.Entry<String, Image>> entries = new ArrayList<>(this.images.entrySet());
+        entries.sort((a, b) -> {
+            final int side = Integer.compare(getLongestSide(b.getValue()), getLongestSide(a.getValue()));
+            return side != 0 ? side : Integer.compare(getArea(b.getValue()), getArea(a.getValue()));
+        });
+
+        // Determine the initial atlas size from the total area and the largest image
+        long area = 0;
+        int minSize = 1;
+        for(Map.Entry<String, Image> entry : entries) {
+            area += (long) (entry.getValue().getWidth() + this.padding * 2) * (entry.getValue().getHeight() + this.padding * 2);
+            minSize = Math.max(minSize, getLongestSide(entry.getValue()) + this.padding * 2);
+        }
+        int width = nextPowerOfTwo(Math.max(minSize, (int) Math.ceil(Math.sqrt(area))));
+        int height = width;
+
+        // Pack the images, and grow the atlas until they fit
+        int[][] positions;
+        while(width > this.maxSize || height > this.maxSize || (positions = place(entries, width, height)) == null) {
+            if(width > this.maxSize || height > this.maxSize)
+                throw new IllegalStateException("Images don't fit in an atlas of " + this.maxSize + "x" + this.maxSize);
+            if(width <= height)
+                width *= 2;
+            else
+                height *= 2;
+        }
+
+        // Draw each image with it's extruded edges into the atlas, and create it's region
+        final ByteBuffer pixels = ByteBuffer.allocateDirect(width * height * 4).order(ByteOrder.nativeOrder());
+        final List<AtlasRegion> regions = new ArrayList<>(entries.size());
+        for(int i = 0; i < entries.size(); i++) {
+            final Image image = entries.get(i).getValue();
+            final int x = positions[i][0] + this.padding;
+            final int y = positions[i][1] + this.padding;
+            draw(image, pixels, width, x, y);
+            regions.add(new AtlasRegion(entries.get(i).getKey(), x, y, image.getWidth(), image.getHeight()));
+        }
+
+        // Create the packed atlas
+        final Image atlasImage = new Image(pixels, width, height, Image.COMPONENTS_RGBA, Collections.<ByteBuffer>emptyList());
+        return new PackedAtlas(atlasImage, regions, this.padding);
+    }
+
+    /**
+     * Pack the images, and create a texture atlas from them.
+     *
+     * @return Texture atlas.
+     */
+    public TextureAtlas build() {
+        return TextureAtlas.create(pack());
+    }
+
+    /**
+     * Parse an atlas definition, which lists the path of each image on it's own line.
+     * Empty lines and lines starting with a hash are skipped.
+     *
+     * @param definition Atlas definition.
+     *
+     * @return Image paths, relative to the directory of the definition.
+     */
+    public static List<String> parseDefinition(String definition) {
+        final List<String> paths = new ArrayList<>();
+        for(String line : definition.split("\r?\n")) {
+            line = line.trim();
+            if(!line.isEmpty() && !line.startsWith("#"))
+                paths.add(line);
+        }
+        return paths;
+    }
+
+    /**
+     * Place all images, including their padding, in an atlas of the given size.
+     *
+     * @param entries Images to place.
+     * @param width Atlas width.
+     * @param height Atlas height.
+     *
+     * @return Position of each image, or null if they don't fit.
+     */
+    private int[][] place(List<Map.Entry<String, Image>> entries, int width, int height) {
+        final AtlasPacker packer = new AtlasPacker(width, height);
+        final int[][] positions = new int[entries.size()][];
+        for(int i = 0; i < entries.size(); i++) {
+            final Image image = entries.get(i).getValue();
+            positions[i] = packer.insert(image.getWidth() + this.padding * 2, image.getHeight() + this.padding * 2);
+            if(positions[i] == null)
+                return null;
+        }
+        return positions;
+    }
+
+    /**
+     * Draw an image into the atlas, and extrude it's edges into the padding around it.
+     *
+     * @param image Image to draw.
+     * @param atlas Atlas pixels.
+     * @param atlasWidth Atlas width.
+     * @param x X position of the image.
+     * @param y Y position of the image.
+     */
+    private void draw(Image image, ByteBuffer atlas, int atlasWidth, int x, int y) {
+        final ByteBuffer source = image.getImage().duplicate().order(atlas.order());
+        for(int dy = -this.padding; dy < image.getHeight() + this.padding; dy++) {
+            final int sourceY = Math.min(Math.max(dy, 0), image.getHeight() - 1);
+            for(int dx = -this.padding; dx < image.getWidth() + this.padding; dx++) {
+                final int sourceX = Math.min(Math.max(dx, 0), image.getWidth() - 1);
+                atlas.putInt(((y + dy) * atlasWidth + x + dx) * 4, source.getInt((sourceY * image.getWidth() + sourceX) * 4));
+            }
+        }
+    }
+
+    /**
+     * Get the longest side of an image.
+     *
+     * @param image Image.
+     *
+     * @return Longest side in pixels.
+     */
+    private static int getLongestSide(Image image) {
+        return Math.max(image.getWidth(), image.getHeight());
+    }
+
+    /**
+     * Get the area of an image.
+     *
+     * @param image Image.
+     *
+     * @return Area in pixels.
+     */
+    private static int getArea(Image image) {
+        return image.getWidth() * image.getHeight();
+    }
+
+    /**
+     * Round the given value up to the next power of two.
+     *
+     * @param value Value.
+     *
+     * @return Power of two.
+     */
+    private static int nextPowerOfTwo(int value) {
+        return value <= 1 ? 1 : Integer.highestOneBit(value - 1) << 1;
+    }
+}
@@ -0,0 +1,98 @@
+/******************************************************************************
+ * Copyright (c) Tim Visee 2016. All rights reserved.                         *
+ *                                                                            *
+ * @author Tim Visee                                                          *
+ * @website http://timvisee.com/                                              *
+ *                                                                            *
+ * Open Source != No Copyright                                                *
+ *                                                                            *
+ * Permission is hereby granted, free of charge, to any person obtaining a    *
+ * copy of this software and associated documentation files (the "Software"), *
+ * to deal in the Software without restriction, including without limitation  *
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,   *
+ * and/or sell copies of the Software, and to permit persons to whom the      *
+ * Software is furnished to do so, subject to the following conditions:       *
+ *                                                                            *
+ * The above copyright notice and this permission notice shall be included    *
+ * in all copies or substantial portions of the Software.                     *
+ *                                                                            *
+ * You should have received a copy of The MIT License (MIT) along with this   *
+ * program. If not, see <http://opensource.org/licenses/MIT/>.                *
+ ******************************************************************************/
+
+package com.timvisee.voxeltex.module.texture.atlas;
+
+import com.timvisee.voxeltex.module.texture.Texture;
+import com.timvisee.voxeltex.util.math.vector.Vector2fFactory;
+import org.joml.Vector2f;
+
+public class TextureRegion {
+
+    /**
+     * Texture the region is part of.
+     */
+    private final Texture texture;
+
+    /**
+     * Texture coordinate offset of the region.
+     */
+    private final Vector2f offset;
+
+    /**
+     * Texture coordinate scale of the region.
+     */
+    private final Vector2f scale;
+
+    /**
+     * Constructor.
+     * Texture coordinates of zero to one are mapped onto the region by multiplying them with the scale, and adding the
+     * offset.
+     *
+     * @param texture Texture the region is part of.
+     * @param offset Texture coordinate offset.
+     * @param scale Texture coordinate scale.
+     */
+    public TextureRegion(Texture texture, Vector2f offset, Vector2f scale) {
+        this.texture = texture;
+        this.offset = offset;
+        this.scale = scale;
+    }
+
+    /**
+     * Create a region covering the whole texture.
+     *
+     * @param texture Texture.
+     *
+     * @return Texture region.
+     */
+    public static TextureRegion fromTexture(Texture texture) {
+        return new TextureRegion(texture, Vector2fFactory.zero(), Vector2fFactory.one());
+    }
+
+    /**
+     * Get the texture the region is part of.
+     *
+     * @return Texture.
+     */
+    public Texture getTexture() {
+        return this.texture;
+    }
+
+    /**
+     * Get the texture coordinate offset of the region.
+     *
+     * @return Texture coordinate offset.
+     */
+    public Vector2f getOffset() {
+        return this.offset;
+    }
+
+    /**
+     * Get the texture coordinate scale of the region.
+     *
+     * @return Texture coordinate scale.
+     */
+    public Vector2f getScale() {
+        return this.scale;
+    }
+}
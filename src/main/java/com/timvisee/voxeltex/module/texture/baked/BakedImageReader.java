@@ -0,0 +1,145 @@
+/******************************************************************************
+ * Copyright (c) Tim Visee 2016. All rights reserved.                         *
+ *                                                                            *
+ * @author Tim Visee                                                          *
+ * @website http://timvisee.com/                                              *
+ *                                                                            *
+ * Open Source != No Copyright                                                *
+ *                                                                            *
+ * Permission is hereby granted, free of charge, to any person obtaining a    *
+ * copy of this software and associated documentation files (the "Software"), *
+ * to deal in the Software without restriction, including without limitation  *
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,   *
+ * and/or sell copies of the Software, and to permit persons to whom the      *
+ * Software is furnished to do so, subject to the following conditions:       *
+ *                                                                            *
+ * The above copyright notice and this permission notice shall be included    *
+ * in all copies or substantial portions of the Software.                     *
+ *                                                                            *
+ * You should have received a copy of The MIT License (MIT) along with this   *
+ * program. If not, see <http://opensource.org/licenses/MIT/>.                *
+ ******************************************************************************/
+
+package com.timvisee.voxeltex.module.texture.baked;
+
+import com.timvisee.voxeltex.module.resource.engine.EngineAssetLoader;
+import com.timvisee.voxeltex.module.texture.Image;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+public class BakedImageReader {
+
+    /**
+     * Read a baked image from the engine assets.
+     * The asset file is memory mapped if it's available on the file system.
+     *
+     * @param path Path of the engine asset.
+     *
+     * @return Image, with it's mipmaps.
+     */
+    public static Image readFromEngineAssets(String path) {
+        try {
+            // Memory map the asset if it's a plain file, assets in a mounted pack are mapped already
+            final EngineAssetLoader loader = EngineAssetLoader.getInstance();
+            final URL url = BakedImageReader.class.getResource(loader.getBasePath() + path);
+            if(url != null && "file".equals(url.getProtocol()) && !loader.isPacked(path))
+                return read(Paths.get(url.toURI()));
+
+            // Load the asset into a buffer
+            final ByteBuffer buffer = loader.loadResourceByteBuffer(path);
+            if(buffer == null)
+                throw new IOException("Failed to load resource: " + path);
+            return read(buffer);
+
+        } catch(IOException | URISyntaxException e) {
+            e.printStackTrace();
+            throw new RuntimeException("Failed to load baked image!");
+        }
+    }
+
+    /**
+     * Read a baked image from a file, which is memory mapped.
+     *
+     * @param path Path of the file.
+     *
+     * @return Image, with it's mipmaps.
+     *
+     * @throws IOException
+     */
+    public static Image read(Path path) throws IOException {
+        try(FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // Make sure the file can be mapped at once
+            if(channel.size() > Integer.MAX_VALUE)
+                throw new IOException("Baked image file is too large to map: " + path);
+
+            // Map and read the file, the mapping stays valid after the channel is closed
+            return read(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Read a baked image from the remaining bytes of the given buffer.
+     * The levels of the returned image are slices of the given buffer, no pixel data is copied.
+     *
+     * @param buffer Buffer holding the baked image.
+     *
+     * @return Image, with it's mipmaps.
+     *
+     * @throws IOException Thrown if the buffer doesn't hold a valid baked image.
+     */
+    public static Image read(ByteBuffer buffer) throws IOException {
+        // Create a little endian view of the buffer, positioned at the start of the image
+        final ByteBuffer data = buffer.slice().order(ByteOrder.LITTLE_ENDIAN);
+        if(data.remaining() < BakedImageWriter.HEADER_SIZE)
+            throw new IOException("Invalid baked image, file is too small");
+
+        // Read and validate the header
+        if(data.getInt() != BakedImageWriter.MAGIC)
+            throw new IOException("Invalid baked image, magic number mismatch");
+        final int version = data.getInt();
+        if(version != BakedImageWriter.VERSION)
+            throw new IOException("Unsupported baked image version: " + version);
+        final int width = data.getInt();
+        final int height = data.getInt();
+        final int components = data.getInt();
+        final int levelCount = data.getInt();
+        if(components != Image.COMPONENTS_RGBA || levelCount < 1
+                || data.remaining() < levelCount * BakedImageWriter.LEVEL_ENTRY_SIZE)
+            throw new IOException("Invalid baked image header");
+
+        // Read the levels
+        ByteBuffer base = null;
+        final List<ByteBuffer> mipmaps = new ArrayList<>(levelCount - 1);
+        for(int i = 0; i < levelCount; i++) {
+            // Validate the level range
+            final int offset = data.getInt();
+            final int size = data.getInt();
+            final int levelWidth = Math.max(width >> i, 1);
+            final int levelHeight = Math.max(height >> i, 1);
+            if(size != levelWidth * levelHeight * components || offset < 0 || offset + size > data.limit())
+                throw new IOException("Invalid baked image, level data is corrupt");
+
+            // Slice the level data
+            final ByteBuffer view = data.duplicate();
+            view.limit(offset + size).position(offset);
+            final ByteBuffer level = view.slice();
+            if(i == 0)
+                base = level;
+            else
+                mipmaps.add(level);
+        }
+
+        // Create the image
+        return new Image(base, width, height, components, mipmaps);
+    }
+}
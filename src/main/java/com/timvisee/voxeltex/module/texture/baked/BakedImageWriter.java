@@ -0,0 +1,152 @@
+/******************************************************************************
+ * Copyright (c) Tim Visee 2016. All rights reserved.                         *
+ *                                                                            *
+ * @author Tim Visee                                                          *
+ * @website http://timvisee.com/                                              *
+ *                                                                            *
+ * Open Source != No Copyright                                                *
+ *                                                                            *
+ * Permission is hereby granted, free of charge, to any person obtaining a    *
+ * copy of this software and associated documentation files (the "Software"), *
+ * to deal in the Software without restriction, including without limitation  *
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,   *
+ * and/or sell copies of the Software, and to permit persons to whom the      *
+ * Software is furnished to do so, subject to the following conditions:       *
+ *                                                                            *
+ * The above copyright notice and this permission notice shall be included    *
+ * in all copies or substantial portions of the Software.                     *
+ *                                                                            *
+ * You should have received a copy of The MIT License (MIT) along with this   *
+ * program. If not, see <http://opensource.org/licenses/MIT/>.                *
+ ******************************************************************************/
+
+package com.timvisee.voxeltex.module.texture.baked;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+public class BakedImageWriter {
+
+    /**
+     * File extension of baked image files.
+     */
+    public static final String FILE_EXTENSION = ".vtimg";
+
+    /**
+     * Magic number at the start of each baked image file, the bytes "VTIM" read as little endian integer.
+     */
+    public static final int MAGIC = 0x4D495456;
+
+    /**
+     * Current version of the baked image format.
+     */
+    public static final int VERSION = 1;
+
+    /**
+     * Size of the fixed file header in bytes.
+     */
+    public static final int HEADER_SIZE = 24;
+
+    /**
+     * Size of each entry in the level table in bytes.
+     */
+    public static final int LEVEL_ENTRY_SIZE = 8;
+
+    /**
+     * Alignment of the level data in the file, in bytes.
+     */
+    public static final int DATA_ALIGNMENT = 16;
+
+    /**
+     * Bake an RGBA image and it's mipmaps into a buffer in the baked image format.
+     *
+     * The file starts with a little endian header holding the magic number, version, width, height, number of
+     * components and number of levels. It's followed by a table with the offset and size of each level, and the
+     * aligned raw pixel data of each level, ready for uploading.
+     *
+     * @param image Base level RGBA data.
+     * @param width Image width.
+     * @param height Image height.
+     * @param mipmaps Mipmap levels, starting at level one.
+     *
+     * @return Baked image data, ready for writing.
+     */
+    public static ByteBuffer bake(ByteBuffer image, int width, int height, List<ByteBuffer> mipmaps) {
+        // Determine the offset of each level
+        final int levelCount = 1 + mipmaps.size();
+        final int[] offsets = new int[levelCount];
+        int size = align(HEADER_SIZE + levelCount * LEVEL_ENTRY_SIZE);
+        for(int i = 0; i < levelCount; i++) {
+            offsets[i] = size;
+            size = align(size + level(image, mipmaps, i).remaining());
+        }
+
+        // Write the header
+        final ByteBuffer buffer = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(width).putInt(height).putInt(4).putInt(levelCount);
+
+        // Write the level table and the level data
+        for(int i = 0; i < levelCount; i++)
+            buffer.putInt(offsets[i]).putInt(level(image, mipmaps, i).remaining());
+        for(int i = 0; i < levelCount; i++) {
+            buffer.position(offsets[i]);
+            buffer.put(level(image, mipmaps, i).duplicate());
+        }
+
+        // Return the buffer, covering the whole file
+        buffer.clear();
+        return buffer;
+    }
+
+    /**
+     * Bake an RGBA image and it's mipmaps into a file.
+     *
+     * @param image Base level RGBA data.
+     * @param width Image width.
+     * @param height Image height.
+     * @param mipmaps Mipmap levels, starting at level one.
+     * @param path Path of the file to write.
+     *
+     * @throws IOException
+     */
+    public static void write(ByteBuffer image, int width, int height, List<ByteBuffer> mipmaps, Path path) throws IOException {
+        // Bake the image
+        final ByteBuffer buffer = bake(image, width, height, mipmaps);
+
+        // Write it to the file
+        try(FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while(buffer.hasRemaining())
+                channel.write(buffer);
+        }
+    }
+
+    /**
+     * Get the data of a level.
+     *
+     * @param image Base level.
+     * @param mipmaps Mipmap levels, starting at level one.
+     * @param level Level index.
+     *
+     * @return Level data.
+     */
+    private static ByteBuffer level(ByteBuffer image, List<ByteBuffer> mipmaps, int level) {
+        return level == 0 ? image : mipmaps.get(level - 1);
+    }
+
+    /**
+     * Round the given value up to the data alignment.
+     *
+     * @param value Value.
+     *
+     * @return Aligned value.
+     */
+    private static int align(int value) {
+        return (value + DATA_ALIGNMENT - 1) & -DATA_ALIGNMENT;
+    }
+}
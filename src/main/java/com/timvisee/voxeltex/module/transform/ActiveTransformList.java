@@ -0,0 +1,113 @@
+/******************************************************************************
+ * Copyright (c) Tim Visee 2016. All rights reserved.                         *
+ *                                                                            *
+ * @author Tim Visee                                                          *
+ * @website http://timvisee.com/                                              *
+ *                                                                            *
+ * Open Source != No Copyright                                                *
+ *                                                                            *
+ * Permission is hereby granted, free of charge, to any person obtaining a    *
+ * copy of this software and associated documentation files (the "Software"), *
+ * to deal in the Software without restriction, including without limitation  *
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,   *
+ * and/or sell copies of the Software, and to permit persons to whom the      *
+ * Software is furnished to do so, subject to the following conditions:       *
+ *                                                                            *
+ * The above copyright notice and this permission notice shall be included    *
+ * in all copies or substantial portions of the Software.                     *
+ *                                                                            *
+ * You should have received a copy of The MIT License (MIT) along with this   *
+ * program. If not, see <http://opensource.org/licenses/MIT/>.                *
+ ******************************************************************************/
+
+
+package com.timvisee.voxeltex.module.transform;
+
+import java.util.Arrays;
+
+public class ActiveTransformList {
+
+    /**
+     * Initial capacity of the list.
+     */
+    private static final int INITIAL_CAPACITY = 64;
+
+    /**
+     * Transforms that may be moving.
+     */
+    private Transform[] transforms = new Transform[INITIAL_CAPACITY];
+
+    /**
+     * Number of transforms in the list.
+     */
+    private int size = 0;
+
+    /**
+     * Get the number of transforms in this list.
+     *
+     * @return Transform count.
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Add the given transform to this list, if it isn't in any list yet.
+     * This is synchronized, as transforms may become active from multiple threads during a parallel scene update.
+     *
+     * @param transform Transform to add.
+     */
+    public synchronized void add(Transform transform) {
+        // Make sure the transform isn't in a list already
+        if(transform.getActiveIndex() >= 0)
+            return;
+
+        // Grow the array if it's full
+        if(this.size >= this.transforms.length)
+            this.transforms = Arrays.copyOf(this.transforms, this.transforms.length * 2);
+
+        // Add the transform
+        transform.setActiveIndex(this.size);
+        this.transforms[this.size++] = transform;
+    }
+
+    /**
+     * Remove the given transform from this list.
+     *
+     * @param transform Transform to remove.
+     */
+    public synchronized void remove(Transform transform) {
+        // Make sure the transform is in this list
+        final int index = transform.getActiveIndex();
+        if(index < 0 || index >= this.size || this.transforms[index] != transform)
+            return;
+
+        // Move the last transform into the freed index
+        final Transform last = this.transforms[--this.size];
+        this.transforms[index] = last;
+        last.setActiveIndex(index);
+        this.transforms[this.size] = null;
+
+        // Reset the index of the removed transform
+        transform.setActiveIndex(-1);
+    }
+
+    /**
+     * Update all transforms in this list.
+     * Transforms that aren't moving anymore are removed from the list.
+     */
+    public void update() {
+        // Loop through the transforms backwards, so transforms can be removed while iterating
+        for(int i = this.size - 1; i >= 0; i--) {
+            final Transform transform = this.transforms[i];
+
+            // Update the transform if it's owner is enabled
+            if(transform.getOwner().isEnabledInHierarchy())
+                transform.update();
+
+            // Remove the transform if it isn't moving anymore
+            if(!transform.isMoving())
+                remove(transform);
+        }
+    }
+}
@@ -20,6 +20,7 @@
  * program. If not, see <http://opensource.org/licenses/MIT/>.                *
  ******************************************************************************/
 
+
 package com.timvisee.voxeltex.module.transform;
 
 import com.timvisee.voxeltex.architecture.gameobject.AbstractGameObject;
@@ -27,74 +28,184 @@ import com.timvisee.voxeltex.architecture.gameobject.GameObject;
 import com.timvisee.voxeltex.runtime.global.Time;
 import com.timvisee.voxeltex.util.math.quaternion.QuaternionfFactory;
 import com.timvisee.voxeltex.util.math.vector.Vector3fFactory;
+import com.timvisee.voxeltex.util.math.vector.Vector3fUtil;
 import org.joml.Matrix4f;
 import org.joml.Quaternionf;
 import org.joml.Vector3f;
 
+import java.util.List;
+
 public class Transform {
 
+    /**
+     * Lock guarding the state and cached matrices of all transforms that aren't bound to a transform store.
+     * Parent chains may be validated from multiple threads during a parallel scene update, so the matrices are only
+     * validated, and the local state is only changed through setters, while holding this lock.
+     */
+    private static final Object MATRIX_LOCK = new Object();
+
     /**
      * The owner of this transform object.
      */
     private AbstractGameObject owner;
 
     /**
-     * Game object position.
+     * The position, rotation, scale, velocities and cached matrices of this transform.
+     * This is null while the transform is bound to a transform store, the store holds the state of the transform in
+     * that case, and this transform acts as view on it's slot.
      */
-    private final Vector3f position = Vector3fFactory.identity();
+    private TransformState state = new TransformState();
 
     /**
-     * Game object rotation.
+     * The transform store this transform is bound to, or null if the transform stores it's own state.
      */
-    private final Quaternionf rotation = QuaternionfFactory.identity();
+    private TransformStore store = null;
 
     /**
-     * Game object scale.
+     * Handle of this transform in the transform store, or -1 if not bound.
      */
-    private final Vector3f scale = Vector3fFactory.one();
+    private int storeHandle = -1;
 
     /**
-     * Linear acceleration.
+     * Index of this transform in the active transform list of the scene, or -1 if it isn't in the list.
      */
-    private final Vector3f linAcc = new Vector3f();
+    private int activeIndex = -1;
 
     /**
-     * Linear velocity.
+     * Constructor.
+     *
+     * @param owner The owner of this transformation.
      */
-    private final Vector3f linVel = new Vector3f();
+    public Transform(GameObject owner) {
+        this.owner = owner;
+    }
 
     /**
-     * Angular acceleration. (local)
+     * Get the owner.
+     *
+     * @return Game object owner.
      */
-    private final Vector3f angAcc = new Vector3f();
+    public AbstractGameObject getOwner() {
+        return this.owner;
+    }
 
     /**
-     * Angular velocity. (local)
+     * Check whether this transform is bound to a transform store.
+     *
+     * @return True if bound, false if not.
      */
-    private final Vector3f angVel = new Vector3f();
+    public boolean isBound() {
+        return this.store != null;
+    }
 
     /**
-     * Temporary matrix, used while performing certain calculations.
-     * Using and recycling this temporary matrix minimizes object allocation, resulting in better performance.
+     * Get the transform store this transform is bound to.
+     *
+     * @return Transform store, or null if not bound.
      */
-    private final Matrix4f tempMatrix = new Matrix4f();
+    public TransformStore getStore() {
+        return this.store;
+    }
 
     /**
-     * Constructor.
+     * Get the handle of this transform in the transform store it is bound to.
      *
-     * @param owner The owner of this transformation.
+     * @return Store handle, or -1 if not bound.
      */
-    public Transform(GameObject owner) {
-        this.owner = owner;
+    public int getStoreHandle() {
+        return this.storeHandle;
     }
 
     /**
-     * Get the owner.
+     * Get the state of this transform.
      *
-     * @return Game object owner.
+     * @return Transform state, or null if bound to a transform store.
      */
-    public AbstractGameObject getOwner() {
-        return this.owner;
+    TransformState getState() {
+        return this.state;
+    }
+
+    /**
+     * Set the transform store this transform is bound to.
+     * This is called by the transform store when binding or unbinding.
+     *
+     * @param store Transform store, or null.
+     * @param handle Store handle, or -1.
+     * @param state State to use when unbinding, or null when binding.
+     */
+    void setStore(TransformStore store, int handle, TransformState state) {
+        this.store = store;
+        this.storeHandle = handle;
+        this.state = state;
+    }
+
+    /**
+     * Get the index of this transform in the active transform list.
+     *
+     * @return Active index, or -1 if not in the list.
+     */
+    int getActiveIndex() {
+        return this.activeIndex;
+    }
+
+    /**
+     * Set the index of this transform in the active transform list.
+     *
+     * @param activeIndex Active index, or -1.
+     */
+    void setActiveIndex(int activeIndex) {
+        this.activeIndex = activeIndex;
+    }
+
+    /**
+     * Add this transform to the active transform list of the scene, so it is integrated each update.
+     * This is called whenever the velocity or acceleration of this transform may have changed, the transform is
+     * removed from the list again automatically once it stops moving.
+     */
+    private void activate() {
+        // Bound transforms are integrated by the transform store
+        if(this.activeIndex >= 0 || isBound())
+            return;
+
+        // Add the transform to the list of the scene
+        if(getOwner() != null && getOwner().getScene() != null)
+            getOwner().getScene().getActiveTransforms().add(this);
+    }
+
+    /**
+     * Update whether this transform is in the active transform list of the scene.
+     * Transforms that are moving are added, transforms that are bound to a transform store are removed as the store
+     * integrates them.
+     */
+    public void updateActiveState() {
+        // Make sure the owner is in a scene
+        if(getOwner() == null || getOwner().getScene() == null)
+            return;
+
+        // Add or remove the transform
+        if(isBound())
+            getOwner().getScene().getActiveTransforms().remove(this);
+        else if(isMoving())
+            activate();
+    }
+
+    /**
+     * Update this transform after the parent of it's owner has changed.
+     * This invalidates the world matrices of this transform and all it's children, and updates the parent in the
+     * transform store if bound.
+     */
+    public void updateParent() {
+        // Update the parent in the transform store if bound
+        if(isBound()) {
+            this.store.updateParent(this);
+            return;
+        }
+
+        // Force the world matrix to be rebuilt against the new parent
+        synchronized(MATRIX_LOCK) {
+            this.state.worldParentVersion = -1;
+            invalidateWorld();
+        }
     }
 
     /**
@@ -117,7 +228,15 @@ public class Transform {
      * @return Local transformation matrix.
      */
     public Matrix4f getLocalMatrix(Matrix4f dest) {
-        return addLocalMatrix(dest.identity());
+        // Build the local matrix from the transform store if bound
+        if(isBound())
+            return this.store.getLocalMatrix(this.storeHandle, dest);
+
+        // Make sure the cached local matrix is up to date and copy it
+        synchronized(MATRIX_LOCK) {
+            validateLocalMatrix();
+            return dest.set(this.state.localMatrix);
+        }
     }
 
     /**
@@ -128,7 +247,15 @@ public class Transform {
      * @return Combined matrix.
      */
     public Matrix4f addLocalMatrix(Matrix4f matrix) {
-        return matrix.translate(this.position).rotate(this.rotation).scale(this.scale);
+        // Multiply with the local matrix from the transform store if bound
+        if(isBound())
+            return this.store.addLocalMatrix(this.storeHandle, matrix);
+
+        // Make sure the cached local matrix is up to date and multiply it
+        synchronized(MATRIX_LOCK) {
+            validateLocalMatrix();
+            return matrix.mul(this.state.localMatrix);
+        }
     }
 
     /**
@@ -151,7 +278,15 @@ public class Transform {
      * @return World transformation matrix.
      */
     public Matrix4f getWorldMatrix(Matrix4f dest) {
-        return addLocalMatrix(getParentWorldMatrix(dest));
+        // Load the world matrix from the transform store if bound
+        if(isBound())
+            return this.store.getWorldMatrix(this.storeHandle, dest);
+
+        // Make sure the world matrix is up to date and copy it
+        synchronized(MATRIX_LOCK) {
+            validateWorldMatrix();
+            return dest.set(this.state.worldMatrix);
+        }
     }
 
     /**
@@ -162,12 +297,183 @@ public class Transform {
      * @return Combined matrix.
      */
     public Matrix4f addWorldMatrix(Matrix4f matrix) {
-        // Synchronize to ensure we aren't using the matrix cache multiple times at once
-        synchronized(tempMatrix) {
-            return matrix.mul(getWorldMatrix(tempMatrix));
+        // Multiply with the world matrix from the transform store if bound
+        if(isBound())
+            return this.store.addWorldMatrix(this.storeHandle, matrix);
+
+        // Make sure the world matrix is up to date and multiply it
+        synchronized(MATRIX_LOCK) {
+            validateWorldMatrix();
+            return matrix.mul(this.state.worldMatrix);
+        }
+    }
+
+    /**
+     * Get the version of the world matrix of this transform.
+     * The version changes each time the world matrix changes, either because this transform or one of its parents
+     * has changed. This can be used to cheaply determine whether data derived from the world matrix is outdated.
+     *
+     * @return World matrix version.
+     */
+    public int getWorldVersion() {
+        // Get the version from the transform store if bound
+        if(isBound())
+            return this.store.getWorldVersion(this.storeHandle);
+
+        synchronized(MATRIX_LOCK) {
+            return validateWorldMatrix();
         }
     }
 
+    /**
+     * Mark the local transformation of this transform as changed.
+     * The cached local matrix of this transform, and the world matrices of this transform and all it's children
+     * are rebuilt the next time they're queried.
+     *
+     * This is called automatically by the setters. Changes made to the vectors and quaternion handed out by
+     * {@link #getPosition()}, {@link #getRotation()} and {@link #getScale()} don't require a call to this method, as
+     * they're detected on each query for as long as a reference may be kept.
+     */
+    public void invalidate() {
+        // Invalidate the slot in the transform store if bound
+        if(isBound()) {
+            this.store.invalidate(this.storeHandle);
+            return;
+        }
+
+        synchronized(MATRIX_LOCK) {
+            this.state.localDirty = true;
+            invalidateWorld();
+        }
+    }
+
+    /**
+     * Mark the position, rotation or scale of this transform as handed out, as it may be modified at any time while
+     * the caller keeps a reference to it. Nothing is invalidated, the local state is compared against the state the
+     * local matrix was built from on each query instead.
+     */
+    private void expose() {
+        this.state.localExposed = true;
+    }
+
+    /**
+     * Check whether the world matrix of this transform may have changed without being invalidated, because the local
+     * state of this transform or one of it's parents was handed out, or because a parent is bound to a transform
+     * store that tracks it's world matrix separately.
+     *
+     * @return True if the world matrix must be checked, false if it's valid when it isn't marked as outdated.
+     */
+    private boolean isChainExposed() {
+        for(Transform transform = this; ; ) {
+            // A bound transform or a handed out state may have changed
+            if(transform.isBound() || transform.state.localExposed)
+                return true;
+
+            // Continue with the parent
+            final AbstractGameObject owner = transform.getOwner();
+            if(owner == null || !owner.hasParent())
+                return false;
+            transform = owner.getParent().getTransform();
+        }
+    }
+
+    /**
+     * Mark the cached world matrix of this transform and all it's children as outdated.
+     * Children are skipped if this transform was outdated already, as they're outdated as well in that case.
+     */
+    private void invalidateWorld() {
+        // Skip if the world matrix is outdated already, or if it's tracked by a transform store
+        if(isBound() || this.state.worldDirty)
+            return;
+        this.state.worldDirty = true;
+
+        // Invalidate all children
+        if(getOwner() == null)
+            return;
+        final List<AbstractGameObject> children = getOwner().getChildren();
+        //noinspection ForLoopReplaceableByForEach
+        for(int i = 0, size = children.size(); i < size; i++)
+            children.get(i).getTransform().invalidateWorld();
+    }
+
+    /**
+     * Make sure the cached local matrix is up to date, and rebuild it if the local transform has changed.
+     * This must only be called while the transform isn't bound, and while holding the matrix lock.
+     *
+     * @return Version of the local matrix.
+     */
+    private int validateLocalMatrix() {
+        final TransformState state = this.state;
+
+        // Check whether a handed out position, rotation or scale was actually changed, it stays handed out
+        if(state.localExposed && !state.localDirty) {
+            if(!state.position.equals(state.localMatrixPosition)
+                    || !state.rotation.equals(state.localMatrixRotation)
+                    || !state.scale.equals(state.localMatrixScale))
+                state.localDirty = true;
+        }
+
+        // Rebuild the local matrix if it was invalidated
+        if(state.localDirty) {
+            // Build the local matrix
+            state.localMatrix.translationRotateScale(state.position, state.rotation, state.scale);
+
+            // Store the state the matrix was built from
+            state.localMatrixPosition.set(state.position);
+            state.localMatrixRotation.set(state.rotation);
+            state.localMatrixScale.set(state.scale);
+
+            // Reset the dirty flag and bump the version
+            state.localDirty = false;
+            state.localVersion++;
+        }
+
+        // Return the local version
+        return state.localVersion;
+    }
+
+    /**
+     * Make sure the cached world matrix is up to date.
+     * This returns right away if the world matrix is valid, otherwise only the outdated chain towards the root is
+     * validated. This must only be called while the transform isn't bound, and while holding the matrix lock.
+     *
+     * @return Version of the world matrix.
+     */
+    private int validateWorldMatrix() {
+        final TransformState state = this.state;
+
+        // Return right away if the world matrix is valid, and no state it depends on was handed out
+        if(!state.worldDirty && !isChainExposed())
+            return state.worldVersion;
+
+        // Validate the local matrix
+        final int localVersion = validateLocalMatrix();
+
+        // Get the parent transform, and validate it's world matrix
+        final Transform parent = getOwner().hasParent() ? getOwner().getParent().getTransform() : null;
+        final int parentVersion = parent != null ? parent.getWorldVersion() : 0;
+
+        // Rebuild the world matrix if anything it depends on has changed
+        if(localVersion != state.worldLocalVersion || parentVersion != state.worldParentVersion) {
+            // Combine the parent world matrix and the local matrix
+            if(parent != null)
+                parent.getWorldMatrix(state.worldMatrix).mulAffine(state.localMatrix);
+            else
+                state.worldMatrix.set(state.localMatrix);
+
+            // Store the state the matrix was built from, and bump the version
+            state.worldLocalVersion = localVersion;
+            state.worldParentVersion = parentVersion;
+            state.worldVersion++;
+        }
+
+        // The world matrix is valid again
+        state.worldDirty = false;
+
+        // Return the world version
+        return state.worldVersion;
+    }
+
     /**
      * Get the transformation matrix of the parent game object in local space.
      * If this game object doesn't have a parent, the origin of the world is returned.
@@ -228,13 +534,40 @@ public class Transform {
         return dest.identity();
     }
 
+
     /**
      * Get the position of this game object in local space.
+     * The returned vector may be modified to move the game object. Use {@link #getPosition(Vector3f)} to only read the
+     * position, which doesn't require the transform to check it for changes afterwards.
      *
      * @return Game object local position.
      */
     public Vector3f getPosition() {
-        return this.position;
+        // Get the mirror from the transform store if bound
+        if(isBound())
+            return this.store.getPositionMirror(this.storeHandle);
+
+        // The returned vector may be modified at any time, check it for changes on each query
+        expose();
+
+        return this.state.position;
+    }
+
+    /**
+     * Get a copy of the position of this game object in local space.
+     *
+     * @param dest Destination vector. (allocation free)
+     *
+     * @return Game object local position.
+     */
+    public Vector3f getPosition(Vector3f dest) {
+        // Get the position from the transform store if bound
+        if(isBound())
+            return this.store.getPosition(this.storeHandle, dest);
+
+        synchronized(MATRIX_LOCK) {
+            return dest.set(this.state.position);
+        }
     }
 
     /**
@@ -257,9 +590,14 @@ public class Transform {
      * @return Game object world position.
      */
     public Vector3f getWorldPosition(Vector3f dest) {
-        // Make sure we aren't using the matrix cache more than once at the same time
-        synchronized(tempMatrix) {
-            return getWorldMatrix(tempMatrix).getTranslation(dest);
+        // Get the world position from the transform store if bound
+        if(isBound())
+            return this.store.getWorldPosition(this.storeHandle, dest);
+
+        // Make sure the world matrix is up to date, and get the translation from it
+        synchronized(MATRIX_LOCK) {
+            validateWorldMatrix();
+            return this.state.worldMatrix.getTranslation(dest);
         }
     }
 
@@ -299,7 +637,7 @@ public class Transform {
      * @param position Game object local position.
      */
     public void setPosition(Vector3f position) {
-        this.position.set(position);
+        setPosition(position.x, position.y, position.z);
     }
 
     /**
@@ -310,16 +648,51 @@ public class Transform {
      * @param z Z coordinate.
      */
     public void setPosition(float x, float y, float z) {
-        this.position.set(x, y, z);
+        // Set the position in the transform store if bound
+        if(isBound()) {
+            this.store.setPosition(this.storeHandle, x, y, z);
+            return;
+        }
+
+        synchronized(MATRIX_LOCK) {
+            this.state.position.set(x, y, z);
+            invalidate();
+        }
     }
 
     /**
      * Get the rotation of the game object in local space.
+     * The returned quaternion may be modified to rotate the game object. Use {@link #getRotation(Quaternionf)} to only
+     * read the rotation, which doesn't require the transform to check it for changes afterwards.
      *
      * @return Game object local rotation.
      */
     public Quaternionf getRotation() {
-        return this.rotation;
+        // Get the mirror from the transform store if bound
+        if(isBound())
+            return this.store.getRotationMirror(this.storeHandle);
+
+        // The returned quaternion may be modified at any time, check it for changes on each query
+        expose();
+
+        return this.state.rotation;
+    }
+
+    /**
+     * Get a copy of the rotation of the game object in local space.
+     *
+     * @param dest Destination quaternion. (allocation free)
+     *
+     * @return Game object local rotation.
+     */
+    public Quaternionf getRotation(Quaternionf dest) {
+        // Get the rotation from the transform store if bound
+        if(isBound())
+            return this.store.getRotation(this.storeHandle, dest);
+
+        synchronized(MATRIX_LOCK) {
+            return dest.set(this.state.rotation);
+        }
     }
 
     /**
@@ -342,9 +715,14 @@ public class Transform {
      * @return Game object world rotation.
      */
     public Quaternionf getWorldRotation(Quaternionf dest) {
-        // Make sure we aren't using the matrix cache more than once at the same time
-        synchronized(tempMatrix) {
-            return getWorldMatrix(tempMatrix).getUnnormalizedRotation(dest);
+        // Get the world rotation from the transform store if bound
+        if(isBound())
+            return this.store.getWorldRotation(this.storeHandle, dest);
+
+        // Make sure the world matrix is up to date, and get the rotation from it
+        synchronized(MATRIX_LOCK) {
+            validateWorldMatrix();
+            return this.state.worldMatrix.getUnnormalizedRotation(dest);
         }
     }
 
@@ -384,17 +762,52 @@ public class Transform {
      * @param rotation Game object local rotation.
      */
     public void setRotation(Quaternionf rotation) {
+        // Set the rotation in the transform store if bound, which normalizes it as well
+        if(isBound()) {
+            this.store.setRotation(this.storeHandle, rotation);
+            return;
+        }
+
         // Set the rotation and normalize to prevent weird rotation glitches on non-normalized quaternions
-        this.rotation.set(rotation).normalize();
+        synchronized(MATRIX_LOCK) {
+            this.state.rotation.set(rotation).normalize();
+            invalidate();
+        }
     }
 
     /**
      * Get the scale of the game object in local space.
+     * The returned vector may be modified to scale the game object. Use {@link #getScale(Vector3f)} to only read the
+     * scale, which doesn't require the transform to check it for changes afterwards.
      *
      * @return Game object local scale.
      */
     public Vector3f getScale() {
-        return this.scale;
+        // Get the mirror from the transform store if bound
+        if(isBound())
+            return this.store.getScaleMirror(this.storeHandle);
+
+        // The returned vector may be modified at any time, check it for changes on each query
+        expose();
+
+        return this.state.scale;
+    }
+
+    /**
+     * Get a copy of the scale of the game object in local space.
+     *
+     * @param dest Destination vector. (allocation free)
+     *
+     * @return Game object local scale.
+     */
+    public Vector3f getScale(Vector3f dest) {
+        // Get the scale from the transform store if bound
+        if(isBound())
+            return this.store.getScale(this.storeHandle, dest);
+
+        synchronized(MATRIX_LOCK) {
+            return dest.set(this.state.scale);
+        }
     }
 
     /**
@@ -417,9 +830,14 @@ public class Transform {
      * @return Game object world scale.
      */
     public Vector3f getWorldScale(Vector3f dest) {
-        // Make sure we aren't using the matrix cache more than once at the same time
-        synchronized(tempMatrix) {
-            return getWorldMatrix(tempMatrix).getScale(dest);
+        // Get the world scale from the transform store if bound
+        if(isBound())
+            return this.store.getWorldScale(this.storeHandle, dest);
+
+        // Make sure the world matrix is up to date, and get the scale from it
+        synchronized(MATRIX_LOCK) {
+            validateWorldMatrix();
+            return this.state.worldMatrix.getScale(dest);
         }
     }
 
@@ -459,7 +877,7 @@ public class Transform {
      * @param scale Game object local local.
      */
     public void setScale(Vector3f scale) {
-        this.scale.set(scale);
+        setScale(scale.x, scale.y, scale.z);
     }
 
     /**
@@ -470,7 +888,26 @@ public class Transform {
      * @param z Scale on the Z axis.
      */
     public void setScale(float x, float y, float z) {
-        this.scale.set(x, y, z);
+        // Set the scale in the transform store if bound
+        if(isBound()) {
+            this.store.setScale(this.storeHandle, x, y, z);
+            return;
+        }
+
+        synchronized(MATRIX_LOCK) {
+            this.state.scale.set(x, y, z);
+            invalidate();
+        }
+    }
+
+    /**
+     * Get the rotation of this game object in local space, without marking it as possibly changed.
+     * The returned quaternion must not be modified.
+     *
+     * @return Game object local rotation.
+     */
+    private Quaternionf currentRotation() {
+        return isBound() ? this.store.getRotationMirror(this.storeHandle) : this.state.rotation;
     }
 
     /**
@@ -493,7 +930,7 @@ public class Transform {
      * @return Destination.
      */
     public Vector3f forward(Vector3f dest) {
-        return this.rotation.positiveZ(dest).negate();
+        return currentRotation().positiveZ(dest).negate();
     }
 
     /**
@@ -516,7 +953,7 @@ public class Transform {
      * @return Destination.
      */
     public Vector3f right(Vector3f dest) {
-        return this.rotation.positiveX(dest);
+        return currentRotation().positiveX(dest);
     }
 
     /**
@@ -539,7 +976,7 @@ public class Transform {
      * @return Destination.
      */
     public Vector3f up(Vector3f dest) {
-        return this.rotation.positiveY(dest);
+        return currentRotation().positiveY(dest);
     }
 
     /**
@@ -548,7 +985,14 @@ public class Transform {
      * @return Linear acceleration.
      */
     public Vector3f getLinearAcceleration() {
-        return linAcc;
+        // Get the mirror from the transform store if bound
+        if(isBound())
+            return this.store.getLinearAccelerationMirror(this.storeHandle);
+
+        // The returned vector may be modified, activate the transform
+        activate();
+
+        return this.state.linAcc;
     }
 
     /**
@@ -557,7 +1001,14 @@ public class Transform {
      * @param linAcc Linear acceleration.
      */
     public void setLinearAcceleration(Vector3f linAcc) {
-        this.linAcc.set(linAcc);
+        // Set the linear acceleration in the transform store if bound
+        if(isBound()) {
+            this.store.setLinearAcceleration(this.storeHandle, linAcc);
+            return;
+        }
+
+        this.state.linAcc.set(linAcc);
+        activate();
     }
 
     /**
@@ -566,7 +1017,14 @@ public class Transform {
      * @return Set the linear velocity.
      */
     public Vector3f getLinearVelocity() {
-        return this.linVel;
+        // Get the mirror from the transform store if bound
+        if(isBound())
+            return this.store.getLinearVelocityMirror(this.storeHandle);
+
+        // The returned vector may be modified, activate the transform
+        activate();
+
+        return this.state.linVel;
     }
 
     /**
@@ -575,7 +1033,14 @@ public class Transform {
      * @param linVel Linear velocity.
      */
     public void setLinearVelocity(Vector3f linVel) {
-        this.linVel.set(linVel);
+        // Set the linear velocity in the transform store if bound
+        if(isBound()) {
+            this.store.setLinearVelocity(this.storeHandle, linVel);
+            return;
+        }
+
+        this.state.linVel.set(linVel);
+        activate();
     }
 
     /**
@@ -584,7 +1049,14 @@ public class Transform {
      * @return Angular acceleration.
      */
     public Vector3f getAngularAcceleration() {
-        return this.angAcc;
+        // Get the mirror from the transform store if bound
+        if(isBound())
+            return this.store.getAngularAccelerationMirror(this.storeHandle);
+
+        // The returned vector may be modified, activate the transform
+        activate();
+
+        return this.state.angAcc;
     }
 
     /**
@@ -593,7 +1065,14 @@ public class Transform {
      * @param angAcc Angular acceleration.
      */
     public void setAngularAcceleration(Vector3f angAcc) {
-        this.angAcc.set(angAcc);
+        // Set the angular acceleration in the transform store if bound
+        if(isBound()) {
+            this.store.setAngularAcceleration(this.storeHandle, angAcc);
+            return;
+        }
+
+        this.state.angAcc.set(angAcc);
+        activate();
     }
 
     /**
@@ -602,7 +1081,14 @@ public class Transform {
      * @return Angular velocity.
      */
     public Vector3f getAngularVelocity() {
-        return this.angVel;
+        // Get the mirror from the transform store if bound
+        if(isBound())
+            return this.store.getAngularVelocityMirror(this.storeHandle);
+
+        // The returned vector may be modified, activate the transform
+        activate();
+
+        return this.state.angVel;
     }
 
     /**
@@ -611,23 +1097,60 @@ public class Transform {
      * @param angVel Angular velocity.
      */
     public void setAngularVelocity(Vector3f angVel) {
-        this.angVel.set(angVel);
+        // Set the angular velocity in the transform store if bound
+        if(isBound()) {
+            this.store.setAngularVelocity(this.storeHandle, angVel);
+            return;
+        }
+
+        this.state.angVel.set(angVel);
+        activate();
+    }
+
+    /**
+     * Check whether this transform is moving, based on it's linear and angular velocity and acceleration.
+     *
+     * @return True if moving, false if not.
+     */
+    public boolean isMoving() {
+        // Use the state from the transform store if bound
+        if(isBound())
+            return this.store.isMoving(this.storeHandle);
+
+        return !Vector3fUtil.isZero(this.state.linVel)
+                || !Vector3fUtil.isZero(this.state.angVel)
+                || !Vector3fUtil.isZero(this.state.linAcc)
+                || !Vector3fUtil.isZero(this.state.angAcc);
     }
 
     /**
      * Update the transform.
      */
-    public synchronized void update() {
-        // Update linear velocity based on linear acceleration
-        linVel.fma(Time.deltaTimeFloat, this.linAcc);
+    public void update() {
+        // Transforms bound to a transform store are integrated by the store in a single pass
+        if(isBound())
+            return;
+
+        // Skip the integration if the transform isn't moving, to keep the cached matrices valid
+        if(!isMoving())
+            return;
+        final TransformState state = this.state;
+
+        synchronized(MATRIX_LOCK) {
+            // Update linear velocity based on linear acceleration
+            state.linVel.fma(Time.deltaTimeFloat, state.linAcc);
 
-        // Update angular velocity based on angular acceleration
-        angVel.fma(Time.deltaTimeFloat, this.angAcc);
+            // Update angular velocity based on angular acceleration
+            state.angVel.fma(Time.deltaTimeFloat, state.angAcc);
 
-        // Update the rotation based on the angular velocity
-        this.rotation.integrate(Time.deltaTimeFloat, this.angVel.x, this.angVel.y, this.angVel.z);
+            // Update the rotation based on the angular velocity
+            state.rotation.integrate(Time.deltaTimeFloat, state.angVel.x, state.angVel.y, state.angVel.z);
 
-        // Update position based on linear velocity
-        this.position.fma(Time.deltaTimeFloat, this.linVel);
+            // Update position based on linear velocity
+            state.position.fma(Time.deltaTimeFloat, state.linVel);
+
+            // The local transform has changed, invalidate the cached matrices
+            invalidate();
+        }
     }
 }
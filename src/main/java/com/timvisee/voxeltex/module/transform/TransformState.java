@@ -0,0 +1,139 @@
+/******************************************************************************
+ * Copyright (c) Tim Visee 2016. All rights reserved.                         *
+ *                                                                            *
+ * @author Tim Visee                                                          *
+ * @website http://timvisee.com/                                              *
+ *                                                                            *
+ * Open Source != No Copyright                                                *
+ *                                                                            *
+ * Permission is hereby granted, free of charge, to any person obtaining a    *
+ * copy of this software and associated documentation files (the "Software"), *
+ * to deal in the Software without restriction, including without limitation  *
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,   *
+ * and/or sell copies of the Software, and to permit persons to whom the      *
+ * Software is furnished to do so, subject to the following conditions:       *
+ *                                                                            *
+ * The above copyright notice and this permission notice shall be included    *
+ * in all copies or substantial portions of the Software.                     *
+ *                                                                            *
+ * You should have received a copy of The MIT License (MIT) along with this   *
+ * program. If not, see <http://opensource.org/licenses/MIT/>.                *
+ ******************************************************************************/
+
+
+package com.timvisee.voxeltex.module.transform;
+
+import com.timvisee.voxeltex.util.math.quaternion.QuaternionfFactory;
+import com.timvisee.voxeltex.util.math.vector.Vector3fFactory;
+import org.joml.Matrix4f;
+import org.joml.Quaternionf;
+import org.joml.Vector3f;
+
+class TransformState {
+
+    /**
+     * Game object position.
+     */
+    final Vector3f position = Vector3fFactory.identity();
+
+    /**
+     * Game object rotation.
+     */
+    final Quaternionf rotation = QuaternionfFactory.identity();
+
+    /**
+     * Game object scale.
+     */
+    final Vector3f scale = Vector3fFactory.one();
+
+    /**
+     * Linear acceleration.
+     */
+    final Vector3f linAcc = new Vector3f();
+
+    /**
+     * Linear velocity.
+     */
+    final Vector3f linVel = new Vector3f();
+
+    /**
+     * Angular acceleration. (local)
+     */
+    final Vector3f angAcc = new Vector3f();
+
+    /**
+     * Angular velocity. (local)
+     */
+    final Vector3f angVel = new Vector3f();
+
+    /**
+     * Cached transformation matrix in local space.
+     * This matrix is rebuilt lazily when the local position, rotation or scale has changed.
+     */
+    final Matrix4f localMatrix = new Matrix4f();
+
+    /**
+     * Cached transformation matrix in world space.
+     * This matrix is rebuilt lazily when the local matrix, or the world matrix of the parent has changed.
+     */
+    final Matrix4f worldMatrix = new Matrix4f();
+
+    /**
+     * Position the cached local matrix was built from.
+     * Used to check whether the vector returned by {@link Transform#getPosition()} was actually changed.
+     */
+    final Vector3f localMatrixPosition = Vector3fFactory.identity();
+
+    /**
+     * Rotation the cached local matrix was built from.
+     * Used to check whether the quaternion returned by {@link Transform#getRotation()} was actually changed.
+     */
+    final Quaternionf localMatrixRotation = QuaternionfFactory.identity();
+
+    /**
+     * Scale the cached local matrix was built from.
+     * Used to check whether the vector returned by {@link Transform#getScale()} was actually changed.
+     */
+    final Vector3f localMatrixScale = Vector3fFactory.one();
+
+    /**
+     * True if the cached local matrix must be rebuilt, false if not.
+     */
+    boolean localDirty = true;
+
+    /**
+     * True if the position, rotation or scale was handed out and may be changed directly.
+     * This stays set as the caller may keep the reference, the local state is compared against the state the local
+     * matrix was built from on each query instead.
+     */
+    boolean localExposed = false;
+
+    /**
+     * True if the cached world matrix may be outdated, false if not.
+     * When set, the world matrices of all children are marked outdated as well. A transform with an outdated world
+     * matrix thus always has outdated children, which allows queries on a valid transform to return right away.
+     */
+    boolean worldDirty = true;
+
+    /**
+     * Version of the cached local matrix, incremented each time it is rebuilt.
+     */
+    int localVersion = 0;
+
+    /**
+     * Version of the cached world matrix, incremented each time it is rebuilt.
+     * Children compare this version against the one they were built from, to skip rebuilding their world matrix
+     * when the world matrix of their parent didn't actually change.
+     */
+    int worldVersion = 0;
+
+    /**
+     * The local matrix version the cached world matrix was built from.
+     */
+    int worldLocalVersion = -1;
+
+    /**
+     * The parent world matrix version the cached world matrix was built from.
+     */
+    int worldParentVersion = -1;
+}
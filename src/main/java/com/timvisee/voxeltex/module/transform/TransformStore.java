@@ -0,0 +1,1596 @@
+/******************************************************************************
+ * Copyright (c) Tim Visee 2016. All rights reserved.                         *
+ *                                                                            *
+ * @author Tim Visee                                                          *
+ * @website http://timvisee.com/                                              *
+ *                                                                            *
+ * Open Source != No Copyright                                                *
+ *                                                                            *
+ * Permission is hereby granted, free of charge, to any person obtaining a    *
+ * copy of this software and associated documentation files (the "Software"), *
+ * to deal in the Software without restriction, including without limitation  *
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,   *
+ * and/or sell copies of the Software, and to permit persons to whom the      *
+ * Software is furnished to do so, subject to the following conditions:       *
+ *                                                                            *
+ * The above copyright notice and this permission notice shall be included    *
+ * in all copies or substantial portions of the Software.                     *
+ *                                                                            *
+ * You should have received a copy of The MIT License (MIT) along with this   *
+ * program. If not, see <http://opensource.org/licenses/MIT/>.                *
+ ******************************************************************************/
+
+
+package com.timvisee.voxeltex.module.transform;
+
+import com.timvisee.voxeltex.architecture.gameobject.AbstractGameObject;
+import org.joml.Matrix4f;
+import org.joml.Quaternionf;
+import org.joml.Vector3f;
+
+import java.util.Arrays;
+
+public class TransformStore {
+
+    /**
+     * Handle value used for transforms without a parent.
+     */
+    public static final int NO_PARENT = -1;
+
+    /**
+     * Handle value used to terminate child lists.
+     */
+    private static final int NO_HANDLE = -1;
+
+    /**
+     * Sync flag for the position mirror.
+     */
+    private static final int SYNC_POSITION = 1;
+
+    /**
+     * Sync flag for the rotation mirror.
+     */
+    private static final int SYNC_ROTATION = 1 << 1;
+
+    /**
+     * Sync flag for the scale mirror.
+     */
+    private static final int SYNC_SCALE = 1 << 2;
+
+    /**
+     * Sync flag for the linear velocity mirror.
+     */
+    private static final int SYNC_LINEAR_VELOCITY = 1 << 3;
+
+    /**
+     * Sync flag for the angular velocity mirror.
+     */
+    private static final int SYNC_ANGULAR_VELOCITY = 1 << 4;
+
+    /**
+     * Sync flag for the linear acceleration mirror.
+     */
+    private static final int SYNC_LINEAR_ACCELERATION = 1 << 5;
+
+    /**
+     * Sync flag for the angular acceleration mirror.
+     */
+    private static final int SYNC_ANGULAR_ACCELERATION = 1 << 6;
+
+    /**
+     * Sync flags of the mirrors the local matrix is built from.
+     */
+    private static final int SYNC_LOCAL = SYNC_POSITION | SYNC_ROTATION | SYNC_SCALE;
+
+    /**
+     * Initial number of slots the store is allocated with.
+     */
+    private static final int INITIAL_CAPACITY = 64;
+
+    /**
+     * Number of allocated slots.
+     */
+    private int capacity;
+
+    /**
+     * Number of slots in use.
+     * The used slots are always packed at the start of the arrays.
+     */
+    private int count = 0;
+
+    /**
+     * Positions in local space, three floats per slot.
+     */
+    private float[] positions;
+
+    /**
+     * Rotations in local space as quaternion, four floats per slot.
+     */
+    private float[] rotations;
+
+    /**
+     * Scales in local space, three floats per slot.
+     */
+    private float[] scales;
+
+    /**
+     * Linear velocities, three floats per slot.
+     */
+    private float[] linearVelocities;
+
+    /**
+     * Angular velocities, three floats per slot.
+     */
+    private float[] angularVelocities;
+
+    /**
+     * Linear accelerations, three floats per slot.
+     */
+    private float[] linearAccelerations;
+
+    /**
+     * Angular accelerations, three floats per slot.
+     */
+    private float[] angularAccelerations;
+
+    /**
+     * World matrices in column-major order, sixteen floats per slot.
+     */
+    private float[] worldMatrices;
+
+    /**
+     * World matrix versions per slot, incremented each time the world matrix of a slot changes.
+     */
+    private int[] worldVersions;
+
+    /**
+     * Parent slot of each slot, or {@link #NO_PARENT}.
+     * Only valid while the store is sorted.
+     */
+    private int[] parentSlots;
+
+    /**
+     * The handle of each slot.
+     */
+    private int[] slotHandles;
+
+    /**
+     * The slot of each handle, or -1 if the handle is free.
+     */
+    private int[] handleSlots;
+
+    /**
+     * The parent handle of each handle, or {@link #NO_PARENT}.
+     */
+    private int[] handleParents;
+
+    /**
+     * The first child handle of each handle, or {@link #NO_HANDLE}.
+     */
+    private int[] handleFirstChildren;
+
+    /**
+     * The next sibling handle of each handle in the child list of it's parent, or {@link #NO_HANDLE}.
+     */
+    private int[] handleNextSiblings;
+
+    /**
+     * The previous sibling handle of each handle in the child list of it's parent, or {@link #NO_HANDLE}.
+     */
+    private int[] handlePreviousSiblings;
+
+    /**
+     * True for each handle of which the world matrix is outdated.
+     * The children of an outdated handle are always outdated as well.
+     */
+    private boolean[] handleDirty;
+
+    /**
+     * Mirrors of each handle that were handed out and must be synchronized back into the store.
+     * Mirrors stay handed out until the handle is unbound, as a caller may keep a reference to them.
+     */
+    private int[] handleSyncMasks;
+
+    /**
+     * Index of each handle in the sync queue, or -1 if it isn't queued.
+     */
+    private int[] handleSyncIndexes;
+
+    /**
+     * True for each handle that has handed out a position, rotation or scale mirror since the last query.
+     */
+    private boolean[] handlePending;
+
+    /**
+     * Position mirror of each handle, created when it's handed out for the first time.
+     */
+    private Vector3f[] positionMirrors = new Vector3f[0];
+
+    /**
+     * Rotation mirror of each handle, created when it's handed out for the first time.
+     */
+    private Quaternionf[] rotationMirrors = new Quaternionf[0];
+
+    /**
+     * Scale mirror of each handle, created when it's handed out for the first time.
+     */
+    private Vector3f[] scaleMirrors = new Vector3f[0];
+
+    /**
+     * Linear velocity mirror of each handle, created when it's handed out for the first time.
+     */
+    private Vector3f[] linearVelocityMirrors = new Vector3f[0];
+
+    /**
+     * Angular velocity mirror of each handle, created when it's handed out for the first time.
+     */
+    private Vector3f[] angularVelocityMirrors = new Vector3f[0];
+
+    /**
+     * Linear acceleration mirror of each handle, created when it's handed out for the first time.
+     */
+    private Vector3f[] linearAccelerationMirrors = new Vector3f[0];
+
+    /**
+     * Angular acceleration mirror of each handle, created when it's handed out for the first time.
+     */
+    private Vector3f[] angularAccelerationMirrors = new Vector3f[0];
+
+    /**
+     * Stack of free handles that may be reused.
+     */
+    private int[] freeHandles;
+
+    /**
+     * Number of free handles on the stack.
+     */
+    private int freeHandleCount = 0;
+
+    /**
+     * Number of handles that have been issued.
+     */
+    private int handleCount = 0;
+
+    /**
+     * Queue of handles with mirrors that are synchronized back into the store on each update.
+     */
+    private int[] syncQueue = new int[INITIAL_CAPACITY];
+
+    /**
+     * Number of handles in the sync queue.
+     */
+    private int syncQueueSize = 0;
+
+    /**
+     * Queue of handles with local state mirrors that must be checked for changes before the next query.
+     */
+    private int[] pendingQueue = new int[INITIAL_CAPACITY];
+
+    /**
+     * Number of handles in the pending queue.
+     */
+    private int pendingQueueSize = 0;
+
+    /**
+     * True if the slots must be sorted parent-before-child before the next world matrix pass.
+     */
+    private boolean orderDirty = false;
+
+    /**
+     * Temporary matrix, used to read world matrices and to build local matrices.
+     * Using and recycling this temporary matrix minimizes object allocation, resulting in better performance.
+     */
+    private final Matrix4f tempMatrix = new Matrix4f();
+
+    /**
+     * Temporary local matrix, used during the world matrix pass.
+     * Using and recycling this temporary matrix minimizes object allocation, resulting in better performance.
+     */
+    private final Matrix4f tempLocalMatrix = new Matrix4f();
+
+    /**
+     * Temporary parent matrix, used during the world matrix pass.
+     * Using and recycling this temporary matrix minimizes object allocation, resulting in better performance.
+     */
+    private final Matrix4f tempParentMatrix = new Matrix4f();
+
+    /**
+     * Temporary quaternion, used for rotation integration.
+     * Using and recycling this temporary quaternion minimizes object allocation, resulting in better performance.
+     */
+    private final Quaternionf tempQuaternion = new Quaternionf();
+
+    /**
+     * Temporary handle chain, used when computing the world matrix of a single transform.
+     */
+    private int[] tempChain = new int[16];
+
+    /**
+     * Constructor.
+     */
+    public TransformStore() {
+        allocate(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Get the number of transforms in this store.
+     *
+     * @return Transform count.
+     */
+    public int getCount() {
+        return this.count;
+    }
+
+    /**
+     * Bind the transform of the given game object and all it's children to this store.
+     * Parents are bound before their children.
+     *
+     * @param gameObject Root game object.
+     */
+    public void bindHierarchy(AbstractGameObject gameObject) {
+        // Bind the transform if it isn't bound yet
+        if(!gameObject.getTransform().isBound())
+            bind(gameObject.getTransform());
+
+        // Bind all children
+        //noinspection ForLoopReplaceableByForEach
+        for(int i = 0, size = gameObject.getChildren().size(); i < size; i++)
+            bindHierarchy(gameObject.getChildren().get(i));
+    }
+
+    /**
+     * Unbind the transform of the given game object and all it's children from this store.
+     *
+     * @param gameObject Root game object.
+     */
+    public void unbindHierarchy(AbstractGameObject gameObject) {
+        // Unbind all children first
+        //noinspection ForLoopReplaceableByForEach
+        for(int i = 0, size = gameObject.getChildren().size(); i < size; i++)
+            unbindHierarchy(gameObject.getChildren().get(i));
+
+        // Unbind the transform if it's bound to this store
+        if(gameObject.getTransform().getStore() == this)
+            unbind(gameObject.getTransform());
+    }
+
+    /**
+     * Bind the given transform to this store.
+     * The current state of the transform is moved into the store, the transform becomes a view on it's slot.
+     *
+     * @param transform Transform to bind.
+     *
+     * @return Handle of the transform.
+     */
+    public synchronized int bind(Transform transform) {
+        // Make sure the transform isn't bound already
+        if(transform.isBound())
+            throw new IllegalStateException(transform.getOwner() + " is already bound to a transform store");
+
+        // Grow the store if it's full
+        if(this.count >= this.capacity)
+            allocate(this.capacity * 2);
+
+        // Take a free handle, or issue a new one
+        final int handle = this.freeHandleCount > 0 ? this.freeHandles[--this.freeHandleCount] : this.handleCount++;
+        final int slot = this.count++;
+
+        // Link the handle and the slot
+        this.handleSlots[handle] = slot;
+        this.slotHandles[slot] = handle;
+        this.handleSyncMasks[handle] = 0;
+        this.handleSyncIndexes[handle] = -1;
+        this.handlePending[handle] = false;
+        this.handleDirty[handle] = true;
+
+        // Copy the transform state into the slot, and continue it's world matrix version
+        final TransformState state = transform.getState();
+        storeVector(this.positions, slot, state.position);
+        storeQuaternion(this.rotations, slot, state.rotation);
+        storeVector(this.scales, slot, state.scale);
+        storeVector(this.linearVelocities, slot, state.linVel);
+        storeVector(this.angularVelocities, slot, state.angVel);
+        storeVector(this.linearAccelerations, slot, state.linAcc);
+        storeVector(this.angularAccelerations, slot, state.angAcc);
+        this.worldVersions[slot] = state.worldVersion + 1;
+
+        // Link the handle to it's parent
+        this.handleParents[handle] = NO_PARENT;
+        this.handleFirstChildren[handle] = NO_HANDLE;
+        setParentHandle(handle, getParentHandle(transform));
+
+        // Bind the transform, which drops it's own state
+        transform.setStore(this, handle, null);
+
+        // The new slot may be placed before it's parent
+        this.orderDirty = true;
+
+        // Return the handle
+        return handle;
+    }
+
+    /**
+     * Unbind the given transform from this store.
+     * The current state of the slot is copied back into the transform.
+     *
+     * @param transform Transform to unbind.
+     */
+    public synchronized void unbind(Transform transform) {
+        // Make sure the transform is bound to this store
+        if(transform.getStore() != this)
+            throw new IllegalStateException(transform.getOwner() + " isn't bound to this transform store");
+
+        // Get the handle, and synchronize it's mirrors
+        final int handle = transform.getStoreHandle();
+        syncMirrors(handle);
+        final int slot = this.handleSlots[handle];
+
+        // Copy the slot state into a new state for the transform
+        final TransformState state = new TransformState();
+        loadVector(this.positions, slot, state.position);
+        loadQuaternion(this.rotations, slot, state.rotation);
+        loadVector(this.scales, slot, state.scale);
+        loadVector(this.linearVelocities, slot, state.linVel);
+        loadVector(this.angularVelocities, slot, state.angVel);
+        loadVector(this.linearAccelerations, slot, state.linAcc);
+        loadVector(this.angularAccelerations, slot, state.angAcc);
+        state.worldVersion = this.worldVersions[slot] + 1;
+
+        // Detach the handle from it's parent, and detach all it's children which become roots
+        setParentHandle(handle, NO_PARENT);
+        while(this.handleFirstChildren[handle] != NO_HANDLE) {
+            final int child = this.handleFirstChildren[handle];
+            setParentHandle(child, NO_PARENT);
+            markDirty(child);
+        }
+
+        // Move the last slot into the freed slot to keep the slots packed
+        final int last = --this.count;
+        if(slot != last)
+            moveSlot(last, slot);
+
+        // Release the mirrors, and free the handle
+        dequeueSync(handle);
+        this.handleSlots[handle] = -1;
+        this.handleSyncMasks[handle] = 0;
+        this.handlePending[handle] = false;
+        this.handleDirty[handle] = false;
+        this.positionMirrors[handle] = null;
+        this.rotationMirrors[handle] = null;
+        this.scaleMirrors[handle] = null;
+        this.linearVelocityMirrors[handle] = null;
+        this.angularVelocityMirrors[handle] = null;
+        this.linearAccelerationMirrors[handle] = null;
+        this.angularAccelerationMirrors[handle] = null;
+        this.freeHandles[this.freeHandleCount++] = handle;
+        this.orderDirty = true;
+
+        // Unbind the transform
+        transform.setStore(null, -1, state);
+    }
+
+    /**
+     * Update the parent of the given bound transform, based on the parent of it's owner.
+     *
+     * @param transform Bound transform.
+     */
+    public synchronized void updateParent(Transform transform) {
+        // Make sure the parent has changed
+        final int handle = transform.getStoreHandle();
+        final int parent = getParentHandle(transform);
+        if(parent == this.handleParents[handle])
+            return;
+
+        // Move the handle to the child list of the new parent
+        setParentHandle(handle, parent);
+
+        // The world matrices of the subtree and the order have changed
+        markDirty(handle);
+        this.orderDirty = true;
+    }
+
+    /**
+     * Update all transforms in this store.
+     * This synchronizes all mirrors that were handed out, integrates the velocities and accelerations,
+     * and computes the outdated world matrices of all transforms in a single linear pass.
+     *
+     * Like all queries and modifications, this is synchronized on the store, as transforms may be queried and modified
+     * from multiple threads during a parallel scene update.
+     *
+     * @param deltaTime Delta time in seconds.
+     */
+    public synchronized void update(float deltaTime) {
+        // Synchronize all mirrors that were handed out, they stay queued as the caller may still hold them, and
+        // local state mirrors are checked for changes again before the next query
+        this.pendingQueueSize = 0;
+        for(int i = 0; i < this.syncQueueSize; i++) {
+            final int handle = this.syncQueue[i];
+            syncMirrors(handle);
+            this.handlePending[handle] = false;
+            if((this.handleSyncMasks[handle] & SYNC_LOCAL) != 0)
+                enqueuePending(handle);
+        }
+
+        // Integrate the velocities and accelerations
+        integrate(deltaTime);
+
+        // Sort the slots parent-before-child if required
+        if(this.orderDirty)
+            sort();
+
+        // Compute all outdated world matrices in a single pass, parents are always computed before their children
+        final boolean[] dirty = this.handleDirty;
+        final int[] handles = this.slotHandles;
+        for(int slot = 0; slot < this.count; slot++) {
+            if(!dirty[handles[slot]])
+                continue;
+            computeSlotWorldMatrix(slot, this.parentSlots[slot]);
+            dirty[handles[slot]] = false;
+        }
+    }
+
+    /**
+     * Get the world matrix of the given handle.
+     * Only the outdated chain towards the root is computed if the world matrix isn't valid. Like all queries that may
+     * update cached state, this is synchronized on the store.
+     *
+     * @param handle Transform handle.
+     * @param dest Destination matrix. (allocation free)
+     *
+     * @return World matrix.
+     */
+    public synchronized Matrix4f getWorldMatrix(int handle, Matrix4f dest) {
+        // Make sure the world matrix is valid
+        validate(handle);
+
+        // Load and return the world matrix
+        return dest.set(this.worldMatrices, this.handleSlots[handle] * 16);
+    }
+
+    /**
+     * Multiply the given matrix with the world matrix of the given handle.
+     *
+     * @param handle Transform handle.
+     * @param matrix Matrix to multiply.
+     *
+     * @return Combined matrix.
+     */
+    synchronized Matrix4f addWorldMatrix(int handle, Matrix4f matrix) {
+        return matrix.mul(getWorldMatrix(handle, this.tempMatrix));
+    }
+
+    /**
+     * Get the world position of the given handle.
+     *
+     * @param handle Transform handle.
+     * @param dest Destination vector.
+     *
+     * @return World position.
+     */
+    synchronized Vector3f getWorldPosition(int handle, Vector3f dest) {
+        // Make sure the world matrix is valid
+        validate(handle);
+
+        // Get the translation from the world matrix
+        final int offset = this.handleSlots[handle] * 16;
+        return dest.set(this.worldMatrices[offset + 12], this.worldMatrices[offset + 13], this.worldMatrices[offset + 14]);
+    }
+
+    /**
+     * Get the world rotation of the given handle.
+     *
+     * @param handle Transform handle.
+     * @param dest Destination quaternion.
+     *
+     * @return World rotation.
+     */
+    synchronized Quaternionf getWorldRotation(int handle, Quaternionf dest) {
+        return getWorldMatrix(handle, this.tempMatrix).getUnnormalizedRotation(dest);
+    }
+
+    /**
+     * Get the world scale of the given handle.
+     *
+     * @param handle Transform handle.
+     * @param dest Destination vector.
+     *
+     * @return World scale.
+     */
+    synchronized Vector3f getWorldScale(int handle, Vector3f dest) {
+        return getWorldMatrix(handle, this.tempMatrix).getScale(dest);
+    }
+
+    /**
+     * Get the world matrix version of the given handle.
+     * The version changes each time the world matrix of the transform changes.
+     *
+     * @param handle Transform handle.
+     *
+     * @return World matrix version.
+     */
+    public synchronized int getWorldVersion(int handle) {
+        // Make sure the world matrix is valid
+        validate(handle);
+
+        // Return the version
+        return this.worldVersions[this.handleSlots[handle]];
+    }
+
+    /**
+     * Get the local matrix of the given handle.
+     *
+     * @param handle Transform handle.
+     * @param dest Destination matrix.
+     *
+     * @return Local matrix.
+     */
+    synchronized Matrix4f getLocalMatrix(int handle, Matrix4f dest) {
+        // Check the mirrors that were handed out for changes
+        if(this.pendingQueueSize > 0)
+            flushPending();
+
+        // Build the local matrix
+        return buildLocalMatrix(this.handleSlots[handle], dest);
+    }
+
+    /**
+     * Multiply the given matrix with the local matrix of the given handle.
+     *
+     * @param handle Transform handle.
+     * @param matrix Matrix to multiply.
+     *
+     * @return Combined matrix.
+     */
+    synchronized Matrix4f addLocalMatrix(int handle, Matrix4f matrix) {
+        return matrix.mul(getLocalMatrix(handle, this.tempMatrix));
+    }
+
+    /**
+     * Mark the local state of the given handle as changed.
+     * Mirrors that were handed out are synchronized into the store first.
+     *
+     * @param handle Transform handle.
+     */
+    synchronized void invalidate(int handle) {
+        syncMirrors(handle);
+        markDirty(handle);
+    }
+
+    /**
+     * Check whether the given handle is moving, based on it's linear and angular velocity and acceleration.
+     *
+     * @param handle Transform handle.
+     *
+     * @return True if moving, false if not.
+     */
+    synchronized boolean isMoving(int handle) {
+        // Synchronize the mirrors that were handed out
+        syncMirrors(handle);
+
+        // Check the velocities and accelerations
+        final int slot = this.handleSlots[handle];
+        return !isZero(this.linearVelocities, slot)
+                || !isZero(this.angularVelocities, slot)
+                || !isZero(this.linearAccelerations, slot)
+                || !isZero(this.angularAccelerations, slot);
+    }
+
+    /**
+     * Get a copy of the position of the given handle, without handing out a mirror.
+     *
+     * @param handle Transform handle.
+     * @param dest Destination vector.
+     *
+     * @return Position.
+     */
+    synchronized Vector3f getPosition(int handle, Vector3f dest) {
+        syncMirrors(handle);
+        return loadVector(this.positions, this.handleSlots[handle], dest);
+    }
+
+    /**
+     * Get a copy of the rotation of the given handle, without handing out a mirror.
+     *
+     * @param handle Transform handle.
+     * @param dest Destination quaternion.
+     *
+     * @return Rotation.
+     */
+    synchronized Quaternionf getRotation(int handle, Quaternionf dest) {
+        syncMirrors(handle);
+        return loadQuaternion(this.rotations, this.handleSlots[handle], dest);
+    }
+
+    /**
+     * Get a copy of the scale of the given handle, without handing out a mirror.
+     *
+     * @param handle Transform handle.
+     * @param dest Destination vector.
+     *
+     * @return Scale.
+     */
+    synchronized Vector3f getScale(int handle, Vector3f dest) {
+        syncMirrors(handle);
+        return loadVector(this.scales, this.handleSlots[handle], dest);
+    }
+
+    /**
+     * Get the position mirror of the given handle.
+     * The mirror is created and loaded from the store when it's handed out for the first time, and stays linked to the
+     * store until the transform is unbound. Changes made to it are picked up by the next query after handing it out,
+     * and always by the next update.
+     *
+     * @param handle Transform handle.
+     *
+     * @return Position mirror.
+     */
+    synchronized Vector3f getPositionMirror(int handle) {
+        return exposeVector(this.positionMirrors, this.positions, handle, SYNC_POSITION);
+    }
+
+    /**
+     * Get the rotation mirror of the given handle.
+     * The mirror is created and loaded from the store when it's handed out for the first time, and stays linked to the
+     * store until the transform is unbound. Changes made to it are picked up by the next query after handing it out,
+     * and always by the next update.
+     *
+     * @param handle Transform handle.
+     *
+     * @return Rotation mirror.
+     */
+    synchronized Quaternionf getRotationMirror(int handle) {
+        // Create the mirror if it doesn't exist yet
+        Quaternionf mirror = this.rotationMirrors[handle];
+        if(mirror == null)
+            mirror = this.rotationMirrors[handle] = new Quaternionf();
+
+        // Load the mirror from the store, unless it was handed out already and may have been modified
+        if(queueSync(handle, SYNC_ROTATION))
+            loadQuaternion(this.rotations, this.handleSlots[handle], mirror);
+
+        // Check the mirror for changes before the next query
+        queuePending(handle);
+        return mirror;
+    }
+
+    /**
+     * Get the scale mirror of the given handle.
+     * The mirror is created and loaded from the store when it's handed out for the first time, and stays linked to the
+     * store until the transform is unbound. Changes made to it are picked up by the next query after handing it out,
+     * and always by the next update.
+     *
+     * @param handle Transform handle.
+     *
+     * @return Scale mirror.
+     */
+    synchronized Vector3f getScaleMirror(int handle) {
+        return exposeVector(this.scaleMirrors, this.scales, handle, SYNC_SCALE);
+    }
+
+    /**
+     * Get the linear velocity mirror of the given handle.
+     * The mirror stays linked to the store until the transform is unbound, changes made to it are picked up by the
+     * next update.
+     *
+     * @param handle Transform handle.
+     *
+     * @return Linear velocity mirror.
+     */
+    synchronized Vector3f getLinearVelocityMirror(int handle) {
+        return exposeVector(this.linearVelocityMirrors, this.linearVelocities, handle, SYNC_LINEAR_VELOCITY);
+    }
+
+    /**
+     * Get the angular velocity mirror of the given handle.
+     * The mirror stays linked to the store until the transform is unbound, changes made to it are picked up by the
+     * next update.
+     *
+     * @param handle Transform handle.
+     *
+     * @return Angular velocity mirror.
+     */
+    synchronized Vector3f getAngularVelocityMirror(int handle) {
+        return exposeVector(this.angularVelocityMirrors, this.angularVelocities, handle, SYNC_ANGULAR_VELOCITY);
+    }
+
+    /**
+     * Get the linear acceleration mirror of the given handle.
+     * The mirror stays linked to the store until the transform is unbound, changes made to it are picked up by the
+     * next update.
+     *
+     * @param handle Transform handle.
+     *
+     * @return Linear acceleration mirror.
+     */
+    synchronized Vector3f getLinearAccelerationMirror(int handle) {
+        return exposeVector(this.linearAccelerationMirrors, this.linearAccelerations, handle, SYNC_LINEAR_ACCELERATION);
+    }
+
+    /**
+     * Get the angular acceleration mirror of the given handle.
+     * The mirror stays linked to the store until the transform is unbound, changes made to it are picked up by the
+     * next update.
+     *
+     * @param handle Transform handle.
+     *
+     * @return Angular acceleration mirror.
+     */
+    synchronized Vector3f getAngularAccelerationMirror(int handle) {
+        return exposeVector(this.angularAccelerationMirrors, this.angularAccelerations, handle, SYNC_ANGULAR_ACCELERATION);
+    }
+
+    /**
+     * Set the position of the given handle.
+     *
+     * @param handle Transform handle.
+     * @param x X coordinate.
+     * @param y Y coordinate.
+     * @param z Z coordinate.
+     */
+    synchronized void setPosition(int handle, float x, float y, float z) {
+        setVector(this.positions, this.positionMirrors, handle, SYNC_POSITION, x, y, z);
+        markDirty(handle);
+    }
+
+    /**
+     * Set the rotation of the given handle.
+     * The rotation is normalized to prevent weird rotation glitches on non-normalized quaternions.
+     *
+     * @param handle Transform handle.
+     * @param rotation Rotation.
+     */
+    synchronized void setRotation(int handle, Quaternionf rotation) {
+        // Normalize and store the rotation
+        final float invNorm = (float) (1.0 / Math.sqrt(rotation.x * rotation.x + rotation.y * rotation.y
+                + rotation.z * rotation.z + rotation.w * rotation.w));
+        final int r = this.handleSlots[handle] * 4;
+        this.rotations[r] = rotation.x * invNorm;
+        this.rotations[r + 1] = rotation.y * invNorm;
+        this.rotations[r + 2] = rotation.z * invNorm;
+        this.rotations[r + 3] = rotation.w * invNorm;
+
+        // Update the mirror if it was handed out
+        if((this.handleSyncMasks[handle] & SYNC_ROTATION) != 0)
+            loadQuaternion(this.rotations, this.handleSlots[handle], this.rotationMirrors[handle]);
+
+        markDirty(handle);
+    }
+
+    /**
+     * Set the scale of the given handle.
+     *
+     * @param handle Transform handle.
+     * @param x Scale on the X axis.
+     * @param y Scale on the Y axis.
+     * @param z Scale on the Z axis.
+     */
+    synchronized void setScale(int handle, float x, float y, float z) {
+        setVector(this.scales, this.scaleMirrors, handle, SYNC_SCALE, x, y, z);
+        markDirty(handle);
+    }
+
+    /**
+     * Set the linear velocity of the given handle.
+     *
+     * @param handle Transform handle.
+     * @param linVel Linear velocity.
+     */
+    synchronized void setLinearVelocity(int handle, Vector3f linVel) {
+        setVector(this.linearVelocities, this.linearVelocityMirrors, handle, SYNC_LINEAR_VELOCITY, linVel.x, linVel.y, linVel.z);
+    }
+
+    /**
+     * Set the angular velocity of the given handle.
+     *
+     * @param handle Transform handle.
+     * @param angVel Angular velocity.
+     */
+    synchronized void setAngularVelocity(int handle, Vector3f angVel) {
+        setVector(this.angularVelocities, this.angularVelocityMirrors, handle, SYNC_ANGULAR_VELOCITY, angVel.x, angVel.y, angVel.z);
+    }
+
+    /**
+     * Set the linear acceleration of the given handle.
+     *
+     * @param handle Transform handle.
+     * @param linAcc Linear acceleration.
+     */
+    synchronized void setLinearAcceleration(int handle, Vector3f linAcc) {
+        setVector(this.linearAccelerations, this.linearAccelerationMirrors, handle, SYNC_LINEAR_ACCELERATION, linAcc.x, linAcc.y, linAcc.z);
+    }
+
+    /**
+     * Set the angular acceleration of the given handle.
+     *
+     * @param handle Transform handle.
+     * @param angAcc Angular acceleration.
+     */
+    synchronized void setAngularAcceleration(int handle, Vector3f angAcc) {
+        setVector(this.angularAccelerations, this.angularAccelerationMirrors, handle, SYNC_ANGULAR_ACCELERATION, angAcc.x, angAcc.y, angAcc.z);
+    }
+
+    /**
+     * Get the parent handle of the given transform, based on the parent of it's owner.
+     *
+     * @param transform Transform.
+     *
+     * @return Parent handle, or {@link #NO_PARENT}.
+     */
+    private int getParentHandle(Transform transform) {
+        // Return no parent if the owner doesn't have a parent
+        if(!transform.getOwner().hasParent())
+            return NO_PARENT;
+
+        // Get the parent transform, and make sure it's bound to this store
+        final Transform parent = transform.getOwner().getParent().getTransform();
+        return parent.getStore() == this ? parent.getStoreHandle() : NO_PARENT;
+    }
+
+    /**
+     * Move the given handle into the child list of the given parent.
+     *
+     * @param handle Transform handle.
+     * @param parent Parent handle, or {@link #NO_PARENT}.
+     */
+    private void setParentHandle(int handle, int parent) {
+        // Unlink the handle from the child list of it's current parent
+        final int oldParent = this.handleParents[handle];
+        if(oldParent != NO_PARENT) {
+            final int previous = this.handlePreviousSiblings[handle];
+            final int next = this.handleNextSiblings[handle];
+            if(previous != NO_HANDLE)
+                this.handleNextSiblings[previous] = next;
+            else
+                this.handleFirstChildren[oldParent] = next;
+            if(next != NO_HANDLE)
+                this.handlePreviousSiblings[next] = previous;
+        }
+
+        // Link the handle at the start of the child list of the new parent
+        this.handleParents[handle] = parent;
+        this.handlePreviousSiblings[handle] = NO_HANDLE;
+        this.handleNextSiblings[handle] = NO_HANDLE;
+        if(parent != NO_PARENT) {
+            final int first = this.handleFirstChildren[parent];
+            this.handleNextSiblings[handle] = first;
+            if(first != NO_HANDLE)
+                this.handlePreviousSiblings[first] = handle;
+            this.handleFirstChildren[parent] = handle;
+        }
+    }
+
+    /**
+     * Mark the world matrix of the given handle and all it's children as outdated.
+     * Children are skipped if the handle was outdated already, as they're outdated as well in that case.
+     *
+     * @param handle Transform handle.
+     */
+    private void markDirty(int handle) {
+        // Skip if the handle is outdated already
+        if(this.handleDirty[handle])
+            return;
+        this.handleDirty[handle] = true;
+
+        // Mark all children
+        for(int child = this.handleFirstChildren[handle]; child != NO_HANDLE; child = this.handleNextSiblings[child])
+            markDirty(child);
+    }
+
+    /**
+     * Make sure the world matrix of the given handle is valid.
+     * Mirrors that were handed out are checked for changes first, then the outdated chain is computed.
+     *
+     * @param handle Transform handle.
+     */
+    private void validate(int handle) {
+        // Check the mirrors that were handed out for changes
+        if(this.pendingQueueSize > 0)
+            flushPending();
+
+        // Compute the outdated chain if the world matrix is outdated
+        if(this.handleDirty[handle])
+            computeWorldMatrix(handle);
+    }
+
+    /**
+     * Queue a mirror of the given handle to be synchronized back into the store.
+     * A mirror that is queued already may have been modified, and must not be reloaded from the store.
+     *
+     * @param handle Transform handle.
+     * @param syncFlag Sync flag of the mirror.
+     *
+     * @return True if the mirror wasn't queued yet and must be loaded from the store, false if not.
+     */
+    private boolean queueSync(int handle, int syncFlag) {
+        // The mirror is up to date if it's queued already
+        final int mask = this.handleSyncMasks[handle];
+        if((mask & syncFlag) != 0)
+            return false;
+
+        // Queue the handle if it doesn't have any queued mirrors yet
+        if(mask == 0)
+            enqueueSync(handle);
+
+        // Set the flag
+        this.handleSyncMasks[handle] = mask | syncFlag;
+        return true;
+    }
+
+    /**
+     * Queue the local state mirrors of the given handle to be checked for changes before the next query.
+     *
+     * @param handle Transform handle.
+     */
+    private void queuePending(int handle) {
+        if(!this.handlePending[handle])
+            enqueuePending(handle);
+    }
+
+    /**
+     * Add the given handle to the sync queue.
+     *
+     * @param handle Transform handle.
+     */
+    private void enqueueSync(int handle) {
+        if(this.syncQueueSize >= this.syncQueue.length)
+            this.syncQueue = Arrays.copyOf(this.syncQueue, this.syncQueue.length * 2);
+        this.handleSyncIndexes[handle] = this.syncQueueSize;
+        this.syncQueue[this.syncQueueSize++] = handle;
+    }
+
+    /**
+     * Remove the given handle from the sync queue if it's queued, by moving the last queued handle into it's place.
+     *
+     * @param handle Transform handle.
+     */
+    private void dequeueSync(int handle) {
+        // Make sure the handle is queued
+        final int index = this.handleSyncIndexes[handle];
+        if(index < 0)
+            return;
+
+        // Move the last handle into the freed place
+        final int last = this.syncQueue[--this.syncQueueSize];
+        this.syncQueue[index] = last;
+        this.handleSyncIndexes[last] = index;
+        this.handleSyncIndexes[handle] = -1;
+    }
+
+    /**
+     * Add the given handle to the pending queue.
+     *
+     * @param handle Transform handle.
+     */
+    private void enqueuePending(int handle) {
+        if(this.handlePending[handle])
+            return;
+        if(this.pendingQueueSize >= this.pendingQueue.length)
+            this.pendingQueue = Arrays.copyOf(this.pendingQueue, this.pendingQueue.length * 2);
+        this.pendingQueue[this.pendingQueueSize++] = handle;
+        this.handlePending[handle] = true;
+    }
+
+    /**
+     * Check all handles in the pending queue for changed mirrors, and store the changes.
+     * Only the handles of which a mirror has actually changed are marked as outdated.
+     */
+    private void flushPending() {
+        for(int i = 0; i < this.pendingQueueSize; i++) {
+            final int handle = this.pendingQueue[i];
+            if(!this.handlePending[handle])
+                continue;
+            this.handlePending[handle] = false;
+            syncMirrors(handle);
+        }
+        this.pendingQueueSize = 0;
+    }
+
+    /**
+     * Hand out a vector mirror of the given handle.
+     *
+     * @param mirrors Mirror array.
+     * @param array Slot array.
+     * @param handle Transform handle.
+     * @param syncFlag Sync flag of the mirror.
+     *
+     * @return Vector mirror.
+     */
+    private Vector3f exposeVector(Vector3f[] mirrors, float[] array, int handle, int syncFlag) {
+        // Create the mirror if it doesn't exist yet
+        Vector3f mirror = mirrors[handle];
+        if(mirror == null)
+            mirror = mirrors[handle] = new Vector3f();
+
+        // Load the mirror from the store, unless it was handed out already and may have been modified
+        if(queueSync(handle, syncFlag))
+            loadVector(array, this.handleSlots[handle], mirror);
+
+        // Check local state mirrors for changes before the next query
+        if((syncFlag & SYNC_LOCAL) != 0)
+            queuePending(handle);
+        return mirror;
+    }
+
+    /**
+     * Set a vector of the given handle, and update it's mirror if it was handed out.
+     *
+     * @param array Slot array.
+     * @param mirrors Mirror array.
+     * @param handle Transform handle.
+     * @param syncFlag Sync flag of the mirror.
+     * @param x X value.
+     * @param y Y value.
+     * @param z Z value.
+     */
+    private void setVector(float[] array, Vector3f[] mirrors, int handle, int syncFlag, float x, float y, float z) {
+        // Store the vector
+        final int i = this.handleSlots[handle] * 3;
+        array[i] = x;
+        array[i + 1] = y;
+        array[i + 2] = z;
+
+        // Update the mirror if it was handed out
+        if((this.handleSyncMasks[handle] & syncFlag) != 0)
+            mirrors[handle].set(x, y, z);
+    }
+
+    /**
+     * Synchronize all mirrors of the given handle that were handed out back into the store.
+     * The world matrices of the handle and it's children are only marked as outdated if a mirror of the local state
+     * has actually changed.
+     *
+     * @param handle Transform handle.
+     */
+    private void syncMirrors(int handle) {
+        // Get the mask, and make sure anything was handed out
+        final int mask = this.handleSyncMasks[handle];
+        if(mask == 0)
+            return;
+        final int slot = this.handleSlots[handle];
+
+        // Store the local state mirrors that have changed
+        boolean changed = false;
+        if((mask & SYNC_POSITION) != 0)
+            changed |= syncVector(this.positions, slot, this.positionMirrors[handle]);
+        if((mask & SYNC_ROTATION) != 0)
+            changed |= syncQuaternion(this.rotations, slot, this.rotationMirrors[handle]);
+        if((mask & SYNC_SCALE) != 0)
+            changed |= syncVector(this.scales, slot, this.scaleMirrors[handle]);
+
+        // Store the velocity and acceleration mirrors
+        if((mask & SYNC_LINEAR_VELOCITY) != 0)
+            syncVector(this.linearVelocities, slot, this.linearVelocityMirrors[handle]);
+        if((mask & SYNC_ANGULAR_VELOCITY) != 0)
+            syncVector(this.angularVelocities, slot, this.angularVelocityMirrors[handle]);
+        if((mask & SYNC_LINEAR_ACCELERATION) != 0)
+            syncVector(this.linearAccelerations, slot, this.linearAccelerationMirrors[handle]);
+        if((mask & SYNC_ANGULAR_ACCELERATION) != 0)
+            syncVector(this.angularAccelerations, slot, this.angularAccelerationMirrors[handle]);
+
+        // Mark the world matrices as outdated if the local state has changed
+        if(changed)
+            markDirty(handle);
+    }
+
+    /**
+     * Integrate the velocities and accelerations of all slots.
+     * Slots that are moving are marked as outdated.
+     *
+     * @param deltaTime Delta time in seconds.
+     */
+    private void integrate(float deltaTime) {
+        // Get the arrays as locals, to help the JIT
+        final float[] pos = this.positions;
+        final float[] rot = this.rotations;
+        final float[] linVel = this.linearVelocities;
+        final float[] angVel = this.angularVelocities;
+        final float[] linAcc = this.linearAccelerations;
+        final float[] angAcc = this.angularAccelerations;
+
+        // Loop through all slots
+        for(int slot = 0; slot < this.count; slot++) {
+            final int i = slot * 3;
+
+            // Skip slots that aren't moving
+            if(linVel[i] == 0f && linVel[i + 1] == 0f && linVel[i + 2] == 0f
+                    && angVel[i] == 0f && angVel[i + 1] == 0f && angVel[i + 2] == 0f
+                    && linAcc[i] == 0f && linAcc[i + 1] == 0f && linAcc[i + 2] == 0f
+                    && angAcc[i] == 0f && angAcc[i + 1] == 0f && angAcc[i + 2] == 0f)
+                continue;
+
+            // Update the velocities based on the accelerations
+            linVel[i] += deltaTime * linAcc[i];
+            linVel[i + 1] += deltaTime * linAcc[i + 1];
+            linVel[i + 2] += deltaTime * linAcc[i + 2];
+            angVel[i] += deltaTime * angAcc[i];
+            angVel[i + 1] += deltaTime * angAcc[i + 1];
+            angVel[i + 2] += deltaTime * angAcc[i + 2];
+
+            // Update the rotation based on the angular velocity
+            loadQuaternion(rot, slot, this.tempQuaternion)
+                    .integrate(deltaTime, angVel[i], angVel[i + 1], angVel[i + 2]);
+            storeQuaternion(rot, slot, this.tempQuaternion);
+
+            // Update the position based on the linear velocity
+            pos[i] += deltaTime * linVel[i];
+            pos[i + 1] += deltaTime * linVel[i + 1];
+            pos[i + 2] += deltaTime * linVel[i + 2];
+
+            // Reload the mirrors that were handed out, so they don't overwrite the integrated state on the next update
+            final int handle = this.slotHandles[slot];
+            if(this.handleSyncMasks[handle] != 0)
+                reloadMirrors(handle, slot);
+
+            // The world matrices of the slot and it's children are outdated
+            markDirty(handle);
+        }
+    }
+
+    /**
+     * Reload the integrated mirrors of the given handle that were handed out from the store.
+     *
+     * @param handle Transform handle.
+     * @param slot Slot of the handle.
+     */
+    private void reloadMirrors(int handle, int slot) {
+        final int mask = this.handleSyncMasks[handle];
+        if((mask & SYNC_POSITION) != 0)
+            loadVector(this.positions, slot, this.positionMirrors[handle]);
+        if((mask & SYNC_ROTATION) != 0)
+            loadQuaternion(this.rotations, slot, this.rotationMirrors[handle]);
+        if((mask & SYNC_LINEAR_VELOCITY) != 0)
+            loadVector(this.linearVelocities, slot, this.linearVelocityMirrors[handle]);
+        if((mask & SYNC_ANGULAR_VELOCITY) != 0)
+            loadVector(this.angularVelocities, slot, this.angularVelocityMirrors[handle]);
+    }
+
+    /**
+     * Compute the world matrix of the given handle, along with all outdated parents.
+     * This is used to keep world matrices valid between passes.
+     *
+     * @param handle Transform handle.
+     */
+    private void computeWorldMatrix(int handle) {
+        // Collect the chain of outdated handles from the given handle up to the first valid parent
+        int depth = 0;
+        for(int h = handle; h != NO_PARENT && this.handleDirty[h]; h = this.handleParents[h]) {
+            if(depth >= this.tempChain.length)
+                this.tempChain = Arrays.copyOf(this.tempChain, this.tempChain.length * 2);
+            this.tempChain[depth++] = h;
+        }
+
+        // Compute the world matrices from the top of the chain down to the given handle
+        for(int i = depth - 1; i >= 0; i--) {
+            final int h = this.tempChain[i];
+            final int parent = this.handleParents[h];
+            computeSlotWorldMatrix(this.handleSlots[h], parent != NO_PARENT ? this.handleSlots[parent] : NO_PARENT);
+            this.handleDirty[h] = false;
+        }
+    }
+
+    /**
+     * Compute the world matrix of the given slot.
+     * The world matrix of the parent slot must be up to date.
+     *
+     * @param slot Slot.
+     * @param parentSlot Parent slot, or {@link #NO_PARENT}.
+     */
+    private void computeSlotWorldMatrix(int slot, int parentSlot) {
+        // Build the local matrix
+        buildLocalMatrix(slot, this.tempLocalMatrix);
+
+        // Combine it with the parent world matrix
+        if(parentSlot != NO_PARENT)
+            this.tempParentMatrix.set(this.worldMatrices, parentSlot * 16).mulAffine(this.tempLocalMatrix, this.tempLocalMatrix);
+
+        // Store the matrix, and bump the version if it has changed
+        final int offset = slot * 16;
+        if(!matrixEquals(this.tempLocalMatrix, this.worldMatrices, offset)) {
+            this.tempLocalMatrix.get(this.worldMatrices, offset);
+            this.worldVersions[slot]++;
+        }
+    }
+
+    /**
+     * Build the local matrix of the given slot.
+     *
+     * @param slot Slot.
+     * @param dest Destination matrix.
+     *
+     * @return Local matrix.
+     */
+    private Matrix4f buildLocalMatrix(int slot, Matrix4f dest) {
+        final int p = slot * 3, r = slot * 4;
+        return dest.translationRotateScale(
+                this.positions[p], this.positions[p + 1], this.positions[p + 2],
+                this.rotations[r], this.rotations[r + 1], this.rotations[r + 2], this.rotations[r + 3],
+                this.scales[p], this.scales[p + 1], this.scales[p + 2]
+        );
+    }
+
+    /**
+     * Sort all slots so that each parent is placed before it's children, using a depth first walk over the child
+     * lists. Slots of the same subtree are placed next to each other for better memory locality.
+     */
+    private void sort() {
+        final int n = this.count;
+
+        // Walk the hierarchy depth first starting at each root, to determine the old slot of each new slot
+        final int[] order = new int[n];
+        final int[] stack = new int[n];
+        int orderSize = 0;
+        for(int slot = 0; slot < n; slot++) {
+            // Start at roots only
+            final int root = this.slotHandles[slot];
+            if(this.handleParents[root] != NO_PARENT)
+                continue;
+
+            int stackSize = 0;
+            stack[stackSize++] = root;
+            while(stackSize > 0) {
+                final int handle = stack[--stackSize];
+                order[orderSize++] = this.handleSlots[handle];
+
+                // Push the children
+                for(int child = this.handleFirstChildren[handle]; child != NO_HANDLE; child = this.handleNextSiblings[child])
+                    stack[stackSize++] = child;
+            }
+        }
+
+        // Permute all slot arrays
+        this.positions = permute(this.positions, order, 3);
+        this.rotations = permute(this.rotations, order, 4);
+        this.scales = permute(this.scales, order, 3);
+        this.linearVelocities = permute(this.linearVelocities, order, 3);
+        this.angularVelocities = permute(this.angularVelocities, order, 3);
+        this.linearAccelerations = permute(this.linearAccelerations, order, 3);
+        this.angularAccelerations = permute(this.angularAccelerations, order, 3);
+        this.worldMatrices = permute(this.worldMatrices, order, 16);
+
+        // Permute the slot references
+        final int[] worldVersions = new int[this.capacity];
+        final int[] slotHandles = new int[this.capacity];
+        for(int slot = 0; slot < n; slot++) {
+            worldVersions[slot] = this.worldVersions[order[slot]];
+            slotHandles[slot] = this.slotHandles[order[slot]];
+            this.handleSlots[slotHandles[slot]] = slot;
+        }
+        this.worldVersions = worldVersions;
+        this.slotHandles = slotHandles;
+
+        // Resolve the parent slot of each slot
+        for(int slot = 0; slot < n; slot++) {
+            final int parent = this.handleParents[this.slotHandles[slot]];
+            this.parentSlots[slot] = parent != NO_PARENT ? this.handleSlots[parent] : NO_PARENT;
+        }
+
+        // Reset the order flag
+        this.orderDirty = false;
+    }
+
+    /**
+     * Move the data of a slot into another slot.
+     *
+     * @param from Source slot.
+     * @param to Target slot.
+     */
+    private void moveSlot(int from, int to) {
+        System.arraycopy(this.positions, from * 3, this.positions, to * 3, 3);
+        System.arraycopy(this.rotations, from * 4, this.rotations, to * 4, 4);
+        System.arraycopy(this.scales, from * 3, this.scales, to * 3, 3);
+        System.arraycopy(this.linearVelocities, from * 3, this.linearVelocities, to * 3, 3);
+        System.arraycopy(this.angularVelocities, from * 3, this.angularVelocities, to * 3, 3);
+        System.arraycopy(this.linearAccelerations, from * 3, this.linearAccelerations, to * 3, 3);
+        System.arraycopy(this.angularAccelerations, from * 3, this.angularAccelerations, to * 3, 3);
+        System.arraycopy(this.worldMatrices, from * 16, this.worldMatrices, to * 16, 16);
+        this.worldVersions[to] = this.worldVersions[from];
+        this.slotHandles[to] = this.slotHandles[from];
+        this.handleSlots[this.slotHandles[to]] = to;
+    }
+
+    /**
+     * Allocate the arrays for the given number of slots, keeping the current data.
+     *
+     * @param capacity New capacity.
+     */
+    private void allocate(int capacity) {
+        this.positions = grow(this.positions, capacity * 3);
+        this.rotations = grow(this.rotations, capacity * 4);
+        this.scales = grow(this.scales, capacity * 3);
+        this.linearVelocities = grow(this.linearVelocities, capacity * 3);
+        this.angularVelocities = grow(this.angularVelocities, capacity * 3);
+        this.linearAccelerations = grow(this.linearAccelerations, capacity * 3);
+        this.angularAccelerations = grow(this.angularAccelerations, capacity * 3);
+        this.worldMatrices = grow(this.worldMatrices, capacity * 16);
+        this.worldVersions = grow(this.worldVersions, capacity);
+        this.parentSlots = grow(this.parentSlots, capacity);
+        this.slotHandles = grow(this.slotHandles, capacity);
+        this.handleSlots = grow(this.handleSlots, capacity);
+        this.handleParents = grow(this.handleParents, capacity);
+        this.handleFirstChildren = grow(this.handleFirstChildren, capacity);
+        this.handleNextSiblings = grow(this.handleNextSiblings, capacity);
+        this.handlePreviousSiblings = grow(this.handlePreviousSiblings, capacity);
+        this.handleDirty = grow(this.handleDirty, capacity);
+        this.handleSyncMasks = grow(this.handleSyncMasks, capacity);
+        this.handleSyncIndexes = grow(this.handleSyncIndexes, capacity);
+        this.handlePending = grow(this.handlePending, capacity);
+        this.freeHandles = grow(this.freeHandles, capacity);
+        this.positionMirrors = Arrays.copyOf(this.positionMirrors, capacity);
+        this.rotationMirrors = Arrays.copyOf(this.rotationMirrors, capacity);
+        this.scaleMirrors = Arrays.copyOf(this.scaleMirrors, capacity);
+        this.linearVelocityMirrors = Arrays.copyOf(this.linearVelocityMirrors, capacity);
+        this.angularVelocityMirrors = Arrays.copyOf(this.angularVelocityMirrors, capacity);
+        this.linearAccelerationMirrors = Arrays.copyOf(this.linearAccelerationMirrors, capacity);
+        this.angularAccelerationMirrors = Arrays.copyOf(this.angularAccelerationMirrors, capacity);
+        this.capacity = capacity;
+    }
+
+    /**
+     * Grow the given array to the given length, or create it if it doesn't exist.
+     *
+     * @param array Array.
+     * @param length New length.
+     *
+     * @return Array with the given length.
+     */
+    private static float[] grow(float[] array, int length) {
+        return array == null ? new float[length] : Arrays.copyOf(array, length);
+    }
+
+    /**
+     * Grow the given array to the given length, or create it if it doesn't exist.
+     *
+     * @param array Array.
+     * @param length New length.
+     *
+     * @return Array with the given length.
+     */
+    private static int[] grow(int[] array, int length) {
+        return array == null ? new int[length] : Arrays.copyOf(array, length);
+    }
+
+    /**
+     * Grow the given array to the given length, or create it if it doesn't exist.
+     *
+     * @param array Array.
+     * @param length New length.
+     *
+     * @return Array with the given length.
+     */
+    private static boolean[] grow(boolean[] array, int length) {
+        return array == null ? new boolean[length] : Arrays.copyOf(array, length);
+    }
+
+    /**
+     * Permute the given slot array.
+     *
+     * @param array Slot array.
+     * @param order Old slot of each new slot.
+     * @param stride Number of floats per slot.
+     *
+     * @return Permuted array.
+     */
+    private static float[] permute(float[] array, int[] order, int stride) {
+        final float[] result = new float[array.length];
+        for(int slot = 0; slot < order.length; slot++)
+            System.arraycopy(array, order[slot] * stride, result, slot * stride, stride);
+        return result;
+    }
+
+    /**
+     * Check whether the given matrix equals the matrix stored in the array at the given offset.
+     *
+     * @param matrix Matrix.
+     * @param array Array.
+     * @param offset Offset in the array.
+     *
+     * @return True if equal, false if not.
+     */
+    private static boolean matrixEquals(Matrix4f matrix, float[] array, int offset) {
+        return matrix.m30() == array[offset + 12] && matrix.m31() == array[offset + 13] && matrix.m32() == array[offset + 14]
+                && matrix.m00() == array[offset] && matrix.m01() == array[offset + 1] && matrix.m02() == array[offset + 2]
+                && matrix.m10() == array[offset + 4] && matrix.m11() == array[offset + 5] && matrix.m12() == array[offset + 6]
+                && matrix.m20() == array[offset + 8] && matrix.m21() == array[offset + 9] && matrix.m22() == array[offset + 10]
+                && matrix.m03() == array[offset + 3] && matrix.m13() == array[offset + 7]
+                && matrix.m23() == array[offset + 11] && matrix.m33() == array[offset + 15];
+    }
+
+    /**
+     * Check whether the vector in a slot array is zero.
+     *
+     * @param array Slot array.
+     * @param slot Slot.
+     *
+     * @return True if zero, false if not.
+     */
+    private static boolean isZero(float[] array, int slot) {
+        return array[slot * 3] == 0f && array[slot * 3 + 1] == 0f && array[slot * 3 + 2] == 0f;
+    }
+
+    /**
+     * Load a vector from a slot array.
+     *
+     * @param array Slot array.
+     * @param slot Slot.
+     * @param dest Destination vector.
+     *
+     * @return Destination vector.
+     */
+    private static Vector3f loadVector(float[] array, int slot, Vector3f dest) {
+        return dest.set(array[slot * 3], array[slot * 3 + 1], array[slot * 3 + 2]);
+    }
+
+    /**
+     * Store a vector in a slot array.
+     *
+     * @param array Slot array.
+     * @param slot Slot.
+     * @param vector Vector.
+     */
+    private static void storeVector(float[] array, int slot, Vector3f vector) {
+        array[slot * 3] = vector.x;
+        array[slot * 3 + 1] = vector.y;
+        array[slot * 3 + 2] = vector.z;
+    }
+
+    /**
+     * Store a vector mirror in a slot array if it differs from the stored vector.
+     *
+     * @param array Slot array.
+     * @param slot Slot.
+     * @param mirror Vector mirror.
+     *
+     * @return True if the vector has changed, false if not.
+     */
+    private static boolean syncVector(float[] array, int slot, Vector3f mirror) {
+        final int i = slot * 3;
+        if(array[i] == mirror.x && array[i + 1] == mirror.y && array[i + 2] == mirror.z)
+            return false;
+        storeVector(array, slot, mirror);
+        return true;
+    }
+
+    /**
+     * Load a quaternion from a slot array.
+     *
+     * @param array Slot array.
+     * @param slot Slot.
+     * @param dest Destination quaternion.
+     *
+     * @return Destination quaternion.
+     */
+    private static Quaternionf loadQuaternion(float[] array, int slot, Quaternionf dest) {
+        return dest.set(array[slot * 4], array[slot * 4 + 1], array[slot * 4 + 2], array[slot * 4 + 3]);
+    }
+
+    /**
+     * Store a quaternion in a slot array.
+     *
+     * @param array Slot array.
+     * @param slot Slot.
+     * @param quaternion Quaternion.
+     */
+    private static void storeQuaternion(float[] array, int slot, Quaternionf quaternion) {
+        array[slot * 4] = quaternion.x;
+        array[slot * 4 + 1] = quaternion.y;
+        array[slot * 4 + 2] = quaternion.z;
+        array[slot * 4 + 3] = quaternion.w;
+    }
+
+    /**
+     * Store a quaternion mirror in a slot array if it differs from the stored quaternion.
+     *
+     * @param array Slot array.
+     * @param slot Slot.
+     * @param mirror Quaternion mirror.
+     *
+     * @return True if the quaternion has changed, false if not.
+     */
+    private static boolean syncQuaternion(float[] array, int slot, Quaternionf mirror) {
+        final int i = slot * 4;
+        if(array[i] == mirror.x && array[i + 1] == mirror.y && array[i + 2] == mirror.z && array[i + 3] == mirror.w)
+            return false;
+        storeQuaternion(array, slot, mirror);
+        return true;
+    }
+}
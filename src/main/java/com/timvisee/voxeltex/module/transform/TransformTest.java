@@ -30,6 +30,7 @@ import org.joml.Quaternionf;
 import org.joml.Vector3f;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
 
 public class TransformTest {
 
@@ -159,6 +160,19 @@ public class TransformTest {
         assertEquals(vector.z, other.z, 0.00000001f);
     }
 
+    /**
+     * Assert the position of two vectors, with the given tolerance.
+     *
+     * @param vector First vector.
+     * @param other Second vector.
+     * @param delta Maximum difference per component.
+     */
+    private void assertVector3f(Vector3f vector, Vector3f other, float delta) {
+        assertEquals(vector.x, other.x, delta);
+        assertEquals(vector.y, other.y, delta);
+        assertEquals(vector.z, other.z, delta);
+    }
+
     /**
      * Assert the position of two quaternions.
      *
@@ -827,4 +841,245 @@ public class TransformTest {
         // Make sure this doesn't throw any exceptions
         this.transform.update();
     }
-}
\ No newline at end of file
+
+    @org.junit.Test
+    public void worldMatrixCacheValid() throws Exception {
+        // Query the world matrix version twice without changing anything
+        final int version = this.transform.getWorldVersion();
+
+        // The cached world matrix must not be rebuilt
+        assertEquals(version, this.transform.getWorldVersion());
+    }
+
+    @org.junit.Test
+    public void worldMatrixCacheSetterInvalidation() throws Exception {
+        // Make sure we aren't using the temporary variables in multiple spots at the same time
+        synchronized(this.tempSharedLock) {
+            // Validate the world matrix, and get it's version
+            final int version = this.transform.getWorldVersion();
+
+            // Move the parent through it's setter
+            this.parent.getTransform().setPosition(this.tempVector3f.set(this.parentPosition).add(1f, 2f, 3f));
+
+            // The world matrix of the owner must follow the parent
+            assertNotEquals(version, this.transform.getWorldVersion());
+            assertVector3f(this.transform.getWorldPosition(this.tempVector3f2),
+                    this.tempVector3f.set(this.ownerWorldPosition).add(1f, 2f, 3f), 0.0001f);
+
+            // Reset the parent position
+            this.parent.getTransform().setPosition(this.parentPosition);
+            assertVector3f(this.transform.getWorldPosition(this.tempVector3f2), this.ownerWorldPosition, 0.0001f);
+        }
+    }
+
+    @org.junit.Test
+    public void worldMatrixCacheDirectInvalidation() throws Exception {
+        // Make sure we aren't using the temporary variables in multiple spots at the same time
+        synchronized(this.tempSharedLock) {
+            // Validate the world matrix, and get it's version
+            final int version = this.transform.getWorldVersion();
+
+            // Modify the vector returned by the parent directly
+            this.parent.getTransform().getPosition().add(1f, 2f, 3f);
+
+            // The world matrix of the owner must follow the parent
+            assertNotEquals(version, this.transform.getWorldVersion());
+            assertVector3f(this.transform.getWorldPosition(this.tempVector3f2),
+                    this.tempVector3f.set(this.ownerWorldPosition).add(1f, 2f, 3f), 0.0001f);
+
+            // Handing out the position without modifying it must keep the world matrix
+            final int modifiedVersion = this.transform.getWorldVersion();
+            this.parent.getTransform().getPosition();
+            assertEquals(modifiedVersion, this.transform.getWorldVersion());
+        }
+    }
+
+    @org.junit.Test
+    public void worldMatrixCacheParentInvalidation() throws Exception {
+        // Make sure we aren't using the temporary variables in multiple spots at the same time
+        synchronized(this.tempSharedLock) {
+            // Validate the world matrix, and get it's version
+            final int version = this.transform.getWorldVersion();
+
+            // Create a new parent at a different position, and move the owner to it
+            final GameObject other = new GameObject("Other");
+            other.getTransform().setPosition(this.tempVector3f.set(5f, 6f, 7f));
+            other.addChild(this.owner);
+
+            // The world matrix of the owner must follow the new parent
+            assertNotEquals(version, this.transform.getWorldVersion());
+            assertVector3f(this.transform.getWorldPosition(this.tempVector3f2),
+                    this.tempVector3f.add(this.ownerPosition), 0.0001f);
+
+            // Changes to the old parent must not affect the owner anymore
+            this.parent.getTransform().setPosition(Vector3fFactory.identity());
+            assertVector3f(this.transform.getWorldPosition(this.tempVector3f2), this.tempVector3f, 0.0001f);
+        }
+    }
+
+    @org.junit.Test
+    public void storeBindUnbind() throws Exception {
+        // Make sure we aren't using the temporary variables in multiple spots at the same time
+        synchronized(this.tempSharedLock) {
+            // Create a transform with some state
+            final GameObject object = new GameObject("Bound");
+            final Transform transform = object.getTransform();
+            transform.setPosition(this.tempVector3f.set(1f, 2f, 3f));
+            transform.setLinearVelocity(this.tempVector3f2.set(4f, 5f, 6f));
+
+            // Bind the transform, the state must be moved into the store
+            final TransformStore store = new TransformStore();
+            store.bind(transform);
+            assertEquals(true, transform.isBound());
+            assertEquals(1, store.getCount());
+            assertVector3f(transform.getPosition(), this.tempVector3f);
+            assertVector3f(transform.getLinearVelocity(), this.tempVector3f2);
+
+            // Modify the state while bound
+            transform.getPosition().add(1f, 1f, 1f);
+            transform.setScale(this.tempVector3f2.set(2f, 2f, 2f));
+
+            // Unbind the transform, the state must be moved back into the transform
+            store.unbind(transform);
+            assertEquals(false, transform.isBound());
+            assertEquals(0, store.getCount());
+            assertVector3f(transform.getPosition(), this.tempVector3f.set(2f, 3f, 4f));
+            assertVector3f(transform.getScale(), this.tempVector3f2);
+            assertVector3f(transform.getWorldPosition(this.tempVector3f2), this.tempVector3f);
+        }
+    }
+
+    @org.junit.Test
+    public void storeParentReorder() throws Exception {
+        // Make sure we aren't using the temporary variables in multiple spots at the same time
+        synchronized(this.tempSharedLock) {
+            // Create an unparented child and a parent
+            final GameObject root = new GameObject("Root");
+            final GameObject child = new GameObject("Child");
+            root.getTransform().setPosition(this.tempVector3f.set(1f, 2f, 3f));
+            child.getTransform().setPosition(this.tempVector3f.set(4f, 5f, 6f));
+
+            // Bind the child before the parent, and link them afterwards
+            final TransformStore store = new TransformStore();
+            store.bind(child.getTransform());
+            store.bind(root.getTransform());
+            root.addChild(child);
+
+            // Move the parent, and run a pass
+            root.getTransform().setPosition(this.tempVector3f.set(10f, 20f, 30f));
+            store.update(0f);
+
+            // The child must follow the parent
+            assertVector3f(child.getTransform().getWorldPosition(this.tempVector3f2),
+                    this.tempVector3f.set(14f, 25f, 36f), 0.0001f);
+
+            // Unbinding the parent must turn the child into a root of the store
+            store.unbind(root.getTransform());
+            store.update(0f);
+            assertEquals(1, store.getCount());
+            assertVector3f(child.getTransform().getWorldPosition(this.tempVector3f2),
+                    this.tempVector3f.set(4f, 5f, 6f), 0.0001f);
+        }
+    }
+
+    @org.junit.Test
+    public void storeWorldPass() throws Exception {
+        // Make sure we aren't using the temporary variables in multiple spots at the same time
+        synchronized(this.tempSharedLock) {
+            // Create a chain of three game objects
+            final GameObject root = new GameObject("Root");
+            final GameObject middle = new GameObject("Middle");
+            final GameObject leaf = new GameObject("Leaf");
+            root.addChild(middle);
+            middle.addChild(leaf);
+            root.getTransform().setPosition(this.tempVector3f.set(1f, 0f, 0f));
+            middle.getTransform().setPosition(this.tempVector3f.set(0f, 2f, 0f));
+            middle.getTransform().setScale(this.tempVector3f.set(2f, 2f, 2f));
+            leaf.getTransform().setPosition(this.tempVector3f.set(0f, 0f, 3f));
+
+            // Bind the hierarchy, and run a pass
+            final TransformStore store = new TransformStore();
+            store.bindHierarchy(root);
+            store.update(0f);
+            assertEquals(3, store.getCount());
+            assertVector3f(leaf.getTransform().getWorldPosition(this.tempVector3f2),
+                    this.tempVector3f.set(1f, 2f, 6f), 0.0001f);
+
+            // The version must be stable over a pass without changes, and over read-only access
+            final int version = leaf.getTransform().getWorldVersion();
+            store.update(0f);
+            middle.getTransform().getPosition();
+            assertEquals(version, leaf.getTransform().getWorldVersion());
+            store.update(0f);
+            assertEquals(version, leaf.getTransform().getWorldVersion());
+
+            // Direct mutation of a mirror must show up in the world matrix of the leaf immediately
+            middle.getTransform().getPosition().add(0f, 1f, 0f);
+            assertNotEquals(version, leaf.getTransform().getWorldVersion());
+            assertVector3f(leaf.getTransform().getWorldPosition(this.tempVector3f2),
+                    this.tempVector3f.set(1f, 3f, 6f), 0.0001f);
+
+            // The mutation must survive a pass
+            store.update(0f);
+            assertVector3f(leaf.getTransform().getWorldPosition(this.tempVector3f2), this.tempVector3f, 0.0001f);
+            assertVector3f(middle.getTransform().getPosition(), this.tempVector3f2.set(0f, 3f, 0f));
+        }
+    }
+
+    @org.junit.Test
+    public void storeRetainedMirror() throws Exception {
+        // Make sure we aren't using the temporary variables in multiple spots at the same time
+        synchronized(this.tempSharedLock) {
+            // Bind a transform, and keep it's position mirror across passes
+            final GameObject object = new GameObject("Retained");
+            final TransformStore store = new TransformStore();
+            store.bind(object.getTransform());
+            final Vector3f position = object.getTransform().getPosition();
+            store.update(0f);
+
+            // Changes made to the retained mirror after a pass must still be picked up
+            position.set(1f, 2f, 3f);
+            store.update(0f);
+            assertVector3f(object.getTransform().getWorldPosition(this.tempVector3f2),
+                    this.tempVector3f.set(1f, 2f, 3f), 0.0001f);
+
+            // Integrated movement must be reflected in the retained mirror, and must not be overwritten by it
+            object.getTransform().setLinearVelocity(this.tempVector3f.set(1f, 0f, 0f));
+            store.update(1f);
+            store.update(1f);
+            assertVector3f(position, this.tempVector3f.set(3f, 2f, 3f), 0.0001f);
+            assertVector3f(object.getTransform().getWorldPosition(this.tempVector3f2), this.tempVector3f, 0.0001f);
+
+            // Unbinding releases the mirror, the state must be moved back into the transform
+            position.x = 5f;
+            store.unbind(object.getTransform());
+            assertVector3f(object.getTransform().getPosition(), this.tempVector3f.set(5f, 2f, 3f));
+        }
+    }
+
+    @org.junit.Test
+    public void exposedState() throws Exception {
+        // Make sure we aren't using the temporary variables in multiple spots at the same time
+        synchronized(this.tempSharedLock) {
+            // Create a parent and a child
+            final GameObject root = new GameObject("Root");
+            final GameObject child = new GameObject("Child");
+            root.addChild(child);
+            child.getTransform().setPosition(this.tempVector3f.set(0f, 1f, 0f));
+            final int version = child.getTransform().getWorldVersion();
+
+            // Reading copies or handing out the state without changing it must keep the version
+            root.getTransform().getPosition(this.tempVector3f);
+            final Vector3f position = root.getTransform().getPosition();
+            assertEquals(version, child.getTransform().getWorldVersion());
+            assertEquals(version, child.getTransform().getWorldVersion());
+
+            // Changes made to the kept reference must be picked up by every later query
+            position.set(1f, 0f, 0f);
+            assertVector3f(child.getTransform().getWorldPosition(this.tempVector3f2), this.tempVector3f.set(1f, 1f, 0f));
+            position.set(2f, 0f, 0f);
+            assertVector3f(child.getTransform().getWorldPosition(this.tempVector3f2), this.tempVector3f.set(2f, 1f, 0f));
+            assertNotEquals(version, child.getTransform().getWorldVersion());
+        }
+    }
+}
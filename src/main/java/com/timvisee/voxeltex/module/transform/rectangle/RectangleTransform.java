@@ -23,6 +23,7 @@
 package com.timvisee.voxeltex.module.transform.rectangle;
 
 import com.timvisee.voxeltex.architecture.component.BaseComponent;
+import com.timvisee.voxeltex.architecture.component.EmptyUpdate;
 import com.timvisee.voxeltex.module.render.OverlayUtil;
 import com.timvisee.voxeltex.module.transform.rectangle.anchor.HorizontalTransformAnchorType;
 import com.timvisee.voxeltex.module.transform.rectangle.anchor.RectangleTransformAnchor;
@@ -582,6 +583,7 @@ public class RectangleTransform extends BaseComponent {
     }
 
     @Override
+    @EmptyUpdate
     public void update() { }
 
     @Override
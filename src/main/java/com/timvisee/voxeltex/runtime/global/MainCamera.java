@@ -55,6 +55,16 @@ public class MainCamera {
      */
     private static final Matrix4f projectionMatrix = new Matrix4f();
 
+    /**
+     * Camera view matrix of the current frame.
+     */
+    private static final Matrix4f viewMatrix = new Matrix4f();
+
+    /**
+     * Combined projection and camera view matrix of the current frame.
+     */
+    private static final Matrix4f viewProjectionMatrix = new Matrix4f();
+
     /**
      * Cached camera view matrix that is used for rendering from time to time.
      * Caching and recycling the instance adds a huge performance benefit.
@@ -179,6 +189,37 @@ public class MainCamera {
     }
 
 
+    /**
+     * Compute the camera view and view projection matrices for the current frame.
+     * This is called once each frame after the scene is updated and the projection matrix is set,
+     * so all drawn objects share the same matrices.
+     */
+    public static void updateViewMatrices() {
+        // Compute the view matrix, and combine it with the projection matrix
+        createCameraViewMatrix(viewMatrix);
+        projectionMatrix.mul(viewMatrix, viewProjectionMatrix);
+    }
+
+    /**
+     * Get the camera view matrix of the current frame.
+     * This matrix must not be modified.
+     *
+     * @return Camera view matrix.
+     */
+    public static Matrix4f getViewMatrix() {
+        return viewMatrix;
+    }
+
+    /**
+     * Get the combined projection and camera view matrix of the current frame.
+     * This matrix must not be modified.
+     *
+     * @return View projection matrix.
+     */
+    public static Matrix4f getViewProjectionMatrix() {
+        return viewProjectionMatrix;
+    }
+
     /**
      * Get the projection matrix.
      *
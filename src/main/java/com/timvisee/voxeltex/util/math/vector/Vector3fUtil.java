@@ -61,4 +61,15 @@ public class Vector3fUtil {
         // Return the new vector
         return dest;
     }
+
+    /**
+     * Check whether all components of the given vector are zero.
+     *
+     * @param vector Vector to check.
+     *
+     * @return True if the vector is zero, false if not.
+     */
+    public static boolean isZero(Vector3f vector) {
+        return vector.x == 0f && vector.y == 0f && vector.z == 0f;
+    }
 }
@@ -25,6 +25,8 @@
 // Texture and tiling data
 uniform sampler2D texture;
 uniform vec2 tiling = vec2(1.0, 1.0);
+uniform vec2 textureOffset = vec2(0.0, 0.0);
+uniform vec2 textureScale = vec2(1.0, 1.0);
 uniform vec2 tileSize = vec2(16.0, 16.0);
 uniform vec2 tilePosition = vec2(1.0, 4.0);
 uniform vec4 color = vec4(1);
@@ -41,6 +43,9 @@ void main(void) {
     // Create the character width factor vector
     vec2 charSizeFactor = vec2(charWidth, 1.0);
 
+    // Determine the character texture coordinate, and map it onto the texture region
+    vec2 texCoord = gl_TexCoord[0].st * tiling / tileSize * charSizeFactor + charOffsetSized;
+
     // Determine and set the fragment color
-    gl_FragColor = texture2D(texture, gl_TexCoord[0].st * tiling / tileSize * charSizeFactor + charOffsetSized) * color;
+    gl_FragColor = texture2D(texture, texCoord * textureScale + textureOffset) * color;
 }
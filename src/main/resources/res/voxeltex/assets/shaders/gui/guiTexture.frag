@@ -25,12 +25,27 @@
 // Texture and tiling data
 uniform sampler2D texture;
 uniform vec2 tiling = vec2(1.0, 1.0);
+uniform vec2 textureOffset = vec2(0.0, 0.0);
+uniform vec2 textureScale = vec2(1.0, 1.0);
 uniform vec4 color = vec4(1, 1, 1, 1);
 
 // Fragment position data
 varying vec4 position;
 
+// Map the texture coordinates onto the texture region
+vec2 regionCoord(vec2 coord) {
+    // Apply the tiling
+    coord *= tiling;
+
+    // Repeat tiled coordinates inside the region, as repeating the whole texture would run into neighbouring regions
+    if(tiling != vec2(1.0, 1.0) && textureScale != vec2(1.0, 1.0))
+        coord = fract(coord);
+
+    // Scale and offset the coordinates onto the region
+    return coord * textureScale + textureOffset;
+}
+
 void main(void) {
-    // Determine and set the fragment color
-    gl_FragColor = texture2D(texture, gl_TexCoord[0].st * tiling) * color;
+    // Determine and set the fragment color, tinted by the vertex color of batched quads
+    gl_FragColor = texture2D(texture, regionCoord(gl_TexCoord[0].st)) * color * gl_Color;
 }
@@ -25,6 +25,8 @@
 // Texture and tiling data
 uniform sampler2D texture;
 uniform vec2 tiling = vec2(1.0, 1.0);
+uniform vec2 textureOffset = vec2(0.0, 0.0);
+uniform vec2 textureScale = vec2(1.0, 1.0);
 uniform float ambientBrightness = 0.25;
 uniform vec4 color = vec4(1, 1, 1, 1);
 
@@ -41,6 +43,59 @@ uniform int lightType[LIGHT_COUNT_MAX];
 uniform vec3 lightPosition[LIGHT_COUNT_MAX];
 uniform vec3 lightRotation[LIGHT_COUNT_MAX];
 uniform vec4 lightColor[LIGHT_COUNT_MAX];
+uniform float lightRange[LIGHT_COUNT_MAX];
+
+// Clustered light data, the light count limit must match LightClusterGrid.CLUSTER_LIGHT_LIMIT
+const int CLUSTER_LIGHT_COUNT_MAX = 256;
+uniform bool clustered = false;
+uniform vec3 clusterGrid;
+uniform vec2 clusterDepth;
+uniform vec2 clusterIndexSize;
+uniform vec2 clusterLightSize;
+uniform sampler2D clusterTexture;
+uniform sampler2D clusterIndexTexture;
+uniform sampler2D clusterLightTexture;
+
+// Clip space position, used to find the light cluster
+varying vec4 clipPosition;
+
+// Map the texture coordinates onto the texture region
+vec2 regionCoord(vec2 coord) {
+    // Apply the tiling
+    coord *= tiling;
+
+    // Repeat tiled coordinates inside the region, as repeating the whole texture would run into neighbouring regions
+    if(tiling != vec2(1.0, 1.0) && textureScale != vec2(1.0, 1.0))
+        coord = fract(coord);
+
+    // Scale and offset the coordinates onto the region
+    return coord * textureScale + textureOffset;
+}
+
+// Calculate the diffuse color of a point light, with a smooth range cutoff if a range is set
+vec3 pointLight(vec3 sourcePosition, vec4 sourceColor, float sourceRange) {
+    // Calculate the light direction and distance
+    vec3 lightDirection = sourcePosition - position.xyz;
+    float lightDistance = length(lightDirection);
+
+    // Skip the light if the fragment is out of range
+    if(sourceRange > 0.0 && lightDistance > sourceRange)
+        return vec3(0.0);
+
+    // Calculate the dot product of both vectors and clamp the brightness to zero and above
+    float brightness = max(dot(normalize(surfaceNormal), normalize(lightDirection)), 0.0) /
+            (lightDistance * lightDistance) *
+            sourceColor.w;
+
+    // Fade out towards the edge of the range
+    if(sourceRange > 0.0) {
+        float falloff = clamp(1.0 - pow(lightDistance / sourceRange, 4.0), 0.0, 1.0);
+        brightness *= falloff * falloff;
+    }
+
+    // Calculate the diffuse color
+    return brightness * sourceColor.xyz;
+}
 
 void main(void) {
     // Create a variable to define the diffuse color in
@@ -58,35 +113,47 @@ void main(void) {
         }
 
         // Process a point light
-        if(lightType[i] == 2) {
-            // Calculate the distance to the light
-            float lightDistance = distance(position.xyz, lightPosition[i]);
-
-            // Skip the light processing if the light is too far away for optimization
-            // TODO: Is this calibrated properly?
-//            if(lightDistance > lightColor[i].w * lightColor[i].w * 100.0)
-//                continue;
+        if(lightType[i] == 2)
+            diffuse += pointLight(lightPosition[i], lightColor[i], lightRange[i]);
 
-            // Calculate the light direction
-            vec3 lightDirection = lightPosition[i] - position.xyz;
+        // Process a spot light
+        // TODO: Process spot light here!
+        // if(lightType[i] == 3) { }
+    }
 
-            // Calculate the dot product of both vectors and clamp the brightness to zero and above
-            float brightness = max(dot(normalize(surfaceNormal), normalize(lightDirection)), 0.0) /
-                    (lightDistance * lightDistance) *
-                    lightColor[i].w;
+    // Calculate the lighting for the lights in the cluster of this fragment
+    if(clustered) {
+        // Determine the cluster, from the screen position and the exponential depth slice
+        vec2 screen = clipPosition.xy / clipPosition.w * 0.5 + 0.5;
+        vec2 tile = clamp(floor(screen * clusterGrid.xy), vec2(0.0), clusterGrid.xy - 1.0);
+        float slice = clamp(floor(log(clipPosition.w) * clusterDepth.x + clusterDepth.y), 0.0, clusterGrid.z - 1.0);
+        vec4 cluster = texture2D(clusterTexture,
+                (vec2(tile.y * clusterGrid.x + tile.x, slice) + 0.5) / vec2(clusterGrid.x * clusterGrid.y, clusterGrid.z));
+
+        // Process each light in the cluster
+        int count = int(cluster.y);
+        for(int i = 0; i < CLUSTER_LIGHT_COUNT_MAX; i++) {
+            if(i >= count)
+                break;
+
+            // Get the light index
+            float index = cluster.x + float(i);
+            float light = texture2D(clusterIndexTexture,
+                    (vec2(mod(index, clusterIndexSize.x), floor(index / clusterIndexSize.x)) + 0.5) / clusterIndexSize).r;
+
+            // Get the light data, the position and range are followed by the color and brightness
+            vec2 lightTexel = vec2(mod(light, clusterLightSize.x), floor(light / clusterLightSize.x) * 2.0) + 0.5;
+            vec4 lightPositionRange = texture2D(clusterLightTexture, lightTexel / clusterLightSize);
+            vec4 lightColorBrightness = texture2D(clusterLightTexture, (lightTexel + vec2(0.0, 1.0)) / clusterLightSize);
 
             // Calculate the diffuse color and append it to the result
-            diffuse += brightness * lightColor[i].xyz;
+            diffuse += pointLight(lightPositionRange.xyz, lightColorBrightness, lightPositionRange.w);
         }
-
-        // Process a spot light
-        // TODO: Process spot light here!
-        // if(lightType[i] == 3) { }
     }
 
     // Multiply the diffuse lighting by three for better appearance and add the ambient light
     diffuse = diffuse * 3.0 + vec3(ambientBrightness);
 
     // Determine and set the fragment color
-    gl_FragColor = vec4(diffuse, 1.0) * texture2D(texture, gl_TexCoord[0].st * tiling) * color;
+    gl_FragColor = vec4(diffuse, 1.0) * texture2D(texture, regionCoord(gl_TexCoord[0].st)) * color;
 }
@@ -22,6 +22,11 @@
 
 #version 120
 
+// Mesh vertex attributes
+attribute vec3 vt_position;
+attribute vec3 vt_normal;
+attribute vec2 vt_texCoord;
+
 // Matrix data
 uniform mat4 projectionMatrix;
 uniform mat4 viewMatrix = mat4(1.0);
@@ -30,17 +35,21 @@ uniform mat4 modelMatrix = mat4(1.0);
 // Surface normal and vertex position
 varying vec3 surfaceNormal;
 varying vec4 position;
+varying vec4 clipPosition;
 
 void main() {
     // Determine the position
-    position = modelMatrix * gl_Vertex;
+    position = modelMatrix * vec4(vt_position, 1.0);
 
     // Pass the texture coordinates to the fragment shader
-	gl_TexCoord[0] = gl_MultiTexCoord0;
+	gl_TexCoord[0] = vec4(vt_texCoord, 0.0, 1.0);
 
     // Set the vertex point position
-	gl_Position = gl_ModelViewProjectionMatrix * gl_Vertex;
+	gl_Position = gl_ModelViewProjectionMatrix * vec4(vt_position, 1.0);
+
+    // Pass the clip space position to the fragment shader
+    clipPosition = gl_Position;
 
     // Calculate the surface normal
-    surfaceNormal = (modelMatrix * vec4(gl_Normal, 0.0)).xyz;
+    surfaceNormal = (modelMatrix * vec4(vt_normal, 0.0)).xyz;
 }
@@ -0,0 +1,58 @@
+/******************************************************************************
+ * Copyright (c) Tim Visee 2016. All rights reserved.                         *
+ *                                                                            *
+ * @author Tim Visee                                                          *
+ * @website http://timvisee.com/                                              *
+ *                                                                            *
+ * Open Source != No Copyright                                                *
+ *                                                                            *
+ * Permission is hereby granted, free of charge, to any person obtaining a    *
+ * copy of this software and associated documentation files (the "Software"), *
+ * to deal in the Software without restriction, including without limitation  *
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,   *
+ * and/or sell copies of the Software, and to permit persons to whom the      *
+ * Software is furnished to do so, subject to the following conditions:       *
+ *                                                                            *
+ * The above copyright notice and this permission notice shall be included    *
+ * in all copies or substantial portions of the Software.                     *
+ *                                                                            *
+ * You should have received a copy of The MIT License (MIT) along with this   *
+ * program. If not, see <http://opensource.org/licenses/MIT/>.                *
+ ******************************************************************************/
+
+#version 120
+
+// Mesh vertex attributes
+attribute vec3 vt_position;
+attribute vec3 vt_normal;
+attribute vec2 vt_texCoord;
+
+// Per instance model matrix and color
+attribute mat4 instanceModelMatrix;
+attribute vec4 instanceColor;
+
+// Surface normal, vertex position and instance color
+varying vec3 surfaceNormal;
+varying vec4 position;
+varying vec4 clipPosition;
+varying vec4 color;
+
+void main() {
+    // Determine the position
+    position = instanceModelMatrix * vec4(vt_position, 1.0);
+
+    // Pass the texture coordinates to the fragment shader
+	gl_TexCoord[0] = vec4(vt_texCoord, 0.0, 1.0);
+
+    // Set the vertex point position, the model view matrix only holds the camera view
+	gl_Position = gl_ModelViewProjectionMatrix * position;
+
+    // Pass the clip space position to the fragment shader
+    clipPosition = gl_Position;
+
+    // Calculate the surface normal
+    surfaceNormal = (instanceModelMatrix * vec4(vt_normal, 0.0)).xyz;
+
+    // Pass the instance color to the fragment shader
+    color = instanceColor;
+}
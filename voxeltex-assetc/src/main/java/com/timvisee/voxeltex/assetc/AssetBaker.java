@@ -0,0 +1,79 @@
+/******************************************************************************
+ * Copyright (c) Tim Visee 2016. All rights reserved.                         *
+ *                                                                            *
+ * @author Tim Visee                                                          *
+ * @website http://timvisee.com/                                              *
+ *                                                                            *
+ * Open Source != No Copyright                                                *
+ *                                                                            *
+ * Permission is hereby granted, free of charge, to any person obtaining a    *
+ * copy of this software and associated documentation files (the "Software"), *
+ * to deal in the Software without restriction, including without limitation  *
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,   *
+ * and/or sell copies of the Software, and to permit persons to whom the      *
+ * Software is furnished to do so, subject to the following conditions:       *
+ *                                                                            *
+ * The above copyright notice and this permission notice shall be included    *
+ * in all copies or substantial portions of the Software.                     *
+ *                                                                            *
+ * You should have received a copy of The MIT License (MIT) along with this   *
+ * program. If not, see <http://opensource.org/licenses/MIT/>.                *
+ ******************************************************************************/
+
+package com.timvisee.voxeltex.assetc;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+
+public interface AssetBaker {
+
+    /**
+     * Check whether this baker is able to bake the given source asset.
+     *
+     * @param relativePath Path of the asset, relative to the assets directory, with forward slashes.
+     *
+     * @return True if the asset is accepted, false if not.
+     */
+    boolean accepts(String relativePath);
+
+    /**
+     * Get the extension that is appended to the source file name for the baked output.
+     *
+     * @return Output file extension.
+     */
+    String getOutputExtension();
+
+    /**
+     * Bake the given source asset.
+     *
+     * @param source Source asset file.
+     * @param output Output file to write the baked asset to.
+     *
+     * @throws IOException Thrown if the asset couldn't be read, baked or written.
+     */
+    void bake(Path source, Path output) throws IOException;
+
+    /**
+     * Get the other files the given source asset is baked from, so the asset is baked again when any of them changes.
+     *
+     * @param source Source asset file.
+     *
+     * @return Dependency files, empty by default.
+     *
+     * @throws IOException Thrown if the asset couldn't be read.
+     */
+    default List<Path> getDependencies(Path source) throws IOException {
+        return Collections.emptyList();
+    }
+
+    /**
+     * Set the log that status messages of this baker are written to.
+     * Bakers without status messages ignore this by default.
+     *
+     * @param log Log.
+     */
+    default void setLog(Consumer<String> log) { }
+}
@@ -0,0 +1,332 @@
+/******************************************************************************
+ * Copyright (c) Tim Visee 2016. All rights reserved.                         *
+ *                                                                            *
+ * @author Tim Visee                                                          *
+ * @website http://timvisee.com/                                              *
+ *                                                                            *
+ * Open Source != No Copyright                                                *
+ *                                                                            *
+ * Permission is hereby granted, free of charge, to any person obtaining a    *
+ * copy of this software and associated documentation files (the "Software"), *
+ * to deal in the Software without restriction, including without limitation  *
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,   *
+ * and/or sell copies of the Software, and to permit persons to whom the      *
+ * Software is furnished to do so, subject to the following conditions:       *
+ *                                                                            *
+ * The above copyright notice and this permission notice shall be included    *
+ * in all copies or substantial portions of the Software.                     *
+ *                                                                            *
+ * You should have received a copy of The MIT License (MIT) along with this   *
+ * program. If not, see <http://opensource.org/licenses/MIT/>.                *
+ ******************************************************************************/
+
+package com.timvisee.voxeltex.assetc;
+
+import com.timvisee.voxeltex.module.resource.pack.AssetPackWriter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public class AssetCompiler {
+
+    /**
+     * Version of the asset compiler. Bump this when the output of a baker changes, to invalidate all cached assets.
+     */
+    public static final int COMPILER_VERSION = 2;
+
+    /**
+     * Default file name of the content hash cache.
+     * The command line compiler places it in the output directory, the Maven plugin in the build directory so it isn't
+     * packaged with the baked assets.
+     */
+    public static final String DEFAULT_CACHE_FILE = ".assetc-cache";
+
+    /**
+     * Cache key holding the compiler version the cache was written with.
+     */
+    private static final String CACHE_KEY_VERSION = "assetc.version";
+
+    /**
+     * Size of the buffer used to hash source files.
+     */
+    private static final int HASH_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Directory containing the source assets.
+     */
+    private final Path sourceDirectory;
+
+    /**
+     * Directory to write the baked assets to.
+     */
+    private final Path outputDirectory;
+
+    /**
+     * File holding the content hashes of the assets that have been baked before.
+     */
+    private final Path cacheFile;
+
+    /**
+     * Bakers used to bake the assets, in order of preference.
+     */
+    private final List<AssetBaker> bakers;
+
+    /**
+     * True to bake all assets, even if they haven't changed.
+     */
+    private boolean force = false;
+
+    /**
+     * Log the status messages of the compiler and it's bakers are written to.
+     */
+    private Consumer<String> log = System.out::println;
+
+    /**
+     * Constructor, using the default bakers.
+     *
+     * @param sourceDirectory Directory containing the source assets.
+     * @param outputDirectory Directory to write the baked assets to.
+     * @param cacheFile Content hash cache file.
+     */
+    public AssetCompiler(Path sourceDirectory, Path outputDirectory, Path cacheFile) {
+        this(sourceDirectory, outputDirectory, cacheFile,
+                Arrays.asList(new MeshBaker(), new ImageBaker(), new FontWidthsBaker(), new AtlasBaker()));
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param sourceDirectory Directory containing the source assets.
+     * @param outputDirectory Directory to write the baked assets to.
+     * @param cacheFile Content hash cache file.
+     * @param bakers Bakers used to bake the assets, in order of preference.
+     */
+    public AssetCompiler(Path sourceDirectory, Path outputDirectory, Path cacheFile, List<AssetBaker> bakers) {
+        this.sourceDirectory = sourceDirectory;
+        this.outputDirectory = outputDirectory;
+        this.cacheFile = cacheFile;
+        this.bakers = bakers;
+    }
+
+    /**
+     * Check whether all assets are baked, even if they haven't changed.
+     *
+     * @return True if forced.
+     */
+    public boolean isForce() {
+        return this.force;
+    }
+
+    /**
+     * Set whether all assets are baked, even if they haven't changed.
+     *
+     * @param force True to force.
+     */
+    public void setForce(boolean force) {
+        this.force = force;
+    }
+
+    /**
+     * Set the log the status messages of the compiler and it's bakers are written to.
+     * Messages are written to the standard output by default.
+     *
+     * @param log Log.
+     */
+    public void setLog(Consumer<String> log) {
+        this.log = log;
+        //noinspection ForLoopReplaceableByForEach
+        for(int i = 0; i < this.bakers.size(); i++)
+            this.bakers.get(i).setLog(log);
+    }
+
+    /**
+     * Bake all changed assets in the source directory in parallel.
+     * Assets are skipped if their content hash matches the cache, and their baked output still exists.
+     *
+     * @return Number of assets that have been baked.
+     *
+     * @throws IOException Thrown if the assets couldn't be listed, or if any asset failed to bake.
+     */
+    public int compile() throws IOException {
+        // Load the cache, and discard it if it was written by a different compiler version
+        final Properties cache = loadCache();
+        if(!String.valueOf(COMPILER_VERSION).equals(cache.getProperty(CACHE_KEY_VERSION)))
+            cache.clear();
+
+        // Collect the source assets
+        final List<Path> sources;
+        try(Stream<Path> files = Files.walk(this.sourceDirectory)) {
+            sources = files.filter(Files::isRegularFile).collect(Collectors.toList());
+        }
+
+        // Bake the assets in parallel, and collect the new hashes and failures
+        final Map<String, String> hashes = new ConcurrentHashMap<>();
+        final List<String> failures = Collections.synchronizedList(new ArrayList<>());
+        final AtomicInteger baked = new AtomicInteger();
+        final AtomicInteger skipped = new AtomicInteger();
+        sources.parallelStream().forEach(source -> {
+            // Find a baker for the asset
+            final String relativePath = this.sourceDirectory.relativize(source).toString().replace('\\', '/');
+            final AssetBaker baker = getBaker(relativePath);
+            if(baker == null)
+                return;
+
+            try {
+                // Skip the asset if it and it's dependencies haven't changed since it was last baked
+                final StringBuilder hashBuilder = new StringBuilder(hash(source));
+                for(Path dependency : baker.getDependencies(source))
+                    hashBuilder.append(':').append(hash(dependency));
+                final String hash = hashBuilder.toString();
+                final Path output = this.outputDirectory.resolve(relativePath + baker.getOutputExtension());
+                hashes.put(relativePath, hash);
+                if(!this.force && hash.equals(cache.getProperty(relativePath)) && Files.isRegularFile(output)) {
+                    skipped.incrementAndGet();
+                    return;
+                }
+
+                // Bake the asset
+                Files.createDirectories(output.getParent());
+                baker.bake(source, output);
+                baked.incrementAndGet();
+
+            } catch(IOException | RuntimeException e) {
+                // Forget the hash so the asset is baked again next time, and report the failure
+                hashes.remove(relativePath);
+                failures.add(relativePath + ": " + e.getMessage());
+            }
+        });
+
+        // Store the new cache
+        final Properties newCache = new Properties();
+        newCache.putAll(hashes);
+        newCache.setProperty(CACHE_KEY_VERSION, String.valueOf(COMPILER_VERSION));
+        saveCache(newCache);
+
+        // Show a status message
+        this.log.accept("Baked " + baked.get() + " assets, " + skipped.get() + " unchanged.");
+
+        // Report the failures
+        if(!failures.isEmpty())
+            throw new IOException("Failed to bake " + failures.size() + " assets:\n" + String.join("\n", failures));
+
+        // Return the number of baked assets
+        return baked.get();
+    }
+
+    /**
+     * Write an asset pack holding the source assets and the baked assets.
+     * Baked assets take precedence over source files with the same path.
+     *
+     * @param packFile Path of the asset pack to write.
+     *
+     * @throws IOException Thrown if the assets couldn't be read, or the pack couldn't be written.
+     */
+    public void writePack(Path packFile) throws IOException {
+        // Add the source and baked assets
+        final AssetPackWriter writer = new AssetPackWriter();
+        writer.addDirectory(this.sourceDirectory);
+        if(Files.isDirectory(this.outputDirectory))
+            writer.addDirectory(this.outputDirectory);
+
+        // Write the pack
+        if(packFile.getParent() != null)
+            Files.createDirectories(packFile.getParent());
+        writer.write(packFile);
+
+        // Show a status message
+        this.log.accept("Written asset pack: " + packFile);
+    }
+
+    /**
+     * Get the baker to use for the given asset.
+     *
+     * @param relativePath Path of the asset, relative to the source directory, with forward slashes.
+     *
+     * @return Baker, or null if the asset isn't baked.
+     */
+    private AssetBaker getBaker(String relativePath) {
+        for(AssetBaker baker : this.bakers)
+            if(baker.accepts(relativePath))
+                return baker;
+        return null;
+    }
+
+    /**
+     * Load the content hash cache.
+     *
+     * @return Cache, empty if it doesn't exist yet.
+     *
+     * @throws IOException Thrown if the cache couldn't be read.
+     */
+    private Properties loadCache() throws IOException {
+        final Properties cache = new Properties();
+        if(Files.isRegularFile(this.cacheFile))
+            try(InputStream in = Files.newInputStream(this.cacheFile)) {
+                cache.load(in);
+            }
+        return cache;
+    }
+
+    /**
+     * Save the content hash cache.
+     *
+     * @param cache Cache.
+     *
+     * @throws IOException Thrown if the cache couldn't be written.
+     */
+    private void saveCache(Properties cache) throws IOException {
+        if(this.cacheFile.getParent() != null)
+            Files.createDirectories(this.cacheFile.getParent());
+        try(OutputStream out = Files.newOutputStream(this.cacheFile)) {
+            cache.store(out, "VoxelTex asset compiler cache");
+        }
+    }
+
+    /**
+     * Compute the SHA-256 content hash of the given file.
+     *
+     * @param file File to hash.
+     *
+     * @return Hexadecimal hash.
+     *
+     * @throws IOException Thrown if the file couldn't be read.
+     */
+    private static String hash(Path file) throws IOException {
+        // Get the digest
+        final MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch(NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 isn't supported", e);
+        }
+
+        // Digest the file contents
+        final byte[] buffer = new byte[HASH_BUFFER_SIZE];
+        try(InputStream in = Files.newInputStream(file)) {
+            for(int read; (read = in.read(buffer)) != -1; )
+                digest.update(buffer, 0, read);
+        }
+
+        // Convert the hash into a hexadecimal string
+        final StringBuilder hex = new StringBuilder();
+        for(byte b : digest.digest())
+            hex.append(String.format("%02x", b));
+        return hex.toString();
+    }
+}
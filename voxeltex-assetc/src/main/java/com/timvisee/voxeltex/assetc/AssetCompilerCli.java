@@ -0,0 +1,88 @@
+/******************************************************************************
+ * Copyright (c) Tim Visee 2016. All rights reserved.                         *
+ *                                                                            *
+ * @author Tim Visee                                                          *
+ * @website http://timvisee.com/                                              *
+ *                                                                            *
+ * Open Source != No Copyright                                                *
+ *                                                                            *
+ * Permission is hereby granted, free of charge, to any person obtaining a    *
+ * copy of this software and associated documentation files (the "Software"), *
+ * to deal in the Software without restriction, including without limitation  *
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,   *
+ * and/or sell copies of the Software, and to permit persons to whom the      *
+ * Software is furnished to do so, subject to the following conditions:       *
+ *                                                                            *
+ * The above copyright notice and this permission notice shall be included    *
+ * in all copies or substantial portions of the Software.                     *
+ *                                                                            *
+ * You should have received a copy of The MIT License (MIT) along with this   *
+ * program. If not, see <http://opensource.org/licenses/MIT/>.                *
+ ******************************************************************************/
+
+package com.timvisee.voxeltex.assetc;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+public class AssetCompilerCli {
+
+    /**
+     * Command line entry point of the asset compiler.
+     *
+     * Usage: {@code <source directory> <output directory> [--cache <file>] [--pack <file>] [--force]}
+     *
+     * @param args Command line arguments.
+     */
+    public static void main(String[] args) {
+        // Parse the arguments
+        Path source = null;
+        Path output = null;
+        Path cache = null;
+        Path pack = null;
+        boolean force = false;
+        for(int i = 0; i < args.length; i++) {
+            if(args[i].equals("--force"))
+                force = true;
+            else if(args[i].equals("--cache") && i + 1 < args.length)
+                cache = Paths.get(args[++i]);
+            else if(args[i].equals("--pack") && i + 1 < args.length)
+                pack = Paths.get(args[++i]);
+            else if(source == null)
+                source = Paths.get(args[i]);
+            else if(output == null)
+                output = Paths.get(args[i]);
+            else
+                usage();
+        }
+        if(source == null || output == null)
+            usage();
+
+        // Create the compiler
+        final AssetCompiler compiler = new AssetCompiler(source, output,
+                cache != null ? cache : output.resolve(AssetCompiler.DEFAULT_CACHE_FILE));
+        compiler.setForce(force);
+
+        // Compile the assets
+        try {
+            compiler.compile();
+
+            // Write the asset pack if specified
+            if(pack != null)
+                compiler.writePack(pack);
+
+        } catch(IOException e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Print the usage, and exit.
+     */
+    private static void usage() {
+        System.err.println("Usage: AssetCompilerCli <source directory> <output directory> [--cache <file>] [--pack <file>] [--force]");
+        System.exit(2);
+    }
+}
@@ -0,0 +1,100 @@
+/******************************************************************************
+ * Copyright (c) Tim Visee 2016. All rights reserved.                         *
+ *                                                                            *
+ * @author Tim Visee                                                          *
+ * @website http://timvisee.com/                                              *
+ *                                                                            *
+ * Open Source != No Copyright                                                *
+ *                                                                            *
+ * Permission is hereby granted, free of charge, to any person obtaining a    *
+ * copy of this software and associated documentation files (the "Software"), *
+ * to deal in the Software without restriction, including without limitation  *
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,   *
+ * and/or sell copies of the Software, and to permit persons to whom the      *
+ * Software is furnished to do so, subject to the following conditions:       *
+ *                                                                            *
+ * The above copyright notice and this permission notice shall be included    *
+ * in all copies or substantial portions of the Software.                     *
+ *                                                                            *
+ * You should have received a copy of The MIT License (MIT) along with this   *
+ * program. If not, see <http://opensource.org/licenses/MIT/>.                *
+ ******************************************************************************/
+
+package com.timvisee.voxeltex.assetc;
+
+import com.timvisee.voxeltex.module.texture.Image;
+import com.timvisee.voxeltex.module.texture.MipmapGenerator;
+import com.timvisee.voxeltex.module.texture.atlas.BakedTextureAtlas;
+import com.timvisee.voxeltex.module.texture.atlas.PackedAtlas;
+import com.timvisee.voxeltex.module.texture.atlas.TextureAtlas;
+import com.timvisee.voxeltex.module.texture.atlas.TextureAtlasBuilder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+public class AtlasBaker implements AssetBaker {
+
+    @Override
+    public boolean accepts(String relativePath) {
+        return relativePath.toLowerCase().endsWith(TextureAtlas.DEFINITION_EXTENSION);
+    }
+
+    @Override
+    public String getOutputExtension() {
+        return BakedTextureAtlas.FILE_EXTENSION;
+    }
+
+    @Override
+    public List<Path> getDependencies(Path source) throws IOException {
+        // Resolve the listed images relative to the atlas definition
+        final List<Path> images = new ArrayList<>();
+        for(String imagePath : readDefinition(source))
+            images.add(source.resolveSibling(imagePath));
+        return images;
+    }
+
+    @Override
+    public void bake(Path source, Path output) throws IOException {
+        // Decode the listed images, and add them to the atlas by the path they're listed with
+        final TextureAtlasBuilder builder = new TextureAtlasBuilder();
+        final List<Image> images = new ArrayList<>();
+        try {
+            for(String imagePath : readDefinition(source)) {
+                final Image image = ImageBaker.decode(source.resolveSibling(imagePath));
+                images.add(image);
+                builder.add(imagePath, image);
+            }
+
+            // Pack the atlas, generate it's mipmaps with the Kaiser filter, and write the baked atlas
+            final PackedAtlas atlas = builder.pack();
+            atlas.getImage().generateMipmaps(MipmapGenerator.Filter.KAISER, true);
+            BakedTextureAtlas.write(atlas, output);
+            atlas.getImage().dispose();
+
+        } catch(IllegalArgumentException | IllegalStateException e) {
+            throw new IOException("Failed to pack atlas: " + e.getMessage(), e);
+
+        } finally {
+            // Dispose the source images
+            for(Image image : images)
+                image.dispose();
+        }
+    }
+
+    /**
+     * Read the image paths listed in an atlas definition.
+     *
+     * @param source Atlas definition file.
+     *
+     * @return Image paths, relative to the definition.
+     *
+     * @throws IOException Thrown if the definition couldn't be read.
+     */
+    private static List<String> readDefinition(Path source) throws IOException {
+        return TextureAtlasBuilder.parseDefinition(new String(Files.readAllBytes(source), StandardCharsets.UTF_8));
+    }
+}
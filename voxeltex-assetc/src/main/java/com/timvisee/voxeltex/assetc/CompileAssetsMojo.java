@@ -0,0 +1,117 @@
+/******************************************************************************
+ * Copyright (c) Tim Visee 2016. All rights reserved.                         *
+ *                                                                            *
+ * @author Tim Visee                                                          *
+ * @website http://timvisee.com/                                              *
+ *                                                                            *
+ * Open Source != No Copyright                                                *
+ *                                                                            *
+ * Permission is hereby granted, free of charge, to any person obtaining a    *
+ * copy of this software and associated documentation files (the "Software"), *
+ * to deal in the Software without restriction, including without limitation  *
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,   *
+ * and/or sell copies of the Software, and to permit persons to whom the      *
+ * Software is furnished to do so, subject to the following conditions:       *
+ *                                                                            *
+ * The above copyright notice and this permission notice shall be included    *
+ * in all copies or substantial portions of the Software.                     *
+ *                                                                            *
+ * You should have received a copy of The MIT License (MIT) along with this   *
+ * program. If not, see <http://opensource.org/licenses/MIT/>.                *
+ ******************************************************************************/
+
+package com.timvisee.voxeltex.assetc;
+
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Compile the assets of the project.
+ * The goal is described with javadoc tags, so the plugin only depends on the plugin API.
+ *
+ * @goal compile-assets
+ * @phase generate-resources
+ * @threadSafe
+ */
+public class CompileAssetsMojo extends AbstractMojo {
+
+    /**
+     * Directory containing the source assets.
+     *
+     * @parameter default-value="${project.basedir}/src/main/resources/res/voxeltex/assets"
+     * @required
+     */
+    private File sourceDirectory;
+
+    /**
+     * Directory to write the baked assets to, next to the copied resources.
+     *
+     * @parameter default-value="${project.build.outputDirectory}/res/voxeltex/assets"
+     * @required
+     */
+    private File outputDirectory;
+
+    /**
+     * Content hash cache file, named like {@link AssetCompiler#DEFAULT_CACHE_FILE}.
+     * It's placed in the build directory rather than the output directory, so it isn't packaged with the assets.
+     *
+     * @parameter default-value="${project.build.directory}/.assetc-cache"
+     * @required
+     */
+    private File cacheFile;
+
+    /**
+     * Asset pack to write the source and baked assets to, no pack is written if not set.
+     *
+     * @parameter property="assetc.pack"
+     */
+    private File packFile;
+
+    /**
+     * True to bake all assets, even if they haven't changed.
+     *
+     * @parameter property="assetc.force" default-value="false"
+     */
+    private boolean force;
+
+    /**
+     * True to skip compiling the assets.
+     *
+     * @parameter property="assetc.skip" default-value="false"
+     */
+    private boolean skip;
+
+    @Override
+    public void execute() throws MojoExecutionException {
+        // Skip if configured
+        if(this.skip) {
+            getLog().info("Skipping asset compilation.");
+            return;
+        }
+
+        // Make sure the source directory exists
+        if(!this.sourceDirectory.isDirectory()) {
+            getLog().info("No assets to compile in " + this.sourceDirectory);
+            return;
+        }
+
+        // Compile the assets
+        final AssetCompiler compiler = new AssetCompiler(this.sourceDirectory.toPath(), this.outputDirectory.toPath(),
+                this.cacheFile.toPath());
+        compiler.setForce(this.force);
+        compiler.setLog(getLog()::info);
+        try {
+            compiler.compile();
+
+            // Write the asset pack if configured
+            if(this.packFile != null)
+                compiler.writePack(this.packFile.toPath());
+
+        } catch(IOException e) {
+            throw new MojoExecutionException("Failed to compile assets", e);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+/******************************************************************************
+ * Copyright (c) Tim Visee 2016. All rights reserved.                         *
+ *                                                                            *
+ * @author Tim Visee                                                          *
+ * @website http://timvisee.com/                                              *
+ *                                                                            *
+ * Open Source != No Copyright                                                *
+ *                                                                            *
+ * Permission is hereby granted, free of charge, to any person obtaining a    *
+ * copy of this software and associated documentation files (the "Software"), *
+ * to deal in the Software without restriction, including without limitation  *
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,   *
+ * and/or sell copies of the Software, and to permit persons to whom the      *
+ * Software is furnished to do so, subject to the following conditions:       *
+ *                                                                            *
+ * The above copyright notice and this permission notice shall be included    *
+ * in all copies or substantial portions of the Software.                     *
+ *                                                                            *
+ * You should have received a copy of The MIT License (MIT) along with this   *
+ * program. If not, see <http://opensource.org/licenses/MIT/>.                *
+ ******************************************************************************/
+
+package com.timvisee.voxeltex.assetc;
+
+import com.timvisee.voxeltex.module.font.BakedFontWidths;
+import com.timvisee.voxeltex.util.ini.IniParser;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+public class FontWidthsBaker implements AssetBaker {
+
+    @Override
+    public boolean accepts(String relativePath) {
+        return relativePath.startsWith("font/") && relativePath.toLowerCase().endsWith(".ini");
+    }
+
+    @Override
+    public String getOutputExtension() {
+        return BakedFontWidths.FILE_EXTENSION;
+    }
+
+    @Override
+    public void bake(Path source, Path output) throws IOException {
+        // Parse the font widths configuration and bake it
+        final ByteBuffer baked;
+        try(BufferedReader reader = Files.newBufferedReader(source, StandardCharsets.UTF_8)) {
+            baked = BakedFontWidths.bake(IniParser.parse(reader));
+        }
+
+        // Write the baked widths
+        try(FileChannel channel = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while(baked.hasRemaining())
+                channel.write(baked);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+/******************************************************************************
+ * Copyright (c) Tim Visee 2016. All rights reserved.                         *
+ *                                                                            *
+ * @author Tim Visee                                                          *
+ * @website http://timvisee.com/                                              *
+ *                                                                            *
+ * Open Source != No Copyright                                                *
+ *                                                                            *
+ * Permission is hereby granted, free of charge, to any person obtaining a    *
+ * copy of this software and associated documentation files (the "Software"), *
+ * to deal in the Software without restriction, including without limitation  *
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,   *
+ * and/or sell copies of the Software, and to permit persons to whom the      *
+ * Software is furnished to do so, subject to the following conditions:       *
+ *                                                                            *
+ * The above copyright notice and this permission notice shall be included    *
+ * in all copies or substantial portions of the Software.                     *
+ *                                                                            *
+ * You should have received a copy of The MIT License (MIT) along with this   *
+ * program. If not, see <http://opensource.org/licenses/MIT/>.                *
+ ******************************************************************************/
+
+package com.timvisee.voxeltex.assetc;
+
+import com.timvisee.voxeltex.module.texture.Image;
+import com.timvisee.voxeltex.module.texture.MipmapGenerator;
+import com.timvisee.voxeltex.module.texture.baked.BakedImageWriter;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.Collections;
+
+public class ImageBaker implements AssetBaker {
+
+    /**
+     * Image file extensions that are decoded by this baker.
+     */
+    private static final String[] EXTENSIONS = {".png", ".jpg", ".jpeg", ".gif", ".bmp"};
+
+    @Override
+    public boolean accepts(String relativePath) {
+        // Check the extension
+        final String path = relativePath.toLowerCase();
+        //noinspection ForLoopReplaceableByForEach
+        for(int i = 0; i < EXTENSIONS.length; i++)
+            if(path.endsWith(EXTENSIONS[i]))
+                return true;
+        return false;
+    }
+
+    @Override
+    public String getOutputExtension() {
+        return BakedImageWriter.FILE_EXTENSION;
+    }
+
+    @Override
+    public void bake(Path source, Path output) throws IOException {
+        // Decode the image
+        final Image image = decode(source);
+
+        // Generate gamma correct mipmaps with the sharper Kaiser filter since we're offline, and write the baked image
+        image.generateMipmaps(MipmapGenerator.Filter.KAISER, true);
+        BakedImageWriter.write(image.getImage(), image.getWidth(), image.getHeight(), image.getMipmaps(), output);
+        image.dispose();
+    }
+
+    /**
+     * Decode an image file into an RGBA image, top row first like images loaded at runtime.
+     *
+     * @param source Image file.
+     *
+     * @return RGBA image, without mipmaps.
+     *
+     * @throws IOException Thrown if the image couldn't be read, or if it's format isn't supported.
+     */
+    static Image decode(Path source) throws IOException {
+        // Decode the image
+        final BufferedImage image = ImageIO.read(source.toFile());
+        if(image == null)
+            throw new IOException("Unsupported image format: " + source);
+
+        // Convert the image to RGBA pixel data
+        final int width = image.getWidth();
+        final int height = image.getHeight();
+        final int[] argb = image.getRGB(0, 0, width, height, null, 0, width);
+        final ByteBuffer rgba = ByteBuffer.allocateDirect(width * height * 4);
+        //noinspection ForLoopReplaceableByForEach
+        for(int i = 0; i < argb.length; i++) {
+            final int pixel = argb[i];
+            rgba.put((byte) (pixel >> 16)).put((byte) (pixel >> 8)).put((byte) pixel).put((byte) (pixel >> 24));
+        }
+        rgba.flip();
+
+        // Create the image
+        return new Image(rgba, width, height, Image.COMPONENTS_RGBA, Collections.<ByteBuffer>emptyList());
+    }
+}
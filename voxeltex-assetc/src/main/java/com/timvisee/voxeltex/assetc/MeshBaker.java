@@ -0,0 +1,85 @@
+/******************************************************************************
+ * Copyright (c) Tim Visee 2016. All rights reserved.                         *
+ *                                                                            *
+ * @author Tim Visee                                                          *
+ * @website http://timvisee.com/                                              *
+ *                                                                            *
+ * Open Source != No Copyright                                                *
+ *                                                                            *
+ * Permission is hereby granted, free of charge, to any person obtaining a    *
+ * copy of this software and associated documentation files (the "Software"), *
+ * to deal in the Software without restriction, including without limitation  *
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,   *
+ * and/or sell copies of the Software, and to permit persons to whom the      *
+ * Software is furnished to do so, subject to the following conditions:       *
+ *                                                                            *
+ * The above copyright notice and this permission notice shall be included    *
+ * in all copies or substantial portions of the Software.                     *
+ *                                                                            *
+ * You should have received a copy of The MIT License (MIT) along with this   *
+ * program. If not, see <http://opensource.org/licenses/MIT/>.                *
+ ******************************************************************************/
+
+package com.timvisee.voxeltex.assetc;
+
+import com.timvisee.voxeltex.module.mesh.MeshOptimizer;
+import com.timvisee.voxeltex.module.mesh.RawMesh;
+import com.timvisee.voxeltex.module.mesh.baked.BakedMesh;
+import com.timvisee.voxeltex.module.mesh.baked.BakedMeshWriter;
+import com.timvisee.voxeltex.module.model.ObjMesh;
+import com.timvisee.voxeltex.module.model.loader.ObjMeshLoader;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+public class MeshBaker implements AssetBaker {
+
+    /**
+     * Log the optimization results are written to.
+     */
+    private Consumer<String> log = System.out::println;
+
+    @Override
+    public boolean accepts(String relativePath) {
+        return relativePath.toLowerCase().endsWith(".obj");
+    }
+
+    @Override
+    public String getOutputExtension() {
+        return BakedMesh.FILE_EXTENSION;
+    }
+
+    @Override
+    public void bake(Path source, Path output) throws IOException {
+        // Load the model
+        final ObjMesh mesh = ObjMeshLoader.loadMesh(source);
+
+        // Optimize the mesh if it's a single group, reordering the triangles would break the ranges of multiple groups
+        if(mesh.getGroups().size() <= 1) {
+            // Optimize the mesh, and let the group span all optimized triangles
+            final RawMesh raw = mesh.getRawMesh();
+            final RawMesh optimized = MeshOptimizer.optimize(raw);
+            final List<BakedMesh.SubMesh> subMeshes = new ArrayList<>();
+            for(ObjMesh.Group group : mesh.getGroups())
+                subMeshes.add(new BakedMesh.SubMesh(group.getMaterialName(), 0, optimized.getIndexCount()));
+
+            // Write the mesh, and report the result of the optimization
+            BakedMeshWriter.write(optimized, subMeshes, output);
+            this.log.accept(String.format("Optimized %s: %d -> %d vertexes, ACMR %.2f -> %.2f",
+                    source.getFileName(), raw.getVertexCount(), optimized.getVertexCount(),
+                    MeshOptimizer.computeAcmr(raw), MeshOptimizer.computeAcmr(optimized)));
+            return;
+        }
+
+        // Write the mesh with it's groups as sub meshes
+        BakedMeshWriter.write(mesh.getRawMesh(), BakedMeshWriter.subMeshesOf(mesh), output);
+    }
+
+    @Override
+    public void setLog(Consumer<String> log) {
+        this.log = log;
+    }
+}